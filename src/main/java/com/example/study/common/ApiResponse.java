@@ -51,6 +51,20 @@ public class ApiResponse<T> {
                 .build());
     }
 
+    public static <T> ResponseEntity<ApiResponse<T>> tooManyRequests(String code, String errorMessage) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(ApiResponse.<T>builder()
+                .result(false)
+                .error(Error.of(code, errorMessage))
+                .build());
+    }
+
+    public static <T> ResponseEntity<ApiResponse<T>> gatewayTimeout(String code, String errorMessage) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(ApiResponse.<T>builder()
+                .result(false)
+                .error(Error.of(code, errorMessage))
+                .build());
+    }
+
     public static <T> ResponseEntity<ApiResponse<T>> serverError(String code, String errorMessage) {
         return ResponseEntity.status(500).body(ApiResponse.<T>builder()
                 .result(false)
@@ -0,0 +1,45 @@
+package com.example.study.common;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 커서 기반 페이지 응답.
+ * totalCount 는 CountMode 에 따라 null(미계산)이거나, totalCountCapped=true 인 경우 "이 값 이상"을 의미한다.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CursorPage<T> {
+    List<T> content;
+    int size;
+    boolean hasNext;
+    String nextCursor;
+    Long totalCount;
+    boolean totalCountCapped;
+
+    /**
+     * size + 1 건을 조회한 결과에서 다음 페이지 여부를 판단하고 content 를 size 건으로 자른다.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorExtractor,
+                                       Long totalCount, boolean totalCountCapped) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext && !content.isEmpty()
+                ? cursorExtractor.apply(content.get(content.size() - 1))
+                : null;
+        return new CursorPage<>(List.copyOf(content), size, hasNext, nextCursor, totalCount, totalCountCapped);
+    }
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(content.stream().map(mapper).toList(), size, hasNext, nextCursor,
+                totalCount, totalCountCapped);
+    }
+}
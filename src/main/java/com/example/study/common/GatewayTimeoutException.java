@@ -0,0 +1,11 @@
+package com.example.study.common;
+
+/**
+ * 외부 모델 호출 등이 제한 시간 안에 끝나지 않았을 때 사용한다. GlobalExceptionHandler 가 504 로 응답한다.
+ */
+public class GatewayTimeoutException extends ServiceException {
+
+    public GatewayTimeoutException(ServiceExceptionCode exceptionCode) {
+        super(exceptionCode);
+    }
+}
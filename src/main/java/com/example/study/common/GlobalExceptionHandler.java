@@ -21,6 +21,16 @@ public class GlobalExceptionHandler {
         return ApiResponse.error(ex.getCode(), ex.getMessage());
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequests(TooManyRequestsException ex) {
+        return ApiResponse.tooManyRequests(ex.getCode(), ex.getMessage());
+    }
+
+    @ExceptionHandler(GatewayTimeoutException.class)
+    public ResponseEntity<?> handleGatewayTimeout(GatewayTimeoutException ex) {
+        return ApiResponse.gatewayTimeout(ex.getCode(), ex.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<?> methodArgumentNotValidException(MethodArgumentNotValidException ex) {
         List<String> errors = extractErrors(ex.getBindingResult());
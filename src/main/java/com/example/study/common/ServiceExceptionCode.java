@@ -21,7 +21,12 @@ public enum ServiceExceptionCode {
     INVALID_PRODUCT_PRICE("상품 가격이 올바르지 않습니다"),
     OUT_OF_STOCK_PRODUCT("재고가 없습니다."),
     NOT_FOUND_PURCHASE("구매 내역을 찾을 수 없습니다"),
-    REFUND_NOT_ALLOWED("환불을 진행할 수 없는 상태입니다");
+    REFUND_NOT_ALLOWED("환불을 진행할 수 없는 상태입니다"),
+    AI_CAPACITY_EXCEEDED("AI 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요"),
+    AI_BACKEND_OVERLOADED("AI 모델 서버가 혼잡합니다. 잠시 후 다시 시도해주세요"),
+    AI_TIMEOUT("AI 응답이 제한 시간 안에 오지 않았습니다. 잠시 후 다시 시도해주세요"),
+    NOT_FOUND_BENCHMARK_JOB("벤치마크 작업을 찾을 수 없습니다"),
+    IMAGE_CAPACITY_EXCEEDED("이미지 처리 요청이 많아 처리할 수 없습니다. 잠시 후 다시 시도해주세요");
 
     final String message;
 }
@@ -0,0 +1,11 @@
+package com.example.study.common;
+
+/**
+ * 처리 용량을 넘어 요청을 바로 거절할 때 사용한다. GlobalExceptionHandler 가 429 로 응답한다.
+ */
+public class TooManyRequestsException extends ServiceException {
+
+    public TooManyRequestsException(ServiceExceptionCode exceptionCode) {
+        super(exceptionCode);
+    }
+}
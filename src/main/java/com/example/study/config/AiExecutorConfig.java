@@ -0,0 +1,39 @@
+package com.example.study.config;
+
+import com.example.study.service.ai.AiExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * AI 호출 전용 실행기 설정. (ai.executor.*)
+ * endpoint-limits 에 없는 endpoint 는 default-endpoint-limit 을, endpoint-timeouts 에 없는 endpoint 는 default-timeout 을 쓴다.
+ */
+@Slf4j
+@Configuration
+@ConfigurationProperties(prefix = "ai.executor")
+@Setter
+public class AiExecutorConfig {
+
+    private int threads = 32;
+    private int queueCapacity = 100;
+    private int defaultEndpointLimit = 8;
+    private Map<String, Integer> endpointLimits = new HashMap<>();
+    private Duration defaultTimeout = Duration.ofSeconds(60);
+    private Map<String, Duration> endpointTimeouts = new HashMap<>();
+
+    @Bean(destroyMethod = "shutdown")
+    public AiExecutor aiExecutor(MeterRegistry meterRegistry) {
+        log.info("=== AiExecutor 생성: threads={}, queue={}, endpoint limit={} {}, timeout={} {} ===",
+                threads, queueCapacity, defaultEndpointLimit, endpointLimits, defaultTimeout, endpointTimeouts);
+        return new AiExecutor(meterRegistry, threads, queueCapacity, defaultEndpointLimit, endpointLimits,
+                defaultTimeout, endpointTimeouts);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.study.config;
+
+import com.example.study.service.ai.AdaptiveConcurrencyLimiter;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.ai.chat.client.ChatClientCustomizer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 모델 백엔드별 adaptive concurrency limiter 설정. (ai.limiter.*)
+ * <p>
+ * Ollama 와 Claude 는 서로 다른 limiter(bulkhead)를 써서 한쪽이 느려져도 다른 쪽 호출은 영향을 받지 않는다.
+ * 자동 구성된 ChatClient.Builder 는 @Primary 인 ollamaChatModel 을 쓰므로 Ollama limiter 를 붙인다.
+ * <p>
+ * Ollama 기본 한도는 서버의 기본 병렬 슬롯 수(OLLAMA_NUM_PARALLEL=4)에 맞춘다. 한도가 2 이면 BULK 몫이 1 이라
+ * 구간 리뷰나 영수증 일괄 추출처럼 BULK 로 나눠 보내는 호출이 한 번에 하나씩만 실행된다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ai.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+@ConfigurationProperties(prefix = "ai.limiter")
+@Setter
+public class AiLimiterConfig {
+
+    public static final String OLLAMA = "ollama";
+    public static final String CLAUDE = "claude";
+
+    private double bulkShare = 0.5;
+    private Duration bulkMaxWait = Duration.ofSeconds(30);
+    private double latencyTolerance = 2.0;
+    private double backoffRatio = 0.9;
+    private Backend ollama = new Backend(4, 2, 8);
+    private Backend claude = new Backend(8, 2, 64);
+
+    @Getter
+    @Setter
+    public static class Backend {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Backend() {
+        }
+
+        Backend(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+
+    @Bean
+    public ConcurrencyLimitAdvisor ollamaLimitAdvisor(MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitAdvisor(OLLAMA, limiter(OLLAMA, ollama, meterRegistry), bulkMaxWait);
+    }
+
+    @Bean
+    public ConcurrencyLimitAdvisor claudeLimitAdvisor(MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitAdvisor(CLAUDE, limiter(CLAUDE, claude, meterRegistry), bulkMaxWait);
+    }
+
+    @Bean
+    public ChatClientCustomizer ollamaLimitChatClientCustomizer(
+            @Qualifier("ollamaLimitAdvisor") ConcurrencyLimitAdvisor ollamaLimitAdvisor) {
+        return builder -> builder.defaultAdvisors(ollamaLimitAdvisor);
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(String backend, Backend settings, MeterRegistry meterRegistry) {
+        return new AdaptiveConcurrencyLimiter(backend, meterRegistry,
+                settings.getInitialLimit(), settings.getMinLimit(), settings.getMaxLimit(),
+                bulkShare, latencyTolerance, backoffRatio);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.study.config;
+
+import com.example.study.service.ai.ResponseCache;
+import com.example.study.service.ai.ResponseCacheAdvisor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientCustomizer;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 모델 응답 캐시 설정.
+ * <p>
+ * OllamaConfig/ChatConfig 가 직접 만드는 ChatClient 에는 advisor 를 명시적으로 붙이고,
+ * 자동 구성된 ChatClient.Builder 를 쓰는 서비스(ChatService, TranslationService, AiPromptService 등)에는
+ * ChatClientCustomizer 로 붙인다.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "ai.response-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AiResponseCacheConfig {
+
+    @Bean
+    public ResponseCache responseCache(MeterRegistry meterRegistry,
+                                       ObjectProvider<EmbeddingModel> embeddingModels,
+                                       @Value("${ai.response-cache.max-total-chars:20000000}") long maxTotalChars,
+                                       @Value("${ai.response-cache.ttl-minutes:60}") long ttlMinutes,
+                                       @Value("${ai.response-cache.semantic.enabled:false}") boolean semanticEnabled,
+                                       @Value("${ai.response-cache.semantic.max-entries:1000}") int semanticMaxEntries,
+                                       @Value("${ai.response-cache.semantic.threshold:0.95}") double semanticThreshold) {
+        EmbeddingModel embeddingModel = semanticEnabled ? embeddingModels.getIfUnique() : null;
+        if (semanticEnabled && embeddingModel == null) {
+            log.warn("[response-cache] semantic tier enabled but no unique EmbeddingModel bean, exact tier only");
+        }
+        return new ResponseCache(meterRegistry, embeddingModel, maxTotalChars, Duration.ofMinutes(ttlMinutes),
+                semanticMaxEntries, semanticThreshold);
+    }
+
+    @Bean
+    public ResponseCacheAdvisor responseCacheAdvisor(ResponseCache responseCache) {
+        return new ResponseCacheAdvisor(responseCache);
+    }
+
+    @Bean
+    public ChatClientCustomizer responseCacheChatClientCustomizer(ResponseCacheAdvisor responseCacheAdvisor) {
+        return builder -> builder.defaultAdvisors(responseCacheAdvisor);
+    }
+}
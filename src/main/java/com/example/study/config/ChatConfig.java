@@ -1,5 +1,7 @@
 package com.example.study.config;
 
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.ai.ResponseCacheAdvisor;
 import jakarta.annotation.PostConstruct;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
@@ -7,6 +9,7 @@ import org.springframework.ai.anthropic.AnthropicChatModel;
 import org.springframework.ai.anthropic.AnthropicChatOptions;
 import org.springframework.ai.anthropic.api.AnthropicApi;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -61,13 +64,17 @@ public class ChatConfig {
 //
     @Bean(name = "anthropicChatClient")
     public ChatClient anthropicChatClient(
-            @Qualifier("claudeChatModel") AnthropicChatModel chatModel) {
-        return ChatClient.builder(chatModel)  // 특정 모델 지정
+            @Qualifier("claudeChatModel") AnthropicChatModel chatModel,
+            ObjectProvider<ResponseCacheAdvisor> responseCacheAdvisor,
+            @Qualifier("claudeLimitAdvisor") ObjectProvider<ConcurrencyLimitAdvisor> limitAdvisor) {
+        ChatClient.Builder builder = ChatClient.builder(chatModel)  // 특정 모델 지정
                 .defaultSystem("""
                 당신은 친절하고 도움이 되는 AI 어시스턴트입니다.
                 사용자의 질문에 정확하고 이해하기 쉽게 답변해주세요.
-                """)
-                .build();
+                """);
+        responseCacheAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        limitAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        return builder.build();
     }
 
 }
\ No newline at end of file
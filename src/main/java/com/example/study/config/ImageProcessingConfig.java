@@ -0,0 +1,34 @@
+package com.example.study.config;
+
+import com.example.study.service.image.ImageProcessingExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 이미지 처리 실행기 설정. (image.processing.*)
+ * threads 가 0 이면 코어 수를 쓴다.
+ */
+@Slf4j
+@Configuration
+@ConfigurationProperties(prefix = "image.processing")
+@Setter
+public class ImageProcessingConfig {
+
+    private int threads = 0;
+    private int queueCapacity = 32;
+    private long memoryBudgetMb = 256;
+    private long admissionTimeoutMs = 10_000;
+
+    @Bean(destroyMethod = "shutdown")
+    public ImageProcessingExecutor imageProcessingExecutor(MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        log.info("=== ImageProcessingExecutor 생성: threads={}, queue={}, memory budget={}MB ===",
+                poolSize, queueCapacity, memoryBudgetMb);
+        return new ImageProcessingExecutor(meterRegistry, poolSize, queueCapacity,
+                memoryBudgetMb * 1024 * 1024, admissionTimeoutMs);
+    }
+}
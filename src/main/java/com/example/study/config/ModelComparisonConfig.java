@@ -0,0 +1,72 @@
+package com.example.study.config;
+
+import com.example.study.service.ModelComparisonService;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.conversation.TokenEstimator;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 모델 비교/벤치마크 대상 설정. (ai.comparison.*)
+ * <p>
+ * backend 는 ollama 또는 claude 이고, 같은 backend 의 대상들은 그 backend 의 limiter 를 함께 쓴다.
+ * 응답 캐시와 기본 system 프롬프트 없이 모델을 그대로 호출해야 비교가 공정하므로 ChatModel 에서 직접 ChatClient 를 만든다.
+ */
+@Slf4j
+@Configuration
+@ConfigurationProperties(prefix = "ai.comparison")
+@Setter
+public class ModelComparisonConfig {
+
+    private long timeoutSeconds = 120;
+    private List<TargetProperties> targets = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class TargetProperties {
+        private String name;
+        private String backend;
+        private String model;
+    }
+
+    @Bean
+    public ModelComparisonService modelComparisonService(
+            @Qualifier("ollamaChatModel") ChatModel ollamaChatModel,
+            @Qualifier("claudeChatModel") ChatModel claudeChatModel,
+            @Qualifier("ollamaLimitAdvisor") ObjectProvider<ConcurrencyLimitAdvisor> ollamaLimitAdvisor,
+            @Qualifier("claudeLimitAdvisor") ObjectProvider<ConcurrencyLimitAdvisor> claudeLimitAdvisor,
+            TokenEstimator tokenEstimator) {
+        ChatClient ollama = comparisonClient(ollamaChatModel, ollamaLimitAdvisor);
+        ChatClient claude = comparisonClient(claudeChatModel, claudeLimitAdvisor);
+
+        List<ModelComparisonService.Target> comparisonTargets = targets.stream()
+                .map(target -> new ModelComparisonService.Target(target.getName(), target.getModel(),
+                        switch (target.getBackend()) {
+                            case AiLimiterConfig.OLLAMA -> ollama;
+                            case AiLimiterConfig.CLAUDE -> claude;
+                            default -> throw new IllegalStateException(
+                                    "ai.comparison.targets: unknown backend " + target.getBackend());
+                        }))
+                .toList();
+        log.info("=== 모델 비교 대상: {} ===", comparisonTargets.stream().map(ModelComparisonService.Target::name).toList());
+        return new ModelComparisonService(comparisonTargets, tokenEstimator, Duration.ofSeconds(timeoutSeconds));
+    }
+
+    private static ChatClient comparisonClient(ChatModel chatModel, ObjectProvider<ConcurrencyLimitAdvisor> limitAdvisor) {
+        ChatClient.Builder builder = ChatClient.builder(chatModel);
+        limitAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        return builder.build();
+    }
+}
@@ -1,11 +1,14 @@
 package com.example.study.config;
 
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.ai.ResponseCacheAdvisor;
 import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.ollama.OllamaChatModel;
 import org.springframework.ai.ollama.api.OllamaApi;
 import org.springframework.ai.ollama.api.OllamaChatOptions;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -90,9 +93,11 @@ public class OllamaConfig {
     @Primary  // 기본 ChatClient로 사용
     @Bean(name = "ollamaChatClient")
     public ChatClient ollamaChatClient(
-            @Qualifier("ollamaChatModel") OllamaChatModel chatModel) {
+            @Qualifier("ollamaChatModel") OllamaChatModel chatModel,
+            ObjectProvider<ResponseCacheAdvisor> responseCacheAdvisor,
+            @Qualifier("ollamaLimitAdvisor") ObjectProvider<ConcurrencyLimitAdvisor> limitAdvisor) {
 
-        return ChatClient.builder(chatModel)  // 특정 모델 지정
+        ChatClient.Builder builder = ChatClient.builder(chatModel)  // 특정 모델 지정
                 .defaultSystem("""
                         당신은 친절하고 전문적인 AI 어시스턴트입니다.
                         
@@ -104,7 +109,11 @@ public class OllamaConfig {
                         5. 사용자의 질문 의도를 정확히 파악하여 답변합니다
                         
                         한국어로 답변하며, 존댓말을 사용합니다.
-                        """)
-                .build();
+                        """);
+        // 같은 프롬프트의 반복 호출은 응답 캐시에서 처리 (ai.response-cache.enabled)
+        responseCacheAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        // Ollama 전용 동시 실행 한도 (ai.limiter.ollama)
+        limitAdvisor.ifAvailable(advisor -> builder.defaultAdvisors(advisor));
+        return builder.build();
     }
 }
\ No newline at end of file
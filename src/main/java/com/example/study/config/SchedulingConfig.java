@@ -0,0 +1,15 @@
+package com.example.study.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * scheduling.enabled=true 일 때만 @Scheduled 배치(rollup 보정 등)를 실행한다.
+ * 테스트/로컬에서는 꺼 두어 배치가 테스트 데이터에 끼어들지 않게 한다.
+ */
+@Configuration
+@EnableScheduling
+@ConditionalOnProperty(prefix = "scheduling", name = "enabled", havingValue = "true")
+public class SchedulingConfig {
+}
@@ -0,0 +1,118 @@
+package com.example.study.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 상품/카테고리 카탈로그용 Hibernate 2차 캐시(L2) + 쿼리 캐시 설정.
+ * <p>
+ * 저장소는 JCache(JSR-107) 구현체인 Caffeine 이고, region 마다 최대 건수와 TTL 을 둔다.
+ * 엔티티는 READ_WRITE 전략이라 ProductService 의 create/update/delete 가 커밋되면
+ * 해당 엔트리가 캐시에 바로 반영(write-through)되고, 쿼리 캐시는 테이블 갱신 타임스탬프로 무효화된다.
+ * <p>
+ * 적중률은 {@code catalog.cache.hit.ratio} 게이지(region 태그), 상세 hit/miss 는
+ * hibernate-micrometer 가 내보내는 {@code hibernate.second.level.cache.requests} 로 확인한다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "catalog-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    public static final String PRODUCT_REGION = "product";
+    public static final String CATEGORY_REGION = "category";
+    public static final String CATEGORY_CHILDREN_REGION = "category.children";
+    public static final String PRODUCT_SUMMARY_QUERY_REGION = "query.product-summary";
+    public static final String CATEGORY_QUERY_REGION = "query.category";
+
+    private static final List<String> CATALOG_REGIONS = List.of(
+            PRODUCT_REGION,
+            CATEGORY_REGION,
+            CATEGORY_CHILDREN_REGION,
+            PRODUCT_SUMMARY_QUERY_REGION,
+            CATEGORY_QUERY_REGION
+    );
+
+    @Bean
+    public CacheManager catalogCacheManager(@Value("${catalog-cache.max-entries:10000}") long maxEntries,
+                                            @Value("${catalog-cache.ttl-seconds:600}") long ttlSeconds) {
+        // 다른 CachingProvider 가 클래스패스에 있어도 Caffeine 을 쓰도록 구현체를 명시하고,
+        // 애플리케이션 컨텍스트마다 별도의 CacheManager 를 쓰도록 고유 URI 를 준다. (테스트 컨텍스트 간 캐시 공유 방지)
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("catalog-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+
+        for (String region : CATALOG_REGIONS) {
+            cacheManager.createCache(region, boundedRegion(maxEntries, ttlSeconds));
+        }
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                boundedRegion(maxEntries, ttlSeconds));
+        // 갱신 타임스탬프가 쿼리 결과보다 먼저 사라지면 오래된 결과가 최신으로 보일 수 있어 만료시키지 않는다.
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager catalogCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, catalogCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    @Bean
+    public MeterBinder catalogCacheHitRatioMetrics(EntityManagerFactory entityManagerFactory) {
+        return registry -> {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            for (String region : CATALOG_REGIONS) {
+                Gauge.builder("catalog.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .description("Hibernate second-level cache hit ratio per catalog region")
+                        .tag("region", region)
+                        .register(registry);
+            }
+        };
+    }
+
+    private static CaffeineConfiguration<Object, Object> boundedRegion(long maxEntries, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long hits = regionStatistics.getHitCount();
+        long requests = hits + regionStatistics.getMissCount();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -2,14 +2,27 @@ package com.example.study.controller;
 
 import com.example.study.controller.dto.ChatRequest;
 import com.example.study.controller.dto.ChatResponse;
+import com.example.study.controller.dto.ModelBenchmarkRequest;
 import com.example.study.service.ChatService;
+import com.example.study.service.ModelBenchmarkJobService;
+import com.example.study.service.ModelComparisonService;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.dto.ModelBenchmarkJob;
+import com.example.study.service.dto.ModelComparisonResult;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.net.URI;
 
 @Tag(name = "AI Chat", description = "AI 챗봇 API")
 @RestController
@@ -18,18 +31,42 @@ import org.springframework.web.bind.annotation.RestController;
 public class AiChatController {
 
     private final ChatService chatService;
+    private final ModelComparisonService modelComparisonService;
+    private final ModelBenchmarkJobService modelBenchmarkJobService;
+    private final AiExecutor aiExecutor;
 
     @Operation(summary = "기본 채팅", description = "AI와 기본 대화를 수행합니다")
     @PostMapping("/chat")
-    public ChatResponse chat(@RequestBody ChatRequest request) {
-        String response = chatService.chat(request.message());
-        return new ChatResponse(response);
+    public DeferredResult<ChatResponse> chat(@RequestBody ChatRequest request) {
+        return aiExecutor.defer("ai-chat", () -> new ChatResponse(chatService.chat(request.message())));
     }
 
     @Operation(summary = "컨텍스트 기반 채팅", description = "System Message를 활용한 대화")
     @PostMapping("/chat/context")
-    public ChatResponse chatWithContext(@RequestBody ChatRequest request) {
-        String response = chatService.chatWithContext(request.message());
-        return new ChatResponse(response);
+    public DeferredResult<ChatResponse> chatWithContext(@RequestBody ChatRequest request) {
+        return aiExecutor.defer("ai-chat-context",
+                () -> new ChatResponse(chatService.chatWithContext(request.message())));
+    }
+
+    @Operation(summary = "모델 비교", description = "설정된 모델들에 같은 질문을 동시에 보내 응답 시간, 첫 토큰 시간, 생성 속도를 비교합니다")
+    @PostMapping("/compare")
+    public DeferredResult<ModelComparisonResult> compareModels(@RequestBody ChatRequest request) {
+        return aiExecutor.defer("ai-compare", () -> modelComparisonService.compareModels(request.message()));
+    }
+
+    @Operation(summary = "모델 벤치마크 시작",
+            description = "프롬프트 묶음을 반복 실행해 모델별 지연 백분위와 생성 속도를 집계하는 작업을 백그라운드로 시작하고 작업 id 를 반환합니다")
+    @PostMapping("/benchmark")
+    public ResponseEntity<ModelBenchmarkJob> benchmark(@Valid @RequestBody ModelBenchmarkRequest request) {
+        ModelBenchmarkJob job = modelBenchmarkJobService.submit(request.prompts(), request.repetitions());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/ai/benchmark/" + job.jobId()))
+                .body(job);
+    }
+
+    @Operation(summary = "모델 벤치마크 결과 조회", description = "벤치마크 작업의 상태를 조회합니다. 완료되면 report 에 결과가 담깁니다")
+    @GetMapping("/benchmark/{jobId}")
+    public ModelBenchmarkJob getBenchmark(@PathVariable String jobId) {
+        return modelBenchmarkJobService.getJob(jobId);
     }
-}
\ No newline at end of file
+}
@@ -3,14 +3,15 @@ package com.example.study.controller;
 import com.example.study.controller.dto.ChatRequestV2;
 import com.example.study.controller.dto.ChatResponseV2;
 import com.example.study.service.IChatService;
+import com.example.study.service.ai.AiExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 import reactor.core.publisher.Flux;
 
-import javax.naming.LimitExceededException;
 import java.util.List;
 import java.util.Map;
 
@@ -21,16 +22,16 @@ import java.util.Map;
 public class ChatController {
 
     private final IChatService chatService;
+    private final AiExecutor aiExecutor;
 
     /**
      * 기본 채팅 (히스토리 없음)
      * POST /api/chat/simple
      */
     @PostMapping("/simple")
-    public ResponseEntity<ChatResponseV2> simpleChat(@RequestBody Map<String, String> request) {
+    public DeferredResult<ResponseEntity<ChatResponseV2>> simpleChat(@RequestBody Map<String, String> request) {
         String message = request.get("message");
-        ChatResponseV2 response = chatService.chat(message);
-        return ResponseEntity.ok(response);
+        return aiExecutor.defer("chat-simple", () -> ResponseEntity.ok(chatService.chat(message)));
     }
 
     /**
@@ -38,12 +39,11 @@ public class ChatController {
      * POST /api/chat
      */
     @PostMapping
-    public ResponseEntity<ChatResponseV2> chat(@RequestBody ChatRequestV2 request) throws LimitExceededException {
-        ChatResponseV2 response = chatService.chatWithHistory(
+    public DeferredResult<ResponseEntity<ChatResponseV2>> chat(@RequestBody ChatRequestV2 request) {
+        return aiExecutor.defer("chat-history", () -> ResponseEntity.ok(chatService.chatWithHistory(
                 request.message(),
                 request.conversationId()
-        );
-        return ResponseEntity.ok(response);
+        )));
     }
 
     /**
@@ -4,15 +4,23 @@ import com.example.study.controller.dto.CodeReviewRequest;
 import com.example.study.controller.dto.CodeReviewResponse;
 import com.example.study.controller.dto.ReviewComparison;
 import com.example.study.service.CodeReviewService;
+import com.example.study.service.ai.AiExecutor;
 import com.example.study.service.dto.CodeReview;
+import com.example.study.service.review.ReviewCacheStats;
+import com.example.study.service.review.ReviewHistoryStats;
+import com.example.study.service.review.ReviewStreamEvent;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -25,21 +33,37 @@ import java.util.Map;
 public class CodeReviewController {
 
     private final CodeReviewService codeReviewService;
+    private final AiExecutor aiExecutor;
 
     @Operation(
             summary = "코드 리뷰 분석",
             description = "제공된 코드를 분석하고 개선 사항을 제안합니다"
     )
     @PostMapping("/analyze")
-    public ResponseEntity<CodeReviewResponse> analyzeCode(
+    public DeferredResult<ResponseEntity<CodeReviewResponse>> analyzeCode(
             @Valid @RequestBody CodeReviewRequest request
     ) {
         log.info("=== 코드 리뷰 요청 ===");
         log.info("언어: {}, 레벨: {}", request.language(), request.reviewLevel());
 
-        CodeReviewResponse response = codeReviewService.reviewCode(CodeReview.from(request));
+        return aiExecutor.defer("code-review-analyze",
+                () -> ResponseEntity.ok(codeReviewService.reviewCode(CodeReview.from(request))));
+    }
+
+    @Operation(
+            summary = "스트리밍 코드 리뷰",
+            description = "발견한 이슈를 완성되는 즉시 SSE(issue 이벤트)로 보내고, 마지막에 점수와 요약(completed 이벤트)을 보냅니다. 응답이 중간에 끊기면 partial 이벤트로 끝나고 히스토리에 저장되지 않습니다"
+    )
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> analyzeCodeStream(
+            @Valid @RequestBody CodeReviewRequest request
+    ) {
+        log.info("=== 스트리밍 코드 리뷰 요청 ===");
+        log.info("언어: {}, 레벨: {}", request.language(), request.reviewLevel());
 
-        return ResponseEntity.ok(response);
+        return codeReviewService.reviewCodeStream(CodeReview.from(request))
+                .onErrorResume(e -> Flux.just(ReviewStreamEvent.error(e.getMessage())))
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.event()).build());
     }
 
     @Operation(
@@ -102,7 +126,7 @@ public class CodeReviewController {
             description = "기본 레벨로 빠른 리뷰를 수행합니다"
     )
     @PostMapping("/quick")
-    public ResponseEntity<CodeReviewResponse> quickReview(
+    public DeferredResult<ResponseEntity<CodeReviewResponse>> quickReview(
             @Parameter(description = "언어")
             @RequestParam String language,
 
@@ -110,8 +134,8 @@ public class CodeReviewController {
             @RequestBody String code
     ) {
         CodeReviewRequest request = new CodeReviewRequest(code, language, "basic");
-        CodeReviewResponse response = codeReviewService.reviewCode(CodeReview.from(request));
-        return ResponseEntity.ok(response);
+        return aiExecutor.defer("code-review-quick",
+                () -> ResponseEntity.ok(codeReviewService.reviewCode(CodeReview.from(request))));
     }
 
     @Operation(
@@ -120,26 +144,20 @@ public class CodeReviewController {
     )
     @GetMapping("/stats")
     public ResponseEntity<Map<String, Object>> getStats() {
-        int totalReviews = codeReviewService.getReviewCount();
-        List<CodeReviewResponse> allReviews = codeReviewService.getReviewHistory(null);
-
-        // 언어별 통계
-        Map<String, Long> languageStats = allReviews.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        CodeReviewResponse::language,
-                        java.util.stream.Collectors.counting()
-                ));
-
-        // 평균 점수
-        double avgScore = allReviews.stream()
-                .mapToInt(CodeReviewResponse::score)
-                .average()
-                .orElse(0.0);
+        ReviewHistoryStats reviewStats = codeReviewService.getReviewStats();
+        ReviewCacheStats cacheStats = codeReviewService.getCacheStats();
 
         Map<String, Object> stats = Map.of(
-                "totalReviews", totalReviews,
-                "languageDistribution", languageStats,
-                "averageScore", Math.round(avgScore * 100.0) / 100.0
+                "totalReviews", reviewStats.totalReviews(),
+                "languageDistribution", reviewStats.languageDistribution(),
+                "averageScore", Math.round(reviewStats.averageScore() * 100.0) / 100.0,
+                "cache", Map.of(
+                        "hits", cacheStats.hits(),
+                        "misses", cacheStats.misses(),
+                        "coalesced", cacheStats.coalesced(),
+                        "hitRatio", Math.round(cacheStats.hitRatio() * 10000.0) / 10000.0,
+                        "size", cacheStats.size()
+                )
         );
 
         return ResponseEntity.ok(stats);
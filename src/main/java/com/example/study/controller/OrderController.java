@@ -1,6 +1,8 @@
 package com.example.study.controller;
 
 import com.example.study.common.ApiResponse;
+import com.example.study.controller.dto.OrderBatchCreateRequest;
+import com.example.study.controller.dto.OrderBatchResponse;
 import com.example.study.controller.dto.OrderCreateRequest;
 import com.example.study.controller.dto.OrderResponse;
 import com.example.study.service.OrderService;
@@ -13,6 +15,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/orders")
 @RequiredArgsConstructor
@@ -28,4 +32,13 @@ public class OrderController {
         OrderResultDto result = orderService.createOrder(request.toServiceDto());
         return ApiResponse.created(OrderResponse.from(result));
     }
+
+    // 일괄 주문: 전체가 하나의 트랜잭션으로 처리되어 한 건이라도 실패하면 모두 롤백된다.
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<OrderBatchResponse>> createOrders(
+            @Valid @RequestBody OrderBatchCreateRequest request
+    ) {
+        List<OrderResultDto> results = orderService.createOrders(request.toServiceDtos());
+        return ApiResponse.created(OrderBatchResponse.from(results));
+    }
 }
@@ -2,11 +2,13 @@ package com.example.study.controller;
 
 
 import com.example.study.common.ApiResponse;
+import com.example.study.common.CursorPage;
 import com.example.study.controller.dto.ProductRequestDto;
 import com.example.study.controller.dto.ProductResponseDto;
 import com.example.study.controller.dto.ProductSummaryResponseDto;
 import com.example.study.mapper.ProductMapper;
 import com.example.study.service.ProductService;
+import com.example.study.service.dto.CountMode;
 import com.example.study.service.dto.ProductSearchCondition;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -77,6 +79,27 @@ public class ProductController {
         ));
     }
 
+    // cursor 파라미터가 있으면 keyset 페이징으로 응답한다. 첫 페이지는 cursor= (빈 값), 이후는 응답의 nextCursor 를 전달
+    @GetMapping(value = "/search/page", params = "cursor")
+    public ApiResponse<CursorPage<ProductResponseDto>> searchProductsByCursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Integer minStock,
+            @RequestParam(required = false) Integer maxStock
+    ) {
+        return ApiResponse.success(productService.search(
+                buildSearchCondition(name, minPrice, maxPrice, categoryId, minStock, maxStock),
+                cursor,
+                size,
+                count
+        ));
+    }
+
     @GetMapping("/categories/{categoryId}/summary")
     public ApiResponse<List<ProductSummaryResponseDto>> getCategorySummary(@PathVariable Long categoryId) {
         return ApiResponse.success(productService.getCategorySummaries(categoryId));
@@ -1,16 +1,31 @@
 package com.example.study.controller;
 
+import com.example.study.PurchaseStatus;
 import com.example.study.common.ApiResponse;
+import com.example.study.common.CursorPage;
 import com.example.study.controller.dto.PurchaseRequest;
 import com.example.study.controller.dto.PurchaseResponse;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.PurchaseExportService;
 import com.example.study.service.PurchaseService;
+import com.example.study.service.dto.CountMode;
+import com.example.study.service.dto.ExportFormat;
+import com.example.study.service.dto.PurchaseSearchCondition;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/purchases")
@@ -18,6 +33,7 @@ import org.springframework.web.bind.annotation.RestController;
 public class PurchaseController {
 
     private final PurchaseService purchaseService;
+    private final PurchaseExportService purchaseExportService;
 
     // [실습] 주문 생성 요청을 받아 PurchaseService 트랜잭션을 실행한다.
     @PostMapping
@@ -27,4 +43,53 @@ public class PurchaseController {
         PurchaseResponse response = purchaseService.placePurchase(request);
         return ApiResponse.created(response);
     }
+
+    // 주문 상세 검색 (keyset 커서 페이징). 다음 페이지는 응답의 nextCursor 를 cursor 로 전달한다.
+    @GetMapping("/search")
+    public ApiResponse<CursorPage<PurchaseDetailDto>> searchPurchases(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "NONE") CountMode count,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) PurchaseStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime purchasedAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime purchasedBefore
+    ) {
+        PurchaseSearchCondition condition = buildCondition(userId, productId, status, purchasedAfter, purchasedBefore);
+        return ApiResponse.success(purchaseService.searchPurchaseDetails(condition, cursor, size, count));
+    }
+
+    // 주문 상세 전체 export (NDJSON/CSV). DB 커서에서 읽는 즉시 응답으로 흘려보내므로 건수와 무관하게 메모리가 일정하다.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPurchases(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) PurchaseStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime purchasedAfter,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime purchasedBefore
+    ) {
+        PurchaseSearchCondition condition = buildCondition(userId, productId, status, purchasedAfter, purchasedBefore);
+        // 트랜잭션(=커서)은 응답을 쓰는 비동기 스레드에서 열리고, 마지막 행을 쓴 뒤 닫힌다.
+        StreamingResponseBody body = out -> purchaseExportService.export(condition, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"purchases." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    private PurchaseSearchCondition buildCondition(Long userId,
+                                                   Long productId,
+                                                   PurchaseStatus status,
+                                                   LocalDateTime purchasedAfter,
+                                                   LocalDateTime purchasedBefore) {
+        return PurchaseSearchCondition.builder()
+                .userId(userId)
+                .productId(productId)
+                .status(status)
+                .purchasedAfter(purchasedAfter)
+                .purchasedBefore(purchasedBefore)
+                .build();
+    }
 }
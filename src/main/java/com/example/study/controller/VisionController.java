@@ -1,46 +1,71 @@
 package com.example.study.controller;
 
 import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.service.ImageOptimizationService;
 import com.example.study.service.ReceiptAnalysisService;
 import com.example.study.service.VisionService;
+import com.example.study.service.ai.AiExecutor;
 import com.example.study.service.dto.ImageAnalysis;
 import com.example.study.service.dto.ReceiptData;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.VisionCacheStats;
+import com.example.study.service.receipt.ReceiptBatchEvent;
+import com.example.study.service.receipt.ReceiptBatchService;
+import com.example.study.service.vision.MultiImageAnalysisResponse;
+import com.example.study.service.vision.MultiImageAnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
 
-import java.io.IOException;
+import java.util.List;
 import java.util.Map;
 
 import static com.example.study.service.VisionService.DEFAULT_CHAT_RESPONSE_CLASS;
 
+/**
+ * 분석 결과 캐시는 X-Caller-Id 헤더의 호출자별로 나눈다. 헤더가 없으면 익명 호출자끼리만 결과를 나눠 쓴다.
+ * 인증이 붙으면 헤더 대신 인증된 사용자 id 를 넘긴다.
+ */
 @RestController
 @RequestMapping("/api/vision")
 @RequiredArgsConstructor
 public class VisionController {
 
+    private static final String CALLER_HEADER = "X-Caller-Id";
+
     private final VisionService visionService;
     private final ReceiptAnalysisService receiptAnalysisService;
+    private final AiExecutor aiExecutor;
+    private final ImageOptimizationService imageOptimizationService;
+    private final ReceiptBatchService receiptBatchService;
+    private final MultiImageAnalysisService multiImageAnalysisService;
 
     /**
      * 이미지 분석 (커스텀 프롬프트)
      * POST /api/vision/analyze
      */
     @PostMapping(value = "/analyze", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ImageAnalysisResponse<ChatResponse>> analyzeImage(
+    public DeferredResult<ResponseEntity<ImageAnalysisResponse<ChatResponse>>> analyzeImage(
             @RequestParam String prompt,
-            @RequestParam MultipartFile image) throws IOException {
-
+            @RequestParam MultipartFile image,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
 
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(visionService.analyzeImage(ImageAnalysis.of(prompt, image), DEFAULT_CHAT_RESPONSE_CLASS));
+        return aiExecutor.defer("vision-analyze", imageOptimizationService.prepareAsync(image)
+                .thenCompose(prepared -> aiExecutor.submit("vision-analyze", () -> ResponseEntity.status(HttpStatus.OK)
+                        .body(visionService.analyzeImage(ImageAnalysis.of(prompt, prepared).forCaller(caller),
+                                DEFAULT_CHAT_RESPONSE_CLASS)))));
     }
 
     /**
@@ -48,11 +73,13 @@ public class VisionController {
      * POST /api/vision/ocr
      */
     @PostMapping(value = "/ocr", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> extractText(
-            @RequestParam("image") MultipartFile image) throws IOException {
+    public DeferredResult<ResponseEntity<Map<String, String>>> extractText(
+            @RequestParam("image") MultipartFile image,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
 
-        String text = visionService.extractText(image);
-        return ResponseEntity.ok(Map.of("text", text));
+        return aiExecutor.defer("vision-ocr", imageOptimizationService.prepareAsync(image)
+                .thenCompose(prepared -> aiExecutor.submit("vision-ocr",
+                        () -> ResponseEntity.ok(Map.of("text", visionService.extractText(prepared, caller))))));
     }
 
     /**
@@ -60,11 +87,13 @@ public class VisionController {
      * POST /api/vision/describe
      */
     @PostMapping(value = "/describe", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> describeImage(
-            @RequestParam("image") MultipartFile image) throws IOException {
+    public DeferredResult<ResponseEntity<Map<String, String>>> describeImage(
+            @RequestParam("image") MultipartFile image,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
 
-        String description = visionService.describeImage(image);
-        return ResponseEntity.ok(Map.of("description", description));
+        return aiExecutor.defer("vision-describe", imageOptimizationService.prepareAsync(image)
+                .thenCompose(prepared -> aiExecutor.submit("vision-describe",
+                        () -> ResponseEntity.ok(Map.of("description", visionService.describeImage(prepared, caller))))));
     }
 
     /**
@@ -72,11 +101,13 @@ public class VisionController {
      * POST /api/vision/chart
      */
     @PostMapping(value = "/chart", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> analyzeChart(
-            @RequestParam("image") MultipartFile image) throws IOException {
+    public DeferredResult<ResponseEntity<Map<String, String>>> analyzeChart(
+            @RequestParam("image") MultipartFile image,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
 
-        String analysis = visionService.analyzeChart(image);
-        return ResponseEntity.ok(Map.of("analysis", analysis));
+        return aiExecutor.defer("vision-chart", imageOptimizationService.prepareAsync(image)
+                .thenCompose(prepared -> aiExecutor.submit("vision-chart",
+                        () -> ResponseEntity.ok(Map.of("analysis", visionService.analyzeChart(prepared, caller))))));
     }
 
     /**
@@ -84,18 +115,65 @@ public class VisionController {
      * POST /api/vision/compare
      */
     @PostMapping(value = "/compare", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<Map<String, String>> compareImages(
+    public DeferredResult<ResponseEntity<Map<String, String>>> compareImages(
             @RequestParam("image1") MultipartFile image1,
             @RequestParam("image2") MultipartFile image2) {
 
-        String comparison = visionService.compareImages(image1, image2);
-        return ResponseEntity.ok(Map.of("comparison", comparison));
+        // 두 이미지는 이미지 실행기에서 동시에 최적화된다
+        return aiExecutor.defer("vision-compare", imageOptimizationService.prepareAsync(image1)
+                .thenCombine(imageOptimizationService.prepareAsync(image2), PreparedPair::new)
+                .thenCompose(pair -> aiExecutor.submit("vision-compare",
+                        () -> ResponseEntity.ok(Map.of("comparison", visionService.compareImages(pair.first(), pair.second()))))));
+    }
+
+    /**
+     * 여러 이미지를 같은 프롬프트로 분석 (카탈로그 사진 점검 등)
+     * POST /api/vision/analyze/images
+     * 모든 이미지를 동시에 최적화한 뒤 한 번의 호출에 담을 수 있는 만큼씩 묶어 보내고, 여러 번에 나눴으면 결과를 합친다.
+     */
+    @PostMapping(value = "/analyze/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public DeferredResult<ResponseEntity<MultiImageAnalysisResponse>> analyzeImages(
+            @RequestParam String prompt,
+            @RequestParam("images") List<MultipartFile> images) {
+
+        return aiExecutor.defer("vision-multi-image",
+                multiImageAnalysisService.analyze(prompt, images).thenApply(ResponseEntity::ok));
     }
 
     @PostMapping(value = "/receipt", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<ImageAnalysisResponse<ReceiptData>> processReceipt(@RequestParam("image") MultipartFile image) throws IOException, NoSuchFieldException {
-        return ResponseEntity.status(HttpStatus.OK)
-                .body(receiptAnalysisService.processReceipt(image));
+    public DeferredResult<ResponseEntity<ImageAnalysisResponse<ReceiptData>>> processReceipt(
+            @RequestParam("image") MultipartFile image,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
+        return aiExecutor.defer("vision-receipt", imageOptimizationService.prepareAsync(image)
+                .thenCompose(prepared -> aiExecutor.submit("vision-receipt", () -> ResponseEntity.status(HttpStatus.OK)
+                        .body(receiptAnalysisService.processReceipt(prepared, caller)))));
+    }
+
+    /**
+     * 영수증 일괄 처리 (이미지 여러 장 또는 zip)
+     * POST /api/vision/receipts/batch
+     * 영수증마다 끝나는 대로 receipt 이벤트, 마지막에 completed 이벤트(집계)를 SSE 로 보낸다.
+     */
+    @PostMapping(value = "/receipts/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> processReceiptBatch(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestHeader(value = CALLER_HEADER, required = false) String caller) {
+        return receiptBatchService.process(files, caller)
+                .onErrorResume(e -> Flux.just(ReceiptBatchEvent.error(e.getMessage())))
+                .map(event -> ServerSentEvent.builder(event.data()).event(event.event()).build());
+    }
+
+    /**
+     * 이미지 분석 결과 캐시 통계 (hit 비율, 절약한 토큰)
+     * GET /api/vision/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<VisionCacheStats> cacheStats() {
+        return ResponseEntity.ok(visionService.getCacheStats());
+    }
+
+    private record PreparedPair(PreparedImage first, PreparedImage second) {
     }
 
 }
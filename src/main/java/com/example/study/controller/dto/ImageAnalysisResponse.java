@@ -7,7 +7,8 @@ public record ImageAnalysisResponse<T>(
         T analysis,
         String imageType,
         long imageSize,
-        TokenUsage tokenUsage
+        TokenUsage tokenUsage,
+        VisionCacheInfo cache // 분석 결과 캐시 사용 정보 (캐시를 거치지 않았으면 null)
 ) {
     public static <T> ImageAnalysisResponse<T> of(T analysis,
                                                   String imageType,
@@ -20,4 +21,8 @@ public record ImageAnalysisResponse<T>(
                 .tokenUsage(tokenUsage)
                 .build();
     }
+
+    public ImageAnalysisResponse<T> withCache(VisionCacheInfo cache) {
+        return new ImageAnalysisResponse<>(analysis, imageType, imageSize, tokenUsage, cache);
+    }
 }
\ No newline at end of file
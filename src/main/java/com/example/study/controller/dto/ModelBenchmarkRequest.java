@@ -0,0 +1,22 @@
+package com.example.study.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "모델 벤치마크 요청")
+public record ModelBenchmarkRequest(
+        @Schema(description = "벤치마크 프롬프트 목록")
+        @NotEmpty(message = "프롬프트 목록은 비어 있을 수 없습니다.")
+        @Size(max = 20, message = "프롬프트는 최대 20개까지 가능합니다.")
+        List<@NotBlank String> prompts,
+
+        @Schema(description = "반복 횟수", example = "3")
+        @Min(1) @Max(5)
+        int repetitions
+) {}
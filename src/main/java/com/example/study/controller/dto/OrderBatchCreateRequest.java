@@ -0,0 +1,32 @@
+package com.example.study.controller.dto;
+
+import com.example.study.service.dto.OrderCreateServiceDto;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderBatchCreateRequest {
+
+    @NotEmpty(message = "주문 목록은 비어 있을 수 없습니다.")
+    @Size(max = 500, message = "한 번에 최대 500건까지 주문할 수 있습니다.")
+    List<@Valid OrderCreateRequest> orders;
+
+    public List<OrderCreateServiceDto> toServiceDtos() {
+        return orders.stream()
+                .map(OrderCreateRequest::toServiceDto)
+                .toList();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.study.controller.dto;
+
+import com.example.study.service.dto.OrderResultDto;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class OrderBatchResponse {
+    Integer orderCount;
+    BigDecimal totalAmount;
+    List<OrderResponse> orders;
+
+    public static OrderBatchResponse from(List<OrderResultDto> results) {
+        return OrderBatchResponse.builder()
+                .orderCount(results.size())
+                .totalAmount(results.stream()
+                        .map(OrderResultDto::getTotalPrice)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add))
+                .orders(results.stream()
+                        .map(OrderResponse::from)
+                        .toList())
+                .build();
+    }
+}
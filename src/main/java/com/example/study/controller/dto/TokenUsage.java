@@ -3,6 +3,14 @@ package com.example.study.controller.dto;
 public record TokenUsage (
         Integer promptTokens, // 입력(프롬프트)에 사용된 토큰 수
         Integer completionTokens, // 출력(응답)에 사용된 토큰 수
-        Integer totalTokens // 전체 토큰 수 (비용 계산에 사용)
+        Integer totalTokens, // 전체 토큰 수 (비용 계산에 사용)
+        Integer savedPromptTokens // 히스토리 압축/캐시 등으로 절약한 입력 토큰 수 (추정치, 없으면 null)
 ) {
+    public TokenUsage(Integer promptTokens, Integer completionTokens, Integer totalTokens) {
+        this(promptTokens, completionTokens, totalTokens, null);
+    }
+
+    public TokenUsage withSavedPromptTokens(Integer savedPromptTokens) {
+        return new TokenUsage(promptTokens, completionTokens, totalTokens, savedPromptTokens);
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.study.controller.dto;
+
+public record VisionCacheInfo(
+        boolean hit, // 캐시에서 응답했는지
+        String tier, // hit 한 계층 (memory / disk), miss 면 null
+        Integer savedTokens, // 이번 요청에서 절약한 토큰 수 (원래 호출의 전체 토큰, 모르면 null)
+        double hitRatio // 지금까지의 캐시 hit 비율
+) {
+}
@@ -1,11 +1,14 @@
 package com.example.study.entity;
 
+import com.example.study.config.SecondLevelCacheConfig;
 import jakarta.persistence.*;
 import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
@@ -16,8 +19,10 @@ import java.util.ArrayList;
 import java.util.List;
 
 
-@Table
+@Table(indexes = @Index(name = "idx_category_parent_id", columnList = "parent_id"))
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.CATEGORY_REGION)
 @Getter
 @DynamicInsert
 @DynamicUpdate
@@ -37,6 +42,7 @@ public class Category {
     private Category parent;
 
     @OneToMany(mappedBy = "parent")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.CATEGORY_CHILDREN_REGION)
     private final List<Category> children = new ArrayList<>();
 
     @OneToMany(mappedBy = "category")
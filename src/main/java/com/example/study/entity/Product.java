@@ -1,5 +1,6 @@
 package com.example.study.entity;
 
+import com.example.study.config.SecondLevelCacheConfig;
 
 import jakarta.persistence.*;
 import lombok.AccessLevel;
@@ -7,6 +8,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.DynamicInsert;
 import org.hibernate.annotations.DynamicUpdate;
@@ -18,8 +21,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 // Product.java
-@Table
+@Table(indexes = {
+        @Index(name = "idx_product_category_created_at", columnList = "category_id, created_at"),
+        @Index(name = "idx_product_created_at", columnList = "created_at"),
+        @Index(name = "idx_product_price", columnList = "price DESC")
+})
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.PRODUCT_REGION)
 @Getter
 @DynamicInsert
 @DynamicUpdate
@@ -0,0 +1,78 @@
+package com.example.study.entity;
+
+import com.example.study.PurchaseStatus;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// 일자/상태/상품별 주문 집계 (리포트 전용, 연관관계 없이 id 만 보관)
+@Table(
+        name = "purchase_daily_rollup",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_purchase_daily_rollup",
+                columnNames = {"sales_date", "status", "product_id"}
+        ),
+        indexes = @Index(name = "idx_purchase_daily_rollup_product", columnList = "product_id, sales_date")
+)
+@Entity
+@Getter
+@NoArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PurchaseDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(nullable = false)
+    LocalDate salesDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    PurchaseStatus status;
+
+    @Column(nullable = false)
+    Long productId;
+
+    Long categoryId;
+
+    @Column(nullable = false)
+    Long orderCount;
+
+    @Column(nullable = false)
+    Long quantitySum;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    BigDecimal totalAmount;
+
+    @Column(nullable = false)
+    @UpdateTimestamp
+    LocalDateTime updatedAt;
+
+    @Builder
+    public PurchaseDailyRollup(
+            LocalDate salesDate,
+            PurchaseStatus status,
+            Long productId,
+            Long categoryId,
+            Long orderCount,
+            Long quantitySum,
+            BigDecimal totalAmount
+    ) {
+        this.salesDate = salesDate;
+        this.status = status;
+        this.productId = productId;
+        this.categoryId = categoryId;
+        this.orderCount = orderCount;
+        this.quantitySum = quantitySum;
+        this.totalAmount = totalAmount;
+    }
+}
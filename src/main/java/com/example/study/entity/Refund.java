@@ -11,7 +11,11 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
-@Table
+@Table(indexes = {
+        @Index(name = "idx_refund_purchase_id", columnList = "purchase_id"),
+        @Index(name = "idx_refund_status_created_at", columnList = "status, created_at"),
+        @Index(name = "idx_refund_created_at", columnList = "created_at")
+})
 @Entity
 @Getter
 @NoArgsConstructor
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-@Table
+@Table(indexes = @Index(name = "idx_user_created_at", columnList = "created_at"))
 @Entity
 @Getter
 @DynamicInsert
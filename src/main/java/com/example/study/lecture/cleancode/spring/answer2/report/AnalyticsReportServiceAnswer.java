@@ -2,6 +2,7 @@ package com.example.study.lecture.cleancode.spring.answer2.report;
 
 import com.example.study.repository.PurchaseQueryRepository;
 import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.dto.CountMode;
 import com.example.study.service.dto.PurchaseSearchCondition;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,10 +31,10 @@ public class AnalyticsReportServiceAnswer {
                 .purchasedBefore(request.to())
                 .build();
 
-        List<PurchaseDetailDto> details = purchaseQueryRepository.searchPurchaseDetails(condition);
-        List<PurchaseDetailDto> latest = details.stream()
-                .limit(request.limit())
-                .toList();
+        // 전체를 읽고 limit 하지 않고, DB 에서 최신 limit 건만 가져온다.
+        List<PurchaseDetailDto> latest = purchaseQueryRepository
+                .searchPurchaseDetails(condition, null, request.limit(), CountMode.NONE)
+                .getContent();
 
         PurchaseStatistics statistics = PurchaseStatistics.from(latest);
         List<PurchaseSummaryResponse> items = latest.stream()
@@ -1,27 +1,33 @@
 package com.example.study.lecture.cleancode.spring.answer3.settlement;
 
-import com.example.study.PurchaseStatus;
 import com.example.study.entity.Purchase;
 import com.example.study.repository.PurchaseRepository;
 import org.springframework.stereotype.Component;
 
-import java.util.Comparator;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class PendingPurchaseFinder {
 
+    // id 는 1부터 시작하므로 NOT IN () 이 빈 목록이 되지 않도록 쓰는 자리표시 값
+    private static final List<Long> NO_EXCLUSION = List.of(0L);
+
     private final PurchaseRepository purchaseRepository;
 
     public PendingPurchaseFinder(PurchaseRepository purchaseRepository) {
         this.purchaseRepository = purchaseRepository;
     }
 
-    public List<Purchase> findBatch(int size) {
-        return purchaseRepository.findAll().stream()
-                .filter(purchase -> purchase.getStatus() == PurchaseStatus.PENDING)
-                .sorted(Comparator.comparing(Purchase::getPurchasedAt))
-                .limit(size)
-                .toList();
+    /**
+     * 다음 정산 대상 1건을 행 잠금과 함께 가져온다. 호출한 트랜잭션이 끝날 때까지 다른 워커는 이 행을 건너뛴다.
+     * excludedIds 는 이번 실행에서 이미 실패한 주문으로, 같은 주문을 계속 다시 잡지 않도록 제외한다.
+     * now 시점에 claim 기한이 남아 있는 주문(다른 워커가 정산 중)도 건너뛴다.
+     */
+    public Optional<Purchase> claimNext(Collection<Long> excludedIds, LocalDateTime now) {
+        Collection<Long> excluded = excludedIds.isEmpty() ? NO_EXCLUSION : List.copyOf(excludedIds);
+        return purchaseRepository.lockPendingSkipLocked(excluded, now, 1).stream().findFirst();
     }
 }
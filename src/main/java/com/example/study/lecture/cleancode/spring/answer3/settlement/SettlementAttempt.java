@@ -0,0 +1,7 @@
+package com.example.study.lecture.cleancode.spring.answer3.settlement;
+
+/**
+ * 주문 1건에 대한 정산 시도 결과.
+ */
+public record SettlementAttempt(Long purchaseId, boolean settled) {
+}
@@ -1,27 +1,64 @@
 package com.example.study.lecture.cleancode.spring.answer3.settlement;
 
-import com.example.study.entity.Purchase;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 @Component
 public class SettlementProcessor {
 
     private final SettlementGateway settlementGateway;
     private final SettlementLogger settlementLogger;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
 
-    public SettlementProcessor(SettlementGateway settlementGateway, SettlementLogger settlementLogger) {
+    public SettlementProcessor(SettlementGateway settlementGateway,
+                               SettlementLogger settlementLogger,
+                               @Value("${settlement.retry.max-attempts:3}") int maxAttempts,
+                               @Value("${settlement.retry.initial-backoff-ms:100}") long initialBackoffMillis) {
         this.settlementGateway = settlementGateway;
         this.settlementLogger = settlementLogger;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = Math.max(0, initialBackoffMillis);
     }
 
-    public void process(Purchase purchase) {
+    /**
+     * 게이트웨이 정산을 재시도(지수 백오프 + jitter)하며 실행한다.
+     * 트랜잭션 밖에서 호출해야 재시도 대기 동안 행 잠금과 DB 커넥션을 잡지 않는다.
+     */
+    public void settle(Long purchaseId) {
         try {
-            settlementGateway.settle(purchase.getId());
-            purchase.markCompleted();
-            settlementLogger.success(purchase.getId());
+            settleWithRetry(purchaseId);
+            settlementLogger.success(purchaseId);
         } catch (RuntimeException exception) {
-            settlementLogger.fail(purchase.getId(), exception);
+            settlementLogger.fail(purchaseId, exception);
             throw exception;
         }
     }
+
+    private void settleWithRetry(Long purchaseId) {
+        long backoff = initialBackoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                settlementGateway.settle(purchaseId);
+                return;
+            } catch (RuntimeException exception) {
+                if (attempt >= maxAttempts) {
+                    throw exception;
+                }
+                sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                backoff *= 2;
+            }
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("settlement retry interrupted", e);
+        }
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.study.lecture.cleancode.spring.answer3.settlement;
+
+/**
+ * 정산 실행 1회의 요약. skipped=true 이면 이전 실행이 아직 진행 중이라 건너뛴 것이다.
+ */
+public record SettlementRunResult(
+        long settled,
+        long failed,
+        long elapsedMillis,
+        boolean skipped
+) {
+
+    public static SettlementRunResult skippedRun() {
+        return new SettlementRunResult(0, 0, 0, true);
+    }
+
+    public double itemsPerSecond() {
+        return elapsedMillis == 0 ? 0.0 : (settled + failed) * 1000.0 / elapsedMillis;
+    }
+}
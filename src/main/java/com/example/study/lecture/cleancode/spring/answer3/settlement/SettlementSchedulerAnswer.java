@@ -6,14 +6,14 @@ import org.springframework.stereotype.Component;
 @Component
 public class SettlementSchedulerAnswer {
 
-    private final SettlementServiceAnswer settlementService;
+    private final SettlementWorkerPool settlementWorkerPool;
 
-    public SettlementSchedulerAnswer(SettlementServiceAnswer settlementService) {
-        this.settlementService = settlementService;
+    public SettlementSchedulerAnswer(SettlementWorkerPool settlementWorkerPool) {
+        this.settlementWorkerPool = settlementWorkerPool;
     }
 
     @Scheduled(fixedDelayString = "${settlement.job.delay:60000}")
     public void run() {
-        settlementService.settleBatch();
+        settlementWorkerPool.runOnce();
     }
 }
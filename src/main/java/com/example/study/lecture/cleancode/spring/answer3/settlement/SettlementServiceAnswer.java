@@ -1,32 +1,98 @@
 package com.example.study.lecture.cleancode.spring.answer3.settlement;
 
+import com.example.study.PurchaseStatus;
 import com.example.study.entity.Purchase;
+import com.example.study.repository.PurchaseRepository;
+import com.example.study.service.rollup.PurchaseSalesChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
 
 @Service
 public class SettlementServiceAnswer {
 
-    private static final int BATCH_SIZE = 20;
+    private static final Logger log = LoggerFactory.getLogger(SettlementServiceAnswer.class);
 
     private final PendingPurchaseFinder pendingPurchaseFinder;
+    private final PurchaseRepository purchaseRepository;
     private final SettlementProcessor settlementProcessor;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration claimLease;
 
     public SettlementServiceAnswer(
             PendingPurchaseFinder pendingPurchaseFinder,
-            SettlementProcessor settlementProcessor
+            PurchaseRepository purchaseRepository,
+            SettlementProcessor settlementProcessor,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${settlement.claim.lease-seconds:300}") long claimLeaseSeconds
     ) {
         this.pendingPurchaseFinder = pendingPurchaseFinder;
+        this.purchaseRepository = purchaseRepository;
         this.settlementProcessor = settlementProcessor;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
     }
 
-    @Transactional
-    public void settleBatch() {
-        List<Purchase> pendingPurchases = pendingPurchaseFinder.findBatch(BATCH_SIZE);
-        for (Purchase purchase : pendingPurchases) {
-            settlementProcessor.process(purchase);
+    /**
+     * 정산 대기 주문 1건을 정산한다. 게이트웨이 호출(재시도 대기 포함) 동안 행 잠금과 DB 커넥션을 잡지 않도록 세 단계로 나눈다.
+     * <ol>
+     *     <li>짧은 트랜잭션에서 1건을 SKIP LOCKED 로 잠그고 claim 기한을 기록해 커밋한다. 기한 동안 다른 워커는 이 주문을 건너뛴다.</li>
+     *     <li>트랜잭션 밖에서 게이트웨이를 호출한다.</li>
+     *     <li>두 번째 짧은 트랜잭션에서 완료 처리한다. 실패했으면 claim 을 풀어 다음 실행에서 다시 잡히게 한다.</li>
+     * </ol>
+     * 대기 주문이 없으면 empty, 재시도 후에도 실패하면 settled=false 를 반환한다. (주문은 PENDING 으로 남는다)
+     * 완료 커밋 전에 죽으면 claim 기한이 지난 뒤 같은 주문이 다시 정산되므로 게이트웨이는 purchaseId 기준으로 멱등해야 한다.
+     */
+    public Optional<SettlementAttempt> settleNext(Collection<Long> excludedIds) {
+        Long purchaseId = transactionTemplate.execute(status -> claim(excludedIds));
+        if (purchaseId == null) {
+            return Optional.empty();
         }
+        try {
+            settlementProcessor.settle(purchaseId);
+        } catch (RuntimeException exception) {
+            transactionTemplate.executeWithoutResult(status -> release(purchaseId));
+            return Optional.of(new SettlementAttempt(purchaseId, false));
+        }
+        transactionTemplate.executeWithoutResult(status -> complete(purchaseId));
+        return Optional.of(new SettlementAttempt(purchaseId, true));
+    }
+
+    private Long claim(Collection<Long> excludedIds) {
+        LocalDateTime now = LocalDateTime.now();
+        return pendingPurchaseFinder.claimNext(excludedIds, now)
+                .map(purchase -> {
+                    purchase.claimSettlement(now.plus(claimLease));
+                    return purchase.getId();
+                })
+                .orElse(null);
+    }
+
+    private void complete(Long purchaseId) {
+        Purchase purchase = purchaseRepository.findById(purchaseId).orElseThrow();
+        purchase.releaseSettlementClaim();
+        if (purchase.getStatus() != PurchaseStatus.PENDING) {
+            // 게이트웨이 호출 중에 주문이 취소 등으로 바뀌었다. 상태는 건드리지 않고 확인할 수 있게 남긴다.
+            log.warn("[settlement] purchase={} settled but status changed to {}", purchaseId, purchase.getStatus());
+            return;
+        }
+        purchase.markCompleted();
+        eventPublisher.publishEvent(PurchaseSalesChangedEvent.statusChanged(purchase, PurchaseStatus.PENDING));
+    }
+
+    private void release(Long purchaseId) {
+        purchaseRepository.findById(purchaseId).ifPresent(Purchase::releaseSettlementClaim);
     }
 }
@@ -0,0 +1,138 @@
+package com.example.study.lecture.cleancode.spring.answer3.settlement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 정산 대기 주문을 여러 워커 스레드가 나눠서 처리한다.
+ * <p>
+ * 워커마다 "1건 claim(SKIP LOCKED) 커밋 → 트랜잭션 밖 정산 → 완료 커밋"을 대기 주문이 없을 때까지 반복한다.
+ * 잠겼거나 claim 된 행은 다른 워커가 건너뛰므로 별도의 파티션 배정 없이도 스레드/인스턴스 간에 작업이 겹치지 않는다.
+ * DB 커넥션은 claim/완료 트랜잭션 동안만 잡으므로 게이트웨이가 느려도 워커 수만큼 커넥션이 묶이지 않는다.
+ * <p>
+ * 처리량은 {@code settlement.items}(result 태그) 카운터의 rate, 건당 지연은 {@code settlement.item} 타이머로 확인한다.
+ */
+@Component
+public class SettlementWorkerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(SettlementWorkerPool.class);
+
+    private final SettlementServiceAnswer settlementService;
+    private final MeterRegistry meterRegistry;
+    private final int workers;
+    private final int maxFailuresPerRun;
+    private final ExecutorService executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SettlementWorkerPool(SettlementServiceAnswer settlementService,
+                                MeterRegistry meterRegistry,
+                                @Value("${settlement.workers:4}") int workers,
+                                @Value("${settlement.max-failures-per-run:1000}") int maxFailuresPerRun) {
+        this.settlementService = settlementService;
+        this.meterRegistry = meterRegistry;
+        this.workers = Math.max(1, workers);
+        this.maxFailuresPerRun = maxFailuresPerRun;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.workers, runnable -> {
+            Thread thread = new Thread(runnable, "settlement-worker-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 대기 주문이 없어질 때까지(또는 실패가 한도를 넘을 때까지) 정산한다. 이미 실행 중이면 바로 반환한다.
+     */
+    public SettlementRunResult runOnce() {
+        if (!running.compareAndSet(false, true)) {
+            return SettlementRunResult.skippedRun();
+        }
+        try {
+            return drain();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private SettlementRunResult drain() {
+        Set<Long> failedIds = ConcurrentHashMap.newKeySet();
+        LongAdder settled = new LongAdder();
+        long startedAt = System.nanoTime();
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < workers; i++) {
+            tasks.add(() -> {
+                workLoop(failedIds, settled);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("[settlement] worker stopped unexpectedly", e.getCause());
+        }
+
+        long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+        SettlementRunResult result = new SettlementRunResult(settled.sum(), failedIds.size(), elapsedMillis, false);
+        if (result.settled() + result.failed() > 0) {
+            log.info("[settlement] settled={} failed={} elapsed={}ms ({} items/s)",
+                    result.settled(), result.failed(), elapsedMillis, String.format("%.1f", result.itemsPerSecond()));
+        }
+        return result;
+    }
+
+    private void workLoop(Set<Long> failedIds, LongAdder settled) {
+        while (!Thread.currentThread().isInterrupted() && failedIds.size() < maxFailuresPerRun) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            Optional<SettlementAttempt> attempt = settlementService.settleNext(failedIds);
+            if (attempt.isEmpty()) {
+                return;
+            }
+            String result = attempt.get().settled() ? "SETTLED" : "FAILED";
+            sample.stop(Timer.builder("settlement.item")
+                    .description("Per-purchase settlement latency including claim, gateway call and completion")
+                    .tag("result", result)
+                    .register(meterRegistry));
+            Counter.builder("settlement.items")
+                    .description("Settled purchases")
+                    .tag("result", result)
+                    .register(meterRegistry)
+                    .increment();
+
+            if (attempt.get().settled()) {
+                settled.increment();
+            } else {
+                failedIds.add(attempt.get().purchaseId());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.study.repository;
 
+import com.example.study.config.SecondLevelCacheConfig;
 import com.example.study.entity.Category;
 import com.example.study.entity.QCategory;
 import com.example.study.repository.projection.CategoryStatsDto;
@@ -7,6 +8,7 @@ import com.example.study.repository.projection.QCategoryStatsDto;
 import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -36,12 +38,15 @@ public class CategoryQueryRepository {
 
     /**
      * [Fetch Join 예제] 특정 카테고리와 직계 하위 카테고리를 한 번에 로딩.
+     * 카테고리 계층은 거의 바뀌지 않으므로 쿼리 캐시 + 2차 캐시(category, category.children)에서 먼저 찾는다.
      */
     public Category findCategoryWithChildren(Long categoryId) {
         return queryFactory
                 .selectFrom(category)
                 .leftJoin(category.children).fetchJoin()
                 .where(category.id.eq(categoryId))
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, SecondLevelCacheConfig.CATEGORY_QUERY_REGION)
                 .fetchOne();
     }
 
@@ -1,26 +1,42 @@
 package com.example.study.repository;
 
+import com.example.study.common.CursorPage;
+import com.example.study.config.SecondLevelCacheConfig;
 import com.example.study.entity.Product;
 import com.example.study.repository.projection.ProductSalesSummaryDto;
 import com.example.study.repository.projection.ProductSummaryDto;
 import com.example.study.repository.projection.QProductSalesSummaryDto;
 import com.example.study.repository.projection.QProductSummaryDto;
+import com.example.study.repository.support.CappedCount;
+import com.example.study.repository.support.KeysetCursor;
+import com.example.study.service.dto.CountMode;
 import com.example.study.service.dto.ProductSearchCondition;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static com.example.study.entity.QCategory.category;
 import static com.example.study.entity.QProduct.product;
-import static com.example.study.entity.QPurchase.purchase;
+import static com.example.study.entity.QPurchaseDailyRollup.purchaseDailyRollup;
 
 /**
  * 상품 관련 QueryDSL 예제 모음.
@@ -32,7 +48,12 @@ import static com.example.study.entity.QPurchase.purchase;
 @RequiredArgsConstructor
 public class ProductQueryRepository {
 
+    private static final long COUNT_CAP = 10_000;
+    // 재고 UPDATE 전용 논리 query space: product 테이블 이름을 쓰지 않아 Hibernate 가 Product 캐시를 통째로 비우지 않는다
+    private static final String STOCK_QUERY_SPACE = "product_stock";
+
     private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
 
     /**
      * [기본 예제] 여러 조건을 동적으로 조합하는 방법.
@@ -93,9 +114,52 @@ public class ProductQueryRepository {
         return new PageImpl<>(content, pageable, total == null ? 0 : total);
     }
 
+    /**
+     * [Keyset 페이징 예제] offset 대신 마지막으로 본 (createdAt, id) 다음부터 조회한다.
+     * 몇 번째 페이지든 인덱스 범위 탐색 한 번으로 끝나므로 깊은 페이지에서도 지연 시간이 일정하다.
+     * 다음 페이지 존재 여부는 size + 1 건을 조회해 판단하고, count 쿼리는 countMode 가 요청할 때만 실행한다.
+     */
+    public CursorPage<Product> findSliceByCondition(ProductSearchCondition condition,
+                                                    String cursor,
+                                                    int size,
+                                                    CountMode countMode) {
+        ProductSearchCondition safeCondition = condition != null ? condition : ProductSearchCondition.builder().build();
+        List<Product> rows = queryFactory
+                .selectFrom(product)
+                .leftJoin(product.category, category).fetchJoin()
+                .where(buildConditions(safeCondition))
+                .where(createdBefore(KeysetCursor.decode(cursor)))
+                .orderBy(product.createdAt.desc(), product.id.desc())
+                .limit(size + 1L)
+                .fetch();
+
+        Long total = null;
+        boolean capped = false;
+        if (countMode == CountMode.EXACT) {
+            total = queryFactory
+                    .select(product.count())
+                    .from(product)
+                    .where(buildConditions(safeCondition))
+                    .fetchOne();
+        } else if (countMode == CountMode.CAPPED) {
+            // DB 에서 COUNT_CAP + 1 건까지만 세고 숫자 하나만 가져온다.
+            long counted = CappedCount.count(entityManager, queryFactory
+                    .select(product.id)
+                    .from(product)
+                    .where(buildConditions(safeCondition)), COUNT_CAP);
+            capped = counted > COUNT_CAP;
+            total = Math.min(counted, COUNT_CAP);
+        }
+
+        return CursorPage.of(rows, size,
+                last -> new KeysetCursor(last.getCreatedAt(), last.getId()).encode(),
+                total, capped);
+    }
+
     /**
      * [DTO 프로젝션 예제] 카테고리별 상품 요약.
      * QueryDSL 의 @QueryProjection 을 이용하면 select 절을 타입 안정하게 작성할 수 있습니다.
+     * 결과는 쿼리 캐시에 보관되며, product/category 테이블이 갱신되면 자동으로 무효화된다.
      */
     public List<ProductSummaryDto> findSummariesByCategoryId(Long categoryId) {
         return queryFactory
@@ -111,6 +175,8 @@ public class ProductQueryRepository {
                 .join(product.category, category)
                 .where(categoryEquals(categoryId))
                 .orderBy(product.createdAt.desc())
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, SecondLevelCacheConfig.PRODUCT_SUMMARY_QUERY_REGION)
                 .fetch();
     }
 
@@ -138,29 +204,152 @@ public class ProductQueryRepository {
 
     /**
      * [집계 예제] 상품별 판매 통계.
-     * Purchase 테이블과 조인하여 판매량/매출을 집계하는 예시입니다.
+     * 원본 Purchase 대신 일자별 rollup(purchase_daily_rollup)을 상품 단위로 합산한다.
      */
     public List<ProductSalesSummaryDto> findProductSalesSummary() {
         return queryFactory
                 .select(new QProductSalesSummaryDto(
                         product.id,
                         product.name,
-                        purchase.quantity.sum().coalesce(0).castToNum(Long.class),
-                        product.price.multiply(purchase.quantity.sum()
-                                .coalesce(0)
+                        purchaseDailyRollup.quantitySum.sum().coalesce(0L),
+                        product.price.multiply(purchaseDailyRollup.quantitySum.sum()
+                                .coalesce(0L)
                                 .castToNum(BigDecimal.class))
                 ))
-                .from(product)
-                .join(purchase).on(purchase.product.eq(product))
+                .from(purchaseDailyRollup)
+                .join(product).on(product.id.eq(purchaseDailyRollup.productId))
                 .groupBy(product.id, product.name, product.price)
-                .orderBy(purchase.quantity.sum().desc())
+                .having(purchaseDailyRollup.orderCount.sum().gt(0L))
+                .orderBy(purchaseDailyRollup.quantitySum.sum().desc())
                 .fetch();
     }
 
+    /**
+     * [재고 잠금 조회] 상품 행을 잠그고 현재 재고를 읽는다. (없는 상품이면 null)
+     * 잠금은 호출한 트랜잭션이 끝날 때까지 유지되므로, 읽은 재고를 같은 트랜잭션에서 차감하는 동안 다른 트랜잭션이 끼어들지 못한다.
+     */
+    public Integer findStockForUpdate(Long productId) {
+        NativeQuery<?> query = entityManager.createNativeQuery("SELECT stock FROM product WHERE id = :id FOR UPDATE")
+                .unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(STOCK_QUERY_SPACE);
+        query.setParameter("id", productId);
+        List<?> rows = query.getResultList();
+        return rows.isEmpty() ? null : ((Number) rows.get(0)).intValue();
+    }
+
+    /**
+     * [재고 차감] 재고가 충분할 때만 1행을 원자적으로 차감한다. (0 반환 = 재고 부족)
+     */
+    public int decreaseStockIfAvailable(Long productId, int quantity) {
+        return updateStock("UPDATE product SET stock = stock - :quantity WHERE id = :id AND stock >= :quantity",
+                Map.of("id", productId, "quantity", quantity), List.of(productId));
+    }
+
+    /**
+     * [재고 복구] 엔티티 dirty checking 으로 stock 을 덮어쓰지 않도록 DB 에서 직접 더한다.
+     */
+    public int increaseStock(Long productId, int quantity) {
+        return updateStock("UPDATE product SET stock = stock + :quantity WHERE id = :id",
+                Map.of("id", productId, "quantity", quantity), List.of(productId));
+    }
+
+    /**
+     * [벌크 수정 예제] 여러 상품의 재고를 UPDATE 한 번으로 조건부 차감한다.
+     * 상품별 차감 수량을 CASE 로 매핑하고, 재고가 모자란 행은 WHERE 조건에서 걸러진다.
+     * 반환값이 요청한 상품 수보다 작으면 일부 상품의 재고가 부족하다는 뜻이므로 호출자가 롤백해야 한다.
+     */
+    public long decreaseStocksIfAvailable(Map<Long, Integer> quantityByProductId) {
+        if (quantityByProductId.isEmpty()) {
+            return 0;
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        StringBuilder quantity = new StringBuilder("CASE id");
+        int index = 0;
+        for (Map.Entry<Long, Integer> entry : quantityByProductId.entrySet()) {
+            quantity.append(" WHEN :id").append(index).append(" THEN :quantity").append(index);
+            parameters.put("id" + index, entry.getKey());
+            parameters.put("quantity" + index, entry.getValue());
+            index++;
+        }
+        quantity.append(" ELSE 0 END");
+        parameters.put("ids", quantityByProductId.keySet());
+
+        return updateStock("UPDATE product SET stock = stock - " + quantity
+                        + " WHERE id IN (:ids) AND stock >= " + quantity,
+                parameters, List.copyOf(quantityByProductId.keySet()));
+    }
+
+    /**
+     * 재고 UPDATE 는 native 로 실행하고 전용 query space 에만 동기화한다.
+     * JPQL/QueryDSL 벌크 UPDATE 는 Hibernate 가 Product 2차 캐시 region 전체와 product 테이블 쿼리 캐시를 통째로 비워,
+     * 주문이 들어올 때마다 카탈로그 캐시가 다시 차가워진다. (native 도 query space 를 지정하지 않으면 모든 region 을 비운다)
+     * 대신 바뀐 상품 id 의 엔티티 캐시와, 재고를 담고 있는 상품 요약 쿼리 캐시만 직접 비운다.
+     */
+    private int updateStock(String sql, Map<String, Object> parameters, List<Long> productIds) {
+        entityManager.flush();
+        NativeQuery<?> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedQuerySpace(STOCK_QUERY_SPACE);
+        parameters.forEach((name, value) -> {
+            if (value instanceof Collection<?> values) {
+                query.setParameterList(name, values);
+            } else {
+                query.setParameter(name, value);
+            }
+        });
+        int updated = query.executeUpdate();
+        if (updated > 0) {
+            evictStock(productIds);
+        }
+        return updated;
+    }
+
+    /**
+     * 엔티티 캐시는 지금 한 번, 트랜잭션이 끝난 뒤 한 번 더 비운다.
+     * 커밋 전에 다른 트랜잭션이 옛 재고를 읽어 캐시에 다시 올려둘 수 있기 때문이다.
+     * 상품 요약 쿼리 캐시는 커밋된 뒤에만 비운다. (롤백되면 캐시된 재고가 그대로 맞다)
+     */
+    private void evictStock(List<Long> productIds) {
+        EntityManagerFactory entityManagerFactory = entityManager.getEntityManagerFactory();
+        Cache cache = entityManagerFactory.getCache();
+        productIds.forEach(id -> cache.evict(Product.class, id));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                productIds.forEach(id -> cache.evict(Product.class, id));
+                if (status == STATUS_COMMITTED) {
+                    entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                            .evictQueryRegion(SecondLevelCacheConfig.PRODUCT_SUMMARY_QUERY_REGION);
+                }
+            }
+        });
+    }
+
     // ==========================
     // 조건 메서드 (BooleanExpression)
     // ==========================
 
+    private BooleanExpression[] buildConditions(ProductSearchCondition condition) {
+        return new BooleanExpression[]{
+                nameContains(condition.getName()),
+                priceGoe(condition.getMinPrice()),
+                priceLoe(condition.getMaxPrice()),
+                categoryEquals(condition.getCategoryId()),
+                stockGoe(condition.getMinStock()),
+                stockLoe(condition.getMaxStock())
+        };
+    }
+
+    private BooleanExpression createdBefore(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return product.createdAt.lt(cursor.timestamp())
+                .or(product.createdAt.eq(cursor.timestamp()).and(product.id.lt(cursor.id())));
+    }
+
     private BooleanExpression nameContains(String name) {
         return StringUtils.hasText(name) ? product.name.containsIgnoreCase(name) : null;
     }
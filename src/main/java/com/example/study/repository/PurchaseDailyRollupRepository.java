@@ -0,0 +1,48 @@
+package com.example.study.repository;
+
+import com.example.study.entity.PurchaseDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface PurchaseDailyRollupRepository extends JpaRepository<PurchaseDailyRollup, Long> {
+
+    List<PurchaseDailyRollup> findBySalesDate(LocalDate salesDate);
+
+    // 집계 행이 없으면 만들고, 있으면 증감분만 더한다. (한 문장으로 처리해 동시 주문에서도 누락 없음)
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO purchase_daily_rollup
+                (sales_date, status, product_id, category_id, order_count, quantity_sum, total_amount, updated_at)
+            VALUES (:salesDate, :status, :productId, :categoryId, :orderDelta, :quantityDelta, :amountDelta, CURRENT_TIMESTAMP(6))
+            ON DUPLICATE KEY UPDATE
+                order_count = order_count + VALUES(order_count),
+                quantity_sum = quantity_sum + VALUES(quantity_sum),
+                total_amount = total_amount + VALUES(total_amount),
+                updated_at = VALUES(updated_at)
+            """, nativeQuery = true)
+    int upsertDelta(@Param("salesDate") LocalDate salesDate,
+                    @Param("status") String status,
+                    @Param("productId") Long productId,
+                    @Param("categoryId") Long categoryId,
+                    @Param("orderDelta") long orderDelta,
+                    @Param("quantityDelta") long quantityDelta,
+                    @Param("amountDelta") BigDecimal amountDelta);
+
+    // 재계산 전에 해당 일자 rollup 키 범위를 잠근다. uk_purchase_daily_rollup(sales_date, ...) 범위에 next-key lock 이 걸려
+    // 아직 없는 (상태, 상품) 키로 들어오는 upsert 까지 재계산 트랜잭션이 끝날 때까지 기다린다.
+    @Query(value = "SELECT id FROM purchase_daily_rollup WHERE sales_date = :salesDate FOR UPDATE", nativeQuery = true)
+    List<Long> lockBySalesDate(@Param("salesDate") LocalDate salesDate);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PurchaseDailyRollup r WHERE r.salesDate = :salesDate")
+    int deleteBySalesDate(@Param("salesDate") LocalDate salesDate);
+}
@@ -1,20 +1,28 @@
 package com.example.study.repository;
 
 import com.example.study.PurchaseStatus;
+import com.example.study.common.CursorPage;
 import com.example.study.entity.Purchase;
 import com.example.study.entity.QProduct;
+import com.example.study.entity.QPurchaseDailyRollup;
 import com.example.study.entity.QUser;
 import com.example.study.repository.projection.PurchaseDailyReportDto;
 import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.repository.projection.PurchaseRollupRowDto;
 import com.example.study.repository.projection.PurchaseStatusCountDto;
 import com.example.study.repository.projection.QPurchaseDailyReportDto;
 import com.example.study.repository.projection.QPurchaseDetailDto;
+import com.example.study.repository.projection.QPurchaseRollupRowDto;
 import com.example.study.repository.projection.QPurchaseStatusCountDto;
+import com.example.study.repository.support.CappedCount;
+import com.example.study.repository.support.KeysetCursor;
+import com.example.study.service.dto.CountMode;
 import com.example.study.service.dto.PurchaseSearchCondition;
 import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.core.types.dsl.Expressions;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -23,7 +31,9 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static com.example.study.entity.QPurchase.purchase;
 
@@ -34,10 +44,14 @@ import static com.example.study.entity.QPurchase.purchase;
 @RequiredArgsConstructor
 public class PurchaseQueryRepository {
 
+    private static final long COUNT_CAP = 10_000;
+
     private final JPAQueryFactory queryFactory;
+    private final EntityManager entityManager;
 
     private static final QUser user = QUser.user;
     private static final QProduct product = QProduct.product;
+    private static final QPurchaseDailyRollup rollup = QPurchaseDailyRollup.purchaseDailyRollup;
 
     /**
      * [Fetch Join 예제] 주문과 연관된 사용자, 상품을 한 번에 로딩.
@@ -78,6 +92,37 @@ public class PurchaseQueryRepository {
                 .fetch();
     }
 
+    /**
+     * [스트리밍 + DTO 프로젝션] 주문 상세를 JDBC fetch size 단위로 끊어 읽는 Stream 으로 반환한다.
+     * 결과를 List 로 모으지 않으므로 전체 건수와 무관하게 메모리 사용량이 일정하다.
+     * (MySQL 은 URL 의 useCursorFetch=true 와 함께 서버 측 커서로 동작)
+     * 반환된 Stream 은 트랜잭션 안에서 소비하고 반드시 close 해야 한다.
+     */
+    public Stream<PurchaseDetailDto> streamPurchaseDetails(PurchaseSearchCondition condition, int fetchSize) {
+        PurchaseSearchCondition safeCondition = condition != null ? condition : PurchaseSearchCondition.builder().build();
+        return queryFactory
+                .select(new QPurchaseDetailDto(
+                        purchase.id,
+                        user.id,
+                        user.name,
+                        product.id,
+                        product.name,
+                        purchase.quantity,
+                        purchase.unitPrice,
+                        purchase.totalPrice,
+                        purchase.status,
+                        purchase.purchasedAt
+                ))
+                .from(purchase)
+                .join(purchase.user, user)
+                .join(purchase.product, product)
+                .where(buildCommonConditions(safeCondition))
+                .orderBy(purchase.purchasedAt.desc(), purchase.id.desc())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .stream();
+    }
+
     /**
      * [페이징 + DTO 프로젝션] 주문 상세 페이징 조회.
      */
@@ -114,11 +159,85 @@ public class PurchaseQueryRepository {
         return new PageImpl<>(content, pageable, total == null ? 0 : total);
     }
 
+    /**
+     * [Keyset 페이징 + DTO 프로젝션] (purchasedAt, id) 커서 기반 주문 상세 조회.
+     * offset 페이징과 달리 앞 페이지 행을 읽고 버리지 않으므로 테이블이 커져도 깊은 페이지 지연 시간이 일정하다.
+     */
+    public CursorPage<PurchaseDetailDto> searchPurchaseDetails(PurchaseSearchCondition condition,
+                                                               String cursor,
+                                                               int size,
+                                                               CountMode countMode) {
+        PurchaseSearchCondition safeCondition = condition != null ? condition : PurchaseSearchCondition.builder().build();
+        List<PurchaseDetailDto> rows = queryFactory
+                .select(new QPurchaseDetailDto(
+                        purchase.id,
+                        user.id,
+                        user.name,
+                        product.id,
+                        product.name,
+                        purchase.quantity,
+                        purchase.unitPrice,
+                        purchase.totalPrice,
+                        purchase.status,
+                        purchase.purchasedAt
+                ))
+                .from(purchase)
+                .join(purchase.user, user)
+                .join(purchase.product, product)
+                .where(buildCommonConditions(safeCondition))
+                .where(purchasedBeforeCursor(KeysetCursor.decode(cursor)))
+                .orderBy(purchase.purchasedAt.desc(), purchase.id.desc())
+                .limit(size + 1L)
+                .fetch();
+
+        Long total = null;
+        boolean capped = false;
+        if (countMode == CountMode.EXACT) {
+            total = queryFactory
+                    .select(purchase.count())
+                    .from(purchase)
+                    .where(buildCommonConditions(safeCondition))
+                    .fetchOne();
+        } else if (countMode == CountMode.CAPPED) {
+            // DB 에서 COUNT_CAP + 1 건까지만 세고 숫자 하나만 가져온다.
+            long counted = CappedCount.count(entityManager, queryFactory
+                    .select(purchase.id)
+                    .from(purchase)
+                    .where(buildCommonConditions(safeCondition)), COUNT_CAP);
+            capped = counted > COUNT_CAP;
+            total = Math.min(counted, COUNT_CAP);
+        }
+
+        return CursorPage.of(rows, size,
+                last -> new KeysetCursor(last.getPurchasedAt(), last.getPurchaseId()).encode(),
+                total, capped);
+    }
+
     /**
      * [집계 예제] 상태별 주문 수 카운트.
+     * 조건이 일 단위(상태/상품/기간)로만 걸려 있으면 purchase_daily_rollup 에서 읽고,
+     * 사용자/수량/시각 단위 조건이 있으면 원본 purchase 테이블을 집계한다.
      */
     public List<PurchaseStatusCountDto> countByStatus(PurchaseSearchCondition condition) {
         PurchaseSearchCondition safeCondition = condition != null ? condition : PurchaseSearchCondition.builder().build();
+        if (isRollupCompatible(safeCondition)) {
+            return queryFactory
+                    .select(new QPurchaseStatusCountDto(
+                            rollup.status,
+                            rollup.orderCount.sum()
+                    ))
+                    .from(rollup)
+                    .where(
+                            rollupProductIdEq(safeCondition.getProductId()),
+                            rollupStatusEq(safeCondition.getStatus()),
+                            rollupDateGoe(safeCondition.getPurchasedAfter()),
+                            rollupDateLoe(safeCondition.getPurchasedBefore())
+                    )
+                    .groupBy(rollup.status)
+                    .having(rollup.orderCount.sum().gt(0L))
+                    .orderBy(rollup.status.asc())
+                    .fetch();
+        }
         return queryFactory
                 .select(new QPurchaseStatusCountDto(
                         purchase.status,
@@ -133,21 +252,48 @@ public class PurchaseQueryRepository {
 
     /**
      * [응용 예제] 일자별 주문/매출 리포트.
+     * 원본 테이블을 DATE(purchased_at) 로 GROUP BY 하지 않고, 일자별로 미리 집계된 rollup 을 합산한다.
+     * 조회 비용이 누적 주문 수가 아니라 조회 기간(일수 x 상품 수)에만 비례한다.
      */
     public List<PurchaseDailyReportDto> summarizeDaily(LocalDate startDate, LocalDate endDate) {
-        BooleanExpression datePredicate = betweenDate(startDate, endDate);
-        var orderDateExpression = Expressions.dateTemplate(LocalDate.class, "DATE({0})", purchase.purchasedAt);
-
         return queryFactory
                 .select(new QPurchaseDailyReportDto(
-                        orderDateExpression,
+                        rollup.salesDate,
+                        rollup.orderCount.sum(),
+                        rollup.totalAmount.sum().coalesce(BigDecimal.ZERO)
+                ))
+                .from(rollup)
+                .where(
+                        startDate != null ? rollup.salesDate.goe(startDate) : null,
+                        endDate != null ? rollup.salesDate.loe(endDate) : null
+                )
+                .groupBy(rollup.salesDate)
+                .having(rollup.orderCount.sum().gt(0L))
+                .orderBy(rollup.salesDate.asc())
+                .fetch();
+    }
+
+    /**
+     * [rollup 재계산] 원본 purchase 테이블에서 하루치를 상태/상품별로 집계한다.
+     * purchased_at 범위 조건이라 idx_purchase_purchased_at_cover 인덱스로 해당 일자만 읽는다.
+     */
+    public List<PurchaseRollupRowDto> aggregateDayFromPurchases(LocalDate salesDate) {
+        return queryFactory
+                .select(new QPurchaseRollupRowDto(
+                        purchase.status,
+                        product.id,
+                        product.category.id.max(),
                         purchase.count(),
-                        purchase.totalPrice.sum().coalesce(BigDecimal.ZERO)
+                        purchase.quantity.sum().castToNum(Long.class),
+                        purchase.totalPrice.sum()
                 ))
                 .from(purchase)
-                .where(datePredicate)
-                .groupBy(orderDateExpression)
-                .orderBy(orderDateExpression.asc())
+                .join(purchase.product, product)
+                .where(
+                        purchase.purchasedAt.goe(salesDate.atStartOfDay()),
+                        purchase.purchasedAt.lt(salesDate.plusDays(1).atStartOfDay())
+                )
+                .groupBy(purchase.status, product.id)
                 .fetch();
     }
 
@@ -190,6 +336,14 @@ public class PurchaseQueryRepository {
         return dateTime != null ? purchase.purchasedAt.loe(dateTime) : null;
     }
 
+    private BooleanExpression purchasedBeforeCursor(KeysetCursor cursor) {
+        if (cursor == null) {
+            return null;
+        }
+        return purchase.purchasedAt.lt(cursor.timestamp())
+                .or(purchase.purchasedAt.eq(cursor.timestamp()).and(purchase.id.lt(cursor.id())));
+    }
+
     private BooleanExpression quantityGoe(Integer minQuantity) {
         return minQuantity != null ? purchase.quantity.goe(minQuantity) : null;
     }
@@ -198,18 +352,36 @@ public class PurchaseQueryRepository {
         return maxQuantity != null ? purchase.quantity.loe(maxQuantity) : null;
     }
 
-    private BooleanExpression betweenDate(LocalDate start, LocalDate end) {
-        if (start == null && end == null) {
-            return null;
-        }
-        BooleanExpression predicate = null;
-        if (start != null) {
-            predicate = purchase.purchasedAt.goe(start.atStartOfDay());
-        }
-        if (end != null) {
-            BooleanExpression endCondition = purchase.purchasedAt.loe(end.atTime(23, 59, 59));
-            predicate = predicate != null ? predicate.and(endCondition) : endCondition;
-        }
-        return predicate;
+    // rollup 은 일 단위 집계이므로 사용자/수량 조건이 없고, 기간이 자정 경계일 때만 대체할 수 있다.
+    private boolean isRollupCompatible(PurchaseSearchCondition condition) {
+        return condition.getUserId() == null
+                && condition.getMinQuantity() == null
+                && condition.getMaxQuantity() == null
+                && isStartOfDay(condition.getPurchasedAfter())
+                && isEndOfDay(condition.getPurchasedBefore());
+    }
+
+    private boolean isStartOfDay(LocalDateTime dateTime) {
+        return dateTime == null || dateTime.toLocalTime().equals(LocalTime.MIDNIGHT);
+    }
+
+    private boolean isEndOfDay(LocalDateTime dateTime) {
+        return dateTime == null || !dateTime.toLocalTime().isBefore(LocalTime.of(23, 59, 59));
+    }
+
+    private BooleanExpression rollupProductIdEq(Long productId) {
+        return productId != null ? rollup.productId.eq(productId) : null;
+    }
+
+    private BooleanExpression rollupStatusEq(PurchaseStatus status) {
+        return status != null ? rollup.status.eq(status) : null;
+    }
+
+    private BooleanExpression rollupDateGoe(LocalDateTime dateTime) {
+        return dateTime != null ? rollup.salesDate.goe(dateTime.toLocalDate()) : null;
+    }
+
+    private BooleanExpression rollupDateLoe(LocalDateTime dateTime) {
+        return dateTime != null ? rollup.salesDate.loe(dateTime.toLocalDate()) : null;
     }
 }
@@ -2,7 +2,27 @@ package com.example.study.repository;
 
 import com.example.study.entity.Purchase;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
-}
 
+    // 정산 대기(PENDING) 주문을 오래된 순으로 잠가서 가져온다. (idx_purchase_status_purchased_at 사용)
+    // 다른 워커/인스턴스가 이미 잠근 행은 기다리지 않고 건너뛰므로(SKIP LOCKED) 작업이 자연스럽게 분배된다.
+    // 잠금은 claim 을 커밋할 때까지만 유지되고, 그 뒤로는 claim 기한(settlement_claimed_until)이 지나지 않은 주문을 건너뛴다.
+    @Query(value = """
+            SELECT * FROM purchase
+            WHERE status = 'PENDING' AND id NOT IN (:excludedIds)
+              AND (settlement_claimed_until IS NULL OR settlement_claimed_until < :now)
+            ORDER BY purchased_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Purchase> lockPendingSkipLocked(@Param("excludedIds") Collection<Long> excludedIds,
+                                         @Param("now") LocalDateTime now,
+                                         @Param("limit") int limit);
+}
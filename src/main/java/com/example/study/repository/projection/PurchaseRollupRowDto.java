@@ -0,0 +1,34 @@
+package com.example.study.repository.projection;
+
+import com.example.study.PurchaseStatus;
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+// 원본 purchase 테이블에서 하루치를 상태/상품별로 집계한 결과 (rollup 재계산/대사용)
+@Getter
+public class PurchaseRollupRowDto {
+
+    private final PurchaseStatus status;
+    private final Long productId;
+    private final Long categoryId;
+    private final Long orderCount;
+    private final Long quantitySum;
+    private final BigDecimal totalAmount;
+
+    @QueryProjection
+    public PurchaseRollupRowDto(PurchaseStatus status,
+                                Long productId,
+                                Long categoryId,
+                                Long orderCount,
+                                Long quantitySum,
+                                BigDecimal totalAmount) {
+        this.status = status;
+        this.productId = productId;
+        this.categoryId = categoryId;
+        this.orderCount = orderCount == null ? 0L : orderCount;
+        this.quantitySum = quantitySum == null ? 0L : quantitySum;
+        this.totalAmount = totalAmount == null ? BigDecimal.ZERO : totalAmount;
+    }
+}
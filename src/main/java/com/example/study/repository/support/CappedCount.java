@@ -0,0 +1,39 @@
+package com.example.study.repository.support;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAProvider;
+import com.querydsl.jpa.impl.JPAUtil;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+
+/**
+ * 상한이 있는 count. QueryDSL 로 만든 조회 쿼리를 {@code select count(*) from (... limit cap + 1)} 로 감싸 실행한다.
+ * DB 는 cap + 1 건을 찾으면 세기를 멈추고, 애플리케이션으로는 숫자 하나만 돌아온다.
+ * (id 목록을 가져와 size() 를 세면 매 요청마다 최대 cap + 1 개의 id 가 heap 에 올라온다)
+ * <p>
+ * from 절 서브쿼리와 서브쿼리 안의 limit 은 Hibernate 6 HQL 문법이다. HQL 은 from 절 서브쿼리의 select 항목에 별칭을,
+ * limit 앞에 order by 를 요구하므로 별칭을 붙이고 {@code order by null} 을 둔다. (MySQL 은 ORDER BY NULL 이면 정렬하지 않는다)
+ */
+public final class CappedCount {
+
+    private CappedCount() {
+    }
+
+    /**
+     * query 의 결과 건수를 최대 cap + 1 까지 센다. 반환값이 cap 보다 크면 "cap 건 이상"이라는 뜻이다.
+     * query 에는 select / from / where 만 두고 정렬과 limit 은 넣지 않는다.
+     */
+    public static long count(EntityManager entityManager, JPQLQuery<?> query, long cap) {
+        QueryMetadata metadata = query.getMetadata().clone();
+        metadata.setProjection(ExpressionUtils.as(metadata.getProjection(), "counted"));
+        JPQLSerializer serializer = new JPQLSerializer(JPAProvider.getTemplates(entityManager), entityManager);
+        serializer.serialize(metadata, false, null);
+        Query count = entityManager.createQuery(
+                "select count(*) from (" + serializer + " order by null limit " + (cap + 1) + ") capped");
+        JPAUtil.setConstants(count, serializer.getConstants(), metadata.getParams());
+        return ((Number) count.getSingleResult()).longValue();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.study.repository.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset(seek) 페이징용 커서. 정렬 키 (시각, id) 를 클라이언트가 해석할 수 없는 문자열로 인코딩한다.
+ * 마지막 행의 키를 그대로 넘겨받아 {@code WHERE (ts, id) < (?, ?)} 로 다음 페이지를 찾으므로
+ * offset 처럼 앞 페이지 행을 읽고 버리지 않는다.
+ */
+public record KeysetCursor(LocalDateTime timestamp, Long id) {
+
+    private static final String DELIMITER = "|";
+
+    public KeysetCursor {
+        if (timestamp == null || id == null) {
+            throw new IllegalArgumentException("cursor timestamp and id must not be null");
+        }
+    }
+
+    public String encode() {
+        String raw = timestamp + DELIMITER + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 빈 값이면 첫 페이지(null)를 의미한다. 형식이 잘못되면 IllegalArgumentException 을 던진다.
+     */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(DELIMITER);
+            if (separator <= 0) {
+                throw new IllegalArgumentException("invalid cursor");
+            }
+            return new KeysetCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor");
+        }
+    }
+}
@@ -2,6 +2,10 @@ package com.example.study.service;
 
 import com.example.study.controller.dto.ChatResponseV2;
 import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ai.ResponseCacheAdvisor;
+import com.example.study.service.conversation.ConversationCompactor;
+import com.example.study.service.conversation.ConversationStore;
+import com.example.study.service.conversation.HistoryWindow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
@@ -13,7 +17,6 @@ import reactor.core.publisher.Flux;
 
 import javax.naming.LimitExceededException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -21,7 +24,8 @@ import java.util.concurrent.ConcurrentHashMap;
 public class ClaudeChatService implements IChatService {
 
     private final ChatClient chatClient;
-    private final Map<String, List<Message>> conversations = new ConcurrentHashMap<>();
+    private final ConversationStore conversationStore;
+    private final ConversationCompactor conversationCompactor;
 
     @Override
     public ChatResponseV2 chat(String question) {
@@ -33,11 +37,13 @@ public class ClaudeChatService implements IChatService {
     public ChatResponseV2 chatWithHistory(String question, String conversationId) throws LimitExceededException {
         if (conversationId == null || conversationId.isBlank()) conversationId = UUID.randomUUID().toString();
 
-        List<Message> history = conversations.getOrDefault(conversationId, new ArrayList<>());
+        List<Message> history = conversationStore.history(conversationId);
+        // 전체 히스토리 대신 토큰 예산 안의 창(요약 + 최근 턴)만 보낸다.
+        HistoryWindow window = conversationCompactor.window(conversationId, history, question);
 
         UserMessage userMessage = new UserMessage(question);
         //history.add(userMessage);
-        org.springframework.ai.chat.model.ChatResponse response = promptWithHistory(question, history);
+        org.springframework.ai.chat.model.ChatResponse response = promptWithHistory(question, window.messages());
 
         String assistantResponse = response.getResult().getOutput().getText();
         if (assistantResponse == null || assistantResponse.isBlank()) {
@@ -45,15 +51,15 @@ public class ClaudeChatService implements IChatService {
         }
         AssistantMessage assistantMessage = new AssistantMessage(assistantResponse);
 
-        history.add(userMessage);
-        history.add(assistantMessage);
-        conversations.put(conversationId, history);
+        conversationStore.append(conversationId, userMessage, assistantMessage);
 
         var metadata = response.getMetadata();
         TokenUsage tokenUsage = null;
         if (metadata != null && metadata.getUsage() != null) {
             var usage = metadata.getUsage();
-            tokenUsage = new TokenUsage(usage.getPromptTokens(), usage.getCompletionTokens(), usage.getTotalTokens());
+            // 응답 캐시 hit 이면 usage 는 0 이고, 원래 응답의 입력 토큰을 절약분에 더한다.
+            tokenUsage = new TokenUsage(usage.getPromptTokens(), usage.getCompletionTokens(), usage.getTotalTokens(),
+                    window.savedTokens() + ResponseCacheAdvisor.savedPromptTokens(response));
         }
         return ChatResponseV2.of(assistantResponse, conversationId, tokenUsage);
     }
@@ -66,17 +72,17 @@ public class ClaudeChatService implements IChatService {
 
     @Override
     public List<Message> getConversationHistory(String conversationId) {
-        return conversations.getOrDefault(conversationId, Collections.emptyList());
+        return conversationStore.history(conversationId);
     }
 
     @Override
     public void clearConversationBy(String conversationId) {
-        conversations.remove(conversationId);
+        conversationStore.remove(conversationId);
     }
 
     @Override
     public void clearAllConversations() {
-        conversations.clear();
+        conversationStore.clear();
     }
 
     private String prompt(String question) {
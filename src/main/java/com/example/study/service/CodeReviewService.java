@@ -2,18 +2,35 @@ package com.example.study.service;
 
 import com.example.study.controller.dto.CodeReviewResponse;
 import com.example.study.controller.dto.ReviewComparison;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.ai.LenientJsonOutputConverter;
 import com.example.study.service.dto.CodeReview;
+import com.example.study.service.review.ChunkResult;
+import com.example.study.service.review.ChunkReview;
+import com.example.study.service.review.ChunkReviewExecutor;
+import com.example.study.service.review.ChunkReviewMerger;
+import com.example.study.service.review.CodeChunk;
+import com.example.study.service.review.CodeChunker;
+import com.example.study.service.review.IncrementalReviewParser;
+import com.example.study.service.review.ReviewHistoryStats;
+import com.example.study.service.review.ReviewHistoryStore;
+import com.example.study.service.review.ReviewCacheStats;
+import com.example.study.service.review.ReviewPayload;
+import com.example.study.service.review.ReviewResultCache;
+import com.example.study.service.review.ReviewStreamEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,12 +38,28 @@ import java.util.stream.Collectors;
 public class CodeReviewService {
 
     private final ChatClient chatClient;
-    private final Map<String, CodeReviewResponse> reviewHistory = new ConcurrentHashMap<>();
+    private final ReviewHistoryStore reviewHistoryStore;
     private final ObjectMapper objectMapper;
+    private final CodeChunker codeChunker;
+    private final ChunkReviewExecutor chunkReviewExecutor;
+    private final ReviewResultCache reviewResultCache;
+    private final Map<Class<?>, LenientJsonOutputConverter<?>> converters = new ConcurrentHashMap<>();
 
+    /**
+     * 같은 코드(정규화 기준) + 언어 + 레벨이면 캐시된 리뷰를 돌려주고, 동시에 들어온 같은 리뷰는 모델 호출 한 번으로 합친다.
+     */
     public CodeReviewResponse reviewCode(CodeReview review) {
+        return reviewResultCache.getOrReview(review, () -> review(review));
+    }
+
+    private CodeReviewResponse review(CodeReview review) {
         long startTime = System.currentTimeMillis();
 
+        List<CodeChunk> chunks = codeChunker.split(review.getCode());
+        if (chunks.size() > 1) {
+            return reviewChunks(review, chunks, startTime);
+        }
+
         String systemMessage = createSystemPrompt(review.getReviewLevel(), review.getLanguage());
         // User Prompt 생성
         String userPrompt = createUserPrompt(review.getCode(), review.getLanguage());
@@ -35,56 +68,125 @@ public class CodeReviewService {
         CodeReviewResponse aiResponse = chatClient.prompt()
                 .system(systemMessage)
                 .user(userPrompt)
+                // 긴 일괄 리뷰가 대화형 요청의 모델 한도를 다 쓰지 않도록 BULK 로 입장한다.
+                .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK))
                 .call()
-                .entity(CodeReviewResponse.class);
+                .entity(converter(CodeReviewResponse.class));
 
         long responseTime = System.currentTimeMillis() - startTime;
         log.debug("AI 응답: {} \n 소요 시간: {}", aiResponse, responseTime);
 
-        // ✅ In-Memory에 저장
+        // ✅ 히스토리 저장소에 저장
         assert aiResponse != null;
-        if (aiResponse.reviewId() != null) reviewHistory.put(aiResponse.reviewId(), aiResponse);
+        if (aiResponse.reviewId() != null) reviewHistoryStore.save(aiResponse);
         log.info("리뷰 완료 및 저장: {} ({}ms)", aiResponse.reviewId(), responseTime);
 
         return aiResponse;
     }
 
     /**
-     * 리뷰 히스토리 조회 (최신순)
+     * 큰 파일은 클래스/메서드 경계 구간으로 나눠 병렬로 리뷰하고 하나의 응답으로 합친다.
+     * 한 번의 거대한 호출 대신 구간 호출들이 동시에 진행되므로 지연은 가장 느린 구간에 묶인다.
+     * 내용이 같은 구간은 응답 캐시를 그대로 탄다.
      */
-    public List<CodeReviewResponse> getReviewHistory(Integer limit) {
-        List<CodeReviewResponse> allReviews = reviewHistory.values().stream()
-                .sorted(Comparator.comparing(CodeReviewResponse::timestamp).reversed())
-                .collect(Collectors.toList());
-
-        if (limit != null && limit > 0) {
-            return allReviews.stream()
-                    .limit(limit)
-                    .collect(Collectors.toList());
+    private CodeReviewResponse reviewChunks(CodeReview review, List<CodeChunk> chunks, long startTime) {
+        String systemMessage = createSystemPrompt(review.getReviewLevel(), review.getLanguage());
+
+        List<ChunkResult> results = chunkReviewExecutor.reviewAll(chunks, chunk -> chatClient.prompt()
+                .system(systemMessage)
+                .user(createChunkUserPrompt(chunk, review.getLanguage()))
+                .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK))
+                .call()
+                .entity(converter(ChunkReview.class)));
+
+        if (results.stream().noneMatch(ChunkResult::succeeded)) {
+            throw new IllegalStateException("모든 구간 리뷰가 실패했습니다: " + results.get(0).error());
         }
 
-        return allReviews;
+        long responseTime = System.currentTimeMillis() - startTime;
+        CodeReviewResponse response = ChunkReviewMerger.merge(
+                UUID.randomUUID().toString(),
+                review.getLanguage(),
+                review.getReviewLevel(),
+                results,
+                responseTime
+        );
+        reviewHistoryStore.save(response);
+        log.info("구간 리뷰 완료 및 저장: {} ({} chunks, {} issues, {}ms)",
+                response.reviewId(), chunks.size(), response.issues().size(), responseTime);
+        return response;
+    }
+
+    /**
+     * 스트리밍 리뷰. 이슈가 JSON 으로 완성되는 즉시 issue 이벤트로 내보내고, 끝에 점수/요약을 담은 completed 이벤트를 보낸다.
+     * 응답이 중간에 끊기면 completed 대신 partial 이벤트를 보내고 히스토리에 저장하지 않는다.
+     * 사용자가 화면에서 기다리는 호출이라 limiter 우선순위는 INTERACTIVE 다.
+     * 첫 이슈까지의 시간이 전체 응답 시간이 아니라 모델의 첫 토큰 시간 + 이슈 하나 생성 시간이 된다.
+     */
+    public Flux<ReviewStreamEvent> reviewCodeStream(CodeReview review) {
+        return Flux.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            IncrementalReviewParser parser = new IncrementalReviewParser(objectMapper);
+
+            Flux<ReviewStreamEvent> issues = chatClient.prompt()
+                    .system(createSystemPrompt(review.getReviewLevel(), review.getLanguage()))
+                    .user(createUserPrompt(review.getCode(), review.getLanguage()))
+                    .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.INTERACTIVE))
+                    .stream()
+                    .content()
+                    .concatMapIterable(parser::feed)
+                    .map(ReviewStreamEvent::issue);
+
+            Mono<ReviewStreamEvent> completed = Mono.fromSupplier(() -> {
+                ReviewPayload payload = parser.finish();
+                long responseTime = System.currentTimeMillis() - startTime;
+                CodeReviewResponse response = CodeReviewResponse.of(
+                        UUID.randomUUID().toString(),
+                        review.getLanguage(),
+                        review.getReviewLevel(),
+                        parser.issues(),
+                        payload.improvements(),
+                        payload.score(),
+                        payload.improvedCode(),
+                        payload.summary(),
+                        responseTime
+                );
+                if (!parser.isComplete()) {
+                    // 잘린 응답은 점수/요약이 비어 있어 완료된 리뷰처럼 히스토리에 남기지 않는다.
+                    log.warn("스트리밍 리뷰가 중간에 끊김, 저장하지 않음: {} ({} issues, {}ms)",
+                            response.reviewId(), response.issues().size(), responseTime);
+                    return ReviewStreamEvent.partial(response);
+                }
+                reviewHistoryStore.save(response);
+                log.info("스트리밍 리뷰 완료 및 저장: {} ({} issues, {}ms)",
+                        response.reviewId(), response.issues().size(), responseTime);
+                return ReviewStreamEvent.completed(response);
+            });
+
+            return issues.concatWith(completed);
+        });
+    }
+
+    /**
+     * 리뷰 히스토리 조회 (최신순)
+     */
+    public List<CodeReviewResponse> getReviewHistory(Integer limit) {
+        return reviewHistoryStore.findRecent(limit != null ? limit : 0);
     }
 
     /**
      * 특정 리뷰 조회
      */
     public CodeReviewResponse getReviewById(String reviewId) {
-        CodeReviewResponse review = reviewHistory.get(reviewId);
-        if (review == null) {
-            throw new IllegalArgumentException("리뷰를 찾을 수 없습니다: " + reviewId);
-        }
-        return review;
+        return reviewHistoryStore.findById(reviewId)
+                .orElseThrow(() -> new IllegalArgumentException("리뷰를 찾을 수 없습니다: " + reviewId));
     }
 
     /**
      * 언어별 리뷰 조회
      */
     public List<CodeReviewResponse> getReviewsByLanguage(String language) {
-        return reviewHistory.values().stream()
-                .filter(review -> review.language().equalsIgnoreCase(language))
-                .sorted(Comparator.comparing(CodeReviewResponse::timestamp).reversed())
-                .collect(Collectors.toList());
+        return reviewHistoryStore.findRecentByLanguage(language, 0);
     }
 
     /**
@@ -101,8 +203,7 @@ public class CodeReviewService {
      * 특정 리뷰 삭제
      */
     public boolean deleteReview(String reviewId) {
-        CodeReviewResponse removed = reviewHistory.remove(reviewId);
-        if (removed != null) {
+        if (reviewHistoryStore.delete(reviewId)) {
             log.info("리뷰 삭제됨: {}", reviewId);
             return true;
         }
@@ -113,8 +214,8 @@ public class CodeReviewService {
      * 전체 리뷰 삭제
      */
     public void clearAllReviews() {
-        int count = reviewHistory.size();
-        reviewHistory.clear();
+        int count = reviewHistoryStore.size();
+        reviewHistoryStore.clear();
         log.info("모든 리뷰 히스토리 삭제됨: {}개", count);
     }
 
@@ -122,7 +223,21 @@ public class CodeReviewService {
      * 저장된 리뷰 개수
      */
     public int getReviewCount() {
-        return reviewHistory.size();
+        return reviewHistoryStore.size();
+    }
+
+    /**
+     * 리뷰 통계 (저장 시점에 누적된 값)
+     */
+    public ReviewHistoryStats getReviewStats() {
+        return reviewHistoryStore.stats();
+    }
+
+    /**
+     * 리뷰 결과 캐시 통계
+     */
+    public ReviewCacheStats getCacheStats() {
+        return reviewResultCache.stats();
     }
 
     private String createSystemPrompt(String reviewLevel, String language) {
@@ -198,4 +313,29 @@ public class CodeReviewService {
                 위 지시사항에 따라 JSON 형식으로만 응답해주세요.
                 """, language, language.toLowerCase(), code);
     }
-}
\ No newline at end of file
+
+    /**
+     * 구간 리뷰용 User Prompt. 줄 번호는 구간 첫 줄을 1로 세도록 해서 합칠 때 파일 기준으로 옮긴다.
+     */
+    private String createChunkUserPrompt(CodeChunk chunk, String language) {
+        return String.format("""
+                다음은 %s 파일의 %d~%d번째 줄 구간입니다. 이 구간만 리뷰해주세요.
+                issues 의 line 은 이 구간의 첫 줄을 1로 센 번호로 적고, improvedCode 에는 이 구간의 개선 코드만 넣어주세요.
+                ```
+                %s
+                %s
+                ```
+                
+                위 지시사항에 따라 JSON 형식으로만 응답해주세요.
+                """, language, chunk.startLine(), chunk.endLine(), language.toLowerCase(), chunk.code());
+    }
+
+    /**
+     * 펜스/머리말이 붙은 응답도 복사 없이 읽는 변환기. 스키마 안내 생성이 비싸서 타입마다 하나만 만든다.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> LenientJsonOutputConverter<T> converter(Class<T> type) {
+        return (LenientJsonOutputConverter<T>) converters.computeIfAbsent(type,
+                key -> new LenientJsonOutputConverter<>(key, objectMapper));
+    }
+}
@@ -6,32 +6,28 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+
 @Service
 @RequiredArgsConstructor
 public class DocumentProcessingService {
 
     private final VisionService visionService;
+    private final ReceiptAnalysisService receiptAnalysisService;
 
     /**
      * 영수증 정보 추출
+     * - 최적화한 이미지로 ReceiptAnalysisService 의 영수증 프롬프트를 그대로 쓴다.
+     * - 필수 항목(가게명, 총액, 항목)이 빠졌으면 IllegalArgumentException
      */
-    public ReceiptData extractReceipt(MultipartFile receiptImage) {
-        String prompt = """
-                이 영수증에서 다음 정보를 JSON 형식으로 추출해주세요:
-                {
-                  "storeName": "가게명",
-                  "date": "날짜",
-                  "totalAmount": "총액",
-                  "items": [
-                    {"name": "상품명", "price": "가격"}
-                  ]
-                }
-                """;
-
-        //ImageAnalysisResponse response = visionService.analyzeImage(prompt, receiptImage);
-        // JSON 파싱하여 ReceiptData 객체로 변환
-//        ReceiptData(response.analysis())
-        return ReceiptData.builder().build();
+    public ReceiptData extractReceipt(MultipartFile receiptImage) throws IOException, NoSuchFieldException {
+        ImageAnalysisResponse<ReceiptData> response = receiptAnalysisService.processReceipt(receiptImage);
+        ReceiptData receipt = response.analysis();
+        if (receipt == null) {
+            throw new IllegalStateException("영수증 정보를 추출하지 못했습니다");
+        }
+        receipt.validate();
+        return receipt;
     }
 
 //    /**
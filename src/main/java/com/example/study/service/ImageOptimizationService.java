@@ -1,34 +1,145 @@
 package com.example.study.service;
 
+import com.example.study.service.image.AreaAverageScaler;
+import com.example.study.service.image.ImageBufferPool;
+import com.example.study.service.image.ImageHeader;
+import com.example.study.service.image.ImageProcessingExecutor;
+import com.example.study.service.image.PooledImageOutputStream;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.UploadBuffer;
+import com.example.study.service.image.UploadBufferPool;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.coobird.thumbnailator.Thumbnails;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * 이미지 최적화 서비스
  * - 리사이징
  * - 압축
  * - 썸네일 생성
+ * <p>
+ * optimize 는 디코드 한 번, 인코드 한 번으로 끝난다.
+ * 헤더에서 크기를 먼저 읽어 목표 크기의 4배 이상이면 subsampling 으로 줄여서 디코드하되 목표의 2배 아래로는 줄이지 않고,
+ * 남은 비율은 면적 평균({@link AreaAverageScaler})으로 줄인 뒤 JPEG 으로 한 번 인코드해 풀 버퍼에 쓴다.
+ * subsampling 은 픽셀을 건너뛰는 point sampling 이라 목표 크기까지 바로 줄이면 영수증의 가는 글자 획이 끊기기 때문이다.
+ * <p>
+ * 요청 경로에서는 {@link #prepareAsync(MultipartFile)} 로 {@link ImageProcessingExecutor} 에 넘겨
+ * 코어 수와 메모리 예산 안에서만 동시에 처리한다. 업로드는 {@link UploadBufferPool} 의 heap 밖 버퍼에 한 번만 읽어 두고
+ * 헤더 읽기와 디코드가 그 버퍼를 복사 없이 읽는다.
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ImageOptimizationService {
 
+    public static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
     private static final int MAX_WIDTH = 1568;
     private static final int MAX_HEIGHT = 1568;
     private static final float JPEG_QUALITY = 0.85f;
     private static final int THUMBNAIL_SIZE = 200;
 
+    private final ImageBufferPool bufferPool;
+    private final ImageProcessingExecutor imageProcessingExecutor;
+    private final UploadBufferPool uploadBufferPool;
+
+    /**
+     * 업로드를 검증하고, 헤더로 추정한 메모리 예산 안에서 이미지 실행기로 최적화한다.
+     * ImageIO 가 디코드하지 못하는 형식(webp 등)은 원본을 그대로 넘긴다.
+     */
+    public CompletableFuture<PreparedImage> prepareAsync(MultipartFile imageFile) {
+        UploadBuffer upload;
+        try {
+            validate(imageFile);
+            upload = uploadBufferPool.read(imageFile);
+        } catch (IllegalArgumentException | IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return prepareAsync(upload, imageFile.getContentType())
+                .whenComplete((image, error) -> upload.close());
+    }
+
+    /**
+     * 압축 파일 안의 이미지처럼 업로드 파일이 아닌 입력용. content type 은 파일 이름으로 정한다.
+     * upload 는 반환한 future 가 끝난 뒤 호출하는 쪽이 닫는다. (429 로 다시 시도할 때 같은 버퍼를 다시 쓸 수 있도록)
+     */
+    public CompletableFuture<PreparedImage> prepareAsync(String fileName, UploadBuffer upload) {
+        String contentType = MediaTypeFactory.getMediaType(fileName).map(MediaType::toString).orElse(null);
+        try {
+            validate(fileName, contentType, upload.size());
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return prepareAsync(upload, contentType);
+    }
+
+    private CompletableFuture<PreparedImage> prepareAsync(UploadBuffer upload, String contentType) {
+        Optional<ImageHeader> header;
+        try (ImageInputStream input = upload.imageInputStream()) {
+            header = ImageHeader.read(input);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (header.isEmpty()) {
+            log.debug("디코드할 수 없는 형식이라 원본 사용: {}", contentType);
+            return imageProcessingExecutor.submit(upload.size(), () -> new PreparedImage(upload.toByteArray(), contentType));
+        }
+        return imageProcessingExecutor.submit(estimatePeakBytes(header.get()),
+                () -> PreparedImage.jpeg(optimize(upload.imageInputStream())));
+    }
+
+    /**
+     * {@link #prepareAsync(MultipartFile)} 를 기다리는 동기 버전.
+     */
+    public PreparedImage prepare(MultipartFile imageFile) throws IOException {
+        try {
+            return prepareAsync(imageFile).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * optimize 의 최대 heap 사용량 추정치.
+     * subsampling 으로 디코드한 이미지(픽셀당 최대 4바이트) + 목표 크기 RGB 이미지 + 인코드 버퍼.
+     * 입력은 업로드 버퍼(heap 밖)에서 바로 읽으므로 세지 않는다.
+     */
+    public long estimatePeakBytes(ImageHeader header) {
+        Plan plan = Plan.of(header.width(), header.height());
+        long decodedWidth = (header.width() + plan.subsampling() - 1) / plan.subsampling();
+        long decodedHeight = (header.height() + plan.subsampling() - 1) / plan.subsampling();
+        long target = (long) plan.width() * plan.height();
+        return decodedWidth * decodedHeight * 4 + target * 3 + target / 4;
+    }
+
     /**
      * 영수증 이미지 최적화
      * - Claude Vision API 권장 해상도로 리사이징
@@ -43,19 +154,11 @@ public class ImageOptimizationService {
                 imageFile.getOriginalFilename(),
                 imageFile.getSize());
 
-        // 1. 원본 이미지 읽기
-        BufferedImage originalImage = ImageIO.read(imageFile.getInputStream());
-
-        if (originalImage == null) {
-            throw new IOException("이미지를 읽을 수 없습니다");
+        byte[] optimized;
+        try (InputStream in = imageFile.getInputStream()) {
+            optimized = optimize(in);
         }
 
-        // 2. 리사이징 (필요한 경우에만)
-        BufferedImage resized = resizeIfNeeded(originalImage);
-
-        // 3. JPEG로 변환 + 품질 조정
-        byte[] optimized = compressAsJpeg(resized, JPEG_QUALITY);
-
         log.info("이미지 최적화 완료: {} bytes -> {} bytes ({}% 감소)",
                 imageFile.getSize(),
                 optimized.length,
@@ -64,6 +167,44 @@ public class ImageOptimizationService {
         return optimized;
     }
 
+    /**
+     * 스트림에서 바로 디코드해 최적화한 JPEG 을 반환한다. 업로드 전체를 byte[] 로 읽어 두지 않는다.
+     */
+    public byte[] optimize(InputStream in) throws IOException {
+        // ImageIO.createImageInputStream 은 설정에 따라 임시 파일 캐시를 쓰므로 메모리 캐시를 직접 만든다.
+        return optimize(new MemoryCacheImageInputStream(in));
+    }
+
+    /**
+     * 열린 입력을 디코드해 최적화한 JPEG 을 반환하고 input 을 닫는다.
+     */
+    private byte[] optimize(ImageInputStream input) throws IOException {
+        ImageReader reader = null;
+        try {
+            reader = readerFor(input);
+            // 앞으로만 읽고 메타데이터(EXIF 등)는 읽지 않는다. 지나간 입력은 캐시에서 바로 버려진다.
+            reader.setInput(input, true, true);
+
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            Plan plan = Plan.of(width, height);
+
+            ImageReadParam param = reader.getDefaultReadParam();
+            if (plan.subsampling() > 1) {
+                param.setSourceSubsampling(plan.subsampling(), plan.subsampling(), 0, 0);
+            }
+            log.debug("리사이징: {}x{} -> {}x{} (subsampling {})", width, height, plan.width(), plan.height(), plan.subsampling());
+
+            BufferedImage decoded = reader.read(0, param);
+            return encodeJpeg(toRgb(decoded, plan.width(), plan.height()), JPEG_QUALITY);
+        } finally {
+            if (reader != null) {
+                reader.dispose();
+            }
+            input.close();
+        }
+    }
+
     /**
      * 썸네일 생성
      */
@@ -80,77 +221,83 @@ public class ImageOptimizationService {
     }
 
     /**
-     * 필요한 경우에만 리사이징
+     * 목표 크기(비율 유지, 최대 MAX_WIDTH x MAX_HEIGHT)와 디코드 subsampling 배수.
+     * subsampling 은 디코드 결과가 목표 크기의 2배보다 작아지지 않는 가장 큰 정수다. 나머지 2~4배는 면적 평균으로 줄인다.
      */
-    private BufferedImage resizeIfNeeded(BufferedImage original) throws IOException {
-        int width = original.getWidth();
-        int height = original.getHeight();
-
-        // 이미 작으면 리사이징 불필요
-        if (width <= MAX_WIDTH && height <= MAX_HEIGHT) {
-            log.debug("리사이징 불필요: {}x{}", width, height);
-            return original;
-        }
-
-        // 비율 유지하며 리사이징
-        double ratio = Math.min(
-                (double) MAX_WIDTH / width,
-                (double) MAX_HEIGHT / height
-        );
-
-        int newWidth = (int) (width * ratio);
-        int newHeight = (int) (height * ratio);
+    private record Plan(int width, int height, int subsampling) {
 
-        log.debug("리사이징: {}x{} -> {}x{}", width, height, newWidth, newHeight);
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        Thumbnails.of(original)
-                .size(newWidth, newHeight)
-                .outputFormat("jpg")
-                .toOutputStream(baos);
+        static Plan of(int width, int height) {
+            double ratio = Math.min(1.0, Math.min((double) MAX_WIDTH / width, (double) MAX_HEIGHT / height));
+            int targetWidth = Math.max(1, (int) (width * ratio));
+            int targetHeight = Math.max(1, (int) (height * ratio));
+            int subsampling = Math.max(1, Math.min(width / targetWidth, height / targetHeight) / 2);
+            return new Plan(targetWidth, targetHeight, subsampling);
+        }
+    }
 
-        return ImageIO.read(new ByteArrayInputStream(baos.toByteArray()));
+    private ImageReader readerFor(ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new IOException("이미지를 읽을 수 없습니다");
+        }
+        return readers.next();
     }
 
     /**
-     * JPEG 압축 (품질 조정)
+     * 목표 크기의 RGB 이미지로 맞춘다. 이미 목표 크기의 RGB 면 그대로 쓰고,
+     * 아니면 면적 평균으로 줄인다. (투명 영역은 흰 배경, JPEG 은 alpha 를 쓸 수 없다)
      */
-    private byte[] compressAsJpeg(BufferedImage image, float quality) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    private BufferedImage toRgb(BufferedImage image, int width, int height) {
+        boolean rgb = image.getType() == BufferedImage.TYPE_INT_RGB || image.getType() == BufferedImage.TYPE_3BYTE_BGR;
+        if (rgb && image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        // 결과는 JPEG 인코더가 변환 없이 그대로 읽는 TYPE_3BYTE_BGR 이라 인코드 때 픽셀 배열을 한 번 더 만들지 않는다.
+        return AreaAverageScaler.scale(image, width, height);
+    }
 
-        // JPEG Writer 설정
+    /**
+     * JPEG 압축 (품질 조정). 인코더 출력은 풀 버퍼에 바로 쓰고 결과 크기만큼만 복사한다.
+     */
+    private byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
         ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
-        ImageWriteParam param = writer.getDefaultWriteParam();
-
-        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        param.setCompressionQuality(quality);
+        // 품질 0.85 JPEG 은 대략 픽셀당 2비트 안팎이다.
+        PooledImageOutputStream output = new PooledImageOutputStream(bufferPool, image.getWidth() * image.getHeight() / 4);
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
 
-        writer.setOutput(ImageIO.createImageOutputStream(baos));
-        writer.write(null, new IIOImage(image, null, null), param);
-        writer.dispose();
-
-        return baos.toByteArray();
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+            return output.toByteArray();
+        } finally {
+            writer.dispose();
+            output.close();
+        }
     }
 
     /**
      * 이미지 검증
      */
     public void validate(MultipartFile imageFile) {
+        validate(imageFile.getOriginalFilename(), imageFile.getContentType(), imageFile.getSize());
+    }
+
+    private void validate(String filename, String contentType, long size) {
         // 크기 검증 (10MB)
-        if (imageFile.getSize() > 10 * 1024 * 1024) {
+        if (size > MAX_FILE_SIZE) {
             throw new IllegalArgumentException(
                     "이미지 크기는 10MB를 초과할 수 없습니다");
         }
 
         // MIME 타입 검증
-        String contentType = imageFile.getContentType();
         if (contentType == null || !contentType.startsWith("image/")) {
             throw new IllegalArgumentException(
                     "이미지 파일만 업로드 가능합니다");
         }
 
         // 확장자 검증
-        String filename = imageFile.getOriginalFilename();
         if (filename == null || !filename.matches(".*\\.(jpg|jpeg|png|webp)$")) {
             throw new IllegalArgumentException(
                     "지원하는 형식: JPG, PNG, WEBP");
@@ -0,0 +1,86 @@
+package com.example.study.service;
+
+import com.example.study.common.ServiceException;
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.dto.ModelBenchmarkJob;
+import com.example.study.service.dto.ModelBenchmarkReport;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 벤치마크를 AI 실행기에서 백그라운드로 돌리고 작업 id 로 상태와 결과를 조회하게 한다.
+ * <p>
+ * 벤치마크는 프롬프트 x 반복 x 모델만큼 호출해 수 분이 걸리므로, 요청 스레드나 서블릿 비동기 요청을 그동안 붙잡지 않는다.
+ * 실행 시간 상한은 ai.executor.endpoint-timeouts.ai-benchmark 이고, 넘기면 실행 중인 작업을 interrupt 하고 FAILED 로 남긴다.
+ * 작업은 메모리에만 두고 마지막 변경 후 ai.comparison.benchmark-job-retention 이 지나면 지운다.
+ */
+@Slf4j
+@Service
+public class ModelBenchmarkJobService {
+
+    static final String ENDPOINT = "ai-benchmark";
+
+    private final ModelComparisonService modelComparisonService;
+    private final AiExecutor aiExecutor;
+    private final Cache<String, ModelBenchmarkJob> jobs;
+
+    public ModelBenchmarkJobService(ModelComparisonService modelComparisonService,
+                                    AiExecutor aiExecutor,
+                                    @Value("${ai.comparison.benchmark-job-retention:1h}") Duration retention) {
+        this.modelComparisonService = modelComparisonService;
+        this.aiExecutor = aiExecutor;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(retention)
+                .build();
+    }
+
+    /**
+     * 벤치마크를 시작하고 RUNNING 상태의 작업을 바로 반환한다. 실행기가 가득 차 있으면 작업을 만들지 않고 429 로 거절한다.
+     */
+    public ModelBenchmarkJob submit(List<String> prompts, int repetitions) {
+        ModelBenchmarkJob job = ModelBenchmarkJob.running(UUID.randomUUID().toString(), prompts.size(), repetitions);
+        CompletableFuture<ModelBenchmarkReport> future = aiExecutor.submit(ENDPOINT,
+                () -> modelComparisonService.benchmark(prompts, repetitions));
+        if (future.isCompletedExceptionally()) {
+            throw rejection(future);
+        }
+        jobs.put(job.jobId(), job);
+        future.whenComplete((report, error) -> {
+            if (error == null) {
+                jobs.put(job.jobId(), job.completed(report));
+            } else {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                log.warn("벤치마크 실패: jobId={}, error={}", job.jobId(), cause.toString());
+                jobs.put(job.jobId(), job.failed(cause.getMessage()));
+            }
+        });
+        return job;
+    }
+
+    public ModelBenchmarkJob getJob(String jobId) {
+        ModelBenchmarkJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ServiceException(ServiceExceptionCode.NOT_FOUND_BENCHMARK_JOB);
+        }
+        return job;
+    }
+
+    private static RuntimeException rejection(CompletableFuture<?> future) {
+        try {
+            future.join();
+            return new IllegalStateException("benchmark future is not failed");
+        } catch (CompletionException e) {
+            return e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+}
@@ -1,48 +1,165 @@
 package com.example.study.service;
 
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.conversation.TokenEstimator;
+import com.example.study.service.dto.ModelBenchmarkReport;
+import com.example.study.service.dto.ModelBenchmarkSummary;
+import com.example.study.service.dto.ModelComparisonResult;
+import com.example.study.service.dto.ModelRunResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.stereotype.Service;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 프롬프트를 설정된 N개 모델에 동시에 보내 응답 시간, 첫 토큰 시간(TTFT), 생성 속도, 사용량을 비교한다.
+ * <p>
+ * 모델마다 스트리밍으로 호출하고 Reactor 로 한꺼번에 구독하므로, 비교 시간은 합이 아니라 가장 느린 모델의 시간이 된다.
+ * 기다리는 스레드는 호출한 스레드 하나뿐이다. 대상 ChatClient 는 응답 캐시 없이 백엔드 limiter 만 붙여 만든다.
+ * (ModelComparisonConfig, ai.comparison.*)
+ */
 @Slf4j
-@Service
 public class ModelComparisonService {
 
-    private final ChatClient ollamaChatClient;  // OLLAMA (로컬)*
-    private final ChatClient claudeChatClient;  // Claude (클라우드)*
+    /**
+     * 비교 대상. name 은 결과에 표시할 이름, model 은 요청 옵션으로 넘길 모델 이름.
+     */
+    public record Target(String name, String model, ChatClient chatClient) {
+    }
+
+    private final List<Target> targets;
+    private final TokenEstimator tokenEstimator;
+    private final Duration timeout;
+
+    public ModelComparisonService(List<Target> targets, TokenEstimator tokenEstimator, Duration timeout) {
+        this.targets = List.copyOf(targets);
+        this.tokenEstimator = tokenEstimator;
+        this.timeout = timeout;
+    }
+
+    public ModelComparisonResult compareModels(String prompt) {
+        long startedAt = System.nanoTime();
+        List<ModelRunResult> runs = Flux.fromIterable(targets)
+                // 모든 대상을 동시에 구독하고 결과는 설정 순서대로 모은다.
+                .flatMapSequential(target -> run(target, prompt), Math.max(1, targets.size()))
+                .collectList()
+                .block();
+        ModelComparisonResult result = new ModelComparisonResult(prompt, elapsedMillis(startedAt), runs);
+
+        log.info("=== 모델 비교 결과 ({}ms) ===", result.wallClockMs());
+        for (ModelRunResult run : result.runs()) {
+            log.info("[{}] success={}, latency={}ms, ttft={}ms, tokens/s={}, completion tokens={}",
+                    run.name(), run.success(), run.latencyMs(), run.timeToFirstTokenMs(),
+                    run.tokensPerSecond(), run.completionTokens());
+        }
+        return result;
+    }
+
+    /**
+     * prompts 를 repetitions 번 반복 비교해 모델별로 집계한다. 프롬프트끼리는 순서대로 실행해 서로 간섭하지 않게 한다.
+     */
+    public ModelBenchmarkReport benchmark(List<String> prompts, int repetitions) {
+        long startedAt = System.nanoTime();
+        Map<String, List<ModelRunResult>> runsByTarget = new LinkedHashMap<>();
+        targets.forEach(target -> runsByTarget.put(target.name(), new ArrayList<>()));
 
-    public ModelComparisonService(
-            ChatClient.Builder ollamaBuilder,
-            ChatClient.Builder claudeBuilder) {
-        this.ollamaChatClient = ollamaBuilder.build();
-        this.claudeChatClient = claudeBuilder.build();
+        for (int i = 0; i < repetitions; i++) {
+            for (String prompt : prompts) {
+                compareModels(prompt).runs()
+                        .forEach(run -> runsByTarget.get(run.name()).add(run));
+            }
+        }
+
+        List<ModelBenchmarkSummary> summaries = targets.stream()
+                .map(target -> ModelBenchmarkSummary.of(target.name(), target.model(), runsByTarget.get(target.name())))
+                .toList();
+        return new ModelBenchmarkReport(prompts.size(), repetitions, elapsedMillis(startedAt), summaries);
+    }
+
+    private Mono<ModelRunResult> run(Target target, String prompt) {
+        return Mono.defer(() -> {
+            StreamProgress progress = new StreamProgress(System.nanoTime());
+            return target.chatClient().prompt()
+                    .user(prompt)
+                    .options(ChatOptions.builder().model(target.model()).build())
+                    .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK))
+                    .stream()
+                    .chatResponse()
+                    .doOnNext(progress::accept)
+                    .then(Mono.fromSupplier(() -> progress.toResult(target, tokenEstimator)))
+                    .timeout(timeout)
+                    .onErrorResume(e -> Mono.just(ModelRunResult.failure(
+                            target.name(), target.model(), elapsedMillis(progress.startedAt), e.getMessage())));
+        });
+    }
+
+    private static long elapsedMillis(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
     }
 
-    public void compareModels(String prompt) {
-        // 1. OLLAMA 테스트
-        long ollamaStart = System.currentTimeMillis();
-        String ollamaResponse = ollamaChatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
-        long ollamaTime = System.currentTimeMillis() - ollamaStart;
-
-        // 2. Claude 테스트
-        long claudeStart = System.currentTimeMillis();
-        String claudeResponse = claudeChatClient.prompt()
-                .user(prompt)
-                .call()
-                .content();
-        long claudeTime = System.currentTimeMillis() - claudeStart;
-
-        // 3. 결과 출력
-        log.info("=== 모델 비교 결과 ===");
-        log.info("질문: {}", prompt);
-        log.info("\n[OLLAMA (Qwen 2.5 3B)]");
-        log.info("응답 시간: {}ms", ollamaTime);
-        log.info("응답: {}", ollamaResponse);
-        log.info("\n[Claude (Sonnet 4)]");
-        log.info("응답 시간: {}ms", claudeTime);
-        log.info("응답: {}", claudeResponse);
+    /**
+     * 스트림 청크를 받으며 첫 토큰 시각, 누적 텍스트, 마지막 사용량을 기록한다. (청크는 순서대로 한 번에 하나씩 온다)
+     */
+    private static final class StreamProgress {
+
+        private final long startedAt;
+        private final StringBuilder text = new StringBuilder();
+        private long firstTokenAt = -1;
+        private Usage usage;
+
+        private StreamProgress(long startedAt) {
+            this.startedAt = startedAt;
+        }
+
+        private void accept(ChatResponse chunk) {
+            String delta = chunk.getResult() != null && chunk.getResult().getOutput() != null
+                    ? chunk.getResult().getOutput().getText()
+                    : null;
+            if (delta != null && !delta.isEmpty()) {
+                if (firstTokenAt < 0) {
+                    firstTokenAt = System.nanoTime();
+                }
+                text.append(delta);
+            }
+            Usage chunkUsage = chunk.getMetadata() != null ? chunk.getMetadata().getUsage() : null;
+            if (chunkUsage != null && chunkUsage.getTotalTokens() != null && chunkUsage.getTotalTokens() > 0) {
+                usage = chunkUsage;
+            }
+        }
+
+        private ModelRunResult toResult(Target target, TokenEstimator tokenEstimator) {
+            long finishedAt = System.nanoTime();
+            String response = text.toString();
+            boolean estimated = usage == null || usage.getCompletionTokens() == null;
+            int completionTokens = estimated ? tokenEstimator.estimate(response) : usage.getCompletionTokens();
+            long generationNanos = finishedAt - (firstTokenAt >= 0 ? firstTokenAt : startedAt);
+            Double tokensPerSecond = generationNanos > 0 && completionTokens > 0
+                    ? completionTokens / (generationNanos / 1_000_000_000.0)
+                    : null;
+            return new ModelRunResult(
+                    target.name(),
+                    target.model(),
+                    true,
+                    response,
+                    TimeUnit.NANOSECONDS.toMillis(finishedAt - startedAt),
+                    firstTokenAt >= 0 ? TimeUnit.NANOSECONDS.toMillis(firstTokenAt - startedAt) : null,
+                    usage != null ? usage.getPromptTokens() : null,
+                    completionTokens,
+                    estimated,
+                    tokensPerSecond,
+                    null
+            );
+        }
     }
-}
\ No newline at end of file
+}
@@ -11,20 +11,33 @@ import com.example.study.repository.PurchaseRepository;
 import com.example.study.repository.UserJpaRepository;
 import com.example.study.service.dto.OrderCreateServiceDto;
 import com.example.study.service.dto.OrderResultDto;
+import com.example.study.service.inventory.StockReservationService;
+import com.example.study.service.rollup.PurchaseSalesChangedEvent;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class OrderService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     private final PurchaseRepository purchaseRepository;
     private final ProductRepository productRepository;
     private final UserJpaRepository userJpaRepository;
+    private final StockReservationService stockReservationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderResultDto createOrder(OrderCreateServiceDto input) {
         User user = userJpaRepository.findById(input.getUserId())
@@ -38,11 +51,8 @@ public class OrderService {
             throw new ServiceException(ServiceExceptionCode.INVALID_ORDER_QUANTITY);
         }
         int orderQuantity = requestedQuantity;
-        if (product.getStock() < orderQuantity) {
-            throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
-        }
+        stockReservationService.reserve(product, orderQuantity);
 
-        product.decreaseStock(orderQuantity);
         BigDecimal unitPrice = product.getPrice();
         BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(orderQuantity));
 
@@ -56,6 +66,64 @@ public class OrderService {
                         .status(PurchaseStatus.PENDING)
                         .build()
         );
+        eventPublisher.publishEvent(PurchaseSalesChangedEvent.created(saved));
         return OrderResultDto.fromEntity(saved);
     }
+
+    /**
+     * 여러 주문을 한 트랜잭션으로 생성한다. (마켓플레이스 일괄 연동용)
+     * 사용자/상품은 각각 IN 쿼리 한 번으로 검증하고, 재고는 상품별 수량을 합쳐 UPDATE 한 번으로 차감하며,
+     * 주문 INSERT 는 JDBC batch 로 묶인다. 한 건이라도 실패하면 전체가 롤백된다.
+     */
+    public List<OrderResultDto> createOrders(List<OrderCreateServiceDto> inputs) {
+        if (inputs == null || inputs.isEmpty() || inputs.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("orders size must be between 1 and " + MAX_BATCH_SIZE);
+        }
+        for (OrderCreateServiceDto input : inputs) {
+            if (input.getQuantity() == null || input.getQuantity() <= 0) {
+                throw new ServiceException(ServiceExceptionCode.INVALID_ORDER_QUANTITY);
+            }
+        }
+
+        Set<Long> userIds = inputs.stream().map(OrderCreateServiceDto::getUserId).collect(Collectors.toSet());
+        Map<Long, User> users = userJpaRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        if (users.size() != userIds.size()) {
+            throw new ServiceException(ServiceExceptionCode.NOT_FOUND_USER);
+        }
+
+        Set<Long> productIds = inputs.stream().map(OrderCreateServiceDto::getProductId).collect(Collectors.toSet());
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (products.size() != productIds.size()) {
+            throw new ServiceException(ServiceExceptionCode.NOT_FOUND_PRODUCT);
+        }
+
+        Map<Product, Integer> quantities = new LinkedHashMap<>();
+        for (OrderCreateServiceDto input : inputs) {
+            quantities.merge(products.get(input.getProductId()), input.getQuantity(), Integer::sum);
+        }
+        stockReservationService.reserveAll(quantities);
+
+        List<Purchase> purchases = inputs.stream()
+                .map(input -> {
+                    Product product = products.get(input.getProductId());
+                    BigDecimal unitPrice = product.getPrice();
+                    return Purchase.builder()
+                            .user(users.get(input.getUserId()))
+                            .product(product)
+                            .quantity(input.getQuantity())
+                            .unitPrice(unitPrice)
+                            .totalPrice(unitPrice.multiply(BigDecimal.valueOf(input.getQuantity())))
+                            .status(PurchaseStatus.PENDING)
+                            .build();
+                })
+                .toList();
+        List<Purchase> saved = purchaseRepository.saveAll(purchases);
+        // batch INSERT 를 여기서 실행해 제약 조건 오류를 바로 드러내고, 생성 시각이 채워진 상태로 응답/이벤트를 만든다.
+        purchaseRepository.flush();
+
+        PurchaseSalesChangedEvent.createdAll(saved).forEach(eventPublisher::publishEvent);
+        return saved.stream().map(OrderResultDto::fromEntity).toList();
+    }
 }
@@ -1,6 +1,7 @@
 package com.example.study.service;
 
 
+import com.example.study.common.CursorPage;
 import com.example.study.common.ServiceException;
 import com.example.study.common.ServiceExceptionCode;
 import com.example.study.controller.dto.ProductResponseDto;
@@ -11,8 +12,10 @@ import com.example.study.mapper.ProductMapper;
 import com.example.study.repository.CategoryRepository;
 import com.example.study.repository.ProductQueryRepository;
 import com.example.study.repository.ProductRepository;
+import com.example.study.service.dto.CountMode;
 import com.example.study.service.dto.ProductServiceInputDto;
 import com.example.study.service.dto.ProductSearchCondition;
+import com.example.study.service.inventory.StockReservationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -26,10 +29,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ProductService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final ProductRepository productRepository;
     private final ProductQueryRepository productQueryRepository;
     private final CategoryRepository categoryRepository;
     private final ProductMapper productMapper;
+    private final StockReservationService stockReservationService;
 
     @Transactional(readOnly = true)
     public List<ProductResponseDto> getAll() {
@@ -79,6 +85,7 @@ public class ProductService {
                 input.getPrice(),
                 input.getStock()
         );
+        stockReservationService.evict(id);
 
         return productMapper.toResponse(product);
     }
@@ -87,6 +94,7 @@ public class ProductService {
     public void delete(Long id) {
         Product product = findProduct(id);
         productRepository.delete(product);
+        stockReservationService.evict(id);
     }
 
     @Transactional(readOnly = true)
@@ -102,6 +110,16 @@ public class ProductService {
         return products.map(productMapper::toResponse);
     }
 
+    @Transactional(readOnly = true)
+    public CursorPage<ProductResponseDto> search(ProductSearchCondition condition,
+                                                 String cursor,
+                                                 int size,
+                                                 CountMode countMode) {
+        validateCursorPageSize(size);
+        CursorPage<Product> products = productQueryRepository.findSliceByCondition(condition, cursor, size, countMode);
+        return products.map(productMapper::toResponse);
+    }
+
     @Transactional(readOnly = true)
     public List<ProductSummaryResponseDto> getCategorySummaries(Long categoryId) {
         return productMapper.toSummaryResponseList(productQueryRepository.findSummariesByCategoryId(categoryId));
@@ -129,6 +147,12 @@ public class ProductService {
         }
     }
 
+    private void validateCursorPageSize(int size) {
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+    }
+
     private void validatePrice(BigDecimal price) {
         if (price == null || price.compareTo(BigDecimal.ZERO) <= 0) {
             throw new ServiceException(ServiceExceptionCode.INVALID_PRODUCT_PRICE);
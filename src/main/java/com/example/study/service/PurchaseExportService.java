@@ -0,0 +1,125 @@
+package com.example.study.service;
+
+import com.example.study.repository.PurchaseQueryRepository;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.dto.ExportFormat;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 주문 상세를 DB 커서에서 읽는 즉시 응답 스트림으로 흘려보내는 export 서비스.
+ * <p>
+ * 행을 List 로 모으지 않고 한 행씩 직렬화하므로 heap 사용량은 fetch size 와 버퍼 크기에만 비례한다.
+ * 클라이언트가 느리면 OutputStream 쓰기가 막히고, 그동안 커서도 다음 행을 읽지 않는다. (자연스러운 back-pressure)
+ */
+@Slf4j
+@Service
+public class PurchaseExportService {
+
+    private static final int FLUSH_INTERVAL = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "purchaseId,userId,username,productId,productName,quantity,unitPrice,totalPrice,status,purchasedAt";
+
+    private final PurchaseQueryRepository purchaseQueryRepository;
+    private final ObjectMapper objectMapper;
+    // 행마다 flush 하면 응답에 작은 쓰기가 행 수만큼 생기므로, flush 는 FLUSH_INTERVAL 행마다 직접 한다.
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+
+    public PurchaseExportService(PurchaseQueryRepository purchaseQueryRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${export.fetch-size:1000}") int fetchSize) {
+        this.purchaseQueryRepository = purchaseQueryRepository;
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * 조건에 맞는 주문 상세를 format 으로 out 에 기록하고 기록한 행 수를 반환한다.
+     */
+    @Transactional(readOnly = true)
+    public long export(PurchaseSearchCondition condition, ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<PurchaseDetailDto> rows = purchaseQueryRepository.streamPurchaseDetails(condition, fetchSize)) {
+            long written = format == ExportFormat.CSV
+                    ? writeCsv(rows.iterator(), out)
+                    : writeNdjson(rows.iterator(), out);
+            log.info("[export] {} rows written as {}", written, format);
+            return written;
+        } catch (UncheckedIOException e) {
+            // 클라이언트가 다운로드를 중단한 경우 등
+            throw e.getCause();
+        }
+    }
+
+    private long writeNdjson(Iterator<PurchaseDetailDto> rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // 루트 값 사이 기본 구분자(공백)를 끄고 행 끝의 줄바꿈으로만 구분한다.
+        generator.setRootValueSeparator(null);
+        while (rows.hasNext()) {
+            rowWriter.writeValue(generator, rows.next());
+            generator.writeRaw('\n');
+            if (++count % FLUSH_INTERVAL == 0) {
+                generator.flush();
+            }
+        }
+        generator.close();
+        return count;
+    }
+
+    private long writeCsv(Iterator<PurchaseDetailDto> rows, OutputStream out) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            PurchaseDetailDto row = rows.next();
+            writer.append(String.valueOf(row.getPurchaseId())).append(',')
+                    .append(String.valueOf(row.getUserId())).append(',')
+                    .append(escapeCsv(row.getUsername())).append(',')
+                    .append(String.valueOf(row.getProductId())).append(',')
+                    .append(escapeCsv(row.getProductName())).append(',')
+                    .append(String.valueOf(row.getQuantity())).append(',')
+                    .append(row.getUnitPrice().toPlainString()).append(',')
+                    .append(row.getTotalPrice().toPlainString()).append(',')
+                    .append(row.getStatus().name()).append(',')
+                    .append(String.valueOf(row.getPurchasedAt()))
+                    .append('\n');
+            if (++count % FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private String escapeCsv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
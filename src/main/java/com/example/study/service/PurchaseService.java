@@ -1,6 +1,7 @@
 package com.example.study.service;
 
 import com.example.study.PurchaseStatus;
+import com.example.study.common.CursorPage;
 import com.example.study.common.ServiceException;
 import com.example.study.common.ServiceExceptionCode;
 import com.example.study.controller.dto.PurchaseRequest;
@@ -9,9 +10,16 @@ import com.example.study.entity.Product;
 import com.example.study.entity.Purchase;
 import com.example.study.entity.User;
 import com.example.study.repository.ProductRepository;
+import com.example.study.repository.PurchaseQueryRepository;
 import com.example.study.repository.PurchaseRepository;
+import com.example.study.repository.projection.PurchaseDetailDto;
 import com.example.study.repository.UserJpaRepository;
+import com.example.study.service.dto.CountMode;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import com.example.study.service.inventory.StockReservationService;
+import com.example.study.service.rollup.PurchaseSalesChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,9 +29,14 @@ import java.math.BigDecimal;
 @RequiredArgsConstructor
 public class PurchaseService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
     private final PurchaseRepository purchaseRepository;
     private final ProductRepository productRepository;
     private final UserJpaRepository userJpaRepository;
+    private final StockReservationService stockReservationService;
+    private final PurchaseQueryRepository purchaseQueryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     // [트랜잭션 실습] 주문 생성 전체 흐름을 하나의 트랜잭션으로 묶는다.
     @Transactional
@@ -38,11 +51,8 @@ public class PurchaseService {
         if (requestedQuantity == null || requestedQuantity <= 0) {
             throw new ServiceException(ServiceExceptionCode.INVALID_ORDER_QUANTITY);
         }
-        if (product.getStock() < requestedQuantity) {
-            throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
-        }
-
-        product.decreaseStock(requestedQuantity);
+        // 재고 확인/차감은 조건부 UPDATE 로 한 번에 처리한다. (dirty checking 사용 시 동시 주문에서 lost update 발생)
+        stockReservationService.reserve(product, requestedQuantity);
 
         BigDecimal unitPrice = product.getPrice();
         BigDecimal totalPrice = unitPrice.multiply(BigDecimal.valueOf(requestedQuantity));
@@ -57,6 +67,19 @@ public class PurchaseService {
                 .build();
 
         Purchase savedPurchase = purchaseRepository.save(purchase);
+        eventPublisher.publishEvent(PurchaseSalesChangedEvent.created(savedPurchase));
         return PurchaseResponse.fromEntity(savedPurchase);
     }
+
+    // 주문 상세를 keyset 커서로 조회한다. (깊은 페이지에서도 offset 스캔 없음)
+    @Transactional(readOnly = true)
+    public CursorPage<PurchaseDetailDto> searchPurchaseDetails(PurchaseSearchCondition condition,
+                                                               String cursor,
+                                                               int size,
+                                                               CountMode countMode) {
+        if (size <= 0 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return purchaseQueryRepository.searchPurchaseDetails(condition, cursor, size, countMode);
+    }
 }
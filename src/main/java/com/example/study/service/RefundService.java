@@ -11,7 +11,10 @@ import com.example.study.entity.Purchase;
 import com.example.study.entity.Refund;
 import com.example.study.repository.PurchaseRepository;
 import com.example.study.repository.RefundRepository;
+import com.example.study.service.inventory.StockReservationService;
+import com.example.study.service.rollup.PurchaseSalesChangedEvent;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -22,6 +25,8 @@ public class RefundService {
 
     private final PurchaseRepository purchaseRepository;
     private final RefundRepository refundRepository;
+    private final StockReservationService stockReservationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // [트랜잭션 실습] 환불 처리와 재고 복원을 하나의 트랜잭션으로 관리한다.
     @Transactional
@@ -39,9 +44,11 @@ public class RefundService {
         }
 
         Product product = purchase.getProduct();
-        product.increaseStock(purchase.getQuantity());
+        stockReservationService.restore(product.getId(), purchase.getQuantity());
 
+        PurchaseStatus previousStatus = purchase.getStatus();
         purchase.markRefunded();
+        eventPublisher.publishEvent(PurchaseSalesChangedEvent.statusChanged(purchase, previousStatus));
 
         Refund refund = Refund.builder()
                 .purchase(purchase)
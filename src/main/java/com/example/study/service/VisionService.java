@@ -2,10 +2,19 @@ package com.example.study.service;
 
 import com.example.study.controller.dto.ImageAnalysisResponse;
 import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import com.example.study.service.ai.LenientJsonOutputConverter;
 import com.example.study.service.dto.ImageAnalysis;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.VisionCacheMatch;
+import com.example.study.service.image.VisionCacheStats;
+import com.example.study.service.image.VisionResultCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.ResponseEntity;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatResponse;
@@ -17,6 +26,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -25,7 +36,38 @@ public class VisionService {
 
     public static final Class<ChatResponse> DEFAULT_CHAT_RESPONSE_CLASS = ChatResponse.class;
     private static final String DEFAULT_CONTENT_TYPE = "image/jpeg";
+    private static final String OCR_PROMPT = """
+            이미지에 있는 모든 텍스트를 정확하게 추출해주세요.
+            텍스트만 출력하고, 다른 설명은 필요 없습니다.
+            """;
+    private static final String DESCRIBE_PROMPT = """
+            이 이미지를 다음 형식으로 상세히 설명해주세요:
+            
+            1. 전체적인 장면
+            2. 주요 객체들
+            3. 색상과 분위기
+            4. 특이사항
+            """;
+    private static final String CHART_PROMPT = """
+            이 차트/그래프를 분석해주세요:
+            
+            1. 차트 유형 (막대, 선, 파이 등)
+            2. 주요 데이터 포인트
+            3. 트렌드와 패턴
+            4. 인사이트와 결론
+            """;
+    private static final String COMPARE_PROMPT = """
+            두 이미지를 비교하여 다음을 설명해주세요:
+            
+            1. 공통점
+            2. 차이점
+            3. 각 이미지의 특징
+            """;
     private final ChatClient chatClient;
+    private final VisionResultCache visionResultCache;
+    private final ImageOptimizationService imageOptimizationService;
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, LenientJsonOutputConverter<?>> converters = new ConcurrentHashMap<>();
 
     /**
      * 이미지 분석
@@ -35,8 +77,27 @@ public class VisionService {
     // Request Message -> naming 변경되거나, 추가되거나, 삭제되는 경우,
     // Service 코드 자체 수정이 되는 현상이 발생하잖아.
     // Mapper -> DTO for Service Layer ->
-    @SuppressWarnings("unchecked")
     public <T> ImageAnalysisResponse<T> analyzeImage(ImageAnalysis imageAnalysis, Class<T> referenceType) {
+        return analyzeImage(imageAnalysis, referenceType, AiPriority.INTERACTIVE);
+    }
+
+    /**
+     * 일괄 처리처럼 사용자가 응답을 기다리지 않는 호출은 priority 를 BULK 로 주어 limiter 의 BULK 몫 안에서만 실행한다.
+     */
+    public <T> ImageAnalysisResponse<T> analyzeImage(ImageAnalysis imageAnalysis, Class<T> referenceType,
+                                                     AiPriority priority) {
+        // 비슷한 이미지(재압축/크기 변경/약간의 잘림)에 같은 프롬프트로 물은 적이 있으면 모델을 부르지 않는다.
+        return visionResultCache.getOrAnalyze(imageAnalysis, referenceType,
+                () -> callVisionModel(imageAnalysis, referenceType, priority));
+    }
+
+    public VisionCacheStats getCacheStats() {
+        return visionResultCache.stats();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ImageAnalysisResponse<T> callVisionModel(ImageAnalysis imageAnalysis, Class<T> referenceType,
+                                                         AiPriority priority) {
         String prompt = imageAnalysis.prompt();
 
         // 1. 이미지 바이트 배열 가져오기
@@ -60,53 +121,73 @@ public class VisionService {
                 .text(prompt)
                 .build();
 
-        // 5. Claude Vision API 호출
-        T response = promptWithResponseFormat(userMessage, referenceType);
-        TokenUsage tokenUsage = null;
-
-        // 6. 응답 타입에 따라 처리
-        if (response instanceof ChatResponse chatResponse) {
+        // 5. Claude Vision API 호출 + 6. 응답 타입에 따라 처리
+        if (ChatResponse.class.equals(referenceType)) {
             // ChatResponse 타입인 경우
+            ChatResponse chatResponse = promptByChatResponse(userMessage, priority);
             String analysis = chatResponse.getResult().getOutput().getText();
 
-            // 토큰 사용량 추출
-            var metadata = chatResponse.getMetadata();
-            if (metadata != null && metadata.getUsage() != null) {
-                var usage = metadata.getUsage();
-                tokenUsage = new TokenUsage(
-                        usage.getPromptTokens(),
-                        usage.getCompletionTokens(),
-                        usage.getTotalTokens()
-                );
-            }
-
             return ImageAnalysisResponse.of(
                     (T) analysis,
                     contentType,
                     imageBytes.length,
-                    tokenUsage
+                    tokenUsageOf(chatResponse)
             );
+        }
 
-        } else {
-            // String 타입인 경우
-            return ImageAnalysisResponse.of(
-                    response,
-                    contentType,
-                    imageBytes.length,
-                    tokenUsage
-            );
+        // 엔티티 타입인 경우 (String, ReceiptData 등) - 캐시가 절약한 토큰을 셀 수 있도록 사용량도 함께 받는다.
+        // 구조화 타입은 코드 펜스/머리말이 붙어도 복사 없이 첫 JSON 객체만 읽는다.
+        ChatClient.CallResponseSpec call = chatClient.prompt()
+                .messages(userMessage)
+                .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, priority))
+                .call();
+        ResponseEntity<ChatResponse, T> response = String.class.equals(referenceType)
+                ? call.responseEntity(referenceType)
+                : call.responseEntity(converter(referenceType));
+        return ImageAnalysisResponse.of(
+                response.entity(),
+                contentType,
+                imageBytes.length,
+                tokenUsageOf(response.response())
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> LenientJsonOutputConverter<T> converter(Class<T> type) {
+        return (LenientJsonOutputConverter<T>) converters.computeIfAbsent(type,
+                key -> new LenientJsonOutputConverter<>(key, objectMapper));
+    }
+
+    private TokenUsage tokenUsageOf(ChatResponse chatResponse) {
+        var metadata = chatResponse != null ? chatResponse.getMetadata() : null;
+        if (metadata == null || metadata.getUsage() == null) {
+            return null;
         }
+        var usage = metadata.getUsage();
+        return new TokenUsage(
+                usage.getPromptTokens(),
+                usage.getCompletionTokens(),
+                usage.getTotalTokens()
+        );
     }
 
     /**
      * 이미지에서 텍스트 추출 (OCR)
      */
     public String extractText(MultipartFile imageFile) throws IOException {
-        String prompt = """
-                이미지에 있는 모든 텍스트를 정확하게 추출해주세요.
-                텍스트만 출력하고, 다른 설명은 필요 없습니다.
-                """;
-        ImageAnalysisResponse<String> response = analyzeImage(ImageAnalysis.of(prompt, imageFile), String.class);
+        return extractText(imageOptimizationService.prepare(imageFile));
+    }
+
+    public String extractText(PreparedImage image) {
+        return extractText(image, null);
+    }
+
+    /**
+     * 글자를 읽으므로 결과 캐시는 바이트가 같은 이미지만 같은 이미지로 본다. (EXACT)
+     */
+    public String extractText(PreparedImage image, String caller) {
+        ImageAnalysisResponse<String> response = analyzeImage(ImageAnalysis.of(OCR_PROMPT, image).forCaller(caller),
+                String.class);
         return response.analysis();
     }
 
@@ -114,16 +195,19 @@ public class VisionService {
      * 이미지 상세 설명 생성
      */
     public String describeImage(MultipartFile imageFile) throws IOException {
-        String prompt = """
-                이 이미지를 다음 형식으로 상세히 설명해주세요:
-                
-                1. 전체적인 장면
-                2. 주요 객체들
-                3. 색상과 분위기
-                4. 특이사항
-                """;
-
-        ImageAnalysisResponse<String> response = analyzeImage(ImageAnalysis.of(prompt, imageFile), String.class);
+        return describeImage(imageOptimizationService.prepare(imageFile));
+    }
+
+    public String describeImage(PreparedImage image) {
+        return describeImage(image, null);
+    }
+
+    /**
+     * 재압축이나 약간의 잘림에 설명이 바뀌지 않으므로 결과 캐시는 비슷한 이미지도 같은 이미지로 본다. (SIMILAR)
+     */
+    public String describeImage(PreparedImage image, String caller) {
+        ImageAnalysisResponse<String> response = analyzeImage(ImageAnalysis.of(DESCRIBE_PROMPT, image)
+                .withCacheMatch(VisionCacheMatch.SIMILAR).forCaller(caller), String.class);
         return response.analysis();
     }
 
@@ -131,16 +215,19 @@ public class VisionService {
      * 차트/그래프 분석
      */
     public String analyzeChart(MultipartFile imageFile) throws IOException {
-        String prompt = """
-                이 차트/그래프를 분석해주세요:
-                
-                1. 차트 유형 (막대, 선, 파이 등)
-                2. 주요 데이터 포인트
-                3. 트렌드와 패턴
-                4. 인사이트와 결론
-                """;
-
-        ImageAnalysisResponse response = analyzeImage(ImageAnalysis.of(prompt, imageFile), DEFAULT_CHAT_RESPONSE_CLASS);
+        return analyzeChart(imageOptimizationService.prepare(imageFile));
+    }
+
+    public String analyzeChart(PreparedImage image) {
+        return analyzeChart(image, null);
+    }
+
+    /**
+     * 차트 해석도 재압축에 바뀌지 않으므로 SIMILAR 로 캐시한다.
+     */
+    public String analyzeChart(PreparedImage image, String caller) {
+        ImageAnalysisResponse response = analyzeImage(ImageAnalysis.of(CHART_PROMPT, image)
+                .withCacheMatch(VisionCacheMatch.SIMILAR).forCaller(caller), DEFAULT_CHAT_RESPONSE_CLASS);
         return (String) response.analysis();
     }
 
@@ -149,67 +236,47 @@ public class VisionService {
      */
     public String compareImages(MultipartFile image1, MultipartFile image2) {
         try {
-            // 첫 번째 이미지 처리
-            byte[] bytes1 = image1.getBytes();
-            Media media1 = new Media(
-                    MimeTypeUtils.parseMimeType(
-                            image1.getContentType() != null ? image1.getContentType() : "image/jpeg"
-                    ),
-                    new ByteArrayResource(bytes1)
-            );
-
-            // 두 번째 이미지 처리
-            byte[] bytes2 = image2.getBytes();
-            Media media2 = new Media(
-                    MimeTypeUtils.parseMimeType(
-                            image2.getContentType() != null ? image2.getContentType() : "image/jpeg"
-                    ),
-                    new ByteArrayResource(bytes2)
-            );
-
-            // 프롬프트와 함께 두 이미지 전달
-            String prompt = """
-                    두 이미지를 비교하여 다음을 설명해주세요:
-                    
-                    1. 공통점
-                    2. 차이점
-                    3. 각 이미지의 특징
-                    """;
-
-            // UserMessage 생성 (List로 여러 미디어 전달)
-            UserMessage userMessage = UserMessage.builder()
-                    .media(List.of(media1, media2))
-                    .text(prompt)
-                    .build();
-
-            ChatResponse response = chatClient.prompt()
-                    .messages(userMessage)
-                    .call()
-                    .chatResponse();
-
-            return response.getResult().getOutput().getText();
-
+            return compareImages(imageOptimizationService.prepare(image1), imageOptimizationService.prepare(image2));
         } catch (IOException e) {
             log.error("이미지 비교 실패: {}", e.getMessage());
             throw new RuntimeException("이미지 비교 중 오류 발생", e);
         }
     }
 
-    private ChatResponse promptByChatResponse(Message userMessage) {
-        return chatClient.prompt()
-                .messages(userMessage)
-                .call()
-                .chatResponse();
+    public String compareImages(PreparedImage image1, PreparedImage image2) {
+        return analyzeImages(COMPARE_PROMPT, List.of(image1, image2), AiPriority.INTERACTIVE).analysis();
     }
 
+    /**
+     * 여러 이미지를 하나의 UserMessage 에 담아 한 번에 분석한다. 이미지는 images 순서대로 첨부된다.
+     * 한 번에 보낼 수 있는 양을 넘는 경우의 분할은 호출하는 쪽(MultiImageAnalysisService)이 정한다.
+     * imageType 은 첨부한 형식들, imageSize 는 바이트 합이다.
+     */
+    public ImageAnalysisResponse<String> analyzeImages(String prompt, List<PreparedImage> images, AiPriority priority) {
+        UserMessage userMessage = UserMessage.builder()
+                .media(images.stream().map(this::toMedia).toList())
+                .text(prompt)
+                .build();
 
-    @SuppressWarnings("unchecked")
-    private <T> T promptWithResponseFormat(Message userMessage, Class<T> responseType) {
-        String responseTypeClassName = responseType.getSimpleName();
-        if ("ChatResponse".equals(responseTypeClassName)) return (T) promptByChatResponse(userMessage);
-        else return chatClient.prompt()
+        ChatResponse chatResponse = promptByChatResponse(userMessage, priority);
+        return ImageAnalysisResponse.of(
+                chatResponse.getResult().getOutput().getText(),
+                String.join(",", images.stream().map(PreparedImage::contentType).distinct().toList()),
+                images.stream().mapToLong(PreparedImage::size).sum(),
+                tokenUsageOf(chatResponse)
+        );
+    }
+
+    private Media toMedia(PreparedImage image) {
+        return new Media(MimeTypeUtils.parseMimeType(image.contentType()), new ByteArrayResource(image.bytes()));
+    }
+
+    private ChatResponse promptByChatResponse(Message userMessage, AiPriority priority) {
+        return chatClient.prompt()
                 .messages(userMessage)
+                .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, priority))
                 .call()
-                .entity(responseType);
+                .chatResponse();
     }
+
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+package com.example.study.service.ai;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 모델 백엔드 하나(Ollama, Claude)의 동시 호출 수를 관측 지연시간에 맞춰 조절하는 AIMD limiter. (백엔드별 bulkhead)
+ * <p>
+ * - 지연 표본: 응답 길이와 무관한 값이어야 한다. (ConcurrencyLimitAdvisor 는 출력 토큰당 지연을 넘긴다)
+ * - 기준 지연(no-load latency): 관측한 최소 지연. 모델 교체/예열 후에도 따라가도록 조금씩 위로 이동한다.
+ * - 감소: 지연이 기준의 tolerance 배를 넘거나 과부하로 실패(onDropped)하면 limit 에 backoffRatio 를 곱한다.
+ * - 증가: 그 외에는 limit 이 거의 찬 상태에서만 1/limit 씩 올린다. (한도만큼 성공하면 +1)
+ * - 한도를 넘은 요청은 거절한다. BULK 는 limit * bulkShare 까지만 들어올 수 있다.
+ * - tryAcquire 는 기다리지 않고, acquire 는 자리가 날 때까지 정해진 시간만큼 기다린다. (반납할 때마다 깨운다)
+ * <p>
+ * 지표: ai.limiter.limit / ai.limiter.inflight (backend 태그), ai.limiter.requests (backend, priority, result),
+ * ai.limiter.latency (backend)
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double NO_LOAD_DRIFT = 0.01;
+
+    /**
+     * 허용된 호출 한 건. 정확히 한 번 onSuccess/onDropped/onIgnore 중 하나로 반납한다.
+     */
+    public final class Permit {
+
+        private final int inFlightAtStart;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void onSuccess(long latencyNanos) {
+            if (released.compareAndSet(false, true)) {
+                latency.record(latencyNanos, TimeUnit.NANOSECONDS);
+                release(latencyNanos, inFlightAtStart, false);
+            }
+        }
+
+        /**
+         * 백엔드 과부하(시간 초과, 5xx, 429)로 실패했을 때만 호출한다. 그 밖의 실패는 onIgnore 로 반납한다.
+         */
+        public void onDropped() {
+            if (released.compareAndSet(false, true)) {
+                release(0, inFlightAtStart, true);
+            }
+        }
+
+        /**
+         * limit 조정 없이 반납만 한다. 지연 표본을 만들 수 없는 호출(스트리밍, 토큰 수를 모르는 응답)이나
+         * 과부하와 무관한 실패(요청 오류, 응답 파싱 실패)에 쓴다.
+         */
+        public void onIgnore() {
+            if (released.compareAndSet(false, true)) {
+                synchronized (AdaptiveConcurrencyLimiter.this) {
+                    inFlight--;
+                    AdaptiveConcurrencyLimiter.this.notifyAll();
+                }
+            }
+        }
+    }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double bulkShare;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final Timer latency;
+    private final Map<AiPriority, Counter> admitted = new EnumMap<>(AiPriority.class);
+    private final Map<AiPriority, Counter> rejected = new EnumMap<>(AiPriority.class);
+
+    // guarded by this
+    private double limit;
+    private int inFlight;
+    private double noLoadLatencyNanos = Double.NaN;
+
+    public AdaptiveConcurrencyLimiter(String backend,
+                                      MeterRegistry meterRegistry,
+                                      int initialLimit,
+                                      int minLimit,
+                                      int maxLimit,
+                                      double bulkShare,
+                                      double tolerance,
+                                      double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.bulkShare = bulkShare;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+
+        Gauge.builder("ai.limiter.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit per model backend")
+                .tag("backend", backend)
+                .register(meterRegistry);
+        Gauge.builder("ai.limiter.inflight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Model calls currently running per backend")
+                .tag("backend", backend)
+                .register(meterRegistry);
+        this.latency = Timer.builder("ai.limiter.latency")
+                .description("Model call latency observed by the limiter")
+                .tag("backend", backend)
+                .register(meterRegistry);
+        for (AiPriority priority : AiPriority.values()) {
+            admitted.put(priority, requests(meterRegistry, backend, priority, "admitted"));
+            rejected.put(priority, requests(meterRegistry, backend, priority, "rejected"));
+        }
+    }
+
+    /**
+     * 한도 안이면 Permit 을, 넘었으면 빈 값을 반환한다. (대기하지 않는다)
+     */
+    public Optional<Permit> tryAcquire(AiPriority priority) {
+        Permit permit;
+        synchronized (this) {
+            permit = admit(priority);
+        }
+        return counted(priority, permit);
+    }
+
+    /**
+     * 한도 안이면 바로, 넘었으면 다른 호출이 반납해 자리가 날 때까지 최대 maxWait 동안 기다려 Permit 을 반환한다.
+     * 그래도 자리가 없으면 빈 값을 반환한다. 기다리는 동안 인터럽트되면 InterruptedException 을 던진다.
+     */
+    public Optional<Permit> acquire(AiPriority priority, Duration maxWait) throws InterruptedException {
+        Permit permit;
+        synchronized (this) {
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            permit = admit(priority);
+            for (long remaining = maxWait.toNanos(); permit == null && remaining > 0;
+                 remaining = deadline - System.nanoTime()) {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                permit = admit(priority);
+            }
+        }
+        return counted(priority, permit);
+    }
+
+    synchronized double limit() {
+        return limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    // guarded by this
+    private Permit admit(AiPriority priority) {
+        return inFlight < allowed(priority) ? new Permit(++inFlight) : null;
+    }
+
+    private Optional<Permit> counted(AiPriority priority, Permit permit) {
+        (permit != null ? admitted : rejected).get(priority).increment();
+        return Optional.ofNullable(permit);
+    }
+
+    private int allowed(AiPriority priority) {
+        int whole = (int) limit;
+        return priority == AiPriority.BULK ? Math.max(1, (int) (whole * bulkShare)) : whole;
+    }
+
+    private synchronized void release(long latencyNanos, int inFlightAtStart, boolean dropped) {
+        inFlight--;
+        notifyAll();
+        if (dropped) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            return;
+        }
+        if (Double.isNaN(noLoadLatencyNanos) || latencyNanos < noLoadLatencyNanos) {
+            noLoadLatencyNanos = latencyNanos;
+        } else {
+            noLoadLatencyNanos += (latencyNanos - noLoadLatencyNanos) * NO_LOAD_DRIFT;
+        }
+
+        if (latencyNanos > noLoadLatencyNanos * tolerance) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (inFlightAtStart * 2 >= limit) {
+            // 한도의 절반도 쓰지 않는 한가한 상태에서는 limit 을 키우지 않는다.
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String backend, AiPriority priority, String result) {
+        return Counter.builder("ai.limiter.requests")
+                .description("Model calls admitted or shed by the adaptive limiter")
+                .tag("backend", backend)
+                .tag("priority", priority.name())
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
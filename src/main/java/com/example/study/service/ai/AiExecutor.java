@@ -0,0 +1,200 @@
+package com.example.study.service.ai;
+
+import com.example.study.common.GatewayTimeoutException;
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.common.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AI 모델 호출 전용 실행기.
+ * <p>
+ * 컨트롤러는 작업을 넘기고 CompletableFuture 를 반환하므로 Undertow worker 스레드는 모델 응답을 기다리지 않는다.
+ * (toolchain 이 17 이라 virtual thread 대신 상한이 있는 전용 풀을 쓴다)
+ * <p>
+ * - 전체 상한: threads 개가 동시에 실행되고 queueCapacity 개까지 대기한다.
+ * - endpoint 별 상한: 대기 + 실행 중인 요청 수를 endpoint 마다 제한해 한 API 가 풀을 독차지하지 못하게 한다.
+ * - 어느 상한이든 넘으면 기다리지 않고 바로 {@link TooManyRequestsException}(429)으로 실패시킨다.
+ * - endpoint 별 제한 시간: 작업은 제출 후 제한 시간이 지나면 {@link GatewayTimeoutException}(504)으로 끝나고 실행 중인 스레드를 interrupt 한다.
+ *   컨트롤러는 {@link #defer} 로 같은 제한 시간을 서블릿 비동기 요청에 건다. (전역 spring.mvc.async.request-timeout 대신)
+ * <p>
+ * 지표: executor.* (name=ai, executor.queued 가 대기열 길이), ai.executor.endpoint.inflight (endpoint 태그),
+ * ai.executor.rejected (endpoint, reason 태그), ai.executor.timeouts (endpoint, stage 태그)
+ */
+@Slf4j
+public class AiExecutor {
+
+    private static final String NAME = "ai";
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final int defaultEndpointLimit;
+    private final Map<String, Integer> endpointLimits;
+    private final Map<String, Semaphore> endpointPermits = new ConcurrentHashMap<>();
+    private final Duration defaultTimeout;
+    private final Map<String, Duration> endpointTimeouts;
+
+    public AiExecutor(MeterRegistry meterRegistry,
+                      int threads,
+                      int queueCapacity,
+                      int defaultEndpointLimit,
+                      Map<String, Integer> endpointLimits,
+                      Duration defaultTimeout,
+                      Map<String, Duration> endpointTimeouts) {
+        this.meterRegistry = meterRegistry;
+        this.defaultEndpointLimit = defaultEndpointLimit;
+        this.endpointLimits = Map.copyOf(endpointLimits);
+        this.defaultTimeout = defaultTimeout;
+        this.endpointTimeouts = Map.copyOf(endpointTimeouts);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ai-call-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // 한가할 때는 스레드를 반납한다.
+        this.executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * endpoint 의 상한 안에서 task 를 AI 실행기에 넘긴다. 상한을 넘으면 이미 실패한 future 를 반환한다.
+     * 반환된 future 가 제한 시간 초과나 취소로 먼저 끝나면 아직 대기 중인 작업은 실행하지 않고, 실행 중인 작업은 interrupt 한다.
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, Callable<T> task) {
+        Semaphore permits = endpointPermits.computeIfAbsent(endpoint, this::registerEndpoint);
+        if (!permits.tryAcquire()) {
+            return rejected(endpoint, "endpoint-limit");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> running = new FutureTask<>(() -> complete(result, task), null);
+        try {
+            executor.execute(running);
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            return rejected(endpoint, "queue-full");
+        }
+        Duration timeout = timeout(endpoint);
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.completeExceptionally(new GatewayTimeoutException(ServiceExceptionCode.AI_TIMEOUT))) {
+                timedOut(endpoint, "task");
+            }
+        });
+        result.whenComplete((value, error) -> {
+            permits.release();
+            if (error != null) {
+                running.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * future 를 endpoint 제한 시간이 걸린 DeferredResult 로 감싼다.
+     * 서블릿 비동기 요청이 이 시간 안에 끝나지 않으면 504 로 응답하고 future 를 취소해 남은 단계(대기 중인 AI 작업 등)를 멈춘다.
+     */
+    public <T> DeferredResult<T> defer(String endpoint, CompletableFuture<T> future) {
+        DeferredResult<T> deferred = new DeferredResult<>(timeout(endpoint).toMillis());
+        deferred.onTimeout(() -> {
+            future.cancel(true);
+            timedOut(endpoint, "request");
+            deferred.setErrorResult(new GatewayTimeoutException(ServiceExceptionCode.AI_TIMEOUT));
+        });
+        future.whenComplete((value, error) -> {
+            if (error == null) {
+                deferred.setResult(value);
+            } else {
+                // 예외 처리기가 원래 예외를 보도록 CompletionException 을 벗긴다.
+                deferred.setErrorResult(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+        return deferred;
+    }
+
+    /**
+     * task 를 AI 실행기에 넘기고 같은 endpoint 의 제한 시간으로 응답을 기다린다.
+     */
+    public <T> DeferredResult<T> defer(String endpoint, Callable<T> task) {
+        return defer(endpoint, submit(endpoint, task));
+    }
+
+    Duration timeout(String endpoint) {
+        return endpointTimeouts.getOrDefault(endpoint, defaultTimeout);
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Semaphore registerEndpoint(String endpoint) {
+        int limit = endpointLimits.getOrDefault(endpoint, defaultEndpointLimit);
+        Semaphore permits = new Semaphore(limit);
+        Gauge.builder("ai.executor.endpoint.inflight", permits, p -> limit - p.availablePermits())
+                .description("AI requests queued or running per endpoint")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry);
+        return permits;
+    }
+
+    private <T> CompletableFuture<T> rejected(String endpoint, String reason) {
+        Counter.builder("ai.executor.rejected")
+                .description("AI requests rejected before reaching the model")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("[ai-executor] {} rejected: {}", endpoint, reason);
+        return CompletableFuture.failedFuture(new TooManyRequestsException(ServiceExceptionCode.AI_CAPACITY_EXCEEDED));
+    }
+
+    private void timedOut(String endpoint, String stage) {
+        Counter.builder("ai.executor.timeouts")
+                .description("AI requests that exceeded their endpoint timeout")
+                .tag("endpoint", endpoint)
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .increment();
+        log.debug("[ai-executor] {} timed out ({})", endpoint, stage);
+    }
+
+    private static <T> void complete(CompletableFuture<T> result, Callable<T> task) {
+        if (result.isDone()) {
+            return;
+        }
+        try {
+            result.complete(task.call());
+        } catch (RuntimeException | Error e) {
+            result.completeExceptionally(e);
+        } catch (Exception e) {
+            // 호출자가 thenCompose 등으로 이어 쓰므로 CompletableFuture 와 같은 방식으로 감싼다.
+            result.completeExceptionally(new CompletionException(e));
+        }
+    }
+}
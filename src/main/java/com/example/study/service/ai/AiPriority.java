@@ -0,0 +1,9 @@
+package com.example.study.service.ai;
+
+/**
+ * 모델 호출 우선순위. BULK 는 백엔드 동시 실행 한도의 일부만 쓸 수 있어 INTERACTIVE 요청의 여유분이 항상 남는다.
+ */
+public enum AiPriority {
+    INTERACTIVE,
+    BULK
+}
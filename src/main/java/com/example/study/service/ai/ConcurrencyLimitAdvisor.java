@@ -0,0 +1,160 @@
+package com.example.study.service.ai;
+
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.common.TooManyRequestsException;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisor;
+import org.springframework.ai.chat.client.advisor.api.StreamAdvisorChain;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.core.Ordered;
+import org.springframework.web.client.RestClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 백엔드별 {@link AdaptiveConcurrencyLimiter} 로 모델 호출을 입장 제어하는 advisor.
+ * <p>
+ * 응답 캐시 advisor 보다 안쪽에 있어 캐시 적중은 한도를 쓰지 않는다.
+ * 우선순위는 {@code a.param(PRIORITY, AiPriority.BULK)} 로 지정하고, 지정하지 않으면 INTERACTIVE 이다.
+ * 한도를 넘으면 INTERACTIVE 는 바로 429 로 거절한다. BULK(일괄 처리, 구간 리뷰)는 호출자가 재시도 횟수만 쓰다 실패하지 않도록
+ * 동기 호출에서는 bulkMaxWait 동안 자리가 나기를 기다린 뒤에야 거절한다. 스트리밍은 구독 스레드를 막지 않도록 기다리지 않는다.
+ * <p>
+ * limiter 에 넘기는 지연은 출력 토큰 1개당 지연이다. 전체 지연은 응답 길이에 비례하므로 그대로 비교하면
+ * 긴 답변만으로도 과부하로 오인해 한도를 줄인다. 출력 토큰 수를 모르거나 너무 짧은 응답(준비 시간이 대부분)은 반영하지 않는다.
+ * 실패는 백엔드 과부하 신호(시간 초과, 5xx, 429)일 때만 한도를 줄이고, 요청 오류나 응답 파싱 실패 등은 반납만 한다.
+ */
+public class ConcurrencyLimitAdvisor implements CallAdvisor, StreamAdvisor {
+
+    public static final String PRIORITY = "ai_priority";
+
+    // 이보다 짧은 응답은 프롬프트 처리 시간이 대부분이라 토큰당 지연이 부풀려진다.
+    private static final int MIN_SAMPLE_TOKENS = 16;
+
+    private final String name;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Duration bulkMaxWait;
+
+    public ConcurrencyLimitAdvisor(String backend, AdaptiveConcurrencyLimiter limiter) {
+        this(backend, limiter, Duration.ZERO);
+    }
+
+    public ConcurrencyLimitAdvisor(String backend, AdaptiveConcurrencyLimiter limiter, Duration bulkMaxWait) {
+        this.name = "ConcurrencyLimitAdvisor-" + backend;
+        this.limiter = limiter;
+        this.bulkMaxWait = bulkMaxWait;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        AdaptiveConcurrencyLimiter.Permit permit = acquireWaitingForBulk(request);
+        long startedAt = System.nanoTime();
+        try {
+            ChatClientResponse response = chain.nextCall(request);
+            long elapsed = System.nanoTime() - startedAt;
+            int completionTokens = completionTokens(response);
+            if (completionTokens >= MIN_SAMPLE_TOKENS) {
+                permit.onSuccess(elapsed / completionTokens);
+            } else {
+                permit.onIgnore();
+            }
+            return response;
+        } catch (RuntimeException e) {
+            release(permit, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Flux<ChatClientResponse> adviseStream(ChatClientRequest request, StreamAdvisorChain chain) {
+        return Flux.defer(() -> {
+            AdaptiveConcurrencyLimiter.Permit permit = acquire(request);
+            return chain.nextStream(request)
+                    .doOnError(e -> release(permit, e))
+                    .doFinally(signal -> permit.onIgnore());
+        });
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 500;
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit acquire(ChatClientRequest request) {
+        return limiter.tryAcquire(priority(request))
+                .orElseThrow(() -> new TooManyRequestsException(ServiceExceptionCode.AI_BACKEND_OVERLOADED));
+    }
+
+    private AdaptiveConcurrencyLimiter.Permit acquireWaitingForBulk(ChatClientRequest request) {
+        AiPriority priority = priority(request);
+        if (priority != AiPriority.BULK || bulkMaxWait.isZero() || bulkMaxWait.isNegative()) {
+            return acquire(request);
+        }
+        try {
+            return limiter.acquire(priority, bulkMaxWait)
+                    .orElseThrow(() -> new TooManyRequestsException(ServiceExceptionCode.AI_BACKEND_OVERLOADED));
+        } catch (InterruptedException e) {
+            // 호출자의 시간 제한(AiExecutor timeout, 구간 deadline)이 끝나 취소된 경우다.
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException(ServiceExceptionCode.AI_BACKEND_OVERLOADED);
+        }
+    }
+
+    private static void release(AdaptiveConcurrencyLimiter.Permit permit, Throwable error) {
+        if (isOverload(error)) {
+            permit.onDropped();
+        } else {
+            permit.onIgnore();
+        }
+    }
+
+    /**
+     * 백엔드가 밀려 있다는 신호인지 판단한다: 시간 초과, 5xx, 429.
+     * Spring AI 는 HTTP 오류를 5xx 는 {@link TransientAiException}, 4xx 는 "상태코드 - 본문" 메시지의 {@link NonTransientAiException} 으로 바꾼다.
+     */
+    static boolean isOverload(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TimeoutException || cause instanceof InterruptedIOException
+                    || cause instanceof HttpTimeoutException || cause instanceof TransientAiException) {
+                return true;
+            }
+            if (cause instanceof RestClientResponseException http) {
+                return http.getStatusCode().is5xxServerError() || http.getStatusCode().value() == 429;
+            }
+            if (cause instanceof NonTransientAiException && String.valueOf(cause.getMessage()).startsWith("429")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int completionTokens(ChatClientResponse response) {
+        ChatResponse chatResponse = response.chatResponse();
+        if (chatResponse == null || chatResponse.getMetadata() == null || chatResponse.getMetadata().getUsage() == null) {
+            return 0;
+        }
+        Integer tokens = chatResponse.getMetadata().getUsage().getCompletionTokens();
+        return tokens != null ? tokens : 0;
+    }
+
+    private static AiPriority priority(ChatClientRequest request) {
+        Object value = request.context().get(PRIORITY);
+        if (value instanceof AiPriority priority) {
+            return priority;
+        }
+        return value != null ? AiPriority.valueOf(value.toString()) : AiPriority.INTERACTIVE;
+    }
+}
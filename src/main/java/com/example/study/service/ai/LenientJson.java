@@ -0,0 +1,149 @@
+package com.example.study.service.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * 모델 응답에서 JSON 객체를 찾아 Jackson 스트리밍 파서에 바로 넘기는 도구.
+ * <p>
+ * 모델은 JSON 앞뒤에 코드 펜스(```json), 백틱, 머리말/꼬리말을 붙이곤 한다.
+ * 정규식으로 지우고 trim/substring 하는 대신 한 번 훑어서 첫 번째 균형 잡힌 객체의 구간만 찾고,
+ * 그 구간을 복사하지 않고 Reader 로 감싸 파서에 넣는다.
+ * <p>
+ * - 시작: '{' 뒤의 첫 공백 아닌 문자가 '"' 또는 '}' 인 위치. (머리말의 "{name}" 같은 문구는 건너뛴다)
+ * - 끝: 문자열 안의 괄호와 이스케이프를 무시하고 '{' / '[' 깊이가 0 이 되는 위치.
+ *   닫히지 않은 객체(잘린 응답)는 찾지 못한 것으로 본다.
+ */
+public final class LenientJson {
+
+    public static final long NOT_FOUND = -1L;
+
+    private LenientJson() {
+    }
+
+    /**
+     * 첫 번째 JSON 객체의 구간을 {@code (start << 32) | end} (end 는 배타) 로 반환한다. 없으면 {@link #NOT_FOUND}.
+     * 객체를 만들지 않도록 long 하나로 돌려준다. {@link #start(long)}, {@link #end(long)} 로 꺼낸다.
+     */
+    public static long locateObject(CharSequence text) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '{' && opensObject(text, i + 1)) {
+                int close = closingIndex(text, i);
+                return close >= 0 ? ((long) i << 32) | (close + 1) : NOT_FOUND;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    public static int start(long span) {
+        return (int) (span >>> 32);
+    }
+
+    public static int end(long span) {
+        return (int) span;
+    }
+
+    /**
+     * text 안의 첫 JSON 객체만 읽는 파서. JSON 객체가 없으면 {@link JsonParseException}.
+     */
+    public static JsonParser parser(JsonFactory factory, CharSequence text) throws IOException {
+        long span = locateObject(text);
+        if (span == NOT_FOUND) {
+            throw new JsonParseException(null, "응답에서 JSON 객체를 찾을 수 없습니다");
+        }
+        return factory.createParser(new CharSequenceReader(text, start(span), end(span)));
+    }
+
+    /**
+     * text 안의 첫 JSON 객체를 reader 의 타입으로 읽는다.
+     */
+    public static <T> T read(ObjectReader reader, CharSequence text) throws IOException {
+        try (JsonParser parser = parser(reader.getFactory(), text)) {
+            return reader.readValue(parser);
+        }
+    }
+
+    // '{' 바로 뒤(from)부터 공백을 건너뛰고 객체의 시작처럼 보이는지
+    private static boolean opensObject(CharSequence text, int from) {
+        int length = text.length();
+        for (int i = from; i < length; i++) {
+            char c = text.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '"' || c == '}';
+            }
+        }
+        return false;
+    }
+
+    private static int closingIndex(CharSequence text, int start) {
+        int length = text.length();
+        int depth = 0;
+        boolean inString = false;
+        for (int i = start; i < length; i++) {
+            char c = text.charAt(i);
+            if (inString) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '"') {
+                    inString = false;
+                }
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if ((c == '}' || c == ']') && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 문자열의 [start, end) 구간을 복사 없이 읽는 Reader. Jackson 은 자체 버퍼(재사용)로 읽어 간다.
+     */
+    static final class CharSequenceReader extends Reader {
+
+        private final CharSequence text;
+        private final int end;
+        private int position;
+
+        CharSequenceReader(CharSequence text, int start, int end) {
+            this.text = text;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= end) {
+                return -1;
+            }
+            int count = Math.min(length, end - position);
+            if (text instanceof String string) {
+                string.getChars(position, position + count, buffer, offset);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    buffer[offset + i] = text.charAt(position + i);
+                }
+            }
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int read() {
+            return position < end ? text.charAt(position++) : -1;
+        }
+
+        @Override
+        public void close() {
+            position = end;
+        }
+    }
+}
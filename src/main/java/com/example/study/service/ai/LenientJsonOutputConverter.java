@@ -0,0 +1,41 @@
+package com.example.study.service.ai;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.springframework.ai.converter.BeanOutputConverter;
+import org.springframework.ai.converter.StructuredOutputConverter;
+
+import java.io.IOException;
+
+/**
+ * BeanOutputConverter 와 같은 출력 형식 안내를 쓰되, 응답은 {@link LenientJson} 으로 찾아 바로 스트리밍 파싱한다.
+ * 코드 펜스나 머리말이 붙은 응답도 문자열을 다시 만들지 않고 읽는다.
+ * 타입마다 한 번 만들어 재사용한다. (형식 안내의 JSON 스키마 생성이 비싸다)
+ */
+public class LenientJsonOutputConverter<T> implements StructuredOutputConverter<T> {
+
+    private final Class<T> type;
+    private final ObjectReader reader;
+    private final String format;
+
+    public LenientJsonOutputConverter(Class<T> type, ObjectMapper objectMapper) {
+        this.type = type;
+        this.reader = objectMapper.readerFor(type).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.format = new BeanOutputConverter<>(type, objectMapper).getFormat();
+    }
+
+    @Override
+    public T convert(String text) {
+        try {
+            return LenientJson.read(reader, text);
+        } catch (IOException e) {
+            throw new IllegalStateException(type.getSimpleName() + " 응답을 JSON 으로 읽지 못했습니다: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getFormat() {
+        return format;
+    }
+}
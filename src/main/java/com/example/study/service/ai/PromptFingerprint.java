@@ -0,0 +1,88 @@
+package com.example.study.service.ai;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.model.tool.ToolCallingChatOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * 응답 캐시 키. 모델 + 옵션 + 전체 메시지(system/history/user)가 모두 같아야 같은 키가 된다.
+ * <p>
+ * - exactKey: 위 전부의 SHA-256 → 긴 번역 원문이 그대로 키로 heap 에 남지 않는다.
+ * - scopeKey: 마지막 user 메시지를 뺀 나머지의 SHA-256 → 의미 유사도 검색은 같은 scope 안에서만 한다.
+ * - userText: 마지막 user 메시지 (임베딩 대상)
+ */
+public record PromptFingerprint(String exactKey, String scopeKey, String userText) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * 캐시할 수 없는 요청(이미지 첨부, 도구 호출, user 메시지 없음)이면 null 을 반환한다.
+     */
+    public static PromptFingerprint of(Prompt prompt) {
+        List<Message> messages = prompt.getInstructions();
+        if (messages.isEmpty() || messages.get(messages.size() - 1).getMessageType() != MessageType.USER) {
+            return null;
+        }
+        ChatOptions options = prompt.getOptions();
+        if (options instanceof ToolCallingChatOptions toolOptions
+                && (!toolOptions.getToolCallbacks().isEmpty() || !toolOptions.getToolNames().isEmpty())) {
+            return null;
+        }
+
+        StringBuilder scope = new StringBuilder(256);
+        appendOptions(scope, options);
+        for (int i = 0; i < messages.size() - 1; i++) {
+            if (!appendMessage(scope, messages.get(i))) {
+                return null;
+            }
+        }
+        Message last = messages.get(messages.size() - 1);
+        StringBuilder exact = new StringBuilder(scope);
+        if (!appendMessage(exact, last)) {
+            return null;
+        }
+        return new PromptFingerprint(sha256(exact), sha256(scope), last.getText());
+    }
+
+    private static void appendOptions(StringBuilder builder, ChatOptions options) {
+        if (options == null) {
+            builder.append("default").append(SEPARATOR);
+            return;
+        }
+        builder.append(options.getModel()).append(SEPARATOR)
+                .append(options.getTemperature()).append(SEPARATOR)
+                .append(options.getMaxTokens()).append(SEPARATOR)
+                .append(options.getTopP()).append(SEPARATOR)
+                .append(options.getTopK()).append(SEPARATOR)
+                .append(options.getFrequencyPenalty()).append(SEPARATOR)
+                .append(options.getPresencePenalty()).append(SEPARATOR)
+                .append(options.getStopSequences()).append(SEPARATOR);
+    }
+
+    private static boolean appendMessage(StringBuilder builder, Message message) {
+        if (message instanceof UserMessage userMessage && !userMessage.getMedia().isEmpty()) {
+            return false;
+        }
+        builder.append(message.getMessageType().name()).append(SEPARATOR)
+                .append(message.getText()).append(SEPARATOR);
+        return true;
+    }
+
+    private static String sha256(CharSequence value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.study.service.ai;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모델 응답 캐시.
+ * <p>
+ * - exact 계층: {@link PromptFingerprint#exactKey()} → 응답. 응답 글자 수 합(weight)과 TTL(쓰기 기준)로 제한한다.
+ * - semantic 계층(선택): embeddingModel 이 있으면 exact miss 때 user 메시지를 임베딩해
+ *   같은 scope(모델/옵션/system/history)에서 충분히 유사한 이전 질문의 응답을 돌려준다.
+ * <p>
+ * 지표: ai.response.cache.requests (result=hit|semantic_hit|miss), ai.response.cache.hit.ratio,
+ * ai.response.cache.saved.tokens, ai.response.cache.saved.latency, cache.* (cache=ai.responses)
+ */
+@Slf4j
+public class ResponseCache {
+
+    private static final String CACHE_NAME = "ai.responses";
+
+    /**
+     * 조회 결과. miss 이면 response 가 null 이고, 계산해 둔 임베딩은 put 에서 재사용한다.
+     */
+    public record Lookup(PromptFingerprint fingerprint, ChatResponse response, float[] embedding) {
+
+        public boolean hit() {
+            return response != null;
+        }
+    }
+
+    private record CachedResponse(ChatResponse response, long latencyNanos, long totalTokens) {
+    }
+
+    private final Cache<String, CachedResponse> cache;
+    private final EmbeddingModel embeddingModel;
+    private final SemanticIndex semanticIndex;
+    private final Counter hits;
+    private final Counter semanticHits;
+    private final Counter misses;
+    private final Counter savedTokens;
+    private final Timer savedLatency;
+
+    public ResponseCache(MeterRegistry meterRegistry,
+                         EmbeddingModel embeddingModel,
+                         long maxTotalChars,
+                         Duration ttl,
+                         int semanticMaxEntries,
+                         double semanticThreshold) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTotalChars)
+                .weigher((String key, CachedResponse cached) -> Math.max(1, textLength(cached.response())))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.embeddingModel = embeddingModel;
+        this.semanticIndex = embeddingModel != null ? new SemanticIndex(semanticMaxEntries, semanticThreshold) : null;
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.hits = requests(meterRegistry, "hit");
+        this.semanticHits = requests(meterRegistry, "semantic_hit");
+        this.misses = requests(meterRegistry, "miss");
+        Gauge.builder("ai.response.cache.hit.ratio", this, ResponseCache::hitRatio)
+                .description("Share of cacheable model calls answered from the response cache")
+                .register(meterRegistry);
+        this.savedTokens = Counter.builder("ai.response.cache.saved.tokens")
+                .description("Model tokens not spent because the response came from the cache")
+                .register(meterRegistry);
+        this.savedLatency = Timer.builder("ai.response.cache.saved.latency")
+                .description("Original model latency of responses served from the cache")
+                .register(meterRegistry);
+    }
+
+    public Lookup lookup(PromptFingerprint fingerprint) {
+        CachedResponse cached = cache.getIfPresent(fingerprint.exactKey());
+        if (cached != null) {
+            return hit(fingerprint, cached, hits);
+        }
+
+        float[] embedding = semanticIndex != null ? embed(fingerprint.userText()) : null;
+        if (embedding != null) {
+            String similarKey = semanticIndex.nearest(fingerprint.scopeKey(), embedding);
+            CachedResponse similar = similarKey != null ? cache.getIfPresent(similarKey) : null;
+            if (similar != null) {
+                return hit(fingerprint, similar, semanticHits);
+            }
+        }
+        misses.increment();
+        return new Lookup(fingerprint, null, embedding);
+    }
+
+    /**
+     * miss 였던 요청의 응답을 저장한다. 내용이 비어 있는 응답은 저장하지 않는다.
+     */
+    public void put(Lookup lookup, ChatResponse response, long latencyNanos) {
+        if (textLength(response) == 0) {
+            return;
+        }
+        String key = lookup.fingerprint().exactKey();
+        cache.put(key, new CachedResponse(response, latencyNanos, totalTokens(response)));
+        if (semanticIndex != null && lookup.embedding() != null) {
+            semanticIndex.add(lookup.fingerprint().scopeKey(), lookup.embedding(), key);
+        }
+    }
+
+    long estimatedSize() {
+        return cache.estimatedSize();
+    }
+
+    private Lookup hit(PromptFingerprint fingerprint, CachedResponse cached, Counter counter) {
+        counter.increment();
+        savedTokens.increment(cached.totalTokens());
+        savedLatency.record(cached.latencyNanos(), TimeUnit.NANOSECONDS);
+        return new Lookup(fingerprint, cached.response(), null);
+    }
+
+    private float[] embed(String text) {
+        try {
+            return embeddingModel.embed(text);
+        } catch (RuntimeException e) {
+            // 임베딩 서버 장애가 본 요청을 막지 않도록 exact 계층만으로 계속한다.
+            log.debug("[response-cache] embedding failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private double hitRatio() {
+        double hit = hits.count() + semanticHits.count();
+        double total = hit + misses.count();
+        return total == 0 ? 0.0 : hit / total;
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("ai.response.cache.requests")
+                .description("Cacheable model calls by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static int textLength(ChatResponse response) {
+        if (response == null || response.getResult() == null || response.getResult().getOutput() == null) {
+            return 0;
+        }
+        String text = response.getResult().getOutput().getText();
+        return text != null ? text.length() : 0;
+    }
+
+    private static long totalTokens(ChatResponse response) {
+        Usage usage = response.getMetadata() != null ? response.getMetadata().getUsage() : null;
+        Integer total = usage != null ? usage.getTotalTokens() : null;
+        return total != null ? total : 0;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.study.service.ai;
+
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.core.Ordered;
+
+import java.util.Map;
+
+/**
+ * ChatClient 호출 앞에서 {@link ResponseCache} 를 조회하는 advisor.
+ * <p>
+ * 다른 advisor(메모리 등)가 프롬프트를 완성한 뒤 모델 호출 직전에 실행되도록 가장 안쪽에 둔다.
+ * 스트리밍 호출은 그대로 통과한다. 특정 호출만 캐시를 건너뛰려면 {@code a.param(BYPASS, true)} 를 준다.
+ * <p>
+ * 캐시 hit 응답은 이번 호출에 쓴 토큰이 없으므로 usage 를 0 으로 바꾸고, 메타데이터에 {@link #CACHE_HIT} 와
+ * 원래 응답의 입력 토큰({@link #SAVED_PROMPT_TOKENS})을 남긴다. (VisionResultCache 의 savedPromptTokens 와 같은 의미)
+ */
+public class ResponseCacheAdvisor implements CallAdvisor {
+
+    public static final String BYPASS = "response_cache_bypass";
+    public static final String CACHE_HIT = "response_cache_hit";
+    public static final String SAVED_PROMPT_TOKENS = "response_cache_saved_prompt_tokens";
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheAdvisor(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest request, CallAdvisorChain chain) {
+        PromptFingerprint fingerprint = Boolean.TRUE.equals(request.context().get(BYPASS))
+                ? null
+                : PromptFingerprint.of(request.prompt());
+        if (fingerprint == null) {
+            return chain.nextCall(request);
+        }
+
+        ResponseCache.Lookup lookup = responseCache.lookup(fingerprint);
+        if (lookup.hit()) {
+            return ChatClientResponse.builder()
+                    .chatResponse(cacheHit(lookup.response()))
+                    .context(request.context())
+                    .build();
+        }
+
+        long startedAt = System.nanoTime();
+        ChatClientResponse response = chain.nextCall(request);
+        responseCache.put(lookup, response.chatResponse(), System.nanoTime() - startedAt);
+        return response;
+    }
+
+    /**
+     * 캐시 hit 응답이면 원래 응답이 썼던 입력 토큰 수, 아니면 0.
+     */
+    public static int savedPromptTokens(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return 0;
+        }
+        Object saved = response.getMetadata().get(SAVED_PROMPT_TOKENS);
+        return saved instanceof Integer tokens ? tokens : 0;
+    }
+
+    private static ChatResponse cacheHit(ChatResponse cached) {
+        ChatResponseMetadata original = cached.getMetadata();
+        Usage usage = original.getUsage();
+        Integer promptTokens = usage != null ? usage.getPromptTokens() : null;
+
+        ChatResponseMetadata.Builder metadata = ChatResponseMetadata.builder()
+                .id(original.getId())
+                .model(original.getModel())
+                .usage(new DefaultUsage(0, 0, 0));
+        for (Map.Entry<String, Object> entry : original.entrySet()) {
+            metadata.keyValue(entry.getKey(), entry.getValue());
+        }
+        metadata.keyValue(CACHE_HIT, true)
+                .keyValue(SAVED_PROMPT_TOKENS, promptTokens != null ? promptTokens : 0);
+        return new ChatResponse(cached.getResults(), metadata.build());
+    }
+
+    @Override
+    public String getName() {
+        return "ResponseCacheAdvisor";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1_000;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.study.service.ai;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 응답 캐시의 의미 유사도 계층. 최근 maxEntries 개의 (scope, user 임베딩, exactKey) 를 보관하고
+ * 같은 scope 에서 코사인 유사도가 threshold 이상인 가장 가까운 항목의 exactKey 를 찾는다.
+ * <p>
+ * 항목 수가 작게 제한되어 있어 선형 탐색으로 충분하다. (1,000건 x 1,024차원 ≈ 1M flops)
+ * 응답 자체는 exact 계층에만 있으므로, 거기서 먼저 밀려난 항목은 자연스럽게 miss 가 된다.
+ */
+final class SemanticIndex {
+
+    private record Entry(String scopeKey, float[] vector, double norm, String exactKey) {
+    }
+
+    private final ConcurrentLinkedDeque<Entry> entries = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final double threshold;
+
+    SemanticIndex(int maxEntries, double threshold) {
+        this.maxEntries = maxEntries;
+        this.threshold = threshold;
+    }
+
+    void add(String scopeKey, float[] vector, String exactKey) {
+        entries.addLast(new Entry(scopeKey, vector, norm(vector), exactKey));
+        if (size.incrementAndGet() > maxEntries && entries.pollFirst() != null) {
+            size.decrementAndGet();
+        }
+    }
+
+    /**
+     * 가장 유사한 항목의 exactKey. threshold 를 넘는 항목이 없으면 null.
+     */
+    String nearest(String scopeKey, float[] vector) {
+        double queryNorm = norm(vector);
+        if (queryNorm == 0) {
+            return null;
+        }
+        String best = null;
+        double bestScore = threshold;
+        for (Entry entry : entries) {
+            if (!entry.scopeKey().equals(scopeKey) || entry.vector().length != vector.length || entry.norm() == 0) {
+                continue;
+            }
+            double score = dot(entry.vector(), vector) / (entry.norm() * queryNorm);
+            if (score >= bestScore) {
+                bestScore = score;
+                best = entry.exactKey();
+            }
+        }
+        return best;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static double norm(float[] vector) {
+        return Math.sqrt(dot(vector, vector));
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.study.service.conversation;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Caffeine 기반 대화 저장소.
+ * <p>
+ * - 전체 상한: 대화별 글자 수 합(weight)으로 제한 → 대화 수가 아닌 실제 메시지 양에 비례해 heap 상한이 정해진다.
+ * - 만료: 마지막 접근 후 TTL 이 지나면 제거, 용량 초과 시에는 가장 덜 쓰이는 대화부터 제거(W-TinyLFU)
+ * - 대화별 상한: 최근 maxMessages 개만 유지
+ * - 동시성: append 는 키 단위 compute 로 직렬화되고, 값은 불변 스냅샷이라 읽기는 잠금이 없다.
+ * - spill(선택): spill-dir 을 지정하면 용량 때문에 밀려난 대화를 로컬 파일로 내리고, 다시 접근할 때 복원한다.
+ *   eviction 은 append 를 호출한 요청 스레드의 compute 안에서 일어나므로, 파일 쓰기는 전용 스레드로 넘기고
+ *   쓰기 전까지는 pendingSpills 에 잡아 두어 그 사이 다시 접근해도 대화가 사라지지 않는다.
+ * <p>
+ * 지표: cache.size / cache.evictions / cache.gets (cache=chat.conversations), chat.conversations.weight,
+ * chat.conversations.spilled / chat.conversations.restored / chat.conversations.spill.pending
+ */
+@Slf4j
+@Component
+public class CaffeineConversationStore implements ConversationStore {
+
+    private static final String CACHE_NAME = "chat.conversations";
+    private static final String SPILL_SUFFIX = ".json";
+    private static final int PURGE_EVERY_SPILLS = 1_000;
+    private static final TypeReference<List<SpilledMessage>> SPILL_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper;
+    private final int maxMessages;
+    private final Duration ttl;
+    private final Path spillDir;
+    private final Cache<String, Conversation> cache;
+    private final Counter spilled;
+    private final Counter restored;
+    // 밀려났지만 아직 파일로 쓰지 않은 대화. 쓰기가 끝나면 제거되고, 그 전에 다시 접근하면 여기서 바로 복원한다.
+    private final Map<String, Conversation> pendingSpills = new ConcurrentHashMap<>();
+    private final Executor spillExecutor;
+
+    @Autowired
+    public CaffeineConversationStore(ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${chat.conversation.ttl-minutes:60}") long ttlMinutes,
+                                     @Value("${chat.conversation.max-messages:40}") int maxMessages,
+                                     @Value("${chat.conversation.max-total-chars:100000000}") long maxTotalChars,
+                                     @Value("${chat.conversation.spill-dir:}") String spillDir) {
+        this(objectMapper, meterRegistry, ttlMinutes, maxMessages, maxTotalChars, spillDir,
+                Executors.newSingleThreadExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "conversation-spill");
+                    thread.setDaemon(true);
+                    return thread;
+                }));
+    }
+
+    CaffeineConversationStore(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              long ttlMinutes,
+                              int maxMessages,
+                              long maxTotalChars,
+                              String spillDir,
+                              Executor spillExecutor) {
+        this.objectMapper = objectMapper;
+        this.spillExecutor = spillExecutor;
+        // user/assistant 쌍이 잘리지 않도록 짝수로 맞춘다.
+        this.maxMessages = Math.max(2, maxMessages - maxMessages % 2);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.spillDir = StringUtils.hasText(spillDir) ? createSpillDir(spillDir) : null;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxTotalChars)
+                .weigher((String id, Conversation conversation) -> conversation.weight())
+                .expireAfterAccess(ttl)
+                .evictionListener(this::onEvicted)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder(CACHE_NAME + ".weight", cache,
+                        c -> c.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Approximate characters held by active conversations")
+                .register(meterRegistry);
+        this.spilled = Counter.builder(CACHE_NAME + ".spilled")
+                .description("Conversations written to the spill directory on eviction")
+                .register(meterRegistry);
+        this.restored = Counter.builder(CACHE_NAME + ".restored")
+                .description("Conversations restored from the spill directory")
+                .register(meterRegistry);
+        Gauge.builder(CACHE_NAME + ".spill.pending", pendingSpills, Map::size)
+                .description("Evicted conversations waiting to be written to the spill directory")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Message> history(String conversationId) {
+        Conversation conversation = cache.getIfPresent(conversationId);
+        if (conversation == null && spillDir != null) {
+            conversation = cache.asMap().computeIfAbsent(conversationId, this::restore);
+        }
+        return conversation != null ? conversation.messages() : List.of();
+    }
+
+    @Override
+    public void append(String conversationId, Message... messages) {
+        cache.asMap().compute(conversationId, (id, current) -> {
+            Conversation base = current;
+            if (base == null && spillDir != null) {
+                base = restore(id);
+            }
+            if (base == null) {
+                base = Conversation.empty();
+            }
+            return base.append(messages, maxMessages);
+        });
+    }
+
+    @Override
+    public boolean replacePrefix(String conversationId, List<Message> expectedPrefix, Message replacement) {
+        boolean[] replaced = {false};
+        cache.asMap().computeIfPresent(conversationId, (id, current) -> {
+            Conversation next = current.replacePrefix(expectedPrefix, replacement);
+            replaced[0] = next != current;
+            return next;
+        });
+        return replaced[0];
+    }
+
+    @Override
+    public void remove(String conversationId) {
+        cache.invalidate(conversationId);
+        pendingSpills.remove(conversationId);
+        if (spillDir != null) {
+            deleteQuietly(spillFile(conversationId));
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+        pendingSpills.clear();
+        if (spillDir == null) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, "*" + SPILL_SUFFIX)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("[conversation] failed to clear spill dir {}: {}", spillDir, e.getMessage());
+        }
+    }
+
+    long estimatedSize() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (spillExecutor instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private void onEvicted(String conversationId, Conversation conversation, RemovalCause cause) {
+        // 오래 쓰이지 않아 만료된 대화는 버리고, 용량 때문에 밀려난 대화만 내린다.
+        if (spillDir == null || cause != RemovalCause.SIZE || conversationId == null || conversation == null) {
+            return;
+        }
+        // 요청 스레드에서는 자리만 잡아 두고, 디스크 쓰기는 spill 스레드가 한다.
+        pendingSpills.put(conversationId, conversation);
+        try {
+            spillExecutor.execute(() -> spill(conversationId, conversation));
+        } catch (RejectedExecutionException e) {
+            pendingSpills.remove(conversationId, conversation);
+        }
+    }
+
+    private void spill(String conversationId, Conversation conversation) {
+        // 키 단위 compute 안에서 써서, 쓰는 도중 복원하려는 요청은 쓰기가 끝난 뒤 파일에서 읽는다.
+        // 그 사이 복원되었거나 다시 밀려난 대화(다른 스냅샷)라면 쓰지 않는다.
+        pendingSpills.computeIfPresent(conversationId, (id, pending) -> {
+            if (pending != conversation) {
+                return pending;
+            }
+            write(id, conversation);
+            return null;
+        });
+    }
+
+    private void write(String conversationId, Conversation conversation) {
+        List<SpilledMessage> rows = conversation.messages().stream()
+                .map(message -> new SpilledMessage(message.getMessageType().name(), message.getText()))
+                .toList();
+        try {
+            objectMapper.writeValue(spillFile(conversationId).toFile(), rows);
+            spilled.increment();
+            if ((long) spilled.count() % PURGE_EVERY_SPILLS == 0) {
+                purgeExpiredSpills();
+            }
+        } catch (IOException e) {
+            log.warn("[conversation] failed to spill {}: {}", conversationId, e.getMessage());
+        }
+    }
+
+    // 다시 찾지 않은 채 TTL 이 지난 spill 파일을 정리한다.
+    private void purgeExpiredSpills() {
+        long expiredBefore = System.currentTimeMillis() - ttl.toMillis();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spillDir, "*" + SPILL_SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).toMillis() < expiredBefore) {
+                    deleteQuietly(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[conversation] failed to purge spill dir {}: {}", spillDir, e.getMessage());
+        }
+    }
+
+    private Conversation restore(String conversationId) {
+        Conversation pending = pendingSpills.remove(conversationId);
+        if (pending != null) {
+            restored.increment();
+            return pending;
+        }
+        Path file = spillFile(conversationId);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            long modifiedAt = Files.getLastModifiedTime(file).toMillis();
+            if (System.currentTimeMillis() - modifiedAt > ttl.toMillis()) {
+                return null;
+            }
+            List<Message> messages = objectMapper.readValue(file.toFile(), SPILL_TYPE).stream()
+                    .map(SpilledMessage::toMessage)
+                    .toList();
+            restored.increment();
+            return Conversation.of(messages);
+        } catch (IOException e) {
+            log.warn("[conversation] failed to restore {}: {}", conversationId, e.getMessage());
+            return null;
+        } finally {
+            deleteQuietly(file);
+        }
+    }
+
+    private Path spillFile(String conversationId) {
+        // conversationId 는 사용자 입력이므로 파일명으로 그대로 쓰지 않는다. (경로 조작 방지)
+        String fileName = UUID.nameUUIDFromBytes(conversationId.getBytes(StandardCharsets.UTF_8)) + SPILL_SUFFIX;
+        return spillDir.resolve(fileName);
+    }
+
+    private Path createSpillDir(String dir) {
+        Path path = Paths.get(dir);
+        try {
+            return Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot create conversation spill dir: " + dir, e);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("[conversation] failed to delete {}", file);
+        }
+    }
+
+    record SpilledMessage(String type, String text) {
+
+        Message toMessage() {
+            return switch (type) {
+                case "ASSISTANT" -> new AssistantMessage(text);
+                case "SYSTEM" -> new SystemMessage(text);
+                default -> new UserMessage(text);
+            };
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.study.service.conversation;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 불변 대화 스냅샷. append 는 새 인스턴스를 돌려주므로 읽는 쪽은 잠금 없이 안전하게 순회할 수 있다.
+ * weight 는 메시지 글자 수 합 + 고정 오버헤드로, 저장소 전체 메모리 상한 계산에 쓴다.
+ */
+record Conversation(List<Message> messages, int weight) {
+
+    // 대화 1건의 객체/맵 엔트리 오버헤드를 글자 수로 환산한 대략값
+    private static final int ENTRY_OVERHEAD = 64;
+    private static final int MESSAGE_OVERHEAD = 16;
+
+    static Conversation empty() {
+        return new Conversation(List.of(), ENTRY_OVERHEAD);
+    }
+
+    static Conversation of(List<Message> messages) {
+        return new Conversation(List.copyOf(messages), weigh(messages));
+    }
+
+    /**
+     * 메시지를 덧붙이고 maxMessages 를 넘으면 오래된 메시지부터 버린다.
+     * 맨 앞의 요약(SYSTEM) 메시지는 상한 계산에서 빼고 항상 유지한다.
+     */
+    Conversation append(Message[] added, int maxMessages) {
+        List<Message> merged = new ArrayList<>(messages.size() + added.length);
+        merged.addAll(messages);
+        merged.addAll(List.of(added));
+        int pinned = leadingSystemCount(merged);
+        int overflow = merged.size() - pinned - maxMessages;
+        if (overflow <= 0) {
+            return of(merged);
+        }
+        List<Message> kept = new ArrayList<>(merged.subList(0, pinned));
+        kept.addAll(merged.subList(pinned + overflow, merged.size()));
+        return of(kept);
+    }
+
+    /**
+     * 현재 대화가 expectedPrefix 로 시작할 때만(같은 인스턴스 기준) 그 부분을 replacement 로 바꾼다.
+     * 요약이 진행되는 동안 대화가 잘리거나 지워졌다면 바꾸지 않는다.
+     */
+    Conversation replacePrefix(List<Message> expectedPrefix, Message replacement) {
+        if (expectedPrefix.isEmpty() || expectedPrefix.size() > messages.size()) {
+            return this;
+        }
+        for (int i = 0; i < expectedPrefix.size(); i++) {
+            if (messages.get(i) != expectedPrefix.get(i)) {
+                return this;
+            }
+        }
+        List<Message> replaced = new ArrayList<>(messages.size() - expectedPrefix.size() + 1);
+        replaced.add(replacement);
+        replaced.addAll(messages.subList(expectedPrefix.size(), messages.size()));
+        return of(replaced);
+    }
+
+    static int leadingSystemCount(List<Message> messages) {
+        int count = 0;
+        while (count < messages.size() && messages.get(count).getMessageType() == MessageType.SYSTEM) {
+            count++;
+        }
+        return count;
+    }
+
+    private static int weigh(List<Message> messages) {
+        long weight = ENTRY_OVERHEAD;
+        for (Message message : messages) {
+            String text = message.getText();
+            weight += MESSAGE_OVERHEAD + (text != null ? text.length() : 0);
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+}
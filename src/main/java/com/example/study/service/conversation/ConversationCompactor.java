@@ -0,0 +1,67 @@
+package com.example.study.service.conversation;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 토큰 예산 안에서 모델에 보낼 히스토리 창을 만든다.
+ * <p>
+ * 맨 앞의 요약(SYSTEM) 메시지는 항상 포함하고, 나머지는 최근 턴(user/assistant 쌍)부터 예산이 허락하는 만큼 담는다.
+ * 단, 최근 minRecentTurns 턴은 예산을 넘더라도 포함한다. 창에서 빠진 오래된 턴은
+ * {@link ConversationSummarizer} 에 넘겨 비동기로 요약본으로 교체한다.
+ */
+@Component
+public class ConversationCompactor {
+
+    private final TokenEstimator tokenEstimator;
+    private final ConversationSummarizer summarizer;
+    private final int tokenBudget;
+    private final int minRecentTurns;
+
+    public ConversationCompactor(TokenEstimator tokenEstimator,
+                                 ConversationSummarizer summarizer,
+                                 @Value("${chat.history.token-budget:4000}") int tokenBudget,
+                                 @Value("${chat.history.min-recent-turns:2}") int minRecentTurns) {
+        this.tokenEstimator = tokenEstimator;
+        this.summarizer = summarizer;
+        this.tokenBudget = tokenBudget;
+        this.minRecentTurns = minRecentTurns;
+    }
+
+    /**
+     * history 중 question 과 함께 보낼 창을 고른다. 창 밖으로 밀려난 턴이 있으면 요약을 예약한다.
+     */
+    public HistoryWindow window(String conversationId, List<Message> history, String question) {
+        int originalTokens = tokenEstimator.estimate(history);
+        int pinned = Conversation.leadingSystemCount(history);
+        List<Message> summaries = history.subList(0, pinned);
+        List<Message> turns = history.subList(pinned, history.size());
+
+        int remaining = tokenBudget - tokenEstimator.estimate(summaries) - tokenEstimator.estimate(question);
+        int start = turns.size();
+        int keptTurns = 0;
+        while (start > 0) {
+            int turnStart = Math.max(0, start - 2);
+            int turnTokens = tokenEstimator.estimate(turns.subList(turnStart, start));
+            if (turnTokens > remaining && keptTurns >= minRecentTurns) {
+                break;
+            }
+            remaining -= turnTokens;
+            start = turnStart;
+            keptTurns++;
+        }
+
+        if (start == 0) {
+            return new HistoryWindow(history, originalTokens, originalTokens);
+        }
+        summarizer.requestSummary(conversationId, List.copyOf(history.subList(0, pinned + start)));
+
+        List<Message> window = new ArrayList<>(summaries);
+        window.addAll(turns.subList(start, turns.size()));
+        return new HistoryWindow(List.copyOf(window), originalTokens, tokenEstimator.estimate(window));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.study.service.conversation;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * 대화(conversationId)별 메시지 히스토리 저장소.
+ * 구현체는 여러 요청이 같은 대화에 동시에 append 해도 히스토리가 깨지지 않아야 하고,
+ * 반환하는 목록은 호출자가 바꿀 수 없는 스냅샷이어야 한다.
+ */
+public interface ConversationStore {
+
+    // 대화 히스토리 스냅샷 (없으면 빈 목록)
+    List<Message> history(String conversationId);
+
+    // 대화 끝에 메시지를 원자적으로 추가
+    void append(String conversationId, Message... messages);
+
+    // 대화 앞부분(expectedPrefix)이 그대로일 때만 replacement 한 건으로 교체 (롤링 요약 반영용)
+    boolean replacePrefix(String conversationId, List<Message> expectedPrefix, Message replacement);
+
+    // 대화 삭제
+    void remove(String conversationId);
+
+    // 모든 대화 삭제
+    void clear();
+}
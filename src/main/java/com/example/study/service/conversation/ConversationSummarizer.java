@@ -0,0 +1,121 @@
+package com.example.study.service.conversation;
+
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 창 밖으로 밀려난 오래된 턴을 백그라운드에서 요약해 대화 앞부분을 요약 메시지 한 건으로 바꾼다. (rolling summary)
+ * <p>
+ * 사용자 응답 경로를 막지 않도록 별도 스레드에서 실행하며, 같은 대화의 요약은 동시에 하나만 돈다.
+ * 큐가 가득 차면 이번 요약은 건너뛴다. (다음 턴에서 다시 요청된다)
+ */
+@Slf4j
+@Component
+public class ConversationSummarizer {
+
+    static final String SUMMARY_PREFIX = "[이전 대화 요약]\n";
+
+    private static final String SUMMARY_INSTRUCTION = """
+            아래 대화를 이후 대화에 필요한 사실, 결정 사항, 사용자의 요구/선호 중심으로 %d자 이내의 한국어로 요약하세요.
+            요약문만 출력하세요.
+            """;
+
+    private final ChatClient chatClient;
+    private final ConversationStore conversationStore;
+    private final int maxSummaryChars;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public ConversationSummarizer(ChatClient chatClient,
+                                  ConversationStore conversationStore,
+                                  @Value("${chat.history.summary-max-chars:800}") int maxSummaryChars,
+                                  @Value("${chat.history.summary-threads:2}") int threads,
+                                  @Value("${chat.history.summary-queue-size:100}") int queueSize) {
+        this.chatClient = chatClient;
+        this.conversationStore = conversationStore;
+        this.maxSummaryChars = maxSummaryChars;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "conversation-summarizer-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * prefix(기존 요약 + 밀려난 턴)를 요약해 대화 앞부분을 교체하도록 예약한다.
+     */
+    public void requestSummary(String conversationId, List<Message> prefix) {
+        if (prefix.isEmpty() || !inFlight.add(conversationId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> summarize(conversationId, prefix));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(conversationId);
+            log.debug("[summary] queue full, skipped {}", conversationId);
+        }
+    }
+
+    private void summarize(String conversationId, List<Message> prefix) {
+        try {
+            String summary = chatClient.prompt()
+                    .system(SUMMARY_INSTRUCTION.formatted(maxSummaryChars))
+                    .user(render(prefix))
+                    .advisors(a -> a.param(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK))
+                    .call()
+                    .content();
+            if (summary == null || summary.isBlank()) {
+                return;
+            }
+            boolean replaced = conversationStore.replacePrefix(
+                    conversationId, prefix, new SystemMessage(SUMMARY_PREFIX + summary.strip()));
+            log.debug("[summary] {} compacted {} messages (applied={})", conversationId, prefix.size(), replaced);
+        } catch (RuntimeException e) {
+            log.warn("[summary] failed for {}: {}", conversationId, e.getMessage());
+        } finally {
+            inFlight.remove(conversationId);
+        }
+    }
+
+    private String render(List<Message> messages) {
+        StringBuilder builder = new StringBuilder();
+        for (Message message : messages) {
+            String role = switch (message.getMessageType()) {
+                case USER -> "사용자";
+                case ASSISTANT -> "어시스턴트";
+                default -> "요약";
+            };
+            String text = message.getMessageType() == MessageType.SYSTEM
+                    ? message.getText().replace(SUMMARY_PREFIX, "")
+                    : message.getText();
+            builder.append(role).append(": ").append(text).append('\n');
+        }
+        return builder.toString();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.study.service.conversation;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * 모델에 실제로 보낼 히스토리 창(window).
+ * originalTokens 는 전체 히스토리를 보냈을 때, windowTokens 는 창만 보냈을 때의 추정 토큰 수이다.
+ */
+public record HistoryWindow(
+        List<Message> messages,
+        int originalTokens,
+        int windowTokens
+) {
+
+    public int savedTokens() {
+        return Math.max(0, originalTokens - windowTokens);
+    }
+}
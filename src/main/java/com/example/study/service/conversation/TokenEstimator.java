@@ -0,0 +1,47 @@
+package com.example.study.service.conversation;
+
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 토크나이저 없이 쓰는 보수적인 토큰 수 추정기.
+ * <p>
+ * 영문/숫자/기호는 대략 4글자당 1토큰, 한글·CJK 등 비 ASCII 문자는 글자당 1토큰으로 계산하고
+ * 메시지마다 역할 표기 등에 쓰이는 고정 오버헤드를 더한다. 실제 값보다 약간 크게 나오도록 잡아
+ * 예산을 넘겨 요청이 거절되는 일을 줄인다.
+ */
+@Component
+public class TokenEstimator {
+
+    private static final int MESSAGE_OVERHEAD = 4;
+
+    public int estimate(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int ascii = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) < 0x80) {
+                ascii++;
+            } else {
+                other++;
+            }
+        }
+        return (ascii + 3) / 4 + other;
+    }
+
+    public int estimate(Message message) {
+        return MESSAGE_OVERHEAD + estimate(message.getText());
+    }
+
+    public int estimate(List<Message> messages) {
+        int total = 0;
+        for (Message message : messages) {
+            total += estimate(message);
+        }
+        return total;
+    }
+}
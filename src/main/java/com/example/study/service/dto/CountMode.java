@@ -0,0 +1,13 @@
+package com.example.study.service.dto;
+
+/**
+ * 커서 페이징에서 전체 건수를 어떻게 계산할지 결정한다.
+ * <ul>
+ *     <li>NONE: count 쿼리를 실행하지 않는다. (기본값, 무한 스크롤)</li>
+ *     <li>CAPPED: 최대 {@code cap} 건까지만 세고, 넘으면 "cap 이상"으로 표시한다.</li>
+ *     <li>EXACT: 기존 Page 와 같은 전체 count 쿼리를 실행한다.</li>
+ * </ul>
+ */
+public enum CountMode {
+    NONE, CAPPED, EXACT
+}
@@ -1,38 +1,43 @@
 package com.example.study.service.dto;
 
-import com.example.study.controller.dto.ImageAnalysisRequest;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.VisionCacheMatch;
 import lombok.Builder;
-import org.springframework.web.multipart.MultipartFile;
 
-import java.io.IOException;
-
-@Builder
+/**
+ * 이미지 분석 요청.
+ * 업로드 파일은 ImageOptimizationService 로 PreparedImage 를 만든 뒤 넘긴다. (업로드를 풀 버퍼에 한 번만 읽는다)
+ * cacheMatch 는 결과 캐시가 같은 이미지로 보는 기준(없으면 EXACT), caller 는 캐시를 나눠 쓰는 호출자(없으면 익명 호출자끼리 공유)다.
+ */
+@Builder(toBuilder = true)
 public record ImageAnalysis(
         String prompt,
         byte[] imageBytes,
-        String contentType
+        String contentType,
+        VisionCacheMatch cacheMatch,
+        String caller
 ) {
-    public static ImageAnalysis of(String prompt, MultipartFile imageFile) throws IOException {
+    public static ImageAnalysis of(String prompt, byte[] imageBytes) {
         return ImageAnalysis.builder()
                 .prompt(prompt)
-                .imageBytes(imageFile.getBytes())
-                .contentType(imageFile.getContentType())
+                .imageBytes(imageBytes)
+                .contentType("image/jpeg")
                 .build();
     }
 
-    public static ImageAnalysis of(String prompt, byte[] imageBytes) throws IOException {
+    public static ImageAnalysis of(String prompt, PreparedImage image) {
         return ImageAnalysis.builder()
                 .prompt(prompt)
-                .imageBytes(imageBytes)
-                .contentType("image/jpeg")
+                .imageBytes(image.bytes())
+                .contentType(image.contentType())
                 .build();
     }
 
-    public static ImageAnalysis of(ImageAnalysisRequest request) throws IOException {
-        return ImageAnalysis.of(request.prompt(), request.image());
+    public ImageAnalysis withCacheMatch(VisionCacheMatch cacheMatch) {
+        return toBuilder().cacheMatch(cacheMatch).build();
     }
 
-    public static ImageAnalysis of(MultipartFile imageFile) throws IOException {
-        return ImageAnalysis.of("", imageFile);
+    public ImageAnalysis forCaller(String caller) {
+        return toBuilder().caller(caller).build();
     }
-}
\ No newline at end of file
+}
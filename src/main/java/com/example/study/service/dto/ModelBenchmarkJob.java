@@ -0,0 +1,34 @@
+package com.example.study.service.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 백그라운드로 실행하는 벤치마크 작업의 상태. 끝나면 report 나 error 중 하나가 채워진다.
+ */
+public record ModelBenchmarkJob(
+        String jobId,
+        Status status,
+        int prompts,
+        int repetitions,
+        LocalDateTime submittedAt,
+        LocalDateTime finishedAt,
+        ModelBenchmarkReport report,
+        String error
+) {
+
+    public enum Status {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public static ModelBenchmarkJob running(String jobId, int prompts, int repetitions) {
+        return new ModelBenchmarkJob(jobId, Status.RUNNING, prompts, repetitions, LocalDateTime.now(), null, null, null);
+    }
+
+    public ModelBenchmarkJob completed(ModelBenchmarkReport report) {
+        return new ModelBenchmarkJob(jobId, Status.COMPLETED, prompts, repetitions, submittedAt, LocalDateTime.now(), report, null);
+    }
+
+    public ModelBenchmarkJob failed(String error) {
+        return new ModelBenchmarkJob(jobId, Status.FAILED, prompts, repetitions, submittedAt, LocalDateTime.now(), null, error);
+    }
+}
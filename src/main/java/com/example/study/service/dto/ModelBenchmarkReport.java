@@ -0,0 +1,14 @@
+package com.example.study.service.dto;
+
+import java.util.List;
+
+/**
+ * 프롬프트 묶음을 repetitions 번 반복한 모델 선택용 벤치마크 결과.
+ */
+public record ModelBenchmarkReport(
+        int prompts,
+        int repetitions,
+        long wallClockMs,
+        List<ModelBenchmarkSummary> models
+) {
+}
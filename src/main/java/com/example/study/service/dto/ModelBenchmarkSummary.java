@@ -0,0 +1,53 @@
+package com.example.study.service.dto;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.OptionalDouble;
+
+/**
+ * 벤치마크에서 모델 하나의 집계. 지연 백분위는 성공한 실행만으로 계산한다. (nearest-rank)
+ */
+public record ModelBenchmarkSummary(
+        String name,
+        String model,
+        int runs,
+        int failures,
+        Long p50LatencyMs,
+        Long p95LatencyMs,
+        Long p50TimeToFirstTokenMs,
+        Double meanTokensPerSecond,
+        long totalCompletionTokens
+) {
+
+    public static ModelBenchmarkSummary of(String name, String model, List<ModelRunResult> results) {
+        List<ModelRunResult> succeeded = results.stream().filter(ModelRunResult::success).toList();
+        List<Long> latencies = succeeded.stream().map(ModelRunResult::latencyMs).sorted().toList();
+        List<Long> firstTokens = succeeded.stream()
+                .map(ModelRunResult::timeToFirstTokenMs)
+                .filter(Objects::nonNull)
+                .sorted()
+                .toList();
+        OptionalDouble meanTokensPerSecond = succeeded.stream()
+                .map(ModelRunResult::tokensPerSecond)
+                .filter(Objects::nonNull)
+                .mapToDouble(Double::doubleValue)
+                .average();
+        long completionTokens = succeeded.stream()
+                .map(ModelRunResult::completionTokens)
+                .filter(Objects::nonNull)
+                .mapToLong(Integer::longValue)
+                .sum();
+        return new ModelBenchmarkSummary(name, model, results.size(), results.size() - succeeded.size(),
+                percentile(latencies, 50), percentile(latencies, 95), percentile(firstTokens, 50),
+                meanTokensPerSecond.isPresent() ? Double.valueOf(meanTokensPerSecond.getAsDouble()) : null,
+                completionTokens);
+    }
+
+    private static Long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(0, rank - 1));
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.study.service.dto;
+
+import java.util.List;
+
+/**
+ * 한 프롬프트를 모든 대상 모델에 동시에 보낸 결과. wallClockMs 는 가장 느린 모델의 latency 에 가깝다.
+ */
+public record ModelComparisonResult(
+        String prompt,
+        long wallClockMs,
+        List<ModelRunResult> runs
+) {
+}
@@ -0,0 +1,28 @@
+package com.example.study.service.dto;
+
+/**
+ * 모델 하나의 실행 결과.
+ * <p>
+ * - latencyMs: 요청 시작부터 마지막 청크까지
+ * - timeToFirstTokenMs: 요청 시작부터 첫 텍스트 청크까지 (텍스트가 없으면 null)
+ * - tokensPerSecond: 첫 토큰 이후 생성 속도 (completionTokens / 생성 시간)
+ * - usageEstimated: 모델이 사용량을 주지 않아 completionTokens 를 추정했는지 여부
+ */
+public record ModelRunResult(
+        String name,
+        String model,
+        boolean success,
+        String response,
+        long latencyMs,
+        Long timeToFirstTokenMs,
+        Integer promptTokens,
+        Integer completionTokens,
+        boolean usageEstimated,
+        Double tokensPerSecond,
+        String error
+) {
+
+    public static ModelRunResult failure(String name, String model, long latencyMs, String error) {
+        return new ModelRunResult(name, model, false, null, latencyMs, null, null, null, false, null, error);
+    }
+}
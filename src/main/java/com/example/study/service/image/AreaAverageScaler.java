@@ -0,0 +1,151 @@
+package com.example.study.service.image;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+
+/**
+ * 원본 픽셀이 덮는 면적 비율로 가중 평균해 줄이는 축소기 (box filter).
+ * <p>
+ * subsampling 이나 bilinear 한 번은 2배 넘게 줄일 때 건너뛴 픽셀을 버려 글자 획이 끊기고 계단(aliasing)이 생긴다.
+ * 여기서는 원본을 한 행씩 읽어 가로로 먼저 합치고, 목표 한 행에 걸친 원본 행들을 세로로 합쳐
+ * 모든 원본 픽셀이 결과에 기여하게 한다. 중간 버퍼는 목표 폭의 행 두 개와 원본 한 행뿐이다.
+ * <p>
+ * 투명 픽셀은 흰 배경 위에 합성한다. (JPEG 은 alpha 를 쓸 수 없다)
+ */
+public final class AreaAverageScaler {
+
+    private AreaAverageScaler() {
+    }
+
+    /**
+     * source 를 width x height 의 TYPE_3BYTE_BGR 로 줄인다. 목표가 원본보다 크면 IllegalArgumentException.
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height) {
+        int sourceWidth = source.getWidth();
+        int sourceHeight = source.getHeight();
+        if (width > sourceWidth || height > sourceHeight) {
+            throw new IllegalArgumentException("확대는 지원하지 않습니다: " + sourceWidth + "x" + sourceHeight + " -> " + width + "x" + height);
+        }
+        // 원본 한 픽셀(행)이 목표 좌표계에서 차지하는 폭. 1 이하라 한 원본 픽셀은 목표 픽셀 최대 두 개에 걸친다.
+        double scaleY = (double) height / sourceHeight;
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        byte[] out = ((DataBufferByte) target.getRaster().getDataBuffer()).getData();
+
+        Columns columns = Columns.of(sourceWidth, width);
+        boolean bgr = source.getType() == BufferedImage.TYPE_3BYTE_BGR;
+        byte[] bgrRow = bgr ? new byte[sourceWidth * 3] : null;
+        int[] argbRow = bgr ? null : new int[sourceWidth];
+        float[] rowSum = new float[width * 3];
+        float[] current = new float[width * 3];
+        float[] next = new float[width * 3];
+        int targetY = 0;
+
+        for (int y = 0; y < sourceHeight && targetY < height; y++) {
+            Arrays.fill(rowSum, 0f);
+            if (bgr) {
+                // 디코더가 주로 돌려주는 형식은 ColorModel 변환 없이 행 단위로 바로 읽는다.
+                source.getRaster().getDataElements(0, y, sourceWidth, 1, bgrRow);
+                sumBgrRow(bgrRow, rowSum, columns);
+            } else {
+                source.getRGB(0, y, sourceWidth, 1, argbRow, 0, sourceWidth);
+                sumArgbRow(argbRow, rowSum, columns);
+            }
+
+            double top = y * scaleY;
+            double bottom = (y + 1) * scaleY;
+            double split = targetY + 1;
+            if (bottom < split) {
+                accumulate(current, rowSum, (float) (bottom - top));
+                continue;
+            }
+            // 이 원본 행에서 목표 행 targetY 가 끝난다. 넘친 부분은 다음 목표 행의 몫이다.
+            accumulate(current, rowSum, (float) (split - top));
+            write(current, out, targetY, width);
+            targetY++;
+            float carry = (float) (bottom - split);
+            Arrays.fill(next, 0f);
+            if (carry > 0) {
+                accumulate(next, rowSum, carry);
+            }
+            float[] swap = current;
+            current = next;
+            next = swap;
+        }
+        if (targetY < height) {
+            // 부동소수 오차로 마지막 행의 합이 1 에 조금 못 미친 경우
+            write(current, out, targetY, width);
+        }
+        return target;
+    }
+
+    private static void sumBgrRow(byte[] bgr, float[] rowSum, Columns columns) {
+        for (int x = 0; x < columns.first.length; x++) {
+            int i = x * 3;
+            add(rowSum, columns, x, bgr[i] & 0xFF, bgr[i + 1] & 0xFF, bgr[i + 2] & 0xFF);
+        }
+    }
+
+    private static void sumArgbRow(int[] argb, float[] rowSum, Columns columns) {
+        for (int x = 0; x < argb.length; x++) {
+            int pixel = argb[x];
+            float alpha = (pixel >>> 24) / 255f;
+            float white = 255f * (1 - alpha);
+            add(rowSum, columns, x,
+                    (pixel & 0xFF) * alpha + white,
+                    ((pixel >> 8) & 0xFF) * alpha + white,
+                    ((pixel >> 16) & 0xFF) * alpha + white);
+        }
+    }
+
+    private static void add(float[] sums, Columns columns, int x, float b, float g, float r) {
+        int i = columns.first[x] * 3;
+        float weight = columns.firstWeight[x];
+        sums[i] += b * weight;
+        sums[i + 1] += g * weight;
+        sums[i + 2] += r * weight;
+        float rest = columns.secondWeight[x];
+        if (rest > 0) {
+            sums[i + 3] += b * rest;
+            sums[i + 4] += g * rest;
+            sums[i + 5] += r * rest;
+        }
+    }
+
+    private static void accumulate(float[] into, float[] rowSum, float weight) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += rowSum[i] * weight;
+        }
+    }
+
+    private static void write(float[] sums, byte[] out, int y, int width) {
+        int offset = y * width * 3;
+        for (int i = 0; i < width * 3; i++) {
+            int value = Math.round(sums[i]);
+            out[offset + i] = (byte) Math.min(255, Math.max(0, value));
+        }
+    }
+
+    /**
+     * 원본 열마다 걸치는 첫 목표 열과 그 안의 비율, 다음 목표 열로 넘치는 비율. 행마다 같으므로 한 번만 계산한다.
+     */
+    private record Columns(int[] first, float[] firstWeight, float[] secondWeight) {
+
+        static Columns of(int sourceWidth, int width) {
+            double scale = (double) width / sourceWidth;
+            int[] first = new int[sourceWidth];
+            float[] firstWeight = new float[sourceWidth];
+            float[] secondWeight = new float[sourceWidth];
+            for (int x = 0; x < sourceWidth; x++) {
+                double left = x * scale;
+                double right = (x + 1) * scale;
+                int targetX = Math.min((int) left, width - 1);
+                first[x] = targetX;
+                firstWeight[x] = (float) (Math.min(right, targetX + 1) - left);
+                secondWeight[x] = targetX + 1 < width ? (float) Math.max(0, right - (targetX + 1)) : 0f;
+            }
+            return new Columns(first, firstWeight, secondWeight);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.study.service.image;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link UploadBuffer} 의 내용을 그대로 읽는 ImageInputStream.
+ * <p>
+ * MemoryCacheImageInputStream 은 읽은 입력을 heap 청크에 다시 캐시하지만, 업로드가 이미 버퍼(direct / mmap)에 있으므로
+ * 절대 위치로 바로 읽는다. 같은 버퍼에서 스트림을 여러 개 만들어도(헤더 읽기, 디코드) 서로 간섭하지 않는다.
+ */
+final class ByteBufferImageInputStream extends ImageInputStreamImpl {
+
+    private final ByteBuffer data;
+
+    ByteBufferImageInputStream(ByteBuffer data) {
+        this.data = data;
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+        if (streamPos >= data.limit()) {
+            return -1;
+        }
+        return data.get((int) streamPos++) & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        if (streamPos >= data.limit()) {
+            return -1;
+        }
+        int count = Math.min(len, data.limit() - (int) streamPos);
+        data.get((int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return data.limit();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.study.service.image;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 이미지 인코딩 출력용 byte[] 풀.
+ * <p>
+ * 이미지마다 ByteArrayOutputStream 을 만들고 키우며 복사하는 대신, 한 번 키운 버퍼를 다음 이미지가 재사용한다.
+ * - 최대 maxPooled 개까지만 보관하고, 풀이 비어 있으면 새로 만든다. (기다리지 않는다)
+ * - maxRetainedBytes 보다 큰 버퍼는 돌려받지 않는다. 드물게 큰 이미지 하나가 heap 을 계속 붙잡지 않도록.
+ */
+@Component
+public class ImageBufferPool {
+
+    private final BlockingQueue<byte[]> free;
+    private final int initialBytes;
+    private final int maxRetainedBytes;
+
+    public ImageBufferPool(@Value("${image.buffer-pool.max-pooled:16}") int maxPooled,
+                           @Value("${image.buffer-pool.initial-kb:512}") int initialKb,
+                           @Value("${image.buffer-pool.max-retained-kb:4096}") int maxRetainedKb) {
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+        this.initialBytes = initialKb * 1024;
+        this.maxRetainedBytes = maxRetainedKb * 1024;
+    }
+
+    /**
+     * minBytes 이상인 버퍼. 풀에 있던 버퍼가 작으면 버리고 새로 만든다.
+     */
+    public byte[] acquire(int minBytes) {
+        byte[] buffer = free.poll();
+        if (buffer == null || buffer.length < minBytes) {
+            return new byte[Math.max(minBytes, initialBytes)];
+        }
+        return buffer;
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer != null && buffer.length <= maxRetainedBytes) {
+            free.offer(buffer);
+        }
+    }
+
+    int pooled() {
+        return free.size();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.study.service.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * 픽셀을 디코드하지 않고 헤더에서 읽은 이미지 크기.
+ */
+public record ImageHeader(String format, int width, int height) {
+
+    /**
+     * ImageIO 가 읽을 수 있는 형식이면 헤더를, 아니면(webp 등) 빈 값을 반환한다.
+     */
+    public static Optional<ImageHeader> read(InputStream in) throws IOException {
+        ImageInputStream input = new MemoryCacheImageInputStream(in);
+        try {
+            return read(input);
+        } finally {
+            input.close();
+        }
+    }
+
+    /**
+     * 이미 ImageInputStream 으로 열려 있는 입력({@link UploadBuffer#imageInputStream()} 등)용. input 은 닫지 않는다.
+     */
+    public static Optional<ImageHeader> read(ImageInputStream input) throws IOException {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            return Optional.empty();
+        }
+        ImageReader reader = readers.next();
+        try {
+            reader.setInput(input, true, true);
+            return Optional.of(new ImageHeader(reader.getFormatName(), reader.getWidth(0), reader.getHeight(0)));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+    public long pixels() {
+        return (long) width * height;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.study.service.image;
+
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.common.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 이미지 디코드/리사이즈/인코드 전용 실행기.
+ * <p>
+ * - CPU 상한: 코어 수만큼의 스레드가 실행하고 queueCapacity 개까지 대기한다. 대기열이 차면 바로 429.
+ * - 메모리 상한: 작업마다 헤더로 추정한 최대 사용량(바이트)을 memoryBudget 에서 빌린 뒤 처리하고 돌려준다.
+ *   대기 중인 작업은 업로드 파일만 붙잡고 있으므로, 예산은 실행을 시작할 때 빌린다.
+ *   admissionTimeout 안에 예산을 빌리지 못하면 429, 추정치가 예산 전체보다 크면 처리할 수 없는 이미지로 보고 400.
+ * <p>
+ * 지표: executor.* (name=image), image.processing.queue.wait, image.processing.duration,
+ * image.processing.memory.reserved, image.processing.rejected (reason 태그)
+ */
+@Slf4j
+public class ImageProcessingExecutor {
+
+    private static final String NAME = "image";
+    private static final int KB = 1024;
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    // 1 permit = 1KB (int 범위 안에서 GB 단위 예산을 표현하기 위해)
+    private final Semaphore memory;
+    private final int memoryBudgetKb;
+    private final long admissionTimeoutMillis;
+    private final Timer queueWait;
+    private final Timer processing;
+
+    public ImageProcessingExecutor(MeterRegistry meterRegistry,
+                                   int threads,
+                                   int queueCapacity,
+                                   long memoryBudgetBytes,
+                                   long admissionTimeoutMillis) {
+        this.meterRegistry = meterRegistry;
+        this.memoryBudgetKb = (int) Math.min(Integer.MAX_VALUE, Math.max(1, memoryBudgetBytes / KB));
+        this.memory = new Semaphore(memoryBudgetKb);
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        new ExecutorServiceMetrics(executor, NAME, Tags.empty()).bindTo(meterRegistry);
+        this.queueWait = Timer.builder("image.processing.queue.wait")
+                .description("Time image tasks spent queued and waiting for memory budget")
+                .register(meterRegistry);
+        this.processing = Timer.builder("image.processing.duration")
+                .description("Time spent decoding, resizing and encoding images")
+                .register(meterRegistry);
+        Gauge.builder("image.processing.memory.reserved", memory, m -> (double) (memoryBudgetKb - m.availablePermits()) * KB)
+                .description("Estimated bytes reserved by running image tasks")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * estimatedBytes 만큼의 메모리 예산 안에서 task 를 실행한다. 거절되면 이미 실패한 future 를 반환한다.
+     */
+    public <T> CompletableFuture<T> submit(long estimatedBytes, Callable<T> task) {
+        int permits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, (estimatedBytes + KB - 1) / KB));
+        if (permits > memoryBudgetKb) {
+            count("too-large");
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "이미지 해상도가 너무 커서 처리할 수 없습니다 (예상 메모리 " + estimatedBytes / (KB * KB) + "MB)"));
+        }
+        long submittedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> run(permits, submittedAt, task), executor);
+        } catch (RejectedExecutionException e) {
+            return rejected("queue-full");
+        }
+    }
+
+    int queueDepth() {
+        return executor.getQueue().size();
+    }
+
+    int availableMemoryKb() {
+        return memory.availablePermits();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(int permits, long submittedAt, Callable<T> task) {
+        try {
+            if (!memory.tryAcquire(permits, admissionTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                count("memory-budget");
+                throw new TooManyRequestsException(ServiceExceptionCode.IMAGE_CAPACITY_EXCEEDED);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+        queueWait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        long startedAt = System.nanoTime();
+        try {
+            return task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // Spring MVC 가 CompletionException 을 벗겨 원래 예외로 @ExceptionHandler 를 태운다.
+            throw new CompletionException(e);
+        } finally {
+            processing.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+            memory.release(permits);
+        }
+    }
+
+    private <T> CompletableFuture<T> rejected(String reason) {
+        count(reason);
+        return CompletableFuture.failedFuture(new TooManyRequestsException(ServiceExceptionCode.IMAGE_CAPACITY_EXCEEDED));
+    }
+
+    private void count(String reason) {
+        Counter.builder("image.processing.rejected")
+                .description("Image tasks rejected before processing")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.debug("[image-executor] rejected: {}", reason);
+    }
+}
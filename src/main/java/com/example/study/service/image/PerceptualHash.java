@@ -0,0 +1,148 @@
+package com.example.study.service.image;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * 64비트 DCT 지각 해시(pHash)와 원본 크기.
+ * <p>
+ * 32x32 흑백으로 줄인 뒤 DCT 의 저주파 8x8 계수를 중앙값과 비교해 비트를 만든다.
+ * 재압축, 크기 변경, 약간의 잘림은 저주파 성분을 거의 바꾸지 않으므로 해밍 거리가 작게 나온다.
+ */
+public record PerceptualHash(long bits, int width, int height) {
+
+    private static final int SIZE = 32;
+    private static final int LOW = 8;
+    // subsampling 후에도 짧은 변이 이 정도는 남게 한다. 글자처럼 가는 선이 건너뛰어지지 않도록.
+    private static final int MIN_DECODED_SIDE = 256;
+    private static final double[][] COS = cosTable();
+
+    /**
+     * ImageIO 가 디코드할 수 없는 형식이면 빈 값을 반환한다.
+     * 디코드는 subsampling 으로 해시에 필요한 만큼만 한다.
+     */
+    public static Optional<PerceptualHash> of(byte[] imageBytes) throws IOException {
+        ImageInputStream input = new MemoryCacheImageInputStream(new ByteArrayInputStream(imageBytes));
+        try {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return Optional.empty();
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.min(width, height) / MIN_DECODED_SIDE);
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return Optional.of(new PerceptualHash(hash(reader.read(0, param)), width, height));
+            } finally {
+                reader.dispose();
+            }
+        } finally {
+            input.close();
+        }
+    }
+
+    static long hash(BufferedImage image) {
+        double[][] pixels = luminance(image);
+
+        // 분리형 DCT: 행 방향으로 저주파 8개만 구하고, 그 결과에 열 방향 8개
+        double[][] rows = new double[SIZE][LOW];
+        for (int y = 0; y < SIZE; y++) {
+            for (int u = 0; u < LOW; u++) {
+                double sum = 0;
+                for (int x = 0; x < SIZE; x++) {
+                    sum += pixels[y][x] * COS[u][x];
+                }
+                rows[y][u] = sum;
+            }
+        }
+        double[] coefficients = new double[LOW * LOW];
+        for (int v = 0; v < LOW; v++) {
+            for (int u = 0; u < LOW; u++) {
+                double sum = 0;
+                for (int y = 0; y < SIZE; y++) {
+                    sum += rows[y][u] * COS[v][y];
+                }
+                coefficients[v * LOW + u] = sum;
+            }
+        }
+
+        // DC(전체 밝기)는 중앙값 계산에서 뺀다.
+        double[] ac = Arrays.copyOfRange(coefficients, 1, coefficients.length);
+        Arrays.sort(ac);
+        double median = ac[ac.length / 2];
+        long bits = 0;
+        for (int i = 1; i < coefficients.length; i++) {
+            if (coefficients[i] > median) {
+                bits |= 1L << i;
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * 32x32 칸마다 속한 픽셀의 밝기 평균. (bilinear 축소는 큰 배율에서 픽셀을 건너뛰어 글자 이미지가 크기에 따라 달라진다)
+     */
+    private static double[][] luminance(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        double[][] sums = new double[SIZE][SIZE];
+        int[][] counts = new int[SIZE][SIZE];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellY = (int) ((long) y * SIZE / height);
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                int cellX = (int) ((long) x * SIZE / width);
+                sums[cellY][cellX] += 0.299 * ((rgb >> 16) & 0xff) + 0.587 * ((rgb >> 8) & 0xff) + 0.114 * (rgb & 0xff);
+                counts[cellY][cellX]++;
+            }
+        }
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                sums[y][x] = counts[y][x] > 0 ? sums[y][x] / counts[y][x] : 0;
+            }
+        }
+        return sums;
+    }
+
+    public int distance(PerceptualHash other) {
+        return Long.bitCount(bits ^ other.bits);
+    }
+
+    /**
+     * 가로세로 비율 차이가 tolerance(상대값) 이하인지. 해시는 비율을 보지 않으므로 따로 확인한다.
+     */
+    public boolean similarAspect(PerceptualHash other, double tolerance) {
+        double mine = (double) width / height;
+        double theirs = (double) other.width / other.height;
+        return Math.abs(mine - theirs) <= tolerance * Math.max(mine, theirs);
+    }
+
+    public String hex() {
+        return String.format("%016x", bits);
+    }
+
+    private static double[][] cosTable() {
+        double[][] table = new double[LOW][SIZE];
+        for (int u = 0; u < LOW; u++) {
+            for (int x = 0; x < SIZE; x++) {
+                table[u][x] = Math.cos((2 * x + 1) * u * Math.PI / (2 * SIZE));
+            }
+        }
+        return table;
+    }
+}
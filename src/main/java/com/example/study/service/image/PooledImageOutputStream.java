@@ -0,0 +1,102 @@
+package com.example.study.service.image;
+
+import javax.imageio.stream.ImageOutputStreamImpl;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * {@link ImageBufferPool} 의 버퍼에 바로 쓰는 ImageOutputStream.
+ * <p>
+ * ImageIO.createImageOutputStream 은 설정에 따라 임시 파일이나 별도 메모리 캐시를 거친 뒤 대상 스트림으로 다시 복사한다.
+ * 이 스트림은 인코더 출력을 풀 버퍼에 한 번만 쓰고, {@link #toByteArray()} 에서 결과 크기만큼 한 번 복사한다.
+ * close 하면 버퍼를 풀에 돌려준다.
+ */
+public class PooledImageOutputStream extends ImageOutputStreamImpl {
+
+    private final ImageBufferPool pool;
+    private byte[] buffer;
+    private int length;
+
+    public PooledImageOutputStream(ImageBufferPool pool, int expectedBytes) {
+        this.pool = pool;
+        this.buffer = pool.acquire(expectedBytes);
+    }
+
+    @Override
+    public void write(int b) {
+        flushBitsQuietly();
+        ensureCapacity(streamPos + 1);
+        buffer[(int) streamPos++] = (byte) b;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        flushBitsQuietly();
+        ensureCapacity(streamPos + len);
+        System.arraycopy(b, off, buffer, (int) streamPos, len);
+        streamPos += len;
+        length = Math.max(length, (int) streamPos);
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return buffer[(int) streamPos++] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        int count = Math.min(len, length - (int) streamPos);
+        System.arraycopy(buffer, (int) streamPos, b, off, count);
+        streamPos += count;
+        return count;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        super.close();
+        pool.release(buffer);
+        buffer = null;
+    }
+
+    private void ensureCapacity(long required) {
+        if (required > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("encoded image too large: " + required + " bytes");
+        }
+        if (required <= buffer.length) {
+            return;
+        }
+        byte[] grown = Arrays.copyOf(buffer, (int) Math.max(required, Math.min(Integer.MAX_VALUE - 8L, buffer.length * 2L)));
+        pool.release(buffer);
+        buffer = grown;
+    }
+
+    // 인코더가 비트 단위로 쓰다 만 바이트가 있으면 먼저 내보낸다. (메모리 버퍼라 IOException 은 나지 않는다)
+    private void flushBitsQuietly() {
+        try {
+            flushBits();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
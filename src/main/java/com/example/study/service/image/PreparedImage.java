@@ -0,0 +1,17 @@
+package com.example.study.service.image;
+
+/**
+ * 모델에 보낼 준비가 끝난 이미지. 최적화했으면 JPEG, ImageIO 가 읽지 못하는 형식이면 원본 그대로다.
+ */
+public record PreparedImage(byte[] bytes, String contentType) {
+
+    public static final String JPEG = "image/jpeg";
+
+    public static PreparedImage jpeg(byte[] bytes) {
+        return new PreparedImage(bytes, JPEG);
+    }
+
+    public int size() {
+        return bytes.length;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.study.service.image;
+
+import javax.imageio.stream.ImageInputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link UploadBufferPool} 이 빌려준 업로드 내용. 풀의 direct 버퍼이거나, 큰 업로드면 메모리 매핑한 임시 파일이다.
+ * <p>
+ * close 하면 버퍼를 풀에 돌려주므로(임시 파일은 지운다) 그 뒤에는 읽을 수 없다.
+ * 읽기는 모두 절대 위치라 close 전까지는 여러 스레드에서 동시에 읽어도 된다.
+ */
+public final class UploadBuffer implements AutoCloseable {
+
+    private final ByteBuffer data;
+    private final boolean mapped;
+    private final Runnable release;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    UploadBuffer(ByteBuffer data, boolean mapped, Runnable release) {
+        this.data = data.asReadOnlyBuffer();
+        this.mapped = mapped;
+        this.release = release;
+    }
+
+    public int size() {
+        return data.limit();
+    }
+
+    public boolean mapped() {
+        return mapped;
+    }
+
+    /**
+     * 내용을 복사하지 않고 읽는 ImageIO 입력. 호출할 때마다 처음부터 읽는 새 스트림이다.
+     */
+    public ImageInputStream imageInputStream() {
+        ensureOpen();
+        return new ByteBufferImageInputStream(data);
+    }
+
+    /**
+     * heap 으로 정확히 크기만큼 한 번 복사한다. 모델에 원본을 그대로 보내야 할 때(디코드할 수 없는 형식)만 쓴다.
+     */
+    public byte[] toByteArray() {
+        ensureOpen();
+        byte[] bytes = new byte[data.limit()];
+        data.get(0, bytes);
+        return bytes;
+    }
+
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release.run();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed.get()) {
+            throw new IllegalStateException("이미 반납한 업로드 버퍼입니다");
+        }
+    }
+}
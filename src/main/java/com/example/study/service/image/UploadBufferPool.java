@@ -0,0 +1,258 @@
+package com.example.study.service.image;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 업로드 내용을 heap 밖에 담는 버퍼 풀.
+ * <p>
+ * 업로드마다 getBytes() / ByteArrayOutputStream 으로 heap 배열을 만들면 10MB 업로드 하나가 수십 MB 의 단명 객체를 만들고
+ * 그대로 GC 부담이 된다. 대신 업로드를 한 번만 읽어 다음 중 하나에 담고, 헤더 읽기와 디코드가 같은 내용을 복사 없이 읽는다.
+ * <pre>
+ * - mmapThreshold 이하: 크기 등급(minBuffer × 2^n)별로 풀에 보관하는 direct ByteBuffer
+ * - 그보다 크면: 임시 파일에 쓰고 메모리 매핑 (close 하면 지운다)
+ * </pre>
+ * 크기를 모르는 입력(zip 항목 등)은 작은 버퍼에서 시작해 등급을 올리고, 임계값을 넘으면 임시 파일로 옮긴다.
+ * 풀이 비어 있으면 새로 만들고(기다리지 않는다), 돌려받은 버퍼는 보관 합계가 maxPooled 이하일 때만 보관한다.
+ * 동시에 처리하는 이미지 수는 {@link ImageProcessingExecutor} 가 제한하므로 사용 중인 버퍼도 그만큼으로 묶인다.
+ * <p>
+ * 지표: image.upload.buffer.bytes (state=in_use|pooled|mapped), image.upload.buffer.utilization (사용 중 / (사용 중 + 보관)),
+ * image.upload.buffer.acquired (source=pool|allocated|mapped)
+ */
+@Slf4j
+@Component
+public class UploadBufferPool {
+
+    private final int minBufferBytes;
+    private final int mmapThresholdBytes;
+    private final long maxPooledBytes;
+    private final Path tempDir;
+    private final Queue<ByteBuffer>[] free;
+
+    private final AtomicLong inUseBytes = new AtomicLong();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong mappedBytes = new AtomicLong();
+    private final Counter fromPool;
+    private final Counter allocated;
+    private final Counter mapped;
+
+    @SuppressWarnings("unchecked")
+    public UploadBufferPool(MeterRegistry meterRegistry,
+                            @Value("${image.upload-buffer.max-pooled-mb:64}") int maxPooledMb,
+                            @Value("${image.upload-buffer.min-buffer-kb:64}") int minBufferKb,
+                            @Value("${image.upload-buffer.mmap-threshold-kb:4096}") int mmapThresholdKb,
+                            @Value("${image.upload-buffer.temp-dir:}") String tempDir) {
+        this.minBufferBytes = Integer.highestOneBit(Math.max(1, minBufferKb) * 1024);
+        this.mmapThresholdBytes = Math.max(minBufferBytes, mmapThresholdKb * 1024);
+        this.maxPooledBytes = maxPooledMb * 1024L * 1024;
+        this.tempDir = tempDir == null || tempDir.isBlank() ? null : Path.of(tempDir);
+        this.free = new Queue[sizeClass(mmapThresholdBytes) + 1];
+        for (int i = 0; i < free.length; i++) {
+            free[i] = new ConcurrentLinkedQueue<>();
+        }
+
+        bytesGauge(meterRegistry, "in_use", inUseBytes);
+        bytesGauge(meterRegistry, "pooled", pooledBytes);
+        bytesGauge(meterRegistry, "mapped", mappedBytes);
+        Gauge.builder("image.upload.buffer.utilization", this, UploadBufferPool::utilization)
+                .description("Share of pooled direct upload buffer memory currently lent out")
+                .register(meterRegistry);
+        this.fromPool = acquiredCounter(meterRegistry, "pool");
+        this.allocated = acquiredCounter(meterRegistry, "allocated");
+        this.mapped = acquiredCounter(meterRegistry, "mapped");
+    }
+
+    /**
+     * 업로드 파일을 버퍼에 담는다. 크기 검증은 호출하는 쪽이 먼저 한다.
+     */
+    public UploadBuffer read(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return read(in, file.getSize(), Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * in 을 끝까지 읽어 버퍼에 담는다. expectedSize 를 모르면 음수.
+     * limit 바이트를 넘으면 넘는 부분은 읽지 않고 IllegalArgumentException 을 던진다.
+     */
+    public UploadBuffer read(InputStream in, long expectedSize, long limit) throws IOException {
+        if (expectedSize > limit) {
+            throw tooLarge(limit);
+        }
+        ReadableByteChannel channel = Channels.newChannel(in);
+        if (expectedSize > mmapThresholdBytes) {
+            return map(channel, null, (byte) 0, limit);
+        }
+
+        ByteBuffer buffer = acquire((int) Math.max(1, expectedSize >= 0 ? expectedSize : minBufferBytes));
+        try {
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    // 꽉 찼으면 한 바이트를 더 읽어 끝인지 확인하고, 남았으면 더 큰 등급이나 임시 파일로 옮긴다.
+                    int next = in.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    buffer.flip();
+                    if (buffer.capacity() >= mmapThresholdBytes) {
+                        ByteBuffer head = buffer;
+                        buffer = null;
+                        try {
+                            return map(channel, head, (byte) next, limit);
+                        } finally {
+                            release(head);
+                        }
+                    }
+                    ByteBuffer grown = acquire(buffer.capacity() * 2).put(buffer).put((byte) next);
+                    release(buffer);
+                    buffer = grown;
+                }
+                if (channel.read(buffer) < 0) {
+                    break;
+                }
+                if (buffer.position() > limit) {
+                    throw tooLarge(limit);
+                }
+            }
+            buffer.flip();
+            ByteBuffer lent = buffer;
+            return new UploadBuffer(lent, false, () -> release(lent));
+        } catch (IOException | RuntimeException e) {
+            if (buffer != null) {
+                release(buffer);
+            }
+            throw e;
+        }
+    }
+
+    long inUseBytes() {
+        return inUseBytes.get();
+    }
+
+    long pooledBytes() {
+        return pooledBytes.get();
+    }
+
+    long mappedBytes() {
+        return mappedBytes.get();
+    }
+
+    private ByteBuffer acquire(int minBytes) {
+        int sizeClass = sizeClass(minBytes);
+        ByteBuffer buffer = free[sizeClass].poll();
+        if (buffer != null) {
+            pooledBytes.addAndGet(-buffer.capacity());
+            fromPool.increment();
+        } else {
+            buffer = ByteBuffer.allocateDirect(minBufferBytes << sizeClass);
+            allocated.increment();
+        }
+        inUseBytes.addAndGet(buffer.capacity());
+        return buffer.clear();
+    }
+
+    private void release(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        inUseBytes.addAndGet(-capacity);
+        if (pooledBytes.addAndGet(capacity) > maxPooledBytes) {
+            // 보관 한도를 넘으면 버린다. direct 메모리는 GC 가 버퍼를 수거할 때 풀린다.
+            pooledBytes.addAndGet(-capacity);
+            return;
+        }
+        free[sizeClass(capacity)].offer(buffer);
+    }
+
+    /**
+     * 임시 파일에 이미 읽은 부분(head + next 한 바이트, head 가 없으면 둘 다 없음)과 나머지 입력을 쓰고 읽기 전용으로 매핑한다.
+     * 파일은 DELETE_ON_CLOSE 로 열어 두고 close 할 때 지운다. (매핑은 GC 가 버퍼를 수거할 때 풀린다)
+     */
+    private UploadBuffer map(ReadableByteChannel in, ByteBuffer head, byte next, long limit) throws IOException {
+        Path file = tempDir != null ? Files.createTempFile(tempDir, "upload-", ".tmp") : Files.createTempFile("upload-", ".tmp");
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.DELETE_ON_CLOSE);
+        try {
+            long size = 0;
+            if (head != null) {
+                while (head.hasRemaining()) {
+                    size += channel.write(head, size);
+                }
+                size += channel.write(ByteBuffer.wrap(new byte[]{next}), size);
+            }
+            // limit 보다 한 바이트 더 옮겨 보면 넘었는지 알 수 있다.
+            size += channel.transferFrom(in, size, limit == Long.MAX_VALUE ? Long.MAX_VALUE - size : limit + 1 - size);
+            if (size > limit) {
+                throw tooLarge(limit);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            mappedBytes.addAndGet(size);
+            mapped.increment();
+            long mappedSize = size;
+            return new UploadBuffer(data, true, () -> {
+                mappedBytes.addAndGet(-mappedSize);
+                closeQuietly(channel);
+            });
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(channel);
+            throw e;
+        }
+    }
+
+    private int sizeClass(int bytes) {
+        int sizeClass = 0;
+        while ((long) minBufferBytes << sizeClass < bytes) {
+            sizeClass++;
+        }
+        return sizeClass;
+    }
+
+    private double utilization() {
+        long inUse = inUseBytes.get();
+        long total = inUse + pooledBytes.get();
+        return total == 0 ? 0.0 : (double) inUse / total;
+    }
+
+    private static IllegalArgumentException tooLarge(long limit) {
+        return new IllegalArgumentException("업로드 크기는 " + limit / (1024 * 1024) + "MB를 초과할 수 없습니다");
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.debug("임시 업로드 파일 닫기 실패: {}", e.getMessage());
+        }
+    }
+
+    private static void bytesGauge(MeterRegistry meterRegistry, String state, AtomicLong bytes) {
+        Gauge.builder("image.upload.buffer.bytes", bytes, AtomicLong::get)
+                .description("Upload buffer memory by state")
+                .baseUnit("bytes")
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    private static Counter acquiredCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("image.upload.buffer.acquired")
+                .description("Upload buffers handed out, by where the memory came from")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
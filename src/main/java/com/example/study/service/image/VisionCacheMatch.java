@@ -0,0 +1,18 @@
+package com.example.study.service.image;
+
+/**
+ * 분석 결과 캐시에서 두 이미지를 같은 이미지로 보는 기준.
+ */
+public enum VisionCacheMatch {
+
+    /**
+     * 최적화된 바이트의 SHA-256 이 같아야 한다. 글자를 읽는 분석(OCR, 영수증)은 금액 한 자리만 달라도 결과가 달라지므로
+     * 비슷해 보이는 다른 이미지의 결과를 돌려주면 안 된다.
+     */
+    EXACT,
+
+    /**
+     * 지각 해시가 가까우면 같은 이미지로 본다. 재압축이나 약간의 잘림에 결과가 바뀌지 않는 설명/차트 분석용.
+     */
+    SIMILAR
+}
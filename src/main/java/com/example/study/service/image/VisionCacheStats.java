@@ -0,0 +1,9 @@
+package com.example.study.service.image;
+
+/**
+ * 이미지 분석 결과 캐시 통계. hitRatio 는 (hits + diskHits) / (hits + diskHits + misses) 이고,
+ * savedTokens 는 캐시 hit 로 부르지 않은 모델 호출의 전체 토큰 합이다.
+ */
+public record VisionCacheStats(long hits, long diskHits, long misses, long uncacheable, double hitRatio,
+                               long savedTokens, long memoryEntries, long diskEntries) {
+}
@@ -0,0 +1,479 @@
+package com.example.study.service.image;
+
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.controller.dto.VisionCacheInfo;
+import com.example.study.service.dto.ImageAnalysis;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * 이미지 분석 결과 캐시. scope 는 (호출자, 비교 기준, 프롬프트, 응답 타입)이고, 호출자끼리는 결과를 나눠 쓰지 않는다.
+ * <p>
+ * - EXACT (기본, OCR/영수증): 최적화된 바이트의 SHA-256 이 같을 때만 hit. 디코드하지 않으므로 webp 등도 캐시한다.
+ *   금액 한 자리만 다른 비슷한 영수증이 이전 결과를 받는 일이 없어야 한다.
+ * - SIMILAR (설명/차트): 같은 scope 안에서 지각 해시의 해밍 거리가 maxDistance 이하이고 가로세로 비율이 비슷한
+ *   가장 가까운 항목을 찾는다. 재압축, 크기 변경, 가장자리 약간의 잘림은 같은 이미지로 본다.
+ *   scope 당 항목 수가 작으므로 64비트 XOR + bitCount 선형 탐색으로 충분하다.
+ * - 메모리 계층: Caffeine (maxEntries, TTL). 제거되면 scope 인덱스에서도 뺀다.
+ * - 디스크 계층(선택): dir 을 지정하면 항목마다 JSON 파일 하나를 쓴다(임시 파일 → 원자적 교체).
+ *   diskMaxEntries 를 넘으면 가장 오래 쓰이지 않은 파일부터 지운다. 디스크 hit 는 메모리 계층으로 올린다.
+ *   시작할 때 디렉터리를 읽어 인덱스를 다시 만든다.
+ * - SIMILAR 에서 ImageIO 가 디코드하지 못하는 이미지(webp 등)는 캐시하지 않는다.
+ * <p>
+ * 지표: vision.cache.requests (result=hit|disk_hit|miss|uncacheable), vision.cache.saved.tokens,
+ * vision.cache.disk.entries, cache.* (cache=vision.results)
+ */
+@Slf4j
+@Component
+public class VisionResultCache {
+
+    private static final String CACHE_NAME = "vision.results";
+    private static final String FILE_SUFFIX = ".json";
+    private static final double ASPECT_TOLERANCE = 0.05;
+
+    private record Entry(String scope, PerceptualHash hash, Object analysis, String imageType, long imageSize,
+                         TokenUsage tokenUsage) {
+    }
+
+    /**
+     * 디스크에 쓰는 형식. analysis 는 응답 타입을 모르는 채로 읽을 수 있게 JSON 트리로 둔다.
+     * EXACT 항목은 키(파일 이름)에 SHA-256 이 들어 있으므로 bits/width/height 를 쓰지 않는다. match 가 없으면 SIMILAR.
+     */
+    record DiskEntry(String scope, VisionCacheMatch match, long bits, int width, int height, String imageType,
+                     long imageSize, Integer promptTokens, Integer completionTokens, Integer totalTokens,
+                     JsonNode analysis) {
+    }
+
+    private record Match(String key, int distance) {
+    }
+
+    /**
+     * 한 요청의 조회/저장 키. hash 는 SIMILAR 일 때만 있고, EXACT 는 key 로 바로 찾는다.
+     */
+    private record Lookup(String scope, String key, PerceptualHash hash) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final int maxDistance;
+    private final Duration ttl;
+    private final int diskMaxEntries;
+    private final Path dir;
+
+    private final Cache<String, Entry> memory;
+    // scope → (key → 해시). 메모리/디스크 계층 각각의 근사 탐색용 인덱스
+    private final Map<String, Map<String, PerceptualHash>> memoryIndex = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, PerceptualHash>> diskIndex = new ConcurrentHashMap<>();
+    // 디스크 항목의 접근 순서 (LRU). diskOrder 로 보호한다.
+    private final LinkedHashMap<String, String> diskOrder = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter diskHits;
+    private final Counter misses;
+    private final Counter uncacheable;
+    private final Counter savedTokens;
+
+    public VisionResultCache(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${vision.cache.max-entries:500}") long maxEntries,
+                             @Value("${vision.cache.ttl-minutes:1440}") long ttlMinutes,
+                             @Value("${vision.cache.max-distance:6}") int maxDistance,
+                             @Value("${vision.cache.disk.max-entries:5000}") int diskMaxEntries,
+                             @Value("${vision.cache.disk.dir:}") String dir) {
+        this.objectMapper = objectMapper;
+        this.maxDistance = maxDistance;
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.diskMaxEntries = Math.max(1, diskMaxEntries);
+        this.memory = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .removalListener((String key, Entry entry, RemovalCause cause) -> {
+                    if (key != null && entry != null && cause != RemovalCause.REPLACED) {
+                        unindex(memoryIndex, entry.scope(), key);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.dir = StringUtils.hasText(dir) ? createDir(dir) : null;
+        if (this.dir != null) {
+            loadDiskIndex();
+        }
+
+        CaffeineCacheMetrics.monitor(meterRegistry, memory, CACHE_NAME);
+        this.hits = requests(meterRegistry, "hit");
+        this.diskHits = requests(meterRegistry, "disk_hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.uncacheable = requests(meterRegistry, "uncacheable");
+        this.savedTokens = Counter.builder("vision.cache.saved.tokens")
+                .description("Vision model tokens not spent because the analysis came from the cache")
+                .register(meterRegistry);
+        Gauge.builder("vision.cache.disk.entries", this, VisionResultCache::diskSize)
+                .description("Vision analyses held in the disk cache tier")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 같은(SIMILAR 면 비슷한) 이미지의 같은 분석이 캐시에 있으면 그 결과를, 없으면 analyzer 를 호출해 저장한 결과를 반환한다.
+     * 응답의 cache 필드에 hit 여부, 절약한 토큰, 누적 hit 비율을 채운다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> ImageAnalysisResponse<T> getOrAnalyze(ImageAnalysis analysis,
+                                                     Class<T> referenceType,
+                                                     Supplier<ImageAnalysisResponse<T>> analyzer) {
+        VisionCacheMatch match = analysis.cacheMatch() != null ? analysis.cacheMatch() : VisionCacheMatch.EXACT;
+        Lookup lookup = lookupOf(scopeOf(analysis.caller(), match, analysis.prompt(), referenceType),
+                match, analysis.imageBytes());
+        if (lookup == null) {
+            uncacheable.increment();
+            return analyzer.get();
+        }
+
+        Entry entry = findInMemory(lookup);
+        String tier = "memory";
+        if (entry == null) {
+            entry = loadFromDisk(lookup, referenceType);
+            tier = "disk";
+        }
+        if (entry != null) {
+            (tier.equals("memory") ? hits : diskHits).increment();
+            TokenUsage original = entry.tokenUsage();
+            Integer saved = original != null ? original.totalTokens() : null;
+            if (saved != null) {
+                savedTokens.increment(saved);
+            }
+            // 이번 요청은 모델을 부르지 않았으므로 사용량은 0, 절약한 입력 토큰은 원래 호출의 입력 토큰
+            TokenUsage usage = original != null
+                    ? new TokenUsage(0, 0, 0).withSavedPromptTokens(original.promptTokens())
+                    : null;
+            return ImageAnalysisResponse.<T>builder()
+                    .analysis((T) entry.analysis())
+                    .imageType(entry.imageType())
+                    .imageSize(entry.imageSize())
+                    .tokenUsage(usage)
+                    .cache(new VisionCacheInfo(true, tier, saved, hitRatio()))
+                    .build();
+        }
+
+        misses.increment();
+        ImageAnalysisResponse<T> response = analyzer.get();
+        if (response != null && response.analysis() != null) {
+            Entry fresh = new Entry(lookup.scope(), lookup.hash(), response.analysis(), response.imageType(),
+                    response.imageSize(), response.tokenUsage());
+            putMemory(lookup.key(), fresh);
+            writeToDisk(lookup.key(), fresh);
+        }
+        return response != null ? response.withCache(new VisionCacheInfo(false, null, 0, hitRatio())) : null;
+    }
+
+    public VisionCacheStats stats() {
+        long hitCount = (long) hits.count();
+        long diskHitCount = (long) diskHits.count();
+        long missCount = (long) misses.count();
+        return new VisionCacheStats(hitCount, diskHitCount, missCount, (long) uncacheable.count(), hitRatio(),
+                (long) savedTokens.count(), memory.estimatedSize(), diskSize());
+    }
+
+    long diskSize() {
+        synchronized (diskOrder) {
+            return diskOrder.size();
+        }
+    }
+
+    static String scopeOf(String caller, VisionCacheMatch match, String prompt, Class<?> referenceType) {
+        MessageDigest digest = sha256();
+        digest.update(referenceType.getName().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(match.name().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((caller != null ? caller : "").getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update((prompt != null ? prompt.strip() : "").getBytes(StandardCharsets.UTF_8));
+        // 파일 이름에도 쓰므로 앞 16바이트만
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    private static String keyOf(String scope, PerceptualHash hash) {
+        return scope + "-" + hash.hex() + "-" + hash.width() + "x" + hash.height();
+    }
+
+    private Lookup lookupOf(String scope, VisionCacheMatch match, byte[] imageBytes) {
+        if (imageBytes == null) {
+            return null;
+        }
+        if (match == VisionCacheMatch.EXACT) {
+            return new Lookup(scope, scope + "-" + HexFormat.of().formatHex(sha256().digest(imageBytes)), null);
+        }
+        PerceptualHash hash = hashOf(imageBytes);
+        return hash != null ? new Lookup(scope, keyOf(scope, hash), hash) : null;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private double hitRatio() {
+        double hit = hits.count() + diskHits.count();
+        double total = hit + misses.count();
+        return total == 0 ? 0.0 : hit / total;
+    }
+
+    private PerceptualHash hashOf(byte[] imageBytes) {
+        try {
+            return imageBytes != null ? PerceptualHash.of(imageBytes).orElse(null) : null;
+        } catch (IOException | RuntimeException e) {
+            // 해시를 못 구하면 캐시 없이 분석한다. 디코드 실패는 모델 호출에서 다시 드러난다.
+            log.debug("[vision-cache] perceptual hash failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Match nearest(Map<String, Map<String, PerceptualHash>> index, String scope, PerceptualHash hash) {
+        Map<String, PerceptualHash> candidates = index.get(scope);
+        if (candidates == null) {
+            return null;
+        }
+        Match best = null;
+        for (Map.Entry<String, PerceptualHash> candidate : candidates.entrySet()) {
+            int distance = hash.distance(candidate.getValue());
+            if (distance <= maxDistance && hash.similarAspect(candidate.getValue(), ASPECT_TOLERANCE)
+                    && (best == null || distance < best.distance())) {
+                best = new Match(candidate.getKey(), distance);
+            }
+        }
+        return best;
+    }
+
+    private Entry findInMemory(Lookup lookup) {
+        if (lookup.hash() == null) {
+            return memory.getIfPresent(lookup.key());
+        }
+        Match match = nearest(memoryIndex, lookup.scope(), lookup.hash());
+        return match != null ? memory.getIfPresent(match.key()) : null;
+    }
+
+    private void putMemory(String key, Entry entry) {
+        if (entry.hash() != null) {
+            memoryIndex.computeIfAbsent(entry.scope(), s -> new ConcurrentHashMap<>()).put(key, entry.hash());
+        }
+        memory.put(key, entry);
+    }
+
+    private static void unindex(Map<String, Map<String, PerceptualHash>> index, String scope, String key) {
+        index.computeIfPresent(scope, (s, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private <T> Entry loadFromDisk(Lookup lookup, Class<T> referenceType) {
+        if (dir == null) {
+            return null;
+        }
+        String scope = lookup.scope();
+        String key = diskKeyOf(lookup);
+        if (key == null) {
+            return null;
+        }
+        Path file = dir.resolve(key + FILE_SUFFIX);
+        try {
+            if (expired(file)) {
+                removeFromDisk(scope, key);
+                return null;
+            }
+            DiskEntry disk = objectMapper.readValue(file.toFile(), DiskEntry.class);
+            // ChatResponse 를 요청해도 analyzeImage 는 텍스트를 돌려주므로 텍스트로 읽는다.
+            Class<?> analysisType = ChatResponse.class.equals(referenceType) ? String.class : referenceType;
+            Entry entry = new Entry(scope,
+                    lookup.hash() != null ? new PerceptualHash(disk.bits(), disk.width(), disk.height()) : null,
+                    objectMapper.treeToValue(disk.analysis(), analysisType), disk.imageType(), disk.imageSize(),
+                    disk.totalTokens() != null
+                            ? new TokenUsage(disk.promptTokens(), disk.completionTokens(), disk.totalTokens())
+                            : null);
+            synchronized (diskOrder) {
+                diskOrder.get(key);
+            }
+            putMemory(key, entry);
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            log.warn("[vision-cache] 디스크 항목을 읽지 못해 제거합니다: {} ({})", file.getFileName(), e.getMessage());
+            removeFromDisk(scope, key);
+            return null;
+        }
+    }
+
+    private String diskKeyOf(Lookup lookup) {
+        if (lookup.hash() == null) {
+            synchronized (diskOrder) {
+                return diskOrder.containsKey(lookup.key()) ? lookup.key() : null;
+            }
+        }
+        Match match = nearest(diskIndex, lookup.scope(), lookup.hash());
+        return match != null ? match.key() : null;
+    }
+
+    private void writeToDisk(String key, Entry entry) {
+        if (dir == null) {
+            return;
+        }
+        TokenUsage usage = entry.tokenUsage();
+        PerceptualHash hash = entry.hash();
+        DiskEntry disk = new DiskEntry(entry.scope(),
+                hash != null ? VisionCacheMatch.SIMILAR : VisionCacheMatch.EXACT,
+                hash != null ? hash.bits() : 0, hash != null ? hash.width() : 0, hash != null ? hash.height() : 0,
+                entry.imageType(), entry.imageSize(),
+                usage != null ? usage.promptTokens() : null,
+                usage != null ? usage.completionTokens() : null,
+                usage != null ? usage.totalTokens() : null,
+                objectMapper.valueToTree(entry.analysis()));
+        Path file = dir.resolve(key + FILE_SUFFIX);
+        Path temp = dir.resolve(key + FILE_SUFFIX + ".tmp");
+        try {
+            objectMapper.writeValue(temp.toFile(), disk);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // 디스크 계층은 보조 수단이다. 쓰기 실패는 응답을 막지 않는다.
+            log.warn("[vision-cache] 디스크 항목을 쓰지 못했습니다: {} ({})", file.getFileName(), e.getMessage());
+            return;
+        }
+        if (hash != null) {
+            diskIndex.computeIfAbsent(entry.scope(), s -> new ConcurrentHashMap<>()).put(key, hash);
+        }
+        synchronized (diskOrder) {
+            diskOrder.put(key, entry.scope());
+            evictDisk();
+        }
+    }
+
+    // diskOrder 를 잡은 상태에서 호출한다.
+    private void evictDisk() {
+        Iterator<Map.Entry<String, String>> eldest = diskOrder.entrySet().iterator();
+        while (diskOrder.size() > diskMaxEntries && eldest.hasNext()) {
+            Map.Entry<String, String> victim = eldest.next();
+            eldest.remove();
+            unindex(diskIndex, victim.getValue(), victim.getKey());
+            deleteQuietly(dir.resolve(victim.getKey() + FILE_SUFFIX));
+        }
+    }
+
+    private void removeFromDisk(String scope, String key) {
+        unindex(diskIndex, scope, key);
+        synchronized (diskOrder) {
+            diskOrder.remove(key);
+        }
+        deleteQuietly(dir.resolve(key + FILE_SUFFIX));
+    }
+
+    private boolean expired(Path file) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        return modified.toMillis() + ttl.toMillis() < System.currentTimeMillis();
+    }
+
+    /**
+     * 디렉터리의 항목을 오래된 것부터 읽어 인덱스를 만든다. 만료됐거나 읽을 수 없는 파일은 지운다.
+     */
+    private void loadDiskIndex() {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparing(VisionResultCache::lastModified))
+                    .toList();
+        } catch (IOException e) {
+            throw new IllegalStateException("비전 캐시 디렉터리를 읽을 수 없습니다: " + dir, e);
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String key = name.substring(0, name.length() - FILE_SUFFIX.length());
+            try {
+                if (expired(file)) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                DiskEntry disk = objectMapper.readValue(file.toFile(), DiskEntry.class);
+                if (disk.scope() == null) {
+                    deleteQuietly(file);
+                    continue;
+                }
+                if (disk.match() != VisionCacheMatch.EXACT) {
+                    diskIndex.computeIfAbsent(disk.scope(), s -> new ConcurrentHashMap<>())
+                            .put(key, new PerceptualHash(disk.bits(), disk.width(), disk.height()));
+                }
+                synchronized (diskOrder) {
+                    diskOrder.put(key, disk.scope());
+                    evictDisk();
+                }
+            } catch (IOException e) {
+                log.warn("[vision-cache] 손상된 항목 제거: {} ({})", name, e.getMessage());
+                deleteQuietly(file);
+            }
+        }
+        log.info("[vision-cache] 디스크 항목 {}개 로드 ({})", diskSize(), dir);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("[vision-cache] 파일 삭제 실패: {} ({})", file, e.getMessage());
+        }
+    }
+
+    private static Path createDir(String dir) {
+        Path path = Paths.get(dir);
+        try {
+            return Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("비전 캐시 디렉터리를 만들 수 없습니다: " + path, e);
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("vision.cache.requests")
+                .description("Vision analyses by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.study.service.inventory;
+
+import com.example.study.common.ServiceException;
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.entity.Product;
+import com.example.study.repository.ProductQueryRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 재고 선점(reservation) 전담 서비스.
+ * <p>
+ * DB 재고는 주문마다 차감하지 않고 claimSize 개씩 묶어서 가져온다. (escrow)
+ * 1) 상품별 메모리 장부({@link StripedStockCounter})에 남은 몫이 있으면 DB 에 가지 않고 선점한다. 주문 대부분은 여기서 끝난다.
+ * 2) 몫이 모자라면 호출자 트랜잭션 안에서 재고 행을 잠그고({@code SELECT ... FOR UPDATE}) 주문 수량과 claimSize 중 큰 만큼(재고가 그보다 적으면 전부)을
+ *    조건부 UPDATE 한 번으로 차감한다. 주문 수량을 뺀 나머지는 그 트랜잭션이 커밋된 뒤에야 장부에 넣는다. (롤백되면 DB 차감도 사라진다)
+ *    묶음을 가져오는 중인 트랜잭션이 있으면 다른 요청은 자기 수량만 차감해 인스턴스가 필요 이상 가져가지 않게 한다.
+ * 3) 트랜잭션이 롤백되면 장부에서 선점한 수량을 장부에 되돌린다.
+ * <p>
+ * 인기 상품의 행 락은 claimSize 번 주문에 한 번만 잡히므로, 주문마다 조건부 UPDATE 를 하고 커밋까지 락을 쥐던 방식보다 처리량이 크게 늘어난다.
+ * 대신 다음을 감수한다.
+ * - DB 의 stock 은 인스턴스 장부에 가져가 아직 팔지 않은 몫(상품당 보통 claimSize 이내)만큼 실제보다 적게 보인다.
+ * - 장부는 상품 수(maxProducts)와 생성 후 ttl 로 제한하며, 내려갈 때와 종료할 때 남은 몫을 DB 에 돌려준다.
+ *   프로세스가 비정상 종료되면 돌려주지 못한 몫만큼 재고가 적게 남으므로 재고 실사로 맞춰야 한다.
+ * - 관리자 수정/삭제(evict)는 재고를 절대값으로 정하므로 장부에 남은 몫은 돌려주지 않고 버린다.
+ * <p>
+ * DB 에서 모자라면 그때 읽은 재고를 장부에 적어 두고, resyncInterval 동안은 그보다 많은 주문을 DB 에 가지 않고 거절한다. (그 뒤 한 요청만 다시 확인한다)
+ * <p>
+ * 처리량은 {@code inventory.reservation} 타이머(result 태그별 count/rate)로, 묶음 차감은 {@code inventory.reservation.claims} 로 확인할 수 있다.
+ */
+@Slf4j
+@Service
+public class StockReservationService {
+
+    private final ProductQueryRepository productQueryRepository;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate returnTransaction;
+    private final int stripeCount;
+    private final int claimSize;
+    private final long resyncIntervalNanos;
+    private final Cache<Long, Ledger> ledgers;
+
+    public StockReservationService(ProductQueryRepository productQueryRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${inventory.reservation.stripes:0}") int stripes,
+                                   @Value("${inventory.reservation.claim-size:50}") int claimSize,
+                                   @Value("${inventory.reservation.resync-interval-ms:1000}") long resyncIntervalMs,
+                                   @Value("${inventory.reservation.max-products:10000}") long maxProducts,
+                                   @Value("${inventory.reservation.ttl-seconds:300}") long ttlSeconds) {
+        this.productQueryRepository = productQueryRepository;
+        this.meterRegistry = meterRegistry;
+        this.returnTransaction = new TransactionTemplate(transactionManager);
+        this.returnTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripeCount = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.claimSize = Math.max(1, claimSize);
+        this.resyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, resyncIntervalMs));
+        this.ledgers = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .removalListener((Long productId, Ledger ledger, RemovalCause cause) -> {
+                    // 리스너는 캐시 실행기(ForkJoinPool)에서 돌므로 바로 새 트랜잭션으로 돌려준다.
+                    boolean giveBack = cause != RemovalCause.EXPLICIT;
+                    int units = ledger != null ? ledger.retire(giveBack) : 0;
+                    if (units > 0 && giveBack) {
+                        returnNow(productId, units);
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * 상품 재고를 선점한다. 장부에 몫이 없을 때만 DB 에서 묶음으로 차감한다.
+     * 호출자는 반드시 트랜잭션 안에서 호출해야 롤백 시 선점분이 복구되고, 묶음 차감의 행 락이 커밋까지 유지된다.
+     */
+    public void reserve(Product product, int quantity) {
+        if (quantity <= 0) {
+            throw new ServiceException(ServiceExceptionCode.INVALID_ORDER_QUANTITY);
+        }
+        Long productId = product.getId();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "REJECTED";
+        try {
+            Ledger ledger = ledger(productId);
+            while (true) {
+                if (ledger.counter.tryAcquire(quantity)) {
+                    releaseOnRollback(ledger, quantity);
+                    break;
+                }
+                if (ledger.knownShort(quantity, resyncIntervalNanos)) {
+                    throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
+                }
+                // DB 에서 차감한 몫은 롤백되면 DB 에서 되살아나므로 장부에 되돌리지 않는다.
+                if (claim(ledger, quantity)) {
+                    break;
+                }
+                // 잠금 없이(트랜잭션 밖) 읽은 재고를 다른 요청이 먼저 가져갔다. 그 사이 장부에 들어온 몫부터 다시 본다.
+            }
+            result = "RESERVED";
+        } finally {
+            sample.stop(Timer.builder("inventory.reservation")
+                    .description("Stock reservation latency and throughput")
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+        Counter.builder("inventory.reserved.units")
+                .description("Units of stock reserved")
+                .register(meterRegistry)
+                .increment(quantity);
+    }
+
+    /**
+     * 여러 상품의 재고를 한꺼번에 선점한다. (일괄 주문용)
+     * 장부 몫으로 채울 수 있는 상품은 메모리에서 선점하고, 나머지는 UPDATE 한 번으로 DB 에서 정확한 수량만 차감한다.
+     * 한 상품이라도 부족하면 전체를 거절한다. 같은 상품은 호출자가 수량을 합쳐서 하나의 항목으로 넘겨야 한다.
+     */
+    public void reserveAll(Map<Product, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> quantityByProductId = new LinkedHashMap<>();
+        quantities.forEach((product, quantity) -> {
+            if (quantity == null || quantity <= 0) {
+                throw new ServiceException(ServiceExceptionCode.INVALID_ORDER_QUANTITY);
+            }
+            quantityByProductId.put(product.getId(), quantity);
+        });
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "REJECTED";
+        Map<Long, Ledger> acquired = new LinkedHashMap<>();
+        Map<Long, Integer> fromDatabase = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : quantityByProductId.entrySet()) {
+                Ledger ledger = ledger(entry.getKey());
+                if (ledger.counter.tryAcquire(entry.getValue())) {
+                    acquired.put(entry.getKey(), ledger);
+                } else if (ledger.knownShort(entry.getValue(), resyncIntervalNanos)) {
+                    throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
+                } else {
+                    fromDatabase.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            if (!fromDatabase.isEmpty()
+                    && productQueryRepository.decreaseStocksIfAvailable(fromDatabase) != fromDatabase.size()) {
+                throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
+            }
+
+            acquired.forEach((productId, ledger) -> releaseOnRollback(ledger, quantityByProductId.get(productId)));
+            result = "RESERVED";
+        } catch (RuntimeException e) {
+            acquired.forEach((productId, ledger) -> ledger.deposit(quantityByProductId.get(productId)));
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("inventory.reservation.batch")
+                    .description("Bulk stock reservation latency and throughput")
+                    .tag("result", result)
+                    .register(meterRegistry));
+        }
+        Counter.builder("inventory.reserved.units")
+                .description("Units of stock reserved")
+                .register(meterRegistry)
+                .increment(quantityByProductId.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    /**
+     * 환불 등으로 재고를 되돌린다. DB 에만 원자적으로 더한다. (장부 몫은 DB 에서 가져간 만큼만 가진다)
+     */
+    public void restore(Long productId, int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be greater than zero");
+        }
+        if (productQueryRepository.increaseStock(productId, quantity) == 0) {
+            throw new ServiceException(ServiceExceptionCode.NOT_FOUND_PRODUCT);
+        }
+        afterCommit(() -> {
+            Ledger ledger = ledgers.getIfPresent(productId);
+            if (ledger != null) {
+                ledger.clearShort();
+            }
+        });
+    }
+
+    /**
+     * 관리자 수정/삭제처럼 재고를 절대값으로 바꾸는 경우 메모리 장부를 버린다. 남은 몫은 DB 에 돌려주지 않는다.
+     */
+    public void evict(Long productId) {
+        afterCommit(() -> ledgers.invalidate(productId));
+    }
+
+    /**
+     * 종료할 때 장부에 남은 몫을 DB 에 돌려준다.
+     */
+    @PreDestroy
+    public void returnAll() {
+        ledgers.asMap().forEach((productId, ledger) -> {
+            int units = ledger.retire(true);
+            if (units > 0) {
+                returnNow(productId, units);
+            }
+        });
+        ledgers.invalidateAll();
+    }
+
+    int availableInLedger(Long productId) {
+        Ledger ledger = ledgers.getIfPresent(productId);
+        return ledger != null ? ledger.counter.available() : -1;
+    }
+
+    private Ledger ledger(Long productId) {
+        return ledgers.get(productId, id -> new Ledger(id, new StripedStockCounter(stripeCount, 0)));
+    }
+
+    /**
+     * 재고 행을 잠그고 quantity 와 claimSize 중 큰 만큼(재고가 그보다 적으면 남은 전부)을 차감한다.
+     * quantity 는 호출자 몫이고 나머지는 커밋 뒤 장부에 넣는다. 다른 트랜잭션이 묶음을 가져오는 중이면 quantity 만 차감한다.
+     * 잠금 없이 읽은 재고가 그새 바뀌었으면 false 를 반환한다.
+     */
+    private boolean claim(Ledger ledger, int quantity) {
+        Integer stock = productQueryRepository.findStockForUpdate(ledger.productId);
+        if (stock == null || stock < quantity) {
+            ledger.markShort(stock != null ? stock : 0);
+            claimed("short");
+            throw new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK);
+        }
+        boolean batch = ledger.claiming.compareAndSet(false, true);
+        int units = batch ? Math.min(stock, Math.max(quantity, claimSize)) : quantity;
+        int updated;
+        try {
+            updated = productQueryRepository.decreaseStockIfAvailable(ledger.productId, units);
+        } catch (RuntimeException e) {
+            if (batch) {
+                ledger.claiming.set(false);
+            }
+            throw e;
+        }
+        if (updated == 0) {
+            if (batch) {
+                ledger.claiming.set(false);
+            }
+            return false;
+        }
+        ledger.clearShort();
+        claimed("claimed");
+        if (batch) {
+            int surplus = units - quantity;
+            afterCompletion(committed -> {
+                ledger.claiming.set(false);
+                if (committed && surplus > 0) {
+                    ledger.deposit(surplus);
+                }
+            });
+        }
+        return true;
+    }
+
+    private void claimed(String outcome) {
+        Counter.builder("inventory.reservation.claims")
+                .description("Stock batches taken from the database into the in-memory ledger")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * 내려간 장부에 늦게 들어온 몫을 DB 에 돌려준다. 호출 스레드가 끝나 가는 트랜잭션의 커넥션을 아직 쥐고 있을 수 있어
+     * (커밋 후 입금, 롤백 후 반납) 같은 스레드에서 새 트랜잭션을 열지 않고 따로 실행한다.
+     */
+    private void giveBack(Long productId, int units) {
+        CompletableFuture.runAsync(() -> returnNow(productId, units));
+    }
+
+    private void returnNow(Long productId, int units) {
+        try {
+            returnTransaction.executeWithoutResult(status -> productQueryRepository.increaseStock(productId, units));
+            Counter.builder("inventory.reservation.returned.units")
+                    .description("Unsold ledger units given back to the database")
+                    .register(meterRegistry)
+                    .increment(units);
+        } catch (RuntimeException e) {
+            log.error("Failed to return {} ledger units of product {} to the database", units, productId, e);
+        }
+    }
+
+    private void releaseOnRollback(Ledger ledger, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ledger.deposit(quantity);
+                    log.debug("Released {} reserved units after rollback", quantity);
+                }
+            }
+        });
+    }
+
+    private void afterCompletion(Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * 상품 하나의 메모리 장부. DB 에서 이미 차감해 온 몫만 가진다.
+     * DB 에서 모자란 뒤 다시 확인하는 것은 resyncInterval 마다 한 스레드만 한다.
+     * 캐시에서 내려간(retire) 장부에 늦게 들어온 몫(커밋 뒤 입금, 롤백 반납)은 바로 DB 에 돌려주거나 버린다.
+     */
+    private final class Ledger {
+
+        private final Long productId;
+        private final StripedStockCounter counter;
+        private final AtomicLong lastProbeAt = new AtomicLong(System.nanoTime());
+        private final AtomicBoolean retired = new AtomicBoolean();
+        // 묶음을 가져온 트랜잭션이 끝날 때까지 true
+        private final AtomicBoolean claiming = new AtomicBoolean();
+        private volatile boolean giveBackOnRetire;
+        // DB 에서 모자랐을 때 읽은 재고. 다시 확인하기 전까지 이보다 많은 주문은 DB 에 가지 않는다.
+        private volatile int knownStock = Integer.MAX_VALUE;
+
+        private Ledger(Long productId, StripedStockCounter counter) {
+            this.productId = productId;
+            this.counter = counter;
+        }
+
+        private void deposit(int units) {
+            counter.release(units);
+            if (retired.get()) {
+                int late = counter.drain();
+                if (late > 0 && giveBackOnRetire) {
+                    giveBack(productId, late);
+                }
+            }
+        }
+
+        /**
+         * 더 이상 선점에 쓰지 않도록 표시하고 남은 몫을 비워 반환한다. 두 번째 호출부터는 0 을 반환한다.
+         */
+        private synchronized int retire(boolean giveBack) {
+            if (retired.get()) {
+                return 0;
+            }
+            giveBackOnRetire = giveBack;
+            retired.set(true);
+            return counter.drain();
+        }
+
+        private boolean knownShort(int quantity, long intervalNanos) {
+            return quantity > knownStock && !tryProbe(intervalNanos);
+        }
+
+        private void markShort(int stock) {
+            lastProbeAt.set(System.nanoTime());
+            knownStock = stock;
+        }
+
+        private void clearShort() {
+            knownStock = Integer.MAX_VALUE;
+        }
+
+        private boolean tryProbe(long intervalNanos) {
+            long last = lastProbeAt.get();
+            long now = System.nanoTime();
+            return now - last >= intervalNanos && lastProbeAt.compareAndSet(last, now);
+        }
+    }
+}
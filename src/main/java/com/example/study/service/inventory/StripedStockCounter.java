@@ -0,0 +1,121 @@
+package com.example.study.service.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * 상품 하나의 재고를 여러 stripe 로 나누어 보관하는 메모리 선점(pre-reservation) 카운터.
+ * <p>
+ * 인기 상품 하나에 주문이 몰려도 스레드마다 서로 다른 stripe 에서 CAS 를 수행하므로
+ * 하나의 카운터(혹은 DB 행)를 두고 줄을 서지 않는다. 담긴 수량은 DB 에서 이미 묶음으로 차감해 온 몫이라
+ * 여기서 선점한 주문은 DB 행을 건드리지 않는다. (StockReservationService 참고)
+ */
+final class StripedStockCounter {
+
+    // 인접한 stripe 가 같은 캐시 라인을 공유하지 않도록 int 16개(64 byte) 간격으로 배치한다.
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripeCount;
+
+    StripedStockCounter(int stripeCount, int initialStock) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("stripeCount must be greater than zero");
+        }
+        this.stripeCount = stripeCount;
+        this.cells = new AtomicIntegerArray(stripeCount * PADDING);
+
+        int safeStock = Math.max(initialStock, 0);
+        int base = safeStock / stripeCount;
+        int remainder = safeStock % stripeCount;
+        for (int i = 0; i < stripeCount; i++) {
+            cells.set(i * PADDING, base + (i < remainder ? 1 : 0));
+        }
+    }
+
+    /**
+     * 요청 수량만큼 선점한다. 자기 stripe 에서 해결되지 않으면 다른 stripe 에서 모자란 만큼 모은다.
+     * 모으는 도중 실패하면 가져온 수량을 모두 되돌리고 false 를 반환한다.
+     */
+    boolean tryAcquire(int quantity) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be greater than zero");
+        }
+        int home = ThreadLocalRandom.current().nextInt(stripeCount);
+        if (tryTake(home, quantity) == quantity) {
+            return true;
+        }
+
+        int collected = 0;
+        int[] taken = new int[stripeCount];
+        for (int offset = 0; offset < stripeCount && collected < quantity; offset++) {
+            int stripe = (home + offset) % stripeCount;
+            int amount = tryTakeUpTo(stripe, quantity - collected);
+            taken[stripe] += amount;
+            collected += amount;
+        }
+        if (collected == quantity) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripeCount; stripe++) {
+            if (taken[stripe] > 0) {
+                cells.addAndGet(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return false;
+    }
+
+    void release(int quantity) {
+        if (quantity <= 0) {
+            return;
+        }
+        int home = ThreadLocalRandom.current().nextInt(stripeCount);
+        cells.addAndGet(home * PADDING, quantity);
+    }
+
+    /**
+     * 모든 stripe 를 비우고 비운 수량을 반환한다. 동시에 선점하던 스레드와 같은 수량을 두 번 가져가지 않는다.
+     */
+    int drain() {
+        int sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            sum += cells.getAndSet(i * PADDING, 0);
+        }
+        return sum;
+    }
+
+    int available() {
+        int sum = 0;
+        for (int i = 0; i < stripeCount; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+
+    private int tryTake(int stripe, int quantity) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = cells.get(index);
+            if (current < quantity) {
+                return 0;
+            }
+            if (cells.compareAndSet(index, current, current - quantity)) {
+                return quantity;
+            }
+        }
+    }
+
+    private int tryTakeUpTo(int stripe, int maxQuantity) {
+        int index = stripe * PADDING;
+        while (true) {
+            int current = cells.get(index);
+            if (current <= 0) {
+                return 0;
+            }
+            int amount = Math.min(current, maxQuantity);
+            if (cells.compareAndSet(index, current, current - amount)) {
+                return amount;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.study.service.receipt;
+
+import java.util.Map;
+
+/**
+ * 영수증 일괄 처리 이벤트. SSE 의 event 이름과 data 로 그대로 나간다.
+ * <p>
+ * - receipt: 끝난 영수증 하나의 {@link ReceiptBatchResult} (업로드 순서가 아니라 끝난 순서)
+ * - completed: 전체 집계 {@link ReceiptBatchSummary}
+ * - error: 배치 자체를 계속할 수 없는 실패 (압축 파일을 읽을 수 없음, 파일 수 초과 등)
+ */
+public record ReceiptBatchEvent(String event, Object data) {
+
+    public static final String RECEIPT = "receipt";
+    public static final String COMPLETED = "completed";
+    public static final String ERROR = "error";
+
+    public static ReceiptBatchEvent receipt(ReceiptBatchResult result) {
+        return new ReceiptBatchEvent(RECEIPT, result);
+    }
+
+    public static ReceiptBatchEvent completed(ReceiptBatchSummary summary) {
+        return new ReceiptBatchEvent(COMPLETED, summary);
+    }
+
+    public static ReceiptBatchEvent error(String message) {
+        return new ReceiptBatchEvent(ERROR, Map.of("message", message != null ? message : "unknown error"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.study.service.receipt;
+
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.dto.ReceiptData;
+
+import java.util.List;
+
+/**
+ * 배치 안 영수증 하나의 처리 결과.
+ * <p>
+ * - VALID: 추출했고 필수 항목과 합계 검증을 통과했다.
+ * - INVALID: 추출은 했지만 검증에 걸렸다. problems 에 이유가 있고 receipt 는 그대로 돌려준다.
+ * - FAILED: 디코드/모델 호출/추출에 실패했다. problems 에 오류 메시지가 있다.
+ */
+public record ReceiptBatchResult(
+        int index, // 업로드(압축 파일은 항목) 순서, 0부터
+        String fileName,
+        Status status,
+        ReceiptData receipt,
+        boolean totalValid,
+        List<String> problems,
+        TokenUsage tokenUsage,
+        long elapsedMs
+) {
+    public enum Status {
+        VALID, INVALID, FAILED
+    }
+
+    public static ReceiptBatchResult failed(int index, String fileName, String message, long elapsedMs) {
+        return new ReceiptBatchResult(index, fileName, Status.FAILED, null, false,
+                List.of(message != null ? message : "unknown error"), null, elapsedMs);
+    }
+}
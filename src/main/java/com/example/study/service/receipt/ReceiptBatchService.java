@@ -0,0 +1,326 @@
+package com.example.study.service.receipt;
+
+import com.example.study.common.TooManyRequestsException;
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ImageOptimizationService;
+import com.example.study.service.ReceiptAnalysisService;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.dto.ReceiptData;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.UploadBuffer;
+import com.example.study.service.image.UploadBufferPool;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * 영수증 일괄 처리 파이프라인.
+ * <p>
+ * 업로드(이미지 여러 장, 또는 zip)를 펼친 뒤 단계마다 동시 실행 수를 따로 둔다.
+ * <pre>
+ * 펼치기 (boundedElastic, zip 은 한 항목씩 읽는다)
+ *   → 디코드/최적화: ImageProcessingExecutor (CPU, 동시 decodeConcurrency 개)
+ *   → 추출: AiExecutor + limiter BULK 몫 (I/O, 동시 modelConcurrency 개)
+ *   → 검증: ReceiptData.validate / isTotalValid
+ * </pre>
+ * 결과는 끝나는 순서대로 내보낸다. 뒤 단계가 밀리면 앞 단계도 새 항목을 당기지 않으므로
+ * 메모리에 올라와 있는 이미지는 두 단계의 동시 실행 수 정도로 제한된다.
+ * modelConcurrency 가 limiter 의 BULK 몫보다 커도 남는 추출은 limiter 에서 자리가 날 때까지(ai.limiter.bulk-max-wait) 기다리므로
+ * 재시도 횟수를 쓰지 않는다. 실행기가 429 로 거절하거나 그만큼 기다려도 자리가 나지 않으면 그 항목만 backoff 하며 다시 시도하고,
+ * 그래도 안 되면 FAILED 로 내보낸다.
+ * zip 항목은 {@link UploadBufferPool} 버퍼에 읽어 두고 디코드 단계가 끝나면(취소되거나 버려져도) 돌려준다.
+ */
+@Slf4j
+@Service
+public class ReceiptBatchService {
+
+    private static final String ENDPOINT = "vision-receipt-batch";
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(200);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(2);
+
+    // buffer 는 zip 항목을 담은 업로드 버퍼 (업로드 파일이면 null)
+    private record Upload(String fileName, Supplier<CompletableFuture<PreparedImage>> prepare, UploadBuffer buffer) {
+
+        void release() {
+            if (buffer != null) {
+                buffer.close();
+            }
+        }
+    }
+
+    private record Item(int index, Upload upload, long startedAt) {
+
+        String fileName() {
+            return upload.fileName();
+        }
+    }
+
+    // 디코드 단계의 결과. 실패했으면 result 가 채워져 있고 추출 단계를 건너뛴다.
+    private record Prepared(Item item, PreparedImage image, ReceiptBatchResult result) {
+    }
+
+    private final ImageOptimizationService imageOptimizationService;
+    private final ReceiptAnalysisService receiptAnalysisService;
+    private final AiExecutor aiExecutor;
+    private final UploadBufferPool uploadBufferPool;
+    private final int maxFiles;
+    private final int decodeConcurrency;
+    private final int modelConcurrency;
+    private final int maxRetries;
+
+    public ReceiptBatchService(ImageOptimizationService imageOptimizationService,
+                               ReceiptAnalysisService receiptAnalysisService,
+                               AiExecutor aiExecutor,
+                               UploadBufferPool uploadBufferPool,
+                               @Value("${vision.receipt-batch.max-files:200}") int maxFiles,
+                               @Value("${vision.receipt-batch.decode-concurrency:0}") int decodeConcurrency,
+                               @Value("${vision.receipt-batch.model-concurrency:4}") int modelConcurrency,
+                               @Value("${vision.receipt-batch.max-retries:8}") int maxRetries) {
+        this.imageOptimizationService = imageOptimizationService;
+        this.receiptAnalysisService = receiptAnalysisService;
+        this.aiExecutor = aiExecutor;
+        this.uploadBufferPool = uploadBufferPool;
+        this.maxFiles = Math.max(1, maxFiles);
+        this.decodeConcurrency = decodeConcurrency > 0 ? decodeConcurrency : Runtime.getRuntime().availableProcessors();
+        this.modelConcurrency = Math.max(1, modelConcurrency);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    /**
+     * 업로드한 영수증을 모두 처리하며 끝나는 대로 receipt 이벤트를, 마지막에 completed 이벤트를 내보낸다.
+     */
+    public Flux<ReceiptBatchEvent> process(List<MultipartFile> files) {
+        return process(files, null);
+    }
+
+    /**
+     * caller 는 분석 결과 캐시를 나눠 쓰는 단위다. 다른 호출자가 올린 같은 영수증의 결과는 받지 않는다.
+     */
+    public Flux<ReceiptBatchEvent> process(List<MultipartFile> files, String caller) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("영수증 파일이 없습니다");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("한 번에 최대 " + maxFiles + "개까지 처리할 수 있습니다");
+        }
+
+        return Flux.defer(() -> {
+            long startedAt = System.nanoTime();
+            Tally tally = new Tally();
+            return uploads(files)
+                    .flatMap(this::prepare, decodeConcurrency)
+                    .flatMap(prepared -> extract(prepared, caller), modelConcurrency)
+                    .doOnNext(tally::add)
+                    .map(ReceiptBatchEvent::receipt)
+                    .concatWith(Mono.fromSupplier(() -> {
+                        ReceiptBatchSummary summary = tally.summary(elapsedMs(startedAt));
+                        log.info("영수증 일괄 처리 완료: {}", summary);
+                        return ReceiptBatchEvent.completed(summary);
+                    }))
+                    // 취소나 오류로 디코드 전에 버려진 zip 항목의 버퍼도 풀에 돌려준다.
+                    .doOnDiscard(Object.class, ReceiptBatchService::releaseDiscarded);
+        });
+    }
+
+    private Flux<Item> uploads(List<MultipartFile> files) {
+        return Flux.fromIterable(files)
+                .concatMap(file -> isZip(file) ? zipEntries(file) : Flux.just(upload(file)))
+                .index((index, upload) -> {
+                    if (index >= maxFiles) {
+                        upload.release();
+                        throw new IllegalArgumentException("한 번에 최대 " + maxFiles + "개까지 처리할 수 있습니다");
+                    }
+                    return new Item(index.intValue(), upload, System.nanoTime());
+                })
+                // zip 읽기는 블로킹 I/O 이므로 요청 스레드나 이미지/AI 스레드에서 하지 않는다.
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Upload upload(MultipartFile file) {
+        return new Upload(file.getOriginalFilename(), () -> imageOptimizationService.prepareAsync(file), null);
+    }
+
+    /**
+     * zip 항목을 하나씩 읽는다. 디렉터리와 숨김 파일(__MACOSX 등)은 건너뛴다.
+     * 항목마다 최대 파일 크기까지만 읽으므로 압축 폭탄이어도 메모리에 그 이상 올라오지 않는다.
+     */
+    private Flux<Upload> zipEntries(MultipartFile archive) {
+        return Flux.using(
+                () -> new ZipInputStream(archive.getInputStream()),
+                zip -> Flux.<Upload>generate(sink -> {
+                    try {
+                        ZipEntry entry = nextImageEntry(zip);
+                        if (entry == null) {
+                            sink.complete();
+                            return;
+                        }
+                        String name = entry.getName();
+                        sink.next(zipUpload(name, zip, entry.getSize()));
+                    } catch (IOException e) {
+                        sink.error(new IllegalArgumentException(
+                                "압축 파일을 읽을 수 없습니다: " + archive.getOriginalFilename(), e));
+                    }
+                }),
+                zip -> {
+                    try {
+                        zip.close();
+                    } catch (IOException e) {
+                        log.debug("zip close 실패: {}", e.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * 항목 하나를 최대 파일 크기까지만 버퍼에 읽는다. 넘는 부분은 읽지 않는다. (다음 getNextEntry 가 건너뛴다)
+     */
+    private Upload zipUpload(String name, ZipInputStream zip, long size) throws IOException {
+        UploadBuffer buffer;
+        try {
+            buffer = uploadBufferPool.read(zip, size, ImageOptimizationService.MAX_FILE_SIZE);
+        } catch (IllegalArgumentException e) {
+            return new Upload(name, () -> CompletableFuture.failedFuture(
+                    new IllegalArgumentException("이미지 크기는 10MB를 초과할 수 없습니다")), null);
+        }
+        return new Upload(name, () -> imageOptimizationService.prepareAsync(name, buffer), buffer);
+    }
+
+    private Mono<Prepared> prepare(Item item) {
+        // 재시도마다 디코드를 다시 제출해야 하므로 future 를 구독할 때 만든다. (이미 실패한 future 를 다시 구독하면 같은 429 뿐이다)
+        return Mono.fromFuture(() -> item.upload().prepare().get())
+                .retryWhen(retryWhenBusy())
+                .map(image -> new Prepared(item, image, null))
+                .onErrorResume(e -> Mono.just(new Prepared(item, null, failed(item, e))))
+                // 디코드가 끝나면 원본은 더 필요 없다. (PreparedImage 가 결과를 따로 가진다)
+                .doFinally(signal -> item.upload().release());
+    }
+
+    private Mono<ReceiptBatchResult> extract(Prepared prepared, String caller) {
+        if (prepared.result() != null) {
+            return Mono.just(prepared.result());
+        }
+        Item item = prepared.item();
+        return Mono.fromFuture(() -> aiExecutor.submit(ENDPOINT,
+                        () -> receiptAnalysisService.processReceipt(prepared.image(), AiPriority.BULK, caller)))
+                .retryWhen(retryWhenBusy())
+                .map(response -> validate(item, response))
+                .onErrorResume(e -> Mono.just(failed(item, e)));
+    }
+
+    static ReceiptBatchResult validate(int index, String fileName, ImageAnalysisResponse<ReceiptData> response,
+                                       long elapsedMs) {
+        ReceiptData receipt = response != null ? response.analysis() : null;
+        TokenUsage tokenUsage = response != null ? response.tokenUsage() : null;
+        if (receipt == null) {
+            return new ReceiptBatchResult(index, fileName, ReceiptBatchResult.Status.FAILED, null, false,
+                    List.of("영수증 정보를 추출하지 못했습니다"), tokenUsage, elapsedMs);
+        }
+
+        List<String> problems = new ArrayList<>();
+        try {
+            receipt.validate();
+        } catch (IllegalArgumentException e) {
+            problems.add(e.getMessage());
+        }
+        boolean totalValid = receipt.isTotalValid();
+        if (!totalValid) {
+            problems.add("소계와 세금의 합이 총액과 다릅니다");
+        }
+        ReceiptBatchResult.Status status = problems.isEmpty()
+                ? ReceiptBatchResult.Status.VALID
+                : ReceiptBatchResult.Status.INVALID;
+        return new ReceiptBatchResult(index, fileName, status, receipt, totalValid, List.copyOf(problems),
+                tokenUsage, elapsedMs);
+    }
+
+    private ReceiptBatchResult validate(Item item, ImageAnalysisResponse<ReceiptData> response) {
+        return validate(item.index(), item.fileName(), response, elapsedMs(item.startedAt()));
+    }
+
+    private ReceiptBatchResult failed(Item item, Throwable error) {
+        Throwable cause = Exceptions.isRetryExhausted(error) && error.getCause() != null ? error.getCause() : error;
+        log.warn("영수증 처리 실패: #{} {} ({})", item.index(), item.fileName(), cause.getMessage());
+        return ReceiptBatchResult.failed(item.index(), item.fileName(), cause.getMessage(), elapsedMs(item.startedAt()));
+    }
+
+    private Retry retryWhenBusy() {
+        return Retry.backoff(maxRetries, FIRST_BACKOFF)
+                .maxBackoff(MAX_BACKOFF)
+                .filter(TooManyRequestsException.class::isInstance);
+    }
+
+    private static ZipEntry nextImageEntry(ZipInputStream zip) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            String baseName = name.substring(name.lastIndexOf('/') + 1);
+            if (!entry.isDirectory() && !name.startsWith("__MACOSX/") && !baseName.startsWith(".")) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private static void releaseDiscarded(Object discarded) {
+        if (discarded instanceof Upload upload) {
+            upload.release();
+        } else if (discarded instanceof Item item) {
+            item.upload().release();
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String contentType = file.getContentType();
+        String name = file.getOriginalFilename();
+        return "application/zip".equals(contentType)
+                || "application/x-zip-compressed".equals(contentType)
+                || (name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip"));
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+
+    // doOnNext 는 직렬로 호출되므로 동기화하지 않는다.
+    private static final class Tally {
+        private int total;
+        private int valid;
+        private int invalid;
+        private int failed;
+        private long tokens;
+
+        void add(ReceiptBatchResult result) {
+            total++;
+            switch (result.status()) {
+                case VALID -> valid++;
+                case INVALID -> invalid++;
+                case FAILED -> failed++;
+            }
+            if (result.tokenUsage() != null && result.tokenUsage().totalTokens() != null) {
+                tokens += result.tokenUsage().totalTokens();
+            }
+        }
+
+        ReceiptBatchSummary summary(long elapsedMs) {
+            return new ReceiptBatchSummary(total, valid, invalid, failed, tokens, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.study.service.receipt;
+
+/**
+ * 영수증 일괄 처리 집계. totalTokens 는 모델이 보고한 토큰 합이다. (캐시 hit 는 0)
+ */
+public record ReceiptBatchSummary(int total, int valid, int invalid, int failed, long totalTokens, long elapsedMs) {
+}
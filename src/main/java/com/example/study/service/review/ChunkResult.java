@@ -0,0 +1,19 @@
+package com.example.study.service.review;
+
+/**
+ * 구간 리뷰 결과. 실패하면 review 는 null 이고 error 에 사유가 남는다.
+ */
+public record ChunkResult(CodeChunk chunk, ChunkReview review, String error) {
+
+    public static ChunkResult success(CodeChunk chunk, ChunkReview review) {
+        return new ChunkResult(chunk, review, null);
+    }
+
+    public static ChunkResult failed(CodeChunk chunk, String error) {
+        return new ChunkResult(chunk, null, error != null ? error : "unknown error");
+    }
+
+    public boolean succeeded() {
+        return review != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * 구간 하나에 대한 모델 응답 (createSystemPrompt 응답 형식 그대로). issue.line 은 구간의 첫 줄을 1로 센 번호다.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record ChunkReview(
+        List<CodeIssue> issues,
+        List<String> improvements,
+        Integer score,
+        String improvedCode,
+        String summary
+) {
+}
@@ -0,0 +1,150 @@
+package com.example.study.service.review;
+
+import com.example.study.common.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 구간 리뷰를 동시에 concurrency 개까지 실행한다.
+ * <p>
+ * 전체 리뷰 시간은 구간 수가 아니라 가장 느린 구간에 묶인다. 요청 스레드(ai-call)는 모든 구간이 끝나거나 timeout 이 될 때까지 기다리고,
+ * 시간 안에 끝나지 않은 구간은 취소되어 실패로 남는다.
+ * <p>
+ * 구간 호출은 BULK 로 limiter 에 입장하므로 백엔드가 바쁘면 429 로 거절될 수 있다. 이때는 구간을 버리지 않고 deadline 까지 backoff 하며 다시 시도한다.
+ * 실제로 동시에 실행되는 구간 수는 concurrency 와 limiter 의 BULK 몫(기본 Ollama 한도 4 x bulk-share 0.5 = 2) 중 작은 쪽이다.
+ * <p>
+ * 구간 timeout 은 code-review-analyze endpoint 제한 시간보다 짧아야 한다. 같거나 길면 구간을 합치기 전에 요청이 504 로 끝나
+ * 부분 결과조차 돌려주지 못하므로, 설정값이 그렇다면 endpoint 제한 시간에서 합치기/응답 여유(MERGE_MARGIN)를 뺀 값으로 줄인다.
+ * <p>
+ * 대기열은 제한하지 않는다. 큰 파일 리뷰 요청 수 자체가 AI 실행기의 code-review-analyze 상한으로 묶여 있기 때문이다.
+ * <p>
+ * 지표: executor.* (name=code-review-chunk)
+ */
+@Slf4j
+@Component
+public class ChunkReviewExecutor {
+
+    private static final String NAME = "code-review-chunk";
+    private static final long INITIAL_BACKOFF_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 2000;
+    private static final Duration MERGE_MARGIN = Duration.ofSeconds(10);
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+
+    public ChunkReviewExecutor(MeterRegistry meterRegistry,
+                               @Value("${code-review.chunk.concurrency:4}") int concurrency,
+                               @Value("${code-review.chunk.timeout-seconds:110}") long timeoutSeconds,
+                               @Value("${ai.executor.endpoint-timeouts.code-review-analyze:${ai.executor.default-timeout:60s}}")
+                               Duration endpointTimeout) {
+        this.timeoutMillis = chunkTimeoutMillis(Duration.ofSeconds(timeoutSeconds), endpointTimeout);
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "review-chunk-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, NAME, Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * 모든 구간을 병렬로 리뷰하고 chunks 순서대로 결과를 반환한다. 구간 하나의 실패가 나머지를 막지 않는다.
+     */
+    public List<ChunkResult> reviewAll(List<CodeChunk> chunks, Function<CodeChunk, ChunkReview> reviewer) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        List<Callable<ChunkResult>> tasks = chunks.stream()
+                .map(chunk -> (Callable<ChunkResult>) () -> reviewWithRetry(chunk, reviewer, deadline))
+                .toList();
+
+        List<Future<ChunkResult>> futures;
+        try {
+            futures = executor.invokeAll(tasks, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("구간 리뷰 대기 중 인터럽트되었습니다.", e);
+        }
+
+        List<ChunkResult> results = new ArrayList<>(chunks.size());
+        for (int i = 0; i < futures.size(); i++) {
+            results.add(resultOf(chunks.get(i), futures.get(i)));
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static long chunkTimeoutMillis(Duration configured, Duration endpointTimeout) {
+        Duration limit = endpointTimeout.minus(MERGE_MARGIN);
+        if (limit.compareTo(endpointTimeout.dividedBy(2)) < 0) {
+            limit = endpointTimeout.dividedBy(2);
+        }
+        if (configured.compareTo(limit) <= 0) {
+            return configured.toMillis();
+        }
+        log.warn("[review-chunk] code-review.chunk.timeout-seconds({}s) is not below the code-review-analyze timeout ({}s), using {}ms",
+                configured.toSeconds(), endpointTimeout.toSeconds(), limit.toMillis());
+        return limit.toMillis();
+    }
+
+    private ChunkResult reviewWithRetry(CodeChunk chunk, Function<CodeChunk, ChunkReview> reviewer, long deadline) {
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                ChunkReview review = reviewer.apply(chunk);
+                return review != null ? ChunkResult.success(chunk, review) : ChunkResult.failed(chunk, "empty response");
+            } catch (TooManyRequestsException e) {
+                if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoff) > deadline) {
+                    return ChunkResult.failed(chunk, e.getMessage());
+                }
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return ChunkResult.failed(chunk, "timeout");
+                }
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            } catch (RuntimeException e) {
+                log.warn("[review-chunk] lines {}-{} failed: {}", chunk.startLine(), chunk.endLine(), e.getMessage());
+                return ChunkResult.failed(chunk, e.getMessage());
+            }
+        }
+    }
+
+    private ChunkResult resultOf(CodeChunk chunk, Future<ChunkResult> future) {
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            log.warn("[review-chunk] lines {}-{} timed out", chunk.startLine(), chunk.endLine());
+            return ChunkResult.failed(chunk, "timeout");
+        } catch (ExecutionException e) {
+            return ChunkResult.failed(chunk, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ChunkResult.failed(chunk, "interrupted");
+        }
+    }
+}
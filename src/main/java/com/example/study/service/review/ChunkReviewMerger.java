@@ -0,0 +1,124 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.example.study.controller.dto.CodeReviewResponse;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 구간 리뷰 결과를 하나의 {@link CodeReviewResponse} 로 합친다.
+ * <p>
+ * - issues: 구간 기준 줄 번호를 파일 기준으로 옮기고, (줄, 메시지) 가 같은 이슈는 하나만 남긴 뒤 심각도 → 줄 순으로 정렬한다.
+ *   줄 번호가 없는 파일 전체 이슈(예: 문서화 부족)는 구간마다 반복되므로 메시지만으로 합친다.
+ * - score: 구간 줄 수로 가중 평균한다.
+ * - improvements: 순서를 유지하며 중복을 제거하고 {@link #MAX_IMPROVEMENTS} 개까지 남긴다.
+ * - improvedCode: 구간별 개선 코드를 순서대로 잇고, 개선 코드가 없거나 실패한 구간은 원본을 그대로 둔다.
+ * - fullReview: 구간별 요약을 줄 범위와 함께 잇는다.
+ */
+public final class ChunkReviewMerger {
+
+    static final int MAX_IMPROVEMENTS = 10;
+
+    private static final List<String> SEVERITY_ORDER = List.of("HIGH", "MEDIUM", "LOW");
+
+    private ChunkReviewMerger() {
+    }
+
+    public static CodeReviewResponse merge(String reviewId,
+                                           String language,
+                                           String reviewLevel,
+                                           List<ChunkResult> results,
+                                           long responseTimeMs) {
+        Map<String, CodeIssue> issues = new LinkedHashMap<>();
+        Set<String> improvements = new LinkedHashSet<>();
+        List<String> improvedCode = new ArrayList<>(results.size());
+        StringBuilder fullReview = new StringBuilder();
+        long weightedScore = 0;
+        long scoredLines = 0;
+        int totalLines = 0;
+
+        for (ChunkResult result : results) {
+            CodeChunk chunk = result.chunk();
+            ChunkReview review = result.review();
+            totalLines += chunk.lineCount();
+            fullReview.append("\n[").append(chunk.startLine()).append('-').append(chunk.endLine()).append("] ");
+
+            if (review == null) {
+                improvedCode.add(chunk.code());
+                fullReview.append("리뷰 실패: ").append(result.error());
+                continue;
+            }
+            if (review.issues() != null) {
+                for (CodeIssue issue : review.issues()) {
+                    CodeIssue remapped = CodeIssue.of(issue.severity(), remapLine(issue.line(), chunk),
+                            issue.message(), issue.suggestion());
+                    issues.putIfAbsent(dedupKey(remapped), remapped);
+                }
+            }
+            if (review.improvements() != null) {
+                review.improvements().stream().filter(Objects::nonNull).map(String::trim).forEach(improvements::add);
+            }
+            if (review.score() != null) {
+                weightedScore += (long) Math.max(0, Math.min(100, review.score())) * chunk.lineCount();
+                scoredLines += chunk.lineCount();
+            }
+            improvedCode.add(review.improvedCode() != null && !review.improvedCode().isBlank()
+                    ? review.improvedCode() : chunk.code());
+            fullReview.append(review.summary() != null ? review.summary() : "요약 없음");
+        }
+
+        List<CodeIssue> sortedIssues = issues.values().stream()
+                .sorted(Comparator.comparingInt(ChunkReviewMerger::severityRank)
+                        .thenComparing(CodeIssue::line, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        Integer score = scoredLines > 0 ? Math.round((float) weightedScore / scoredLines) : null;
+        String header = String.format("총 %d줄을 %d개 구간으로 나눠 리뷰했습니다.", totalLines, results.size());
+
+        return CodeReviewResponse.of(
+                reviewId,
+                language,
+                reviewLevel,
+                sortedIssues,
+                improvements.stream().limit(MAX_IMPROVEMENTS).toList(),
+                score,
+                String.join("\n", improvedCode),
+                header + fullReview,
+                responseTimeMs
+        );
+    }
+
+    /**
+     * 구간 기준(1부터) 줄 번호를 파일 기준으로 옮긴다.
+     * 지시와 달리 모델이 파일 기준 번호를 돌려준 경우(구간 길이보다 크고 구간 범위 안)는 그대로 두고, 어느 쪽도 아니면 버린다.
+     */
+    static Integer remapLine(Integer line, CodeChunk chunk) {
+        if (line == null) {
+            return null;
+        }
+        if (line >= 1 && line <= chunk.lineCount()) {
+            return line + chunk.startLine() - 1;
+        }
+        if (line >= chunk.startLine() && line <= chunk.endLine()) {
+            return line;
+        }
+        return null;
+    }
+
+    private static String dedupKey(CodeIssue issue) {
+        String message = issue.message() == null ? "" : issue.message().trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return issue.line() + "|" + message;
+    }
+
+    private static int severityRank(CodeIssue issue) {
+        int rank = issue.severity() == null ? -1 : SEVERITY_ORDER.indexOf(issue.severity().toUpperCase(Locale.ROOT));
+        return rank < 0 ? SEVERITY_ORDER.size() : rank;
+    }
+}
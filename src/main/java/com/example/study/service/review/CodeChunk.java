@@ -0,0 +1,11 @@
+package com.example.study.service.review;
+
+/**
+ * 원본 파일의 startLine~endLine (1부터, 양끝 포함) 구간.
+ */
+public record CodeChunk(int startLine, int endLine, String code) {
+
+    public int lineCount() {
+        return endLine - startLine + 1;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.study.service.review;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 큰 소스 파일을 클래스/메서드 경계에서 maxLines 이하 구간으로 나눈다.
+ * <p>
+ * - 중괄호 언어: 문자열/주석을 건너뛰며 중괄호 깊이를 세고, 깊이가 1(클래스 멤버) 이하로 돌아온 '}' 줄이나 빈 줄 뒤를 경계로 본다.
+ * - 중괄호가 없는 언어(Python 등): 들여쓰기 4칸 이하의 def/class/데코레이터 시작 줄 앞을 경계로 본다.
+ * - maxLines 안에서 가장 뒤쪽 경계로 자르되, 구간이 maxLines/2 보다 작아지면 경계를 포기하고 maxLines 에서 자른다.
+ */
+@Component
+public class CodeChunker {
+
+    private static final Pattern INDENTED_DECLARATION = Pattern.compile("^ {0,4}(async\\s+def\\s|def\\s|class\\s|@).*");
+
+    private final int maxLines;
+
+    public CodeChunker(@Value("${code-review.chunk.max-lines:400}") int maxLines) {
+        this.maxLines = Math.max(2, maxLines);
+    }
+
+    public List<CodeChunk> split(String code) {
+        String[] lines = code.split("\n", -1);
+        if (lines.length <= maxLines) {
+            return List.of(new CodeChunk(1, lines.length, code));
+        }
+
+        boolean[] boundaryAfter = code.indexOf('{') >= 0 ? braceBoundaries(lines) : indentBoundaries(lines);
+        List<CodeChunk> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < lines.length) {
+            int end = Math.min(lines.length, start + maxLines) - 1;
+            if (end < lines.length - 1) {
+                for (int i = end; i >= start + maxLines / 2; i--) {
+                    if (boundaryAfter[i]) {
+                        end = i;
+                        break;
+                    }
+                }
+            }
+            chunks.add(new CodeChunk(start + 1, end + 1, String.join("\n", List.of(lines).subList(start, end + 1))));
+            start = end + 1;
+        }
+        return chunks;
+    }
+
+    private boolean[] braceBoundaries(String[] lines) {
+        boolean[] boundaryAfter = new boolean[lines.length];
+        int depth = 0;
+        boolean inBlockComment = false;
+        char quote = 0;
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                char next = c + 1 < line.length() ? line.charAt(c + 1) : 0;
+                if (inBlockComment) {
+                    if (ch == '*' && next == '/') {
+                        inBlockComment = false;
+                        c++;
+                    }
+                } else if (quote != 0) {
+                    if (ch == '\\') {
+                        c++;
+                    } else if (ch == quote) {
+                        quote = 0;
+                    }
+                } else if (ch == '/' && next == '/') {
+                    break;
+                } else if (ch == '/' && next == '*') {
+                    inBlockComment = true;
+                    c++;
+                } else if (ch == '"' || ch == '\'' || ch == '`') {
+                    quote = ch;
+                } else if (ch == '{') {
+                    depth++;
+                } else if (ch == '}') {
+                    depth = Math.max(0, depth - 1);
+                }
+            }
+            String trimmed = line.trim();
+            boundaryAfter[i] = quote == 0 && !inBlockComment && depth <= 1
+                    && (trimmed.endsWith("}") || trimmed.isEmpty());
+        }
+        return boundaryAfter;
+    }
+
+    private boolean[] indentBoundaries(String[] lines) {
+        boolean[] boundaryAfter = new boolean[lines.length];
+        for (int i = 0; i + 1 < lines.length; i++) {
+            boundaryAfter[i] = INDENTED_DECLARATION.matcher(lines[i + 1]).matches()
+                    && !lines[i].trim().startsWith("@");
+        }
+        return boundaryAfter;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스트리밍으로 들어오는 코드 리뷰 JSON 을 조각 단위로 파싱한다.
+ * <p>
+ * Jackson non-blocking 파서에 조각을 그대로 넣고, 최상위 "issues" 배열의 원소 객체가 닫히는 즉시 {@link CodeIssue} 로 변환한다.
+ * 나머지 필드(score, summary 등)는 전체 토큰을 모아 두었다가 {@link #finish()} 에서 한 번에 읽는다.
+ * <p>
+ * 모델이 JSON 앞에 코드 펜스(```json)나 머리말을 붙여도 첫 '{' 부터 읽고, 최상위 객체가 닫힌 뒤의 내용은 무시한다.
+ * 한 스트림 전용이며 스레드 안전하지 않다. (Reactor 신호는 순서대로 하나씩 온다)
+ */
+@Slf4j
+public class IncrementalReviewParser {
+
+    private static final String ISSUES_FIELD = "issues";
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader issueReader;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final TokenBuffer document;
+    private final List<CodeIssue> issues = new ArrayList<>();
+
+    private TokenBuffer currentIssue;
+    private String topLevelField;
+    private int depth;
+    private boolean inIssues;
+    private boolean started;
+    private boolean finished;
+    private boolean complete;
+
+    public IncrementalReviewParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        // 모델이 스키마에 없는 필드를 덧붙여도 이슈를 버리지 않는다.
+        this.issueReader = objectMapper.readerFor(CodeIssue.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.document = new TokenBuffer(objectMapper, false);
+    }
+
+    /**
+     * 조각을 넣고, 이 조각으로 완성된 이슈들을 반환한다.
+     */
+    public List<CodeIssue> feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return List.of();
+        }
+        String input = chunk;
+        if (!started) {
+            int brace = chunk.indexOf('{');
+            if (brace < 0) {
+                return List.of();
+            }
+            input = chunk.substring(brace);
+            started = true;
+        }
+        byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            return drain();
+        } catch (IOException e) {
+            throw new IllegalStateException("리뷰 응답이 올바른 JSON 형식이 아닙니다: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 지금까지 완성된 이슈 (스트림 순서)
+     */
+    public List<CodeIssue> issues() {
+        return List.copyOf(issues);
+    }
+
+    /**
+     * 스트림이 끝난 뒤 score/summary 등 나머지 필드를 읽는다. 응답이 잘렸거나 형식이 틀리면 빈 값으로 채우고
+     * {@link #isComplete()} 는 false 로 남는다.
+     */
+    public ReviewPayload finish() {
+        feeder.endOfInput();
+        if (!finished) {
+            log.warn("[review-stream] response ended before the JSON object closed ({} issues parsed)", issues.size());
+            return ReviewPayload.empty();
+        }
+        try {
+            ReviewPayload payload = objectMapper.readValue(document.asParser(), ReviewPayload.class);
+            complete = true;
+            return payload;
+        } catch (IOException e) {
+            log.warn("[review-stream] failed to read review summary: {}", e.getMessage());
+            return ReviewPayload.empty();
+        }
+    }
+
+    /**
+     * finish() 에서 최상위 객체가 닫힌 응답의 나머지 필드까지 읽었는지. 잘린 응답이면 false.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private List<CodeIssue> drain() throws IOException {
+        List<CodeIssue> completed = new ArrayList<>();
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            document.copyCurrentEvent(parser);
+            if (currentIssue != null) {
+                currentIssue.copyCurrentEvent(parser);
+            }
+            switch (token) {
+                case START_OBJECT, START_ARRAY -> {
+                    depth++;
+                    if (token == JsonToken.START_ARRAY && depth == 2 && ISSUES_FIELD.equals(topLevelField)) {
+                        inIssues = true;
+                    } else if (token == JsonToken.START_OBJECT && inIssues && depth == 3) {
+                        currentIssue = new TokenBuffer(objectMapper, false);
+                        currentIssue.copyCurrentEvent(parser);
+                    }
+                }
+                case END_OBJECT, END_ARRAY -> {
+                    if (currentIssue != null && depth == 3) {
+                        toIssue(currentIssue, completed);
+                        currentIssue = null;
+                    } else if (inIssues && depth == 2) {
+                        inIssues = false;
+                    }
+                    if (--depth == 0) {
+                        finished = true;
+                    }
+                }
+                case FIELD_NAME -> {
+                    if (depth == 1) {
+                        topLevelField = parser.currentName();
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+        return completed;
+    }
+
+    private void toIssue(TokenBuffer buffer, List<CodeIssue> completed) {
+        try {
+            CodeIssue issue = issueReader.readValue(buffer.asParser());
+            issues.add(issue);
+            completed.add(issue);
+        } catch (IOException e) {
+            // 한 이슈의 형식 오류(예: line 에 범위 문자열)로 나머지 스트림을 버리지 않는다.
+            log.debug("[review-stream] skipped malformed issue: {}", e.getMessage());
+        }
+    }
+}
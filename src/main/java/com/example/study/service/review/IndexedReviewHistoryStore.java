@@ -0,0 +1,392 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeReviewResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 인덱스를 가진 리뷰 히스토리 저장소.
+ * <p>
+ * - 인덱스: reviewId → 리뷰, (timestamp, 저장 순번) 최신순 skip list, 언어별(대소문자 무시) 최신순 skip list.
+ *   최신순 조회는 skip list 앞에서 limit 개만 읽으므로 O(limit) 이고 정렬하지 않는다.
+ * - 보존: maxEntries 를 넘거나 retention 보다 오래된 리뷰는 가장 오래된 것부터 제거한다.
+ *   저장이 끊겨도 기간이 지난 리뷰는 조회에서 바로 빠지고, stats/size 호출과 주기 작업(scheduling.enabled)이 실제로 제거한다.
+ * - 통계: 언어별 개수(저장된 표기 그대로)와 점수 합을 저장/삭제 시점에 갱신해 두므로 /stats 가 전체를 훑지 않는다.
+ * - 쓰기는 이 객체 단위로 직렬화하고, 읽기는 잠금 없이 skip list 를 순회한다.
+ * <p>
+ * 영속화(선택): dir 을 지정하면 변경을 append-only 로그(한 줄에 JSON 하나)로 남긴다.
+ * 로그가 snapshotEvery 건 쌓이면 현재 상태를 스냅샷 파일로 쓰고(임시 파일 → 원자적 교체) 로그를 비운다.
+ * 시작할 때 스냅샷을 읽고 로그를 재생한다. 스냅샷 교체 후 로그를 비우기 전에 죽어도 put/delete 재생은 멱등이라 상태가 같다.
+ * 마지막 줄이 쓰다 만 JSON 이면 건너뛴다.
+ * <p>
+ * 지표: code.review.history.size
+ */
+@Slf4j
+@Component
+public class IndexedReviewHistoryStore implements ReviewHistoryStore {
+
+    static final String LOG_FILE = "reviews.log";
+    static final String SNAPSHOT_FILE = "reviews.snapshot";
+
+    private static final Comparator<TimeKey> NEWEST_FIRST = Comparator.comparing(TimeKey::timestamp)
+            .thenComparingLong(TimeKey::sequence)
+            .reversed();
+
+    private final ObjectWriter writer;
+    private final ObjectReader reviewReader;
+    private final ObjectReader logReader;
+    private final int maxEntries;
+    private final Duration retention;
+    private final int snapshotEvery;
+    private final Path dir;
+
+    private final Map<String, Indexed> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<TimeKey, CodeReviewResponse> byTime = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+    private final Map<String, ConcurrentSkipListMap<TimeKey, CodeReviewResponse>> byLanguage = new ConcurrentHashMap<>();
+    private final Map<String, Long> languageCounts = new ConcurrentHashMap<>();
+
+    // 아래 필드는 this 로 보호한다.
+    private long scoreSum;
+    private long scoredCount;
+    private long sequence;
+    private int appendedSinceSnapshot;
+    private BufferedWriter logWriter;
+
+    public IndexedReviewHistoryStore(ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${code-review.history.max-entries:10000}") int maxEntries,
+                                     @Value("${code-review.history.retention-days:30}") long retentionDays,
+                                     @Value("${code-review.history.snapshot-every:1000}") int snapshotEvery,
+                                     @Value("${code-review.history.dir:}") String dir) {
+        // 로그는 한 줄에 JSON 하나여야 하므로 들여쓰기 설정을 끈다.
+        this.writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+        this.reviewReader = objectMapper.readerFor(CodeReviewResponse.class);
+        this.logReader = objectMapper.readerFor(LogEntry.class);
+        this.maxEntries = Math.max(1, maxEntries);
+        this.retention = retentionDays > 0 ? Duration.ofDays(retentionDays) : null;
+        this.snapshotEvery = Math.max(1, snapshotEvery);
+        this.dir = StringUtils.hasText(dir) ? createDir(dir) : null;
+
+        if (this.dir != null) {
+            recover();
+        }
+        Gauge.builder("code.review.history.size", byId, Map::size)
+                .description("Code reviews held in the history store")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public synchronized void save(CodeReviewResponse review) {
+        if (review.reviewId() == null) {
+            throw new IllegalArgumentException("reviewId 가 없는 리뷰는 저장할 수 없습니다.");
+        }
+        applyPut(review);
+        append(LogEntry.put(review));
+        enforceRetention();
+    }
+
+    @Override
+    public Optional<CodeReviewResponse> findById(String reviewId) {
+        Indexed indexed = byId.get(reviewId);
+        return indexed != null && !expired(indexed.key(), expiredBefore()) ? Optional.of(indexed.review()) : Optional.empty();
+    }
+
+    @Override
+    public List<CodeReviewResponse> findRecent(int limit) {
+        return take(byTime, limit);
+    }
+
+    @Override
+    public List<CodeReviewResponse> findRecentByLanguage(String language, int limit) {
+        ConcurrentSkipListMap<TimeKey, CodeReviewResponse> index = byLanguage.get(languageKey(language));
+        return index != null ? take(index, limit) : List.of();
+    }
+
+    @Override
+    public synchronized boolean delete(String reviewId) {
+        if (!applyDelete(reviewId)) {
+            return false;
+        }
+        append(LogEntry.delete(reviewId));
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        applyClear();
+        append(LogEntry.clear());
+    }
+
+    @Override
+    public synchronized int size() {
+        enforceRetention();
+        return byId.size();
+    }
+
+    @Override
+    public synchronized ReviewHistoryStats stats() {
+        enforceRetention();
+        double averageScore = scoredCount > 0 ? (double) scoreSum / scoredCount : 0.0;
+        return new ReviewHistoryStats(byId.size(), Map.copyOf(languageCounts), averageScore);
+    }
+
+    /**
+     * 저장이 뜸해도 기간이 지난 리뷰가 메모리에 남지 않도록 주기적으로 제거한다.
+     */
+    @Scheduled(fixedDelayString = "${code-review.history.purge-delay-ms:3600000}")
+    public synchronized void purgeExpired() {
+        enforceRetention();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.close();
+        } catch (IOException e) {
+            log.warn("[review-history] failed to close log: {}", e.getMessage());
+        }
+        logWriter = null;
+    }
+
+    private List<CodeReviewResponse> take(ConcurrentSkipListMap<TimeKey, CodeReviewResponse> index, int limit) {
+        // 최신순이므로 기간이 지난 첫 리뷰에서 멈춘다.
+        LocalDateTime expiredBefore = expiredBefore();
+        return index.entrySet().stream()
+                .takeWhile(entry -> !expired(entry.getKey(), expiredBefore))
+                .limit(limit > 0 ? limit : Long.MAX_VALUE)
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    private void applyPut(CodeReviewResponse review) {
+        applyDelete(review.reviewId());
+        TimeKey key = new TimeKey(review.timestamp() != null ? review.timestamp() : LocalDateTime.now(), ++sequence);
+        String language = languageKey(review.language());
+        byId.put(review.reviewId(), new Indexed(key, language, review));
+        byTime.put(key, review);
+        byLanguage.computeIfAbsent(language, l -> new ConcurrentSkipListMap<>(NEWEST_FIRST)).put(key, review);
+        languageCounts.merge(languageLabel(review.language()), 1L, Long::sum);
+        if (review.score() != null) {
+            scoreSum += review.score();
+            scoredCount++;
+        }
+    }
+
+    private boolean applyDelete(String reviewId) {
+        Indexed removed = byId.remove(reviewId);
+        if (removed == null) {
+            return false;
+        }
+        byTime.remove(removed.key());
+        ConcurrentSkipListMap<TimeKey, CodeReviewResponse> index = byLanguage.get(removed.language());
+        if (index != null) {
+            index.remove(removed.key());
+        }
+        languageCounts.computeIfPresent(languageLabel(removed.review().language()),
+                (l, count) -> count > 1 ? count - 1 : null);
+        if (removed.review().score() != null) {
+            scoreSum -= removed.review().score();
+            scoredCount--;
+        }
+        return true;
+    }
+
+    private void applyClear() {
+        byId.clear();
+        byTime.clear();
+        byLanguage.clear();
+        languageCounts.clear();
+        scoreSum = 0;
+        scoredCount = 0;
+    }
+
+    // 가장 오래된 것부터 제거한다. 재시작 시에도 다시 적용되므로 로그에는 남기지 않는다.
+    private void enforceRetention() {
+        LocalDateTime expiredBefore = expiredBefore();
+        Map.Entry<TimeKey, CodeReviewResponse> oldest;
+        while ((oldest = byTime.lastEntry()) != null) {
+            boolean overCapacity = byId.size() > maxEntries;
+            if (!overCapacity && !expired(oldest.getKey(), expiredBefore)) {
+                break;
+            }
+            applyDelete(oldest.getValue().reviewId());
+        }
+    }
+
+    private void append(LogEntry entry) {
+        if (logWriter == null) {
+            return;
+        }
+        try {
+            logWriter.write(writer.writeValueAsString(entry));
+            logWriter.newLine();
+            logWriter.flush();
+            if (++appendedSinceSnapshot >= snapshotEvery) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            // 메모리 상태는 이미 반영됐으므로 요청은 실패시키지 않고, 재시작 시 이 변경만 잃는다.
+            log.warn("[review-history] failed to append {} to log: {}", entry.op(), e.getMessage());
+        }
+    }
+
+    private void recover() {
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        Path logFile = dir.resolve(LOG_FILE);
+        int replayed = 0;
+        try {
+            if (Files.exists(snapshotFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(snapshotFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.isBlank()) {
+                            applyPut(reviewReader.readValue(line));
+                        }
+                    }
+                }
+            }
+            if (Files.exists(logFile)) {
+                try (BufferedReader reader = Files.newBufferedReader(logFile, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (replay(line)) {
+                            replayed++;
+                        }
+                    }
+                }
+            }
+            enforceRetention();
+            // 다음 시작 때 재생할 로그를 남기지 않도록 복구한 상태를 바로 스냅샷으로 접는다.
+            snapshot();
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot recover review history from " + dir, e);
+        }
+        log.info("[review-history] recovered {} reviews ({} log entries replayed)", byId.size(), replayed);
+    }
+
+    private boolean replay(String line) {
+        if (line.isBlank()) {
+            return false;
+        }
+        LogEntry entry;
+        try {
+            entry = logReader.readValue(line);
+        } catch (IOException e) {
+            log.warn("[review-history] skipped unreadable log entry: {}", e.getMessage());
+            return false;
+        }
+        if (LogEntry.PUT.equals(entry.op()) && entry.review() != null && entry.review().reviewId() != null) {
+            applyPut(entry.review());
+        } else if (LogEntry.DELETE.equals(entry.op()) && entry.reviewId() != null) {
+            applyDelete(entry.reviewId());
+        } else if (LogEntry.CLEAR.equals(entry.op())) {
+            applyClear();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void snapshot() throws IOException {
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        Path tempFile = dir.resolve(SNAPSHOT_FILE + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            // 오래된 것부터 써야 재생할 때 같은 timestamp 끼리의 순서가 유지된다.
+            for (CodeReviewResponse review : byTime.descendingMap().values()) {
+                out.write(writer.writeValueAsString(review));
+                out.newLine();
+            }
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        if (logWriter != null) {
+            logWriter.close();
+        }
+        logWriter = Files.newBufferedWriter(dir.resolve(LOG_FILE), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        appendedSinceSnapshot = 0;
+    }
+
+    private LocalDateTime expiredBefore() {
+        return retention != null ? LocalDateTime.now().minus(retention) : null;
+    }
+
+    private boolean expired(TimeKey key, LocalDateTime expiredBefore) {
+        return expiredBefore != null && key.timestamp().isBefore(expiredBefore);
+    }
+
+    // 언어별 조회 인덱스 키. 통계는 languageLabel 로 저장된 표기를 그대로 쓴다.
+    private String languageKey(String language) {
+        return language != null ? language.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private String languageLabel(String language) {
+        return language != null ? language : "";
+    }
+
+    private Path createDir(String dir) {
+        Path path = Paths.get(dir);
+        try {
+            return Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("cannot create review history dir: " + dir, e);
+        }
+    }
+
+    record TimeKey(LocalDateTime timestamp, long sequence) {
+    }
+
+    record Indexed(TimeKey key, String language, CodeReviewResponse review) {
+    }
+
+    record LogEntry(String op, String reviewId, CodeReviewResponse review) {
+
+        static final String PUT = "put";
+        static final String DELETE = "delete";
+        static final String CLEAR = "clear";
+
+        static LogEntry put(CodeReviewResponse review) {
+            return new LogEntry(PUT, review.reviewId(), review);
+        }
+
+        static LogEntry delete(String reviewId) {
+            return new LogEntry(DELETE, reviewId, null);
+        }
+
+        static LogEntry clear() {
+            return new LogEntry(CLEAR, null, null);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.study.service.review;
+
+/**
+ * 코드 리뷰 결과 캐시 통계. hitRatio 는 모델을 부르지 않은(hit + coalesced) 요청 비율이다.
+ */
+public record ReviewCacheStats(long hits, long misses, long coalesced, double hitRatio, long size) {
+}
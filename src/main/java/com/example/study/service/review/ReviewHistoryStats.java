@@ -0,0 +1,9 @@
+package com.example.study.service.review;
+
+import java.util.Map;
+
+/**
+ * 리뷰 히스토리 통계. languageDistribution 의 키는 리뷰에 저장된 언어 표기 그대로다.
+ */
+public record ReviewHistoryStats(int totalReviews, Map<String, Long> languageDistribution, double averageScore) {
+}
@@ -0,0 +1,33 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeReviewResponse;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 코드 리뷰 히스토리 저장소.
+ * 최신순 조회는 저장된 리뷰 수와 무관하게 limit 에 비례하는 비용이어야 하고, 반환하는 목록은 호출자가 바꿀 수 없는 스냅샷이어야 한다.
+ */
+public interface ReviewHistoryStore {
+
+    // 저장 (같은 reviewId 면 교체)
+    void save(CodeReviewResponse review);
+
+    Optional<CodeReviewResponse> findById(String reviewId);
+
+    // 최신순 최대 limit 개 (limit <= 0 이면 전체)
+    List<CodeReviewResponse> findRecent(int limit);
+
+    // 언어별 최신순 최대 limit 개 (대소문자 무시, limit <= 0 이면 전체)
+    List<CodeReviewResponse> findRecentByLanguage(String language, int limit);
+
+    boolean delete(String reviewId);
+
+    void clear();
+
+    int size();
+
+    // 저장 시점에 누적해 둔 통계 (전체를 훑지 않는다)
+    ReviewHistoryStats stats();
+}
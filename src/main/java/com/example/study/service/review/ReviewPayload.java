@@ -0,0 +1,21 @@
+package com.example.study.service.review;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.List;
+
+/**
+ * createSystemPrompt 응답 형식 중 issues 를 뺀 나머지. issues 는 스트림 중에 하나씩 따로 읽는다.
+ */
+@JsonIgnoreProperties(value = "issues", ignoreUnknown = true)
+public record ReviewPayload(
+        List<String> improvements,
+        Integer score,
+        String improvedCode,
+        String summary
+) {
+
+    public static ReviewPayload empty() {
+        return new ReviewPayload(List.of(), null, null, null);
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeReviewResponse;
+import com.example.study.service.dto.CodeReview;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 코드 리뷰 결과 캐시 (내용 주소 + single-flight).
+ * <p>
+ * - 키: 정규화한 코드 + 언어 + 리뷰 레벨의 SHA-256. 줄바꿈(CRLF/LF), 줄 끝 공백, 앞뒤 빈 줄 차이는 같은 코드로 본다.
+ *   들여쓰기는 의미가 있는 언어가 있으므로 건드리지 않는다.
+ * - hit: 저장된 {@link CodeReviewResponse} 를 그대로 돌려준다. (같은 reviewId)
+ * - single-flight: 같은 키의 리뷰가 진행 중이면 모델을 다시 부르지 않고 그 결과를 기다린다.
+ *   실패는 기다리던 요청에 그대로 전달하고 캐시하지 않는다.
+ * <p>
+ * 지표: code.review.cache.requests (result=hit|miss|coalesced), cache.* (cache=code.review.results)
+ */
+@Component
+public class ReviewResultCache {
+
+    private static final String CACHE_NAME = "code.review.results";
+
+    private final Cache<String, CodeReviewResponse> cache;
+    private final Map<String, CompletableFuture<CodeReviewResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    public ReviewResultCache(MeterRegistry meterRegistry,
+                             @Value("${code-review.cache.max-entries:1000}") long maxEntries,
+                             @Value("${code-review.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.coalesced = requests(meterRegistry, "coalesced");
+    }
+
+    /**
+     * 캐시된 리뷰가 있으면 돌려주고, 같은 리뷰가 진행 중이면 그 결과를 기다리고, 둘 다 아니면 reviewer 를 호출해 저장한다.
+     */
+    public CodeReviewResponse getOrReview(CodeReview review, Supplier<CodeReviewResponse> reviewer) {
+        String key = keyOf(review);
+        CodeReviewResponse cached = cache.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+
+        CompletableFuture<CodeReviewResponse> flight = new CompletableFuture<>();
+        CompletableFuture<CodeReviewResponse> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            coalesced.increment();
+            return await(leader);
+        }
+
+        try {
+            // 조회와 putIfAbsent 사이에 앞선 리뷰가 끝났을 수 있다.
+            CodeReviewResponse response = cache.getIfPresent(key);
+            if (response != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+                response = reviewer.get();
+                if (response != null) {
+                    cache.put(key, response);
+                }
+            }
+            flight.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            // 기다리던 요청이 멈춰 있지 않도록 어떤 실패든 전달한다.
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    public ReviewCacheStats stats() {
+        long hitCount = (long) hits.count();
+        long missCount = (long) misses.count();
+        long coalescedCount = (long) coalesced.count();
+        long total = hitCount + missCount + coalescedCount;
+        // 모델을 부르지 않은 요청(hit + coalesced) 비율
+        double hitRatio = total > 0 ? (double) (hitCount + coalescedCount) / total : 0.0;
+        return new ReviewCacheStats(hitCount, missCount, coalescedCount, hitRatio, cache.estimatedSize());
+    }
+
+    static String keyOf(CodeReview review) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(normalize(review.getCode()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(lower(review.getLanguage()).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(lower(review.getReviewLevel()).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String normalize(String code) {
+        if (code == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(code.length());
+        for (String line : code.split("\r\n|\r|\n", -1)) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        String text = normalized.toString().stripTrailing();
+        int start = 0;
+        while (start < text.length() && text.charAt(start) == '\n') {
+            start++;
+        }
+        return text.substring(start);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private CodeReviewResponse await(CompletableFuture<CodeReviewResponse> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("code.review.cache.requests")
+                .description("Code review requests by cache result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.example.study.controller.dto.CodeReviewResponse;
+
+import java.util.Map;
+
+/**
+ * 스트리밍 코드 리뷰 이벤트. SSE 의 event 이름과 data 로 그대로 나간다.
+ * <p>
+ * - issue: 완성된 {@link CodeIssue} 하나
+ * - completed: 점수/요약까지 채운 최종 {@link CodeReviewResponse}
+ * - partial: 응답이 중간에 끊겨 점수/요약 없이 지금까지의 이슈만 담은 {@link CodeReviewResponse}. 히스토리에 저장하지 않는다.
+ * - error: 모델 호출이나 파싱 실패 메시지
+ */
+public record ReviewStreamEvent(String event, Object data) {
+
+    public static final String ISSUE = "issue";
+    public static final String COMPLETED = "completed";
+    public static final String PARTIAL = "partial";
+    public static final String ERROR = "error";
+
+    public static ReviewStreamEvent issue(CodeIssue issue) {
+        return new ReviewStreamEvent(ISSUE, issue);
+    }
+
+    public static ReviewStreamEvent completed(CodeReviewResponse response) {
+        return new ReviewStreamEvent(COMPLETED, response);
+    }
+
+    public static ReviewStreamEvent partial(CodeReviewResponse response) {
+        return new ReviewStreamEvent(PARTIAL, response);
+    }
+
+    public static ReviewStreamEvent error(String message) {
+        return new ReviewStreamEvent(ERROR, Map.of("message", message != null ? message : "unknown error"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.study.service.rollup;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 최근 N일 rollup 을 원본과 대사하고 어긋난 일자를 재계산하는 보정 배치.
+ * 증분 반영을 거치지 않은 상태 변경(배치/수동 SQL 등)도 이 배치가 따라잡는다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PurchaseRollupCatchUpJob {
+
+    private final PurchaseRollupService purchaseRollupService;
+
+    @Value("${rollup.catch-up.days:2}")
+    private int catchUpDays;
+
+    @Scheduled(fixedDelayString = "${rollup.catch-up.delay-ms:600000}")
+    public void run() {
+        LocalDate today = LocalDate.now();
+        RollupReconciliationResult result = purchaseRollupService.reconcile(
+                today.minusDays(Math.max(catchUpDays - 1, 0)), today, true);
+        if (result.isConsistent()) {
+            log.debug("[rollup] {} days consistent", result.checkedDays());
+        } else {
+            log.warn("[rollup] repaired days {}", result.repairedDays());
+        }
+    }
+}
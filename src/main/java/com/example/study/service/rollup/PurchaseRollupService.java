@@ -0,0 +1,153 @@
+package com.example.study.service.rollup;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.entity.PurchaseDailyRollup;
+import com.example.study.repository.PurchaseDailyRollupRepository;
+import com.example.study.repository.PurchaseQueryRepository;
+import com.example.study.repository.projection.PurchaseRollupRowDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * purchase_daily_rollup 유지 서비스.
+ * <p>
+ * - 증분 반영: 주문 트랜잭션 커밋 직전(BEFORE_COMMIT)에 같은 트랜잭션 안에서 upsert 하므로 주문과 집계가 함께 커밋/롤백된다.
+ * - 재계산: 특정 일자의 rollup 을 원본 purchase 로부터 다시 만든다. 일자마다 새 트랜잭션에서 rollup 키 범위를 잠근 뒤 집계한다.
+ * - 대사: 기간 내 일자별로 원본 집계와 rollup 을 비교하고, 필요하면 어긋난 일자를 재계산한다.
+ */
+@Slf4j
+@Service
+public class PurchaseRollupService {
+
+    private final PurchaseDailyRollupRepository rollupRepository;
+    private final PurchaseQueryRepository purchaseQueryRepository;
+    private final TransactionTemplate rebuildTransaction;
+
+    public PurchaseRollupService(PurchaseDailyRollupRepository rollupRepository,
+                                 PurchaseQueryRepository purchaseQueryRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.purchaseQueryRepository = purchaseQueryRepository;
+        this.rebuildTransaction = new TransactionTemplate(transactionManager);
+        this.rebuildTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.rebuildTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onSalesChanged(PurchaseSalesChangedEvent event) {
+        if (event.previousStatus() == event.currentStatus()) {
+            return;
+        }
+        if (event.previousStatus() != null) {
+            applyDelta(event, event.previousStatus(), -1);
+        }
+        applyDelta(event, event.currentStatus(), 1);
+    }
+
+    /**
+     * 해당 일자 rollup 을 원본 기준으로 다시 만든다.
+     * 호출자의 트랜잭션과 상관없이 새 트랜잭션에서 실행하므로, 오래된 스냅샷으로 집계해 그 사이 커밋된 주문을 빠뜨리지 않는다.
+     * 먼저 해당 일자 rollup 키 범위를 FOR UPDATE 로 잠가(next-key lock) 진행 중인 주문의 증분 upsert 를 이 트랜잭션 커밋 뒤로 미루고,
+     * 그 다음 첫 일관 읽기로 원본을 집계한다. 잠금 전에 커밋된 주문은 집계에 들어가고, 잠금에 막힌 주문은 재계산 뒤 증분으로 더해진다.
+     * READ COMMITTED 는 gap lock 을 걸지 않아 새 (상태, 상품) 키로 들어오는 upsert 를 막지 못하므로 REPEATABLE READ 로 고정한다.
+     */
+    public void rebuildDay(LocalDate salesDate) {
+        int rebuilt = rebuildTransaction.execute(status -> {
+            rollupRepository.lockBySalesDate(salesDate);
+            List<PurchaseDailyRollup> rows = purchaseQueryRepository.aggregateDayFromPurchases(salesDate).stream()
+                    .map(row -> PurchaseDailyRollup.builder()
+                            .salesDate(salesDate)
+                            .status(row.getStatus())
+                            .productId(row.getProductId())
+                            .categoryId(row.getCategoryId())
+                            .orderCount(row.getOrderCount())
+                            .quantitySum(row.getQuantitySum())
+                            .totalAmount(row.getTotalAmount())
+                            .build())
+                    .toList();
+            rollupRepository.deleteBySalesDate(salesDate);
+            rollupRepository.saveAll(rows);
+            return rows.size();
+        });
+        log.info("[rollup] rebuilt {} ({} rows)", salesDate, rebuilt);
+    }
+
+    /**
+     * 기간 내 일자별로 원본과 rollup 을 비교한다. repair=true 이면 어긋난 일자를 재계산한다.
+     * 비교는 일자마다 최신 커밋 기준으로 읽도록 트랜잭션 밖에서 하고, 재계산은 rebuildDay 가 일자별 트랜잭션으로 처리한다.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RollupReconciliationResult reconcile(LocalDate startDate, LocalDate endDate, boolean repair) {
+        List<LocalDate> mismatched = new ArrayList<>();
+        List<LocalDate> repaired = new ArrayList<>();
+        int checkedDays = 0;
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            checkedDays++;
+            if (matches(day)) {
+                continue;
+            }
+            mismatched.add(day);
+            log.warn("[rollup] mismatch on {}", day);
+            if (repair) {
+                rebuildDay(day);
+                repaired.add(day);
+            }
+        }
+        return new RollupReconciliationResult(startDate, endDate, checkedDays, List.copyOf(mismatched), List.copyOf(repaired));
+    }
+
+    private boolean matches(LocalDate day) {
+        Map<String, PurchaseRollupRowDto> expected = new HashMap<>();
+        for (PurchaseRollupRowDto row : purchaseQueryRepository.aggregateDayFromPurchases(day)) {
+            expected.put(key(row.getStatus(), row.getProductId()), row);
+        }
+        int nonEmptyRollups = 0;
+        for (PurchaseDailyRollup rollup : rollupRepository.findBySalesDate(day)) {
+            if (rollup.getOrderCount() == 0 && rollup.getQuantitySum() == 0
+                    && rollup.getTotalAmount().signum() == 0) {
+                continue;
+            }
+            nonEmptyRollups++;
+            PurchaseRollupRowDto row = expected.get(key(rollup.getStatus(), rollup.getProductId()));
+            if (row == null
+                    || !Objects.equals(row.getOrderCount(), rollup.getOrderCount())
+                    || !Objects.equals(row.getQuantitySum(), rollup.getQuantitySum())
+                    || row.getTotalAmount().compareTo(rollup.getTotalAmount()) != 0) {
+                return false;
+            }
+        }
+        return nonEmptyRollups == expected.size();
+    }
+
+    private void applyDelta(PurchaseSalesChangedEvent event, PurchaseStatus status, int sign) {
+        BigDecimal amount = event.totalPrice() != null ? event.totalPrice() : BigDecimal.ZERO;
+        rollupRepository.upsertDelta(
+                event.salesDate(),
+                status.name(),
+                event.productId(),
+                event.categoryId(),
+                (long) sign * event.orderCount(),
+                (long) sign * event.quantity(),
+                sign > 0 ? amount : amount.negate()
+        );
+    }
+
+    private String key(PurchaseStatus status, Long productId) {
+        return status.name() + ":" + productId;
+    }
+}
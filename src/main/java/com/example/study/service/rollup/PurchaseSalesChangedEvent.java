@@ -0,0 +1,80 @@
+package com.example.study.service.rollup;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.entity.Purchase;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문이 생성되거나 상태가 바뀌었음을 알리는 이벤트. 일자별 rollup 증분 반영에 사용한다.
+ * previousStatus 가 null 이면 신규 주문이다. 일괄 주문은 같은 일자/상품끼리 합쳐 orderCount 건으로 보낸다.
+ */
+public record PurchaseSalesChangedEvent(
+        LocalDate salesDate,
+        Long productId,
+        Long categoryId,
+        PurchaseStatus previousStatus,
+        PurchaseStatus currentStatus,
+        int orderCount,
+        int quantity,
+        BigDecimal totalPrice
+) {
+
+    public static PurchaseSalesChangedEvent created(Purchase purchase) {
+        return of(purchase, null);
+    }
+
+    public static PurchaseSalesChangedEvent statusChanged(Purchase purchase, PurchaseStatus previousStatus) {
+        return of(purchase, previousStatus);
+    }
+
+    /**
+     * 일괄 생성된 신규 주문들을 (일자, 상품, 상태) 단위로 합친다. rollup upsert 횟수가 주문 수가 아닌 상품 수에 비례하게 된다.
+     */
+    public static List<PurchaseSalesChangedEvent> createdAll(List<Purchase> purchases) {
+        Map<String, PurchaseSalesChangedEvent> merged = new LinkedHashMap<>();
+        for (Purchase purchase : purchases) {
+            PurchaseSalesChangedEvent event = created(purchase);
+            String key = event.salesDate() + ":" + event.productId() + ":" + event.currentStatus();
+            merged.merge(key, event, PurchaseSalesChangedEvent::plus);
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    private PurchaseSalesChangedEvent plus(PurchaseSalesChangedEvent other) {
+        BigDecimal amount = totalPrice != null ? totalPrice : BigDecimal.ZERO;
+        BigDecimal otherAmount = other.totalPrice() != null ? other.totalPrice() : BigDecimal.ZERO;
+        return new PurchaseSalesChangedEvent(
+                salesDate,
+                productId,
+                categoryId,
+                previousStatus,
+                currentStatus,
+                orderCount + other.orderCount(),
+                quantity + other.quantity(),
+                amount.add(otherAmount)
+        );
+    }
+
+    private static PurchaseSalesChangedEvent of(Purchase purchase, PurchaseStatus previousStatus) {
+        // @CreationTimestamp 는 persist 시점에 채워지지만, 혹시 비어 있으면 현재 일자로 본다.
+        LocalDateTime purchasedAt = purchase.getPurchasedAt() != null ? purchase.getPurchasedAt() : LocalDateTime.now();
+        var product = purchase.getProduct();
+        return new PurchaseSalesChangedEvent(
+                purchasedAt.toLocalDate(),
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                previousStatus,
+                purchase.getStatus(),
+                1,
+                purchase.getQuantity(),
+                purchase.getTotalPrice()
+        );
+    }
+}
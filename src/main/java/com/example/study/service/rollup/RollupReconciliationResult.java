@@ -0,0 +1,20 @@
+package com.example.study.service.rollup;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * rollup 대사 결과. mismatchedDays 가 비어 있으면 해당 기간의 rollup 이 원본과 정확히 일치한다.
+ */
+public record RollupReconciliationResult(
+        LocalDate startDate,
+        LocalDate endDate,
+        int checkedDays,
+        List<LocalDate> mismatchedDays,
+        List<LocalDate> repairedDays
+) {
+
+    public boolean isConsistent() {
+        return mismatchedDays.isEmpty();
+    }
+}
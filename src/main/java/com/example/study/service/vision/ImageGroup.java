@@ -0,0 +1,18 @@
+package com.example.study.service.vision;
+
+/**
+ * 한 번의 모델 호출에 함께 보내는 이미지 묶음. [from, to) 는 요청 안에서의 이미지 순번(0부터)이다.
+ */
+public record ImageGroup(int from, int to, int estimatedTokens, long requestBytes) {
+
+    public int size() {
+        return to - from;
+    }
+
+    /**
+     * 사용자에게 보이는 1부터 센 번호 범위. (예: "1~8", 한 장이면 "3")
+     */
+    public String label() {
+        return size() == 1 ? String.valueOf(from + 1) : (from + 1) + "~" + to;
+    }
+}
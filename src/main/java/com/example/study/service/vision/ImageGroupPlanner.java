@@ -0,0 +1,101 @@
+package com.example.study.service.vision;
+
+import com.example.study.service.image.ImageHeader;
+import com.example.study.service.image.PreparedImage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 이미지들을 순서대로 모델 호출 단위(묶음)로 나눈다.
+ * <p>
+ * 묶음마다 세 가지 상한을 지킨다.
+ * <pre>
+ * - 이미지 수       : 공급자가 한 메시지에 받는 이미지 수
+ * - 이미지 토큰 합  : 이미지 한 장 ≈ 가로 × 세로 / 750 토큰 (긴 변 1568px 로 줄인 뒤, 장당 최대 1600)
+ * - 요청 바이트 합  : 이미지는 base64 로 실리므로 원래 크기의 4/3
+ * </pre>
+ * 먼저 앞에서부터 채워 묶음 수를 정하고, 묶음이 여러 개면 장수를 고르게 나눠 다시 채운다.
+ * (21장을 20 + 1 이 아니라 11 + 10 으로 보내 병렬 호출의 지연이 가장 큰 묶음에 끌려가지 않게 한다)
+ * 한 장만으로 상한을 넘는 이미지는 그 이미지 혼자 한 묶음이 된다.
+ */
+public final class ImageGroupPlanner {
+
+    static final int MAX_TOKENS_PER_IMAGE = 1600;
+    private static final int MAX_LONG_EDGE = 1568;
+    private static final double PIXELS_PER_TOKEN = 750.0;
+
+    private final int maxImages;
+    private final int maxTokens;
+    private final long maxRequestBytes;
+
+    public ImageGroupPlanner(int maxImages, int maxTokens, long maxRequestBytes) {
+        this.maxImages = Math.max(1, maxImages);
+        this.maxTokens = Math.max(1, maxTokens);
+        this.maxRequestBytes = Math.max(1, maxRequestBytes);
+    }
+
+    public List<ImageGroup> plan(List<PreparedImage> images) {
+        int[] tokens = new int[images.size()];
+        long[] bytes = new long[images.size()];
+        for (int i = 0; i < images.size(); i++) {
+            tokens[i] = estimateTokens(images.get(i));
+            bytes[i] = requestBytes(images.get(i));
+        }
+
+        List<ImageGroup> groups = fill(tokens, bytes, maxImages);
+        if (groups.size() > 1) {
+            int balanced = (images.size() + groups.size() - 1) / groups.size();
+            groups = fill(tokens, bytes, Math.min(maxImages, balanced));
+        }
+        return groups;
+    }
+
+    /**
+     * 모델이 이미지 한 장에 쓰는 입력 토큰 추정치. 헤더를 읽지 못하는 형식이면 장당 최댓값으로 본다.
+     */
+    static int estimateTokens(PreparedImage image) {
+        ImageHeader header;
+        try {
+            header = ImageHeader.read(new ByteArrayInputStream(image.bytes())).orElse(null);
+        } catch (IOException e) {
+            header = null;
+        }
+        if (header == null || header.width() <= 0 || header.height() <= 0) {
+            return MAX_TOKENS_PER_IMAGE;
+        }
+        double scale = Math.min(1.0, (double) MAX_LONG_EDGE / Math.max(header.width(), header.height()));
+        double pixels = header.width() * scale * header.height() * scale;
+        return (int) Math.min(MAX_TOKENS_PER_IMAGE, Math.ceil(pixels / PIXELS_PER_TOKEN));
+    }
+
+    private static long requestBytes(PreparedImage image) {
+        return (image.size() + 2L) / 3 * 4;
+    }
+
+    private List<ImageGroup> fill(int[] tokens, long[] bytes, int imagesPerGroup) {
+        List<ImageGroup> groups = new ArrayList<>();
+        int from = 0;
+        int groupTokens = 0;
+        long groupBytes = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            boolean full = i - from == imagesPerGroup
+                    || groupTokens + tokens[i] > maxTokens
+                    || groupBytes + bytes[i] > maxRequestBytes;
+            if (i > from && full) {
+                groups.add(new ImageGroup(from, i, groupTokens, groupBytes));
+                from = i;
+                groupTokens = 0;
+                groupBytes = 0;
+            }
+            groupTokens += tokens[i];
+            groupBytes += bytes[i];
+        }
+        if (tokens.length > from) {
+            groups.add(new ImageGroup(from, tokens.length, groupTokens, groupBytes));
+        }
+        return groups;
+    }
+}
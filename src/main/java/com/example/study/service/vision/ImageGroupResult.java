@@ -0,0 +1,21 @@
+package com.example.study.service.vision;
+
+import com.example.study.controller.dto.TokenUsage;
+
+/**
+ * 이미지 묶음 하나의 분석 결과. 실패하면 analysis 는 null 이고 error 에 사유가 남는다.
+ */
+public record ImageGroupResult(ImageGroup group, String analysis, TokenUsage tokenUsage, String error) {
+
+    public static ImageGroupResult success(ImageGroup group, String analysis, TokenUsage tokenUsage) {
+        return new ImageGroupResult(group, analysis, tokenUsage, null);
+    }
+
+    public static ImageGroupResult failed(ImageGroup group, String error) {
+        return new ImageGroupResult(group, null, null, error != null ? error : "unknown error");
+    }
+
+    public boolean succeeded() {
+        return analysis != null;
+    }
+}
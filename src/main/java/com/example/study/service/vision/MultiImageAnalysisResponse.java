@@ -0,0 +1,22 @@
+package com.example.study.service.vision;
+
+import com.example.study.controller.dto.TokenUsage;
+
+import java.util.List;
+
+/**
+ * 여러 이미지 분석 결과. 묶음이 하나면 analysis 는 모델 응답 그대로이고,
+ * 여러 묶음으로 나눠 호출했으면 묶음별 응답을 이미지 번호 범위와 함께 순서대로 이은 것이다.
+ * tokenUsage 는 성공한 호출들의 합이다.
+ */
+public record MultiImageAnalysisResponse(
+        String analysis,
+        int imageCount,
+        List<ImageGroupResult> groups,
+        TokenUsage tokenUsage,
+        long elapsedMs
+) {
+    public int calls() {
+        return groups.size();
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.study.service.vision;
+
+import com.example.study.common.TooManyRequestsException;
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ImageOptimizationService;
+import com.example.study.service.VisionService;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.image.PreparedImage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 이미지(카탈로그 사진 점검 등)를 같은 프롬프트로 분석한다.
+ * <pre>
+ * 최적화: ImageProcessingExecutor 에서 모든 이미지를 동시에 (동시 decodeConcurrency 개)
+ *   → 묶기: ImageGroupPlanner 가 이미지 수 / 이미지 토큰 / 요청 바이트 상한 안에서 순서대로 나눈다
+ *   → 분석: 묶음마다 UserMessage 하나로 모델 호출 (AiExecutor, 동시 callConcurrency 개)
+ *   → 합치기: 묶음 순서대로 이미지 번호 범위와 함께 잇는다
+ * </pre>
+ * 이미지마다 따로 부르면 프롬프트와 지시문을 장수만큼 다시 보내야 하지만, 묶어 보내면 묶음당 한 번이다.
+ * 이미지는 묶음 안 순서가 아니라 요청 전체 기준 번호로 부르도록 프롬프트 앞에 번호 안내를 붙인다.
+ * <p>
+ * 이미지가 아닌 파일이 섞여 있으면 요청 전체를 거절한다. 실행기나 limiter 의 429 는 backoff 하며 다시 시도하고,
+ * 그래도 실패한 묶음은 실패로 남긴 채 나머지 결과를 돌려준다. 모든 묶음이 실패하면 요청이 실패한다.
+ */
+@Slf4j
+@Service
+public class MultiImageAnalysisService {
+
+    private static final String ENDPOINT = "vision-multi-image";
+    private static final Duration FIRST_BACKOFF = Duration.ofMillis(200);
+    private static final Duration MAX_BACKOFF = Duration.ofSeconds(2);
+
+    private final ImageOptimizationService imageOptimizationService;
+    private final VisionService visionService;
+    private final AiExecutor aiExecutor;
+    private final ImageGroupPlanner planner;
+    private final int maxFiles;
+    private final int decodeConcurrency;
+    private final int callConcurrency;
+    private final int maxRetries;
+
+    public MultiImageAnalysisService(ImageOptimizationService imageOptimizationService,
+                                     VisionService visionService,
+                                     AiExecutor aiExecutor,
+                                     @Value("${vision.multi-image.max-files:50}") int maxFiles,
+                                     @Value("${vision.multi-image.max-images-per-call:20}") int maxImagesPerCall,
+                                     @Value("${vision.multi-image.max-image-tokens-per-call:24000}") int maxImageTokensPerCall,
+                                     @Value("${vision.multi-image.max-request-mb:24}") int maxRequestMb,
+                                     @Value("${vision.multi-image.decode-concurrency:0}") int decodeConcurrency,
+                                     @Value("${vision.multi-image.call-concurrency:2}") int callConcurrency,
+                                     @Value("${vision.multi-image.max-retries:8}") int maxRetries) {
+        this.imageOptimizationService = imageOptimizationService;
+        this.visionService = visionService;
+        this.aiExecutor = aiExecutor;
+        this.planner = new ImageGroupPlanner(maxImagesPerCall, maxImageTokensPerCall, maxRequestMb * 1024L * 1024);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.decodeConcurrency = decodeConcurrency > 0 ? decodeConcurrency : Runtime.getRuntime().availableProcessors();
+        this.callConcurrency = Math.max(1, callConcurrency);
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
+    public CompletableFuture<MultiImageAnalysisResponse> analyze(String prompt, List<MultipartFile> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("이미지 파일이 없습니다");
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("한 번에 최대 " + maxFiles + "개까지 분석할 수 있습니다");
+        }
+
+        long startedAt = System.nanoTime();
+        return Flux.fromIterable(files)
+                .flatMapSequential(file -> Mono.fromFuture(() -> imageOptimizationService.prepareAsync(file))
+                        .retryWhen(retryWhenBusy()), decodeConcurrency)
+                .collectList()
+                .flatMap(images -> analyze(prompt, images, startedAt))
+                .onErrorMap(Exceptions::isRetryExhausted, Throwable::getCause)
+                .toFuture();
+    }
+
+    private Mono<MultiImageAnalysisResponse> analyze(String prompt, List<PreparedImage> images, long startedAt) {
+        List<ImageGroup> groups = planner.plan(images);
+        log.debug("이미지 {}장을 {}번에 나눠 분석합니다: {}", images.size(), groups.size(), groups);
+        return Flux.fromIterable(groups)
+                .flatMapSequential(group -> analyzeGroup(prompt, images, group), callConcurrency)
+                .collectList()
+                .map(results -> merge(images.size(), results, elapsedMs(startedAt)));
+    }
+
+    private Mono<ImageGroupResult> analyzeGroup(String prompt, List<PreparedImage> images, ImageGroup group) {
+        String numberedPrompt = numberedPrompt(prompt, group, images.size());
+        List<PreparedImage> attached = images.subList(group.from(), group.to());
+        return Mono.fromFuture(() -> aiExecutor.submit(ENDPOINT,
+                        () -> visionService.analyzeImages(numberedPrompt, attached, AiPriority.INTERACTIVE)))
+                .retryWhen(retryWhenBusy())
+                .map(response -> success(group, response))
+                .onErrorResume(e -> {
+                    Throwable cause = Exceptions.isRetryExhausted(e) && e.getCause() != null ? e.getCause() : e;
+                    log.warn("이미지 {} 분석 실패: {}", group.label(), cause.getMessage());
+                    return Mono.just(ImageGroupResult.failed(group, cause.getMessage()));
+                });
+    }
+
+    static String numberedPrompt(String prompt, ImageGroup group, int imageCount) {
+        String numbering = group.size() == imageCount
+                ? "첨부한 이미지 " + imageCount + "장에 첨부 순서대로 1번부터 번호를 붙여 답변에서 번호로 가리켜주세요."
+                : "첨부한 이미지 " + group.size() + "장은 전체 " + imageCount + "장 중 " + group.label()
+                  + "번 이미지입니다. 첨부 순서대로 이 번호로 가리켜주세요.";
+        return numbering + "\n\n" + prompt;
+    }
+
+    static MultiImageAnalysisResponse merge(int imageCount, List<ImageGroupResult> results, long elapsedMs) {
+        if (results.stream().noneMatch(ImageGroupResult::succeeded)) {
+            throw new IllegalStateException("모든 이미지 분석 호출이 실패했습니다: " + results.get(0).error());
+        }
+
+        String analysis;
+        if (results.size() == 1) {
+            analysis = results.get(0).analysis();
+        } else {
+            StringBuilder merged = new StringBuilder();
+            for (ImageGroupResult result : results) {
+                if (!merged.isEmpty()) {
+                    merged.append("\n\n");
+                }
+                merged.append("### 이미지 ").append(result.group().label()).append('\n')
+                        .append(result.succeeded() ? result.analysis() : "분석 실패: " + result.error());
+            }
+            analysis = merged.toString();
+        }
+        return new MultiImageAnalysisResponse(analysis, imageCount, List.copyOf(results), sum(results), elapsedMs);
+    }
+
+    private static ImageGroupResult success(ImageGroup group, ImageAnalysisResponse<String> response) {
+        return ImageGroupResult.success(group, response.analysis(), response.tokenUsage());
+    }
+
+    private static TokenUsage sum(List<ImageGroupResult> results) {
+        int prompt = 0;
+        int completion = 0;
+        int total = 0;
+        for (ImageGroupResult result : results) {
+            TokenUsage usage = result.tokenUsage();
+            if (usage == null) {
+                continue;
+            }
+            prompt += usage.promptTokens() != null ? usage.promptTokens() : 0;
+            completion += usage.completionTokens() != null ? usage.completionTokens() : 0;
+            total += usage.totalTokens() != null ? usage.totalTokens() : 0;
+        }
+        return new TokenUsage(prompt, completion, total);
+    }
+
+    private Retry retryWhenBusy() {
+        return Retry.backoff(maxRetries, FIRST_BACKOFF)
+                .maxBackoff(MAX_BACKOFF)
+                .filter(TooManyRequestsException.class::isInstance);
+    }
+
+    private static long elapsedMs(long startedAt) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+    }
+}
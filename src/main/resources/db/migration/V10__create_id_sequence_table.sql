@@ -0,0 +1,12 @@
+-- id_sequence Table
+-- IDENTITY 대신 테이블 기반 pooled id 할당을 쓰는 엔티티(purchase)의 다음 id 블록을 보관한다.
+CREATE TABLE id_sequence
+(
+    sequence_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val      BIGINT       NOT NULL
+);
+
+-- 기존 주문 id 와 겹치지 않도록 현재 최대 id + 할당 크기(50) 이후부터 시작한다.
+INSERT INTO id_sequence (sequence_name, next_val)
+SELECT 'purchase', COALESCE(MAX(id), 0) + 51
+FROM purchase;
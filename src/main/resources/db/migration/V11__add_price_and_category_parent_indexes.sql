@@ -0,0 +1,8 @@
+-- QueryIndexAdvisorTest 가 모든 QueryRepository 쿼리를 실제 바인드 값으로 EXPLAIN 하면서 드러난 누락 인덱스
+
+-- product: 가격 범위 검색(priceGoe/priceLoe) + 비싼 순 상위 N개(ORDER BY price DESC LIMIT N)를 정렬 없이 처리
+CREATE INDEX idx_product_price ON product (price DESC);
+
+-- category: 루트 카테고리(parent_id IS NULL) 조회, 하위 카테고리 fetch join/개수 서브쿼리
+-- (V4 는 FK 없이 만들어져 MySQL 이 parent_id 인덱스를 자동으로 만들지 않는다)
+CREATE INDEX idx_category_parent_id ON category (parent_id);
@@ -0,0 +1,5 @@
+-- 정산 claim 기한
+-- 정산 워커는 짧은 트랜잭션에서 주문을 잡아(claim) 커밋한 뒤 트랜잭션 밖에서 게이트웨이를 호출한다.
+-- 이 기한 전까지 다른 워커는 해당 주문을 건너뛰고, 워커가 죽으면 기한이 지나 다시 정산 대상이 된다.
+ALTER TABLE purchase
+    ADD COLUMN settlement_claimed_until DATETIME(6) NULL COMMENT '정산 claim 기한';
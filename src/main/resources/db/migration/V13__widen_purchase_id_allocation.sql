@@ -0,0 +1,7 @@
+-- purchase id 할당 크기 50 -> 500
+-- pooled optimizer 는 id_sequence 에서 읽은 값을 블록의 끝으로 보고 (값 - 할당 크기, 값] 범위의 id 를 나눠 준다.
+-- 저장된 next_val 이 N 이면 지금까지 N - 50 이하의 id 가 나갔으므로, 블록이 500 으로 커져도
+-- 이미 나간 id 와 겹치지 않도록 450 을 더해 둔다.
+UPDATE id_sequence
+SET next_val = next_val + 450
+WHERE sequence_name = 'purchase';
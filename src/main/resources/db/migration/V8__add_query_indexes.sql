@@ -0,0 +1,21 @@
+-- QueryDSL 조회 조건/정렬 컬럼 인덱스
+-- InnoDB 보조 인덱스는 PK(id)를 자동으로 포함하므로 (조건 컬럼, 시각) 인덱스가
+-- keyset 정렬 (시각 DESC, id DESC) 까지 인덱스 순서대로 처리한다.
+
+-- purchase: 사용자/상품/상태별 주문 조회 + 기간 조회
+CREATE INDEX idx_purchase_user_purchased_at ON purchase (user_id, purchased_at);
+CREATE INDEX idx_purchase_product_purchased_at ON purchase (product_id, purchased_at);
+CREATE INDEX idx_purchase_status_purchased_at ON purchase (status, purchased_at);
+-- 기간 조건 일자별/상태별 집계를 테이블 접근 없이 처리하는 커버링 인덱스
+CREATE INDEX idx_purchase_purchased_at_cover ON purchase (purchased_at, status, total_price);
+
+-- product: 카테고리별 최신순, 전체 최신순
+CREATE INDEX idx_product_category_created_at ON product (category_id, created_at);
+CREATE INDEX idx_product_created_at ON product (created_at);
+
+-- user: 가입일 조건/정렬
+CREATE INDEX idx_user_created_at ON user (created_at);
+
+-- refund: 상태별 최신순, 기간 조회 (purchase_id 인덱스는 V7 에서 생성)
+CREATE INDEX idx_refund_status_created_at ON refund (status, created_at);
+CREATE INDEX idx_refund_created_at ON refund (created_at);
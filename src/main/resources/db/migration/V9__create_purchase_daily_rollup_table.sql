@@ -0,0 +1,24 @@
+-- purchase_daily_rollup Table
+-- 일자/상태/상품별 주문 집계. 주문 생성·상태 변경 시 증분 반영되고, 보정 배치가 원본(purchase)과 대사한다.
+CREATE TABLE purchase_daily_rollup
+(
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sales_date   DATE           NOT NULL COMMENT '주문 일자 (purchased_at 기준)',
+    status       VARCHAR(20)    NOT NULL COMMENT 'PENDING, COMPLETED, CANCELED, REFUNDED',
+    product_id   BIGINT         NOT NULL COMMENT '상품 ID',
+    category_id  BIGINT                  DEFAULT NULL COMMENT '주문 시점 상품 카테고리 ID',
+    order_count  BIGINT         NOT NULL DEFAULT 0,
+    quantity_sum BIGINT         NOT NULL DEFAULT 0,
+    total_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    updated_at   DATETIME(6)    NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+    CONSTRAINT uk_purchase_daily_rollup UNIQUE (sales_date, status, product_id)
+);
+
+CREATE INDEX idx_purchase_daily_rollup_product ON purchase_daily_rollup (product_id, sales_date);
+
+-- 기존 주문 이력으로 초기 적재
+INSERT INTO purchase_daily_rollup (sales_date, status, product_id, category_id, order_count, quantity_sum, total_amount)
+SELECT DATE(pu.purchased_at), pu.status, pu.product_id, MAX(pr.category_id), COUNT(*), SUM(pu.quantity), SUM(pu.total_price)
+FROM purchase pu
+         JOIN product pr ON pr.id = pu.product_id
+GROUP BY DATE(pu.purchased_at), pu.status, pu.product_id;
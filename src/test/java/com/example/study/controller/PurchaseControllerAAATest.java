@@ -0,0 +1,88 @@
+package com.example.study.controller;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.common.CursorPage;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.PurchaseExportService;
+import com.example.study.service.PurchaseService;
+import com.example.study.service.dto.CountMode;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(PurchaseController.class)
+class PurchaseControllerAAATest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockitoBean
+    PurchaseService purchaseService;
+
+    @MockitoBean
+    PurchaseExportService purchaseExportService;
+
+    @Test
+    @DisplayName("[AAA] 주문 검색 API는 조건/커서/크기/count 모드를 넘기고 다음 커서와 건수를 응답한다")
+    void searchPurchases_passesCursorAndReturnsNextCursor() throws Exception {
+        // Arrange
+        PurchaseDetailDto row = new PurchaseDetailDto(15L, 7L, "구매자", 3L, "키보드", 1,
+                BigDecimal.valueOf(1_000), BigDecimal.valueOf(1_000), PurchaseStatus.COMPLETED,
+                LocalDateTime.of(2025, 3, 9, 12, 0));
+        CursorPage<PurchaseDetailDto> page = new CursorPage<>(List.of(row), 1, true, "next-token", 10_000L, true);
+        ArgumentCaptor<PurchaseSearchCondition> condition = ArgumentCaptor.forClass(PurchaseSearchCondition.class);
+        when(purchaseService.searchPurchaseDetails(any(), eq("prev-token"), eq(1), eq(CountMode.CAPPED))).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/purchases/search")
+                        .param("cursor", "prev-token")
+                        .param("size", "1")
+                        .param("count", "CAPPED")
+                        .param("userId", "7")
+                        .param("status", "COMPLETED")
+                        .param("purchasedAfter", "2025-03-01T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.result").value(true))
+                .andExpect(jsonPath("$.data.content[0].purchaseId").value(15))
+                .andExpect(jsonPath("$.data.hasNext").value(true))
+                .andExpect(jsonPath("$.data.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.data.totalCount").value(10_000))
+                .andExpect(jsonPath("$.data.totalCountCapped").value(true));
+        verify(purchaseService).searchPurchaseDetails(condition.capture(), eq("prev-token"), eq(1), eq(CountMode.CAPPED));
+        assertThat(condition.getValue().getUserId()).isEqualTo(7L);
+        assertThat(condition.getValue().getStatus()).isEqualTo(PurchaseStatus.COMPLETED);
+        assertThat(condition.getValue().getPurchasedAfter()).isEqualTo(LocalDateTime.of(2025, 3, 1, 0, 0));
+    }
+
+    @Test
+    @DisplayName("[AAA] 잘못된 커서는 400 VALIDATE_ERROR 로 응답한다")
+    void searchPurchases_invalidCursor_badRequest() throws Exception {
+        // Arrange
+        when(purchaseService.searchPurchaseDetails(any(), eq("broken"), anyInt(), any()))
+                .thenThrow(new IllegalArgumentException("invalid cursor"));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/purchases/search").param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.code").value("VALIDATE_ERROR"))
+                .andExpect(jsonPath("$.error.message").value("invalid cursor"));
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.study.lecture.cleancode.spring.answer3.settlement;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.entity.Product;
+import com.example.study.entity.Purchase;
+import com.example.study.entity.User;
+import com.example.study.repository.ProductRepository;
+import com.example.study.repository.PurchaseRepository;
+import com.example.study.repository.UserJpaRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 정산 claim(SKIP LOCKED + claim 기한), 실패 주문 제외, 워커 풀 분배가 커밋된 데이터에서 동작하는지 확인한다.
+ * claim/완료가 각자 트랜잭션을 커밋하므로 테스트 트랜잭션 없이 실행한다. (user 는 H2 예약어라 NON_KEYWORDS 로 푼다)
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:settlement;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "settlement.retry.initial-backoff-ms=1"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        PendingPurchaseFinder.class,
+        SettlementProcessor.class,
+        SettlementLogger.class,
+        SettlementServiceAnswer.class,
+        SettlementWorkerPool.class,
+        SettlementServiceAnswerTest.RecordingGatewayConfig.class
+})
+class SettlementServiceAnswerTest {
+
+    @Autowired
+    private PendingPurchaseFinder pendingPurchaseFinder;
+    @Autowired
+    private SettlementServiceAnswer settlementService;
+    @Autowired
+    private SettlementWorkerPool settlementWorkerPool;
+    @Autowired
+    private RecordingGateway gateway;
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User buyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        gateway.reset();
+        buyer = userRepository.save(User.builder().name("구매자").email("buyer@example.com").passwordHash("x").build());
+        product = productRepository.save(Product.builder().name("키보드").price(BigDecimal.valueOf(1_000)).stock(100).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        purchaseRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("다른 트랜잭션이 잠근 대기 주문은 기다리지 않고 건너뛰어 다음 주문을 잡는다")
+    void claimNext_skipsRowLockedByAnotherTransaction() throws Exception {
+        Purchase first = pending();
+        Purchase second = pending();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            // 다른 워커가 첫 주문을 잠근 채 claim 을 아직 커밋하지 않은 상태.
+            // H2 는 보조 인덱스로 ORDER BY + LIMIT 하는 FOR UPDATE 가 읽은 행을 모두 잠그므로 (InnoDB 는 반환한 행만)
+            // 상대 워커의 잠금은 id 로 한 행만 잡는다.
+            Future<Long> heldByOther = other.submit(() -> transaction.execute(status -> {
+                Long id = jdbcTemplate.queryForObject("SELECT id FROM purchase WHERE id = ? FOR UPDATE", Long.class,
+                        first.getId());
+                locked.countDown();
+                await(release);
+                return id;
+            }));
+            assertThat(locked.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Optional<Purchase> claimed = transaction.execute(status ->
+                    pendingPurchaseFinder.claimNext(List.of(), LocalDateTime.now()));
+            release.countDown();
+
+            assertThat(heldByOther.get(5, TimeUnit.SECONDS)).isEqualTo(first.getId());
+            assertThat(claimed).map(Purchase::getId).contains(second.getId());
+        } finally {
+            release.countDown();
+            other.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("제외 목록에 있거나 claim 기한이 남은 주문은 건너뛰고, 기한이 지나면 다시 잡는다")
+    void claimNext_skipsExcludedAndLeasedPurchases() {
+        LocalDateTime now = LocalDateTime.now();
+        Purchase leased = pending();
+        Purchase excluded = pending();
+        Purchase next = pending();
+        leased.claimSettlement(now.plusMinutes(5));
+        purchaseRepository.save(leased);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        Optional<Purchase> beforeExpiry = transaction.execute(status ->
+                pendingPurchaseFinder.claimNext(List.of(excluded.getId()), now));
+        Optional<Purchase> afterExpiry = transaction.execute(status ->
+                pendingPurchaseFinder.claimNext(List.of(excluded.getId()), now.plusMinutes(10)));
+
+        assertThat(beforeExpiry).map(Purchase::getId).contains(next.getId());
+        assertThat(afterExpiry).map(Purchase::getId).contains(leased.getId());
+    }
+
+    @Test
+    @DisplayName("정산 게이트웨이는 트랜잭션 밖에서 호출되고, 성공하면 주문을 완료 처리하고 claim 을 지운다")
+    void settleNext_callsGatewayOutsideTransaction() {
+        Purchase purchase = pending();
+
+        Optional<SettlementAttempt> attempt = settlementService.settleNext(List.of());
+
+        Purchase settled = purchaseRepository.findById(purchase.getId()).orElseThrow();
+        assertThat(attempt).contains(new SettlementAttempt(purchase.getId(), true));
+        assertThat(gateway.inTransaction).containsOnly(false);
+        assertThat(settled.getStatus()).isEqualTo(PurchaseStatus.COMPLETED);
+        assertThat(settled.getSettlementClaimedUntil()).isNull();
+        assertThat(settlementService.settleNext(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("재시도 후에도 실패한 주문은 PENDING 으로 남고 claim 이 풀려 다음 실행에서 다시 잡힌다")
+    void settleNext_failure_releasesClaim() {
+        Purchase purchase = pending();
+        gateway.failing.add(purchase.getId());
+
+        Optional<SettlementAttempt> attempt = settlementService.settleNext(List.of());
+
+        Purchase failed = purchaseRepository.findById(purchase.getId()).orElseThrow();
+        assertThat(attempt).contains(new SettlementAttempt(purchase.getId(), false));
+        assertThat(gateway.calls.get(purchase.getId())).hasValue(3);
+        assertThat(failed.getStatus()).isEqualTo(PurchaseStatus.PENDING);
+        assertThat(failed.getSettlementClaimedUntil()).isNull();
+        assertThat(settlementService.settleNext(List.of(purchase.getId()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("워커 풀은 대기 주문을 한 번씩만 정산하고, 실패한 주문은 같은 실행에서 다시 잡지 않는다")
+    void runOnce_settlesEachPurchaseOnceAndExcludesFailures() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(pending().getId());
+        }
+        Long failing = ids.get(7);
+        gateway.failing.add(failing);
+
+        SettlementRunResult result = settlementWorkerPool.runOnce();
+
+        assertThat(result.settled()).isEqualTo(39);
+        assertThat(result.failed()).isEqualTo(1);
+        assertThat(gateway.calls).containsOnlyKeys(ids);
+        ids.stream().filter(id -> !id.equals(failing))
+                .forEach(id -> assertThat(gateway.calls.get(id)).hasValue(1));
+        // 재시도 3번 뒤 제외되어 다시 잡히지 않는다
+        assertThat(gateway.calls.get(failing)).hasValue(3);
+        assertThat(purchaseRepository.findAll())
+                .filteredOn(purchase -> purchase.getStatus() == PurchaseStatus.PENDING)
+                .extracting(Purchase::getId)
+                .containsExactly(failing);
+    }
+
+    private Purchase pending() {
+        return purchaseRepository.save(Purchase.builder()
+                .user(buyer)
+                .product(product)
+                .quantity(1)
+                .unitPrice(product.getPrice())
+                .totalPrice(product.getPrice())
+                .status(PurchaseStatus.PENDING)
+                .build());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 호출 횟수와 호출 시점의 트랜잭션 여부를 기록하고 failing 에 든 주문은 항상 실패시키는 게이트웨이.
+     */
+    static class RecordingGateway implements SettlementGateway {
+
+        final Set<Long> failing = ConcurrentHashMap.newKeySet();
+        final Map<Long, AtomicInteger> calls = new ConcurrentHashMap<>();
+        final List<Boolean> inTransaction = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void settle(Long purchaseId) {
+            calls.computeIfAbsent(purchaseId, id -> new AtomicInteger()).incrementAndGet();
+            inTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+            if (failing.contains(purchaseId)) {
+                throw new IllegalStateException("gateway unavailable");
+            }
+        }
+
+        void reset() {
+            failing.clear();
+            calls.clear();
+            inTransaction.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingGatewayConfig {
+
+        @Bean
+        RecordingGateway recordingGateway() {
+            return new RecordingGateway();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.study.repository;
+
+import com.example.study.config.QueryDslConfig;
+import com.example.study.config.SecondLevelCacheConfig;
+import com.example.study.entity.Category;
+import com.example.study.entity.Product;
+import com.example.study.repository.projection.ProductSummaryDto;
+import jakarta.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 상품/카테고리 2차 캐시와 쿼리 캐시가 DB 조회를 줄이고, 쓰기 후에는 최신 값을 돌려주는지 확인한다.
+ * 캐시는 커밋 시점에 갱신되므로 테스트 트랜잭션 없이 실행한다.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        QueryDslConfig.class,
+        SecondLevelCacheConfig.class,
+        ProductQueryRepository.class
+})
+class CatalogSecondLevelCacheTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private ProductQueryRepository productQueryRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        category = categoryRepository.save(Category.builder().name("도서").build());
+        product = productRepository.save(Product.builder()
+                .category(category)
+                .name("클린 코드")
+                .price(BigDecimal.valueOf(30_000))
+                .stock(10)
+                .build());
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("상품 단건 조회는 2차 캐시에서 처리되어 SQL 을 실행하지 않는다")
+    void findById_servedFromSecondLevelCache() {
+        // IDENTITY 로 저장한 엔티티는 insert 시점에 캐시에 넣지 않으므로 한 번 읽어 캐시를 채운다.
+        productRepository.findById(product.getId());
+        statistics.clear();
+
+        productRepository.findById(product.getId());
+        productRepository.findById(product.getId());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics(SecondLevelCacheConfig.PRODUCT_REGION).getHitCount())
+                .isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("카테고리별 상품 요약은 쿼리 캐시에 적중하고, 상품 수정 후에는 다시 조회한다")
+    void findSummariesByCategoryId_cachedUntilProductChanges() {
+        productQueryRepository.findSummariesByCategoryId(category.getId());
+        productQueryRepository.findSummariesByCategoryId(category.getId());
+
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Product managed = productRepository.findById(product.getId()).orElseThrow();
+            managed.updateDetails(category, "클린 코드 2판", null, BigDecimal.valueOf(32_000), 10);
+        });
+        List<ProductSummaryDto> summaries = productQueryRepository.findSummariesByCategoryId(category.getId());
+
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(2);
+        assertThat(summaries).extracting(ProductSummaryDto::getProductName).containsExactly("클린 코드 2판");
+    }
+
+    @Test
+    @DisplayName("재고 차감은 바뀐 상품의 캐시만 비우고, 다른 상품은 계속 2차 캐시에서 읽으며 요약 쿼리는 새 재고로 다시 조회한다")
+    void decreaseStock_evictsOnlyChangedProduct() {
+        Product other = productRepository.save(Product.builder()
+                .category(category)
+                .name("리팩터링")
+                .price(BigDecimal.valueOf(35_000))
+                .stock(10)
+                .build());
+        productRepository.findById(product.getId());
+        productRepository.findById(other.getId());
+        productQueryRepository.findSummariesByCategoryId(category.getId());
+        statistics.clear();
+
+        int updated = new TransactionTemplate(transactionManager).execute(status ->
+                productQueryRepository.decreaseStockIfAvailable(product.getId(), 3));
+        productRepository.findById(other.getId());
+        long statementsAfterOtherRead = statistics.getPrepareStatementCount();
+        Product changed = productRepository.findById(product.getId()).orElseThrow();
+        List<ProductSummaryDto> summaries = productQueryRepository.findSummariesByCategoryId(category.getId());
+
+        assertThat(updated).isEqualTo(1);
+        // UPDATE 1번 뿐: 다른 상품은 캐시에서 읽는다
+        assertThat(statementsAfterOtherRead).isEqualTo(1);
+        assertThat(statistics.getCacheRegionStatistics(SecondLevelCacheConfig.PRODUCT_REGION).getHitCount()).isEqualTo(1);
+        assertThat(changed.getStock()).isEqualTo(7);
+        assertThat(statistics.getQueryCacheMissCount()).isEqualTo(1);
+        assertThat(summaries).extracting(ProductSummaryDto::getStock).containsExactlyInAnyOrder(7, 10);
+    }
+}
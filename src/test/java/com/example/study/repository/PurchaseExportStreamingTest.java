@@ -0,0 +1,218 @@
+package com.example.study.repository;
+
+import com.example.study.config.QueryDslConfig;
+import com.example.study.entity.Product;
+import com.example.study.entity.User;
+import com.example.study.service.PurchaseExportService;
+import com.example.study.service.dto.ExportFormat;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 export 가 DB 커서 경로(streamPurchaseDetails)로 모든 행을 빠짐없이 내보내고,
+ * JDBC fetch size 가 실제 문장에 적용되며, 결과를 영속성 컨텍스트나 List 에 쌓지 않고 쓰는지 확인한다.
+ * 주문은 purchasedAt 을 직접 정하기 위해 JDBC 로 넣는다. (user 는 H2 예약어라 NON_KEYWORDS 로 푼다)
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:purchase-export;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+        QueryDslConfig.class,
+        PurchaseQueryRepository.class,
+        PurchaseExportStreamingTest.FetchSizeCaptureConfig.class
+})
+class PurchaseExportStreamingTest {
+
+    private static final int ROWS = 2_500;
+    private static final int FETCH_SIZE = 100;
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 9, 12, 0);
+    private static final Map<String, Integer> FETCH_SIZES = new ConcurrentHashMap<>();
+
+    @Autowired
+    private PurchaseQueryRepository purchaseQueryRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private PurchaseExportService purchaseExportService;
+    private User buyer;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        purchaseExportService = new PurchaseExportService(purchaseQueryRepository, objectMapper, FETCH_SIZE);
+        buyer = userRepository.save(User.builder().name("구매자, \"VIP\"").email("buyer@example.com").passwordHash("x").build());
+        Product product = productRepository.save(Product.builder()
+                .name("키보드")
+                .price(BigDecimal.valueOf(1_000))
+                .stock(100)
+                .build());
+        userRepository.flush();
+        productRepository.flush();
+        // id 1..ROWS, 1분 간격: id 가 클수록 최근 주문
+        jdbcTemplate.update("""
+                        insert into purchase (id, user_id, product_id, quantity, unit_price, total_price, status, purchased_at)
+                        select x, ?, ?, 1, 1000, 1000, 'COMPLETED', dateadd('MINUTE', x, cast(? as timestamp)) from system_range(1, ?)
+                        """,
+                buyer.getId(), product.getId(), Timestamp.valueOf(NOON), ROWS);
+        entityManager.clear();
+        FETCH_SIZES.clear();
+    }
+
+    @Test
+    @DisplayName("CSV export 는 헤더 + 모든 주문을 최신순으로 한 줄씩 쓰고, 쉼표/따옴표가 든 이름은 이스케이프한다")
+    void export_csv_writesEveryRowInOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = purchaseExportService.export(
+                PurchaseSearchCondition.builder().userId(buyer.getId()).build(), ExportFormat.CSV, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(ROWS);
+        assertThat(lines).hasSize(ROWS + 1);
+        assertThat(lines.get(0)).startsWith("purchaseId,userId,username,");
+        assertThat(lines.get(1)).startsWith(ROWS + "," + buyer.getId() + ",\"구매자, \"\"VIP\"\"\",");
+        List<Long> ids = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size())) {
+            ids.add(Long.parseLong(line.substring(0, line.indexOf(','))));
+        }
+        assertThat(ids).isSortedAccordingTo((a, b) -> Long.compare(b, a));
+        assertThat(ids).doesNotHaveDuplicates().hasSize(ROWS);
+    }
+
+    @Test
+    @DisplayName("NDJSON export 는 모든 주문을 JSON 객체 한 줄씩 쓴다")
+    void export_ndjson_writesEveryRowAsLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = purchaseExportService.export(PurchaseSearchCondition.builder().build(), ExportFormat.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(ROWS);
+        assertThat(lines).hasSize(ROWS).allMatch(line -> line.startsWith("{\"purchaseId\":") && line.endsWith("}"));
+    }
+
+    @Test
+    @DisplayName("export 문장에는 fetch size 가 적용되고, 쓰는 동안 영속성 컨텍스트에 엔티티가 쌓이지 않으며 첫 출력은 마지막 행을 읽기 전에 나간다")
+    void export_usesFetchSizeAndDoesNotMaterialize() throws IOException {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        List<Integer> managedWhileWriting = new ArrayList<>();
+        List<Integer> bytesAtWrite = new ArrayList<>();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) {
+                write(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                managedWhileWriting.add(session.getPersistenceContext().getNumberOfManagedEntities());
+                bytesAtWrite.add(body.size());
+                body.write(b, off, len);
+            }
+        };
+
+        long written = purchaseExportService.export(PurchaseSearchCondition.builder().build(), ExportFormat.CSV, out);
+
+        assertThat(written).isEqualTo(ROWS);
+        assertThat(FETCH_SIZES).containsValue(FETCH_SIZE);
+        assertThat(managedWhileWriting).isNotEmpty().containsOnly(0);
+        // 출력이 한 번에 몰아서 나가지 않고 여러 번에 나뉘어 나간다 (커서를 읽는 도중에 쓴다)
+        assertThat(bytesAtWrite).hasSizeGreaterThan(1);
+    }
+
+    /**
+     * DataSource 를 감싸 PreparedStatement 에 설정된 fetch size 를 SQL 별로 기록한다.
+     */
+    @TestConfiguration
+    static class FetchSizeCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor fetchSizeCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource target && !(bean instanceof DelegatingDataSource)) {
+                        return new DelegatingDataSource(target) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return capture(super.getConnection());
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static Connection capture(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(PurchaseExportStreamingTest.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (method.getName().equals("prepareStatement")) {
+                            return capture((PreparedStatement) result, (String) args[0]);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            return (PreparedStatement) Proxy.newProxyInstance(PurchaseExportStreamingTest.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("setFetchSize")) {
+                            FETCH_SIZES.put(sql, (Integer) args[0]);
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.study.repository;
+
+import com.example.study.common.CursorPage;
+import com.example.study.config.QueryDslConfig;
+import com.example.study.entity.Product;
+import com.example.study.entity.User;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.dto.CountMode;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 keyset 페이징이 같은 시각의 주문을 id 로 끊어 빠짐/중복 없이 넘기고, CAPPED count 가 상한에서 멈추는지 확인한다.
+ * 주문은 purchasedAt 을 직접 정하기 위해 JDBC 로 넣는다. (user 는 H2 예약어라 NON_KEYWORDS 로 푼다)
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:purchase-keyset;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+        QueryDslConfig.class,
+        PurchaseQueryRepository.class
+})
+class PurchaseKeysetPagingTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 9, 12, 0);
+
+    @Autowired
+    private PurchaseQueryRepository purchaseQueryRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User buyer;
+    private User otherBuyer;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        buyer = userRepository.save(User.builder().name("구매자").email("buyer@example.com").passwordHash("x").build());
+        otherBuyer = userRepository.save(User.builder().name("다른 구매자").email("other@example.com").passwordHash("x").build());
+        product = productRepository.save(Product.builder()
+                .name("키보드")
+                .price(BigDecimal.valueOf(1_000))
+                .stock(100)
+                .build());
+        userRepository.flush();
+        productRepository.flush();
+    }
+
+    @Test
+    @DisplayName("같은 시각의 주문은 id 내림차순으로 이어지고, 페이지를 넘겨도 빠지거나 겹치는 주문이 없다")
+    void searchPurchaseDetails_sameTimestamp_tieBreaksById() {
+        insertPurchases(buyer, 11, 5, NOON);                  // 11~15: 같은 시각
+        insertPurchases(buyer, 21, 2, NOON.minusMinutes(1));  // 21~22: id 는 크지만 더 이른 시각
+
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<PurchaseDetailDto> page = purchaseQueryRepository.searchPurchaseDetails(
+                    PurchaseSearchCondition.builder().userId(buyer.getId()).build(), cursor, 3, CountMode.NONE);
+            page.getContent().forEach(row -> seen.add(row.getPurchaseId()));
+            pageSizes.add(page.getContent().size());
+            assertThat(page.getTotalCount()).isNull();
+            cursor = page.getNextCursor();
+            assertThat(page.isHasNext()).isEqualTo(cursor != null);
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly(15L, 14L, 13L, 12L, 11L, 22L, 21L);
+        assertThat(pageSizes).containsExactly(3, 3, 1);
+    }
+
+    @Test
+    @DisplayName("CAPPED count 는 상한(10,000)을 넘으면 10,000 과 capped=true, 넘지 않으면 정확한 건수를 돌려준다")
+    void searchPurchaseDetails_cappedCount_stopsAtCap() {
+        insertPurchases(buyer, 100_000, 10_001, NOON);
+        insertPurchases(otherBuyer, 200_000, 3, NOON);
+
+        CursorPage<PurchaseDetailDto> all = purchaseQueryRepository.searchPurchaseDetails(
+                PurchaseSearchCondition.builder().build(), null, 20, CountMode.CAPPED);
+        CursorPage<PurchaseDetailDto> few = purchaseQueryRepository.searchPurchaseDetails(
+                PurchaseSearchCondition.builder().userId(otherBuyer.getId()).build(), null, 20, CountMode.CAPPED);
+        CursorPage<PurchaseDetailDto> exact = purchaseQueryRepository.searchPurchaseDetails(
+                PurchaseSearchCondition.builder().build(), null, 20, CountMode.EXACT);
+
+        assertThat(all.getTotalCount()).isEqualTo(10_000L);
+        assertThat(all.isTotalCountCapped()).isTrue();
+        assertThat(all.getContent()).hasSize(20);
+        assertThat(few.getTotalCount()).isEqualTo(3L);
+        assertThat(few.isTotalCountCapped()).isFalse();
+        assertThat(exact.getTotalCount()).isEqualTo(10_004L);
+        assertThat(exact.isTotalCountCapped()).isFalse();
+    }
+
+    private void insertPurchases(User user, long firstId, int count, LocalDateTime purchasedAt) {
+        jdbcTemplate.update("""
+                        insert into purchase (id, user_id, product_id, quantity, unit_price, total_price, status, purchased_at)
+                        select ? + x - 1, ?, ?, 1, 1000, 1000, 'COMPLETED', ? from system_range(1, ?)
+                        """,
+                firstId, user.getId(), product.getId(), Timestamp.valueOf(purchasedAt), count);
+    }
+}
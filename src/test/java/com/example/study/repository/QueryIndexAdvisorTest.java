@@ -0,0 +1,497 @@
+package com.example.study.repository;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.RefundStatus;
+import com.example.study.config.QueryDslConfig;
+import com.example.study.entity.Category;
+import com.example.study.entity.Product;
+import com.example.study.entity.Purchase;
+import com.example.study.entity.PurchaseDailyRollup;
+import com.example.study.entity.Refund;
+import com.example.study.entity.User;
+import com.example.study.repository.practice.CategoryOrderQueryRepository;
+import com.example.study.repository.practice.CategoryProductQueryRepository;
+import com.example.study.repository.practice.ProductSearchPracticeRepository;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.repository.support.KeysetCursor;
+import com.example.study.service.dto.CountMode;
+import com.example.study.service.dto.ProductSearchCondition;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import com.example.study.service.dto.RefundSearchCondition;
+import com.example.study.service.dto.UserSearchCondition;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.ThrowingConsumer;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.ClassUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * QueryRepository 의 모든 public 쿼리를 대표적인 non-null 조건으로 실행하고, 실제로 바인딩된 값 그대로 H2(MySQL 모드) EXPLAIN 을 돌린다.
+ * 파라미터를 NULL 로 채우면 실제 값으로는 나오지 않을 계획을 보게 되므로, DataSource 를 감싸 set* 호출을 기록했다가 EXPLAIN 에 재생한다.
+ * 조건이 걸린 테이블이 tableScan 으로 바뀌면 인덱스(V8/V11 마이그레이션, 엔티티 @Index)가 빠졌다는 뜻이다.
+ * 전체 집계처럼 스캔이 불가피한 쿼리는 이유를 적고, 드라이빙 테이블 하나만 스캔하는지(조인은 인덱스로 찾는지)만 확인한다.
+ * QueryRepository 에 메서드를 추가하고 queries() 에 케이스를 넣지 않으면 everyQueryMethod_hasCase 가 실패한다.
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:query-index;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({
+        QueryDslConfig.class,
+        QueryIndexAdvisorTest.BindCaptureConfig.class,
+        CategoryQueryRepository.class,
+        ProductQueryRepository.class,
+        PurchaseQueryRepository.class,
+        UserQueryRepository.class,
+        RefundQueryRepository.class,
+        CategoryOrderQueryRepository.class,
+        CategoryProductQueryRepository.class,
+        ProductSearchPracticeRepository.class
+})
+class QueryIndexAdvisorTest {
+
+    private static final List<Captured> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final Set<String> INVOKED = ConcurrentHashMap.newKeySet();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private CategoryQueryRepository categoryQueryRepository;
+    @Autowired
+    private ProductQueryRepository productQueryRepository;
+    @Autowired
+    private PurchaseQueryRepository purchaseQueryRepository;
+    @Autowired
+    private UserQueryRepository userQueryRepository;
+    @Autowired
+    private RefundQueryRepository refundQueryRepository;
+    @Autowired
+    private CategoryOrderQueryRepository categoryOrderQueryRepository;
+    @Autowired
+    private CategoryProductQueryRepository categoryProductQueryRepository;
+    @Autowired
+    private ProductSearchPracticeRepository productSearchPracticeRepository;
+
+    private Category keyboards;
+    private Product keyboard;
+    private Product mouse;
+    private User buyer;
+    private Purchase purchase;
+    private LocalDateTime since;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        Category electronics = entityManager.persist(Category.builder().name("전자제품").build());
+        keyboards = entityManager.persist(Category.builder().name("키보드").parent(electronics).build());
+        keyboard = entityManager.persist(Product.builder()
+                .category(keyboards).name("기계식 키보드").price(BigDecimal.valueOf(89_000)).stock(30).build());
+        mouse = entityManager.persist(Product.builder()
+                .category(keyboards).name("무선 마우스").price(BigDecimal.valueOf(35_000)).stock(5).build());
+        buyer = entityManager.persist(User.builder().name("구매자").email("buyer@example.com").passwordHash("x").build());
+        purchase = entityManager.persist(Purchase.builder()
+                .user(buyer).product(keyboard).quantity(1)
+                .unitPrice(BigDecimal.valueOf(89_000)).totalPrice(BigDecimal.valueOf(89_000))
+                .status(PurchaseStatus.COMPLETED).build());
+        entityManager.persist(Purchase.builder()
+                .user(buyer).product(mouse).quantity(2)
+                .unitPrice(BigDecimal.valueOf(35_000)).totalPrice(BigDecimal.valueOf(70_000))
+                .status(PurchaseStatus.PENDING).build());
+        entityManager.persist(Refund.builder().purchase(purchase).reason("단순 변심").status(RefundStatus.REQUESTED).build());
+        today = LocalDate.now();
+        since = today.minusDays(7).atStartOfDay();
+        entityManager.persist(PurchaseDailyRollup.builder()
+                .salesDate(today).status(PurchaseStatus.COMPLETED).productId(keyboard.getId()).categoryId(keyboards.getId())
+                .orderCount(1L).quantitySum(1L).totalAmount(BigDecimal.valueOf(89_000)).build());
+        entityManager.flush();
+        entityManager.clear();
+        STATEMENTS.clear();
+    }
+
+    static Stream<QueryCase> queries() {
+        return Stream.of(
+                // CategoryQueryRepository
+                QueryCase.indexed("루트 카테고리 조회는 category.parent_id 인덱스를 사용한다",
+                        t -> t.categoryQueryRepository.findRootCategories(),
+                        "CATEGORY"),
+                QueryCase.indexed("카테고리 + 하위 카테고리 fetch join 은 PK 와 parent_id 인덱스를 사용한다",
+                        t -> t.categoryQueryRepository.findCategoryWithChildren(t.keyboards.getId()),
+                        "CATEGORY"),
+                QueryCase.drivingScan("카테고리별 통계는 category 만 스캔하고 상품/하위 카테고리는 인덱스로 센다",
+                        t -> t.categoryQueryRepository.fetchCategoryStats(),
+                        "모든 카테고리를 집계하는 화면이라 category 전체 스캔이 불가피하다"),
+
+                // ProductQueryRepository
+                QueryCase.indexed("카테고리 + 가격 조건 상품 조회는 product 인덱스를 사용한다",
+                        t -> t.productQueryRepository.findByCondition(ProductSearchCondition.builder()
+                                .categoryId(t.keyboards.getId())
+                                .minPrice(BigDecimal.valueOf(10_000))
+                                .build()),
+                        "PRODUCT", "CATEGORY"),
+                QueryCase.indexed("카테고리 상품 페이지 조회와 count 는 product 인덱스를 사용한다",
+                        t -> t.productQueryRepository.findPageByCondition(
+                                ProductSearchCondition.builder().categoryId(t.keyboards.getId()).build(),
+                                PageRequest.of(1, 20)),
+                        "PRODUCT"),
+                QueryCase.indexed("카테고리 상품 keyset 조회와 CAPPED count 는 product 인덱스를 사용한다",
+                        t -> t.productQueryRepository.findSliceByCondition(
+                                ProductSearchCondition.builder().categoryId(t.keyboards.getId()).build(),
+                                new KeysetCursor(t.keyboard.getCreatedAt(), t.keyboard.getId()).encode(),
+                                20, CountMode.CAPPED),
+                        "PRODUCT"),
+                QueryCase.indexed("카테고리별 상품 요약은 product 인덱스를 사용한다",
+                        t -> t.productQueryRepository.findSummariesByCategoryId(t.keyboards.getId()),
+                        "PRODUCT"),
+                QueryCase.indexed("비싼 상품 상위 N개는 price 인덱스 순서대로 읽는다",
+                        t -> t.productQueryRepository.findTopExpensiveProducts(10),
+                        "PRODUCT"),
+                QueryCase.drivingScan("재고 부족 상품 조회는 product 만 스캔한다",
+                        t -> t.productQueryRepository.findProductsNeedingRestock(10),
+                        "stock 은 주문마다 바뀌는 컬럼이라 인덱스를 두면 모든 재고 차감이 인덱스까지 고쳐야 한다"),
+                QueryCase.drivingScan("상품별 판매 통계는 rollup 만 스캔하고 상품은 PK 로 찾는다",
+                        t -> t.productQueryRepository.findProductSalesSummary(),
+                        "전체 기간 상품별 합계라 rollup 전체를 읽어야 한다"),
+                QueryCase.indexed("재고 잠금 조회는 product PK 로 찾는다",
+                        t -> t.productQueryRepository.findStockForUpdate(t.keyboard.getId()),
+                        "PRODUCT"),
+                QueryCase.indexed("재고 조건부 차감은 product PK 로 찾는다",
+                        t -> t.productQueryRepository.decreaseStockIfAvailable(t.keyboard.getId(), 1),
+                        "PRODUCT"),
+                QueryCase.indexed("재고 복구는 product PK 로 찾는다",
+                        t -> t.productQueryRepository.increaseStock(t.keyboard.getId(), 1),
+                        "PRODUCT"),
+                QueryCase.indexed("여러 상품 재고 일괄 차감은 product PK 로 찾는다",
+                        t -> t.productQueryRepository.decreaseStocksIfAvailable(
+                                Map.of(t.keyboard.getId(), 1, t.mouse.getId(), 2)),
+                        "PRODUCT"),
+
+                // PurchaseQueryRepository
+                QueryCase.drivingScan("주문 + 사용자 + 상품 fetch join 은 드라이빙 테이블만 스캔한다",
+                        t -> t.purchaseQueryRepository.findAllWithUserAndProduct(),
+                        "조건 없는 전체 목록이라 드라이빙 테이블 전체 스캔이 불가피하다"),
+                QueryCase.indexed("사용자별 주문 검색은 purchase 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.searchPurchaseDetails(
+                                PurchaseSearchCondition.builder().userId(t.buyer.getId()).build()),
+                        "PURCHASE"),
+                QueryCase.indexed("상품별 주문 스트리밍 export 는 purchase 인덱스를 사용한다",
+                        t -> {
+                            try (Stream<PurchaseDetailDto> rows = t.purchaseQueryRepository.streamPurchaseDetails(
+                                    PurchaseSearchCondition.builder().productId(t.keyboard.getId()).build(), 100)) {
+                                rows.count();
+                            }
+                        },
+                        "PURCHASE"),
+                QueryCase.indexed("상태 + 기간 주문 페이지 조회와 count 는 purchase 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.searchPurchaseDetails(
+                                PurchaseSearchCondition.builder()
+                                        .status(PurchaseStatus.COMPLETED)
+                                        .purchasedAfter(t.since)
+                                        .build(),
+                                PageRequest.of(0, 20)),
+                        "PURCHASE"),
+                QueryCase.indexed("상태 + 기간 주문 keyset 조회와 CAPPED count 는 purchase 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.searchPurchaseDetails(
+                                PurchaseSearchCondition.builder()
+                                        .status(PurchaseStatus.COMPLETED)
+                                        .purchasedAfter(t.since)
+                                        .build(),
+                                new KeysetCursor(t.purchase.getPurchasedAt(), t.purchase.getId()).encode(),
+                                20, CountMode.CAPPED),
+                        "PURCHASE"),
+                QueryCase.indexed("상품별 주문 상태 집계는 rollup 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.countByStatus(
+                                PurchaseSearchCondition.builder().productId(t.keyboard.getId()).build()),
+                        "PURCHASE_DAILY_ROLLUP"),
+                QueryCase.indexed("사용자별 주문 상태 집계는 purchase 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.countByStatus(
+                                PurchaseSearchCondition.builder().userId(t.buyer.getId()).build()),
+                        "PURCHASE"),
+                QueryCase.indexed("기간 일자별 리포트는 rollup 의 (sales_date, ...) 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.summarizeDaily(t.today.minusDays(30), t.today),
+                        "PURCHASE_DAILY_ROLLUP"),
+                QueryCase.indexed("rollup 재계산용 하루치 집계는 purchase 인덱스를 사용한다",
+                        t -> t.purchaseQueryRepository.aggregateDayFromPurchases(t.today),
+                        "PURCHASE", "PRODUCT"),
+
+                // UserQueryRepository
+                QueryCase.indexed("가입일 기간 사용자 조회는 user 인덱스를 사용한다",
+                        t -> t.userQueryRepository.findByCondition(
+                                UserSearchCondition.builder().createdAfter(t.since).build()),
+                        "USER"),
+                QueryCase.indexed("가입일 + 최소 주문 수 사용자 페이지 조회는 user/purchase 인덱스를 사용한다",
+                        t -> t.userQueryRepository.findByCondition(
+                                UserSearchCondition.builder().createdAfter(t.since).minPurchaseCount(1).build(),
+                                PageRequest.of(0, 20)),
+                        "USER", "PURCHASE"),
+                QueryCase.drivingScan("사용자별 주문 요약은 user 만 스캔하고 주문은 user_id 인덱스로 찾는다",
+                        t -> t.userQueryRepository.summarizePurchases(),
+                        "전체 사용자 대상 집계라 user 전체 스캔이 불가피하다"),
+                QueryCase.indexed("최근 주문 활성 사용자는 purchase 인덱스를 사용한다",
+                        t -> t.userQueryRepository.findActiveUsers(t.since, 10),
+                        "PURCHASE"),
+
+                // RefundQueryRepository
+                QueryCase.drivingScan("환불 + 주문 + 사용자 + 상품 fetch join 은 드라이빙 테이블만 스캔한다",
+                        t -> t.refundQueryRepository.findAllWithRelations(),
+                        "조건 없는 전체 목록이라 드라이빙 테이블 전체 스캔이 불가피하다"),
+                QueryCase.indexed("사용자별 환불 상세는 purchase/refund 인덱스를 사용한다",
+                        t -> t.refundQueryRepository.searchRefundDetails(
+                                RefundSearchCondition.builder().userId(t.buyer.getId()).build()),
+                        "PURCHASE", "REFUND"),
+                QueryCase.indexed("상태별 환불 집계는 refund 인덱스를 사용한다",
+                        t -> t.refundQueryRepository.countByStatus(
+                                RefundSearchCondition.builder().status(RefundStatus.REQUESTED).build()),
+                        "REFUND"),
+
+                // practice
+                QueryCase.drivingScan("카테고리별 주문 수 실습 쿼리는 드라이빙 테이블만 스캔한다",
+                        t -> t.categoryOrderQueryRepository.findCategoryOrderCounts(),
+                        "전체 주문 대상 집계라 드라이빙 테이블 전체 스캔이 불가피하다"),
+                QueryCase.drivingScan("카테고리 이름으로 상품 조회 실습 쿼리는 category 만 스캔한다",
+                        t -> t.categoryProductQueryRepository.findCategoryProducts(t.keyboards.getName()),
+                        "category.name 은 인덱스가 없고 카테고리 테이블은 작다"),
+                QueryCase.indexed("이름 + 가격 범위 상품 검색 실습 쿼리는 price 인덱스를 사용한다",
+                        t -> t.productSearchPracticeRepository.searchProducts(
+                                "키보드", BigDecimal.valueOf(50_000), BigDecimal.valueOf(100_000)),
+                        "PRODUCT")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    @DisplayName("QueryRepository 쿼리는 실제 바인드 값의 실행 계획에서 인덱스를 사용하거나, 선언한 드라이빙 테이블 하나만 스캔한다")
+    void query_usesIndexOrDeclaredScan(QueryCase queryCase) throws Throwable {
+        queryCase.query().accept(this);
+
+        assertThat(STATEMENTS).as("%s: 실행된 SQL", queryCase).isNotEmpty();
+        for (Captured captured : STATEMENTS) {
+            String plan = explain(captured);
+            String description = String.format("%s%nSQL: %s%nBIND: %s%nPLAN: %s",
+                    queryCase, captured.sql(), captured.values(), plan);
+            if (queryCase.scanReason() == null) {
+                for (String table : queryCase.indexedTables()) {
+                    assertThat(plan).as(description).doesNotContain("." + table + ".tableScan");
+                }
+            } else {
+                assertThat(plan.split("\\.tableScan", -1).length - 1)
+                        .as("%s%n스캔 허용 이유: %s", description, queryCase.scanReason())
+                        .isLessThanOrEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("repository 패키지의 모든 @Repository 클래스의 public 메서드가 queries() 케이스로 실행된다")
+    void everyQueryMethod_hasCase() throws Throwable {
+        INVOKED.clear();
+        for (QueryCase queryCase : queries().toList()) {
+            queryCase.query().accept(this);
+        }
+
+        assertThat(INVOKED).containsAll(publicQueryMethods());
+    }
+
+    private Set<String> publicQueryMethods() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Repository.class));
+        Set<String> signatures = new HashSet<>();
+        for (BeanDefinition candidate : scanner.findCandidateComponents(QueryIndexAdvisorTest.class.getPackageName())) {
+            Class<?> type = ClassUtils.forName(candidate.getBeanClassName(), getClass().getClassLoader());
+            Arrays.stream(type.getDeclaredMethods())
+                    .filter(method -> Modifier.isPublic(method.getModifiers()) && !method.isSynthetic())
+                    .forEach(method -> signatures.add(signature(type, method.getName(), method.getParameterTypes())));
+        }
+        assertThat(signatures).isNotEmpty();
+        return signatures;
+    }
+
+    private String explain(Captured captured) throws Throwable {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + captured.sql())) {
+            for (Bind bind : captured.binds()) {
+                invoke(statement, bind.method(), bind.args());
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    plan.append(resultSet.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private static String signature(Class<?> type, String name, Class<?>[] parameterTypes) {
+        return type.getSimpleName() + "#" + name + Arrays.stream(parameterTypes)
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(", ", "(", ")"));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private record QueryCase(String name,
+                             ThrowingConsumer<QueryIndexAdvisorTest> query,
+                             List<String> indexedTables,
+                             String scanReason) {
+
+        static QueryCase indexed(String name, ThrowingConsumer<QueryIndexAdvisorTest> query, String... tables) {
+            return new QueryCase(name, query, List.of(tables), null);
+        }
+
+        static QueryCase drivingScan(String name, ThrowingConsumer<QueryIndexAdvisorTest> query, String reason) {
+            return new QueryCase(name, query, List.of(), reason);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private record Bind(Method method, Object[] args) {
+    }
+
+    private record Captured(String sql, List<Bind> binds) {
+
+        List<Object> values() {
+            return binds.stream().map(bind -> bind.args()[1]).toList();
+        }
+    }
+
+    /**
+     * DataSource 를 감싸 select/update/delete PreparedStatement 의 SQL 과 set* 호출을 기록한다.
+     * 문장을 준비할 때 호출 스택의 @Repository 메서드를 함께 기록해 커버리지 확인에 쓴다.
+     */
+    @TestConfiguration
+    static class BindCaptureConfig {
+
+        @Bean
+        static BeanPostProcessor bindCapturingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource target && !(bean instanceof DelegatingDataSource)) {
+                        return new DelegatingDataSource(target) {
+                            @Override
+                            public Connection getConnection() throws SQLException {
+                                return capture(super.getConnection());
+                            }
+
+                            @Override
+                            public Connection getConnection(String username, String password) throws SQLException {
+                                return capture(super.getConnection(username, password));
+                            }
+                        };
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static Connection capture(Connection connection) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && isCaptured((String) args[0])) {
+                    recordCallers();
+                    return capture((PreparedStatement) result, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private static PreparedStatement capture(PreparedStatement statement, String sql) {
+            Map<Integer, Bind> binds = new TreeMap<>();
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2
+                        && method.getParameterTypes()[0] == int.class) {
+                    binds.put((Integer) args[0], new Bind(method, args.clone()));
+                } else if (name.equals("clearParameters")) {
+                    binds.clear();
+                } else if (name.startsWith("execute")) {
+                    STATEMENTS.add(new Captured(sql, List.copyOf(binds.values())));
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private static boolean isCaptured(String sql) {
+            String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return normalized.startsWith("select") || normalized.startsWith("update") || normalized.startsWith("delete");
+        }
+
+        private static void recordCallers() {
+            STACK_WALKER.forEach(frame -> {
+                Class<?> type = frame.getDeclaringClass();
+                if (type.isAnnotationPresent(Repository.class)) {
+                    INVOKED.add(signature(type, frame.getMethodName(), frame.getMethodType().parameterArray()));
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(QueryIndexAdvisorTest.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().equals("equals") && args != null && args.length == 1) {
+                    return proxy == args[0];
+                }
+                if (method.getName().equals("hashCode") && args == null) {
+                    return System.identityHashCode(proxy);
+                }
+                return handler.invoke(proxy, method, args);
+            });
+        }
+    }
+}
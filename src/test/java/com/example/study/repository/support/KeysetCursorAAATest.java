@@ -0,0 +1,57 @@
+package com.example.study.repository.support;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorAAATest {
+
+    @Test
+    @DisplayName("[AAA] 인코딩한 커서를 디코딩하면 나노초까지 같은 (시각, id) 가 나오고, URL 에 그대로 쓸 수 있다")
+    void encode_decode_roundTrip() {
+        // Arrange
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2025, 3, 9, 23, 59, 59, 123_456_789), 42L);
+
+        // Act
+        String token = cursor.encode();
+        KeysetCursor decoded = KeysetCursor.decode(token);
+
+        // Assert
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    @DisplayName("[AAA] 비어 있는 커서는 첫 페이지(null)이다")
+    void decode_blank_firstPage() {
+        // Act & Assert
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("  ")).isNull();
+    }
+
+    @Test
+    @DisplayName("[AAA] base64 가 아니거나 구분자/시각/id 가 잘못된 커서는 IllegalArgumentException(invalid cursor) 이다")
+    void decode_malformed_throws() {
+        // Arrange
+        String notBase64 = "not a cursor!";
+        String noDelimiter = encodeRaw("2025-03-09T10:00");
+        String badTimestamp = encodeRaw("yesterday|1");
+        String badId = encodeRaw("2025-03-09T10:00|abc");
+
+        // Act & Assert
+        for (String token : new String[]{notBase64, noDelimiter, badTimestamp, badId}) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessage("invalid cursor");
+        }
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
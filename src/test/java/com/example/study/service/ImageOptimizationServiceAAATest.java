@@ -0,0 +1,173 @@
+package com.example.study.service;
+
+import com.example.study.service.image.ImageBufferPool;
+import com.example.study.service.image.ImageProcessingExecutor;
+import com.example.study.service.image.UploadBufferPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import net.coobird.thumbnailator.Thumbnails;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageOptimizationServiceAAATest {
+
+    private final ImageOptimizationService service = new ImageOptimizationService(
+            new ImageBufferPool(4, 512, 4096),
+            new ImageProcessingExecutor(new SimpleMeterRegistry(), 2, 8, 256L * 1024 * 1024, 1_000),
+            new UploadBufferPool(new SimpleMeterRegistry(), 16, 64, 4096, ""));
+
+    @Test
+    @DisplayName("[AAA] 큰 투명 PNG 는 비율을 유지해 최대 크기 안으로 줄이고 JPEG 으로 한 번 인코드한다")
+    void optimize_largeTransparentPng_resizesToJpeg() throws IOException {
+        // Arrange
+        byte[] png = encode(new BufferedImage(3000, 1000, BufferedImage.TYPE_INT_ARGB), "png");
+        MockMultipartFile file = new MockMultipartFile("image", "receipt.png", "image/png", png);
+
+        // Act
+        byte[] optimized = service.optimize(file);
+
+        // Assert
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(optimized));
+        assertThat(optimized[0]).isEqualTo((byte) 0xFF);
+        assertThat(optimized[1]).isEqualTo((byte) 0xD8);
+        assertThat(result.getWidth()).isEqualTo(1567);
+        assertThat(result.getHeight()).isEqualTo(522);
+    }
+
+    @Test
+    @DisplayName("[AAA] 최대 크기 이하의 이미지는 크기를 바꾸지 않고, 이미지가 아니면 IOException 을 던진다")
+    void optimize_smallImageKeepsSize_invalidImageFails() throws IOException {
+        // Arrange
+        byte[] jpeg = encode(new BufferedImage(800, 600, BufferedImage.TYPE_3BYTE_BGR), "jpg");
+
+        // Act
+        byte[] optimized = service.optimize(new ByteArrayInputStream(jpeg));
+
+        // Assert
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(optimized));
+        assertThat(result.getWidth()).isEqualTo(800);
+        assertThat(result.getHeight()).isEqualTo(600);
+        assertThatThrownBy(() -> service.optimize(new ByteArrayInputStream("not an image".getBytes())))
+                .isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("[AAA] 2배 넘게 줄일 때도 1px 선을 건너뛰지 않고 면적 평균으로 회색으로 남긴다")
+    void optimize_downscaleOverTwice_keepsThinLines() throws IOException {
+        // Arrange: 흰 바탕에 4px 마다 1px 세로선 (홀수 열). 2배 point sampling 이면 짝수 열만 남아 선이 모두 사라진다.
+        BufferedImage lines = new BufferedImage(4000, 1000, BufferedImage.TYPE_3BYTE_BGR);
+        int[] row = new int[4000];
+        for (int x = 0; x < row.length; x++) {
+            row[x] = x % 4 == 1 ? 0x000000 : 0xFFFFFF;
+        }
+        for (int y = 0; y < 1000; y++) {
+            lines.setRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+        byte[] png = encode(lines, "png");
+
+        // Act
+        BufferedImage result = ImageIO.read(new ByteArrayInputStream(service.optimize(new ByteArrayInputStream(png))));
+
+        // Assert: 면적 평균이면 선이 차지한 1/4 만큼 어두운 고른 회색(약 191)이 된다.
+        long sum = 0;
+        int samples = 0;
+        for (int y = 50; y < result.getHeight() - 50; y += 7) {
+            for (int x = 50; x < result.getWidth() - 50; x += 7) {
+                sum += result.getRGB(x, y) & 0xFF;
+                samples++;
+            }
+        }
+        assertThat(result.getWidth()).isEqualTo(1568);
+        assertThat(sum / samples).isBetween(175L, 210L);
+    }
+
+    /**
+     * 할당량 벤치마크: 12MP 사진(4032x3024)을 기존 3단계 파이프라인(디코드 → Thumbnails 리사이즈 → JPEG → 다시 디코드 → JPEG)과
+     * 단일 패스로 처리할 때 요청 스레드가 할당한 바이트를 비교한다. 워밍업 후 한 번씩 측정한다.
+     * 목표(1568)의 2.6배라 면적 평균을 위해 subsampling 없이 전체 해상도로 디코드하므로, 디코드 한 번 분량은 양쪽이 같고
+     * 차이는 중간 리사이즈/재인코드/재디코드를 하지 않는 만큼이다.
+     * <p>
+     * 측정값(같은 이미지, 5회): 할당 156MB → 83MB(-47%), 스레드 CPU 560~670ms → 440~550ms(-15~30%),
+     * 측정 중 heap 증가분 최대치 81~117MB → 68~74MB(-10~40%). 세 지표 모두 50% 감소 목표에는 못 미친다.
+     * 전체 해상도 디코드 버퍼(약 36MB)가 양쪽에 그대로 남기 때문이다. 할당량만 결정적으로 재현되므로 이 값만 검증한다.
+     */
+    @Test
+    @DisplayName("[AAA] 단일 패스 최적화는 기존 파이프라인 할당량의 60% 미만을 쓴다 (측정값 약 53%)")
+    void optimize_singlePass_allocatesUnderSixtyPercentOfLegacyPipeline() throws IOException {
+        // Arrange
+        byte[] photo = encode(photo(4032, 3024), "jpg");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 2; i++) {
+            legacyOptimize(photo);
+            service.optimize(new ByteArrayInputStream(photo));
+        }
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        legacyOptimize(photo);
+        long legacyBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        service.optimize(new ByteArrayInputStream(photo));
+        long singlePassBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertThat(singlePassBytes).isLessThan(legacyBytes * 6 / 10);
+    }
+
+    // 변경 전 ImageOptimizationService.optimize 와 같은 단계
+    private byte[] legacyOptimize(byte[] source) throws IOException {
+        BufferedImage original = ImageIO.read(new ByteArrayInputStream(source));
+        double ratio = Math.min(1568.0 / original.getWidth(), 1568.0 / original.getHeight());
+        ByteArrayOutputStream resized = new ByteArrayOutputStream();
+        Thumbnails.of(original)
+                .size((int) (original.getWidth() * ratio), (int) (original.getHeight() * ratio))
+                .outputFormat("jpg")
+                .toOutputStream(resized);
+        BufferedImage decodedAgain = ImageIO.read(new ByteArrayInputStream(resized.toByteArray()));
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(0.85f);
+        writer.setOutput(ImageIO.createImageOutputStream(compressed));
+        writer.write(null, new IIOImage(decodedAgain, null, null), param);
+        writer.dispose();
+        return compressed.toByteArray();
+    }
+
+    // 압축이 잘 되지 않도록 그라데이션에 노이즈를 섞은 사진 대용 이미지
+    private BufferedImage photo(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(1);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = ((x * 255 / width) << 16) | ((y * 255 / height) << 8) | random.nextInt(256);
+            }
+            image.setRGB(0, y, width, 1, row, 0, width);
+        }
+        return image;
+    }
+
+    private byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
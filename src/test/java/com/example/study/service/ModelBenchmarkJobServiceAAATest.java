@@ -0,0 +1,107 @@
+package com.example.study.service;
+
+import com.example.study.common.ServiceException;
+import com.example.study.common.TooManyRequestsException;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.dto.ModelBenchmarkJob;
+import com.example.study.service.dto.ModelBenchmarkReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ModelBenchmarkJobServiceAAATest {
+
+    private static final List<String> PROMPTS = List.of("질문 1", "질문 2");
+
+    @Mock
+    private ModelComparisonService modelComparisonService;
+
+    private AiExecutor aiExecutor;
+    private ModelBenchmarkJobService jobService;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        // 벤치마크는 한 번에 하나, 200ms 안에 끝나야 한다.
+        aiExecutor = new AiExecutor(new SimpleMeterRegistry(), 2, 2, 8, Map.of(ModelBenchmarkJobService.ENDPOINT, 1),
+                Duration.ofSeconds(30), Map.of(ModelBenchmarkJobService.ENDPOINT, Duration.ofMillis(200)));
+        jobService = new ModelBenchmarkJobService(modelComparisonService, aiExecutor, Duration.ofMinutes(10));
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        aiExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 벤치마크를 시작하면 끝나기를 기다리지 않고 RUNNING 작업을 돌려주고, 끝나면 조회 결과에 report 가 담긴다")
+    void submit_returnsRunningJobAndExposesReportWhenDone() throws InterruptedException {
+        // Arrange
+        ModelBenchmarkReport report = new ModelBenchmarkReport(2, 3, 1_500, List.of());
+        when(modelComparisonService.benchmark(PROMPTS, 3)).thenAnswer(invocation -> {
+            release.await();
+            return report;
+        });
+
+        // Act
+        ModelBenchmarkJob submitted = jobService.submit(PROMPTS, 3);
+        ModelBenchmarkJob whileRunning = jobService.getJob(submitted.jobId());
+        release.countDown();
+
+        // Assert
+        assertThat(submitted.status()).isEqualTo(ModelBenchmarkJob.Status.RUNNING);
+        assertThat(whileRunning.status()).isEqualTo(ModelBenchmarkJob.Status.RUNNING);
+        ModelBenchmarkJob done = awaitFinished(submitted.jobId());
+        assertThat(done.status()).isEqualTo(ModelBenchmarkJob.Status.COMPLETED);
+        assertThat(done.report()).isEqualTo(report);
+        assertThat(done.finishedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("[AAA] 실행 시간 상한을 넘긴 작업은 FAILED 로 남고, 실행 중에 같은 작업을 더 시작하면 429 로 거절한다")
+    void submit_failsOnDeadlineAndRejectsOverLimit() throws InterruptedException {
+        // Arrange
+        when(modelComparisonService.benchmark(anyList(), anyInt())).thenAnswer(invocation -> {
+            release.await();
+            return null;
+        });
+
+        // Act
+        ModelBenchmarkJob submitted = jobService.submit(PROMPTS, 1);
+
+        // Assert
+        assertThatThrownBy(() -> jobService.submit(PROMPTS, 1)).isInstanceOf(TooManyRequestsException.class);
+        ModelBenchmarkJob failed = awaitFinished(submitted.jobId());
+        assertThat(failed.status()).isEqualTo(ModelBenchmarkJob.Status.FAILED);
+        assertThat(failed.error()).isNotBlank();
+        assertThatThrownBy(() -> jobService.getJob("unknown")).isInstanceOf(ServiceException.class);
+    }
+
+    private ModelBenchmarkJob awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+        ModelBenchmarkJob job = jobService.getJob(jobId);
+        while (job.status() == ModelBenchmarkJob.Status.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(jobId);
+        }
+        return job;
+    }
+}
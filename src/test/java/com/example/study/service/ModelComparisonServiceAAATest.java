@@ -0,0 +1,135 @@
+package com.example.study.service;
+
+import com.example.study.service.conversation.TokenEstimator;
+import com.example.study.service.dto.ModelBenchmarkReport;
+import com.example.study.service.dto.ModelBenchmarkSummary;
+import com.example.study.service.dto.ModelComparisonResult;
+import com.example.study.service.dto.ModelRunResult;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ModelComparisonServiceAAATest {
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+
+    @Test
+    @DisplayName("[AAA] 모든 모델을 동시에 호출해 비교 시간은 가장 느린 모델 수준이고, 모델별 TTFT 와 사용량을 돌려준다")
+    void compareModels_fansOutConcurrently() {
+        // Arrange: 첫 토큰 300ms + 청크 3개(50ms 간격)인 stub 두 개와 실패하는 stub 하나
+        ModelComparisonService service = new ModelComparisonService(List.of(
+                target("local", new StubChatModel(300, 50, List.of("안녕", "하세", "요"))),
+                target("cloud", new StubChatModel(300, 50, List.of("Hello", ",", " world"))),
+                target("broken", new FailingChatModel())
+        ), tokenEstimator, Duration.ofSeconds(5));
+
+        // Act
+        ModelComparisonResult result = service.compareModels("인사해 주세요");
+
+        // Assert: 순차 실행이면 900ms 이상 걸린다.
+        assertThat(result.wallClockMs()).isLessThan(800);
+        assertThat(result.runs()).extracting(ModelRunResult::name).containsExactly("local", "cloud", "broken");
+
+        ModelRunResult local = result.runs().get(0);
+        assertThat(local.success()).isTrue();
+        assertThat(local.response()).isEqualTo("안녕하세요");
+        assertThat(local.timeToFirstTokenMs()).isBetween(300L, local.latencyMs());
+        assertThat(local.latencyMs()).isGreaterThanOrEqualTo(400);
+        assertThat(local.completionTokens()).isEqualTo(3);
+        assertThat(local.usageEstimated()).isFalse();
+        assertThat(local.tokensPerSecond()).isPositive();
+
+        ModelRunResult broken = result.runs().get(2);
+        assertThat(broken.success()).isFalse();
+        assertThat(broken.error()).contains("model server down");
+    }
+
+    @Test
+    @DisplayName("[AAA] 벤치마크는 프롬프트 x 반복 횟수만큼 실행하고 모델별 지연 백분위를 집계한다")
+    void benchmark_aggregatesPerModel() {
+        // Arrange: 첫 토큰 지연이 다른 두 모델
+        ModelComparisonService service = new ModelComparisonService(List.of(
+                target("fast", new StubChatModel(20, 5, List.of("a", "b", "c", "d"))),
+                target("slow", new StubChatModel(120, 20, List.of("a", "b", "c", "d")))
+        ), tokenEstimator, Duration.ofSeconds(5));
+
+        // Act
+        ModelBenchmarkReport report = service.benchmark(List.of("질문 1", "질문 2"), 2);
+
+        // Assert
+        assertThat(report.models()).hasSize(2);
+        ModelBenchmarkSummary fast = report.models().get(0);
+        ModelBenchmarkSummary slow = report.models().get(1);
+        assertThat(fast.runs()).isEqualTo(4);
+        assertThat(fast.failures()).isZero();
+        assertThat(fast.totalCompletionTokens()).isEqualTo(16);
+        assertThat(fast.p50TimeToFirstTokenMs()).isLessThan(slow.p50TimeToFirstTokenMs());
+        assertThat(fast.p95LatencyMs()).isLessThan(slow.p50LatencyMs());
+        assertThat(report.models()).allSatisfy(summary -> assertThat(summary.meanTokensPerSecond()).isPositive());
+    }
+
+    private ModelComparisonService.Target target(String name, ChatModel chatModel) {
+        return new ModelComparisonService.Target(name, name + "-model", ChatClient.builder(chatModel).build());
+    }
+
+    /**
+     * 로컬 모델 서버 대신 쓰는 stub. 첫 청크까지 firstTokenMillis, 이후 청크마다 chunkMillis 만큼 늦게 보내고
+     * 마지막에 사용량만 담은 청크를 보낸다. (Ollama 스트림과 같은 형태)
+     */
+    private static class StubChatModel implements ChatModel {
+
+        private final long firstTokenMillis;
+        private final long chunkMillis;
+        private final List<String> chunks;
+
+        StubChatModel(long firstTokenMillis, long chunkMillis, List<String> chunks) {
+            this.firstTokenMillis = firstTokenMillis;
+            this.chunkMillis = chunkMillis;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException("stream only");
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            Flux<ChatResponse> body = Flux.fromIterable(chunks)
+                    .delayElements(Duration.ofMillis(chunkMillis))
+                    .map(chunk -> new ChatResponse(List.of(new Generation(new AssistantMessage(chunk)))));
+            ChatResponse usage = new ChatResponse(
+                    List.of(new Generation(new AssistantMessage(""))),
+                    ChatResponseMetadata.builder().usage(new DefaultUsage(5, chunks.size())).build());
+            return Mono.delay(Duration.ofMillis(Math.max(0, firstTokenMillis - chunkMillis)))
+                    .thenMany(body)
+                    .concatWithValues(usage);
+        }
+    }
+
+    private static class FailingChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            throw new UnsupportedOperationException("stream only");
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.error(new IllegalStateException("model server down"));
+        }
+    }
+}
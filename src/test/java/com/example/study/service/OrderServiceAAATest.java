@@ -12,6 +12,7 @@ import com.example.study.repository.PurchaseRepository; // 구매 리포지토
 import com.example.study.repository.UserJpaRepository; // 사용자 리포지토리 Mock 생성을 위한 임포트
 import com.example.study.service.dto.OrderCreateServiceDto; // 주문 생성 입력 DTO 임포트
 import com.example.study.service.dto.OrderResultDto; // 주문 결과 DTO 임포트
+import com.example.study.service.inventory.StockReservationService; // 재고 선점 서비스 Mock 생성을 위한 임포트
 import java.math.BigDecimal; // 금액 계산용 BigDecimal 임포트
 import java.time.LocalDateTime; // 주문 시간값 설정용 임포트
 import java.util.Optional; // Optional 사용을 위한 임포트
@@ -22,11 +23,13 @@ import org.mockito.ArgumentCaptor; // 인자 캡처를 위한 ArgumentCaptor 임
 import org.mockito.InjectMocks; // @InjectMocks 어노테이션 임포트
 import org.mockito.Mock; // @Mock 어노테이션 임포트
 import org.mockito.junit.jupiter.MockitoExtension; // Mockito 확장 임포트
+import org.springframework.context.ApplicationEventPublisher; // 이벤트 발행기 Mock 생성을 위한 임포트
 import org.springframework.test.util.ReflectionTestUtils; // 필드 주입을 위한 ReflectionTestUtils 임포트
 
 import static org.assertj.core.api.Assertions.assertThat; // AssertJ 단언 메서드 임포트
 import static org.assertj.core.api.Assertions.assertThatThrownBy; // 예외 단언 메서드 임포트
 import static org.mockito.ArgumentMatchers.any; // any 매처 임포트
+import static org.mockito.Mockito.doThrow; // 예외 스텁 메서드 임포트
 import static org.mockito.Mockito.never; // never 검증 임포트
 import static org.mockito.Mockito.verify; // verify 호출 임포트
 import static org.mockito.Mockito.when; // when 스텁 메서드 임포트
@@ -41,6 +44,10 @@ class OrderServiceAAATest { // OrderService AAA 테스트 클래스 선언
     private ProductRepository productRepository; // ProductRepository Mock 필드
     @Mock
     private UserJpaRepository userJpaRepository; // UserJpaRepository Mock 필드
+    @Mock
+    private StockReservationService stockReservationService; // StockReservationService Mock 필드
+    @Mock
+    private ApplicationEventPublisher eventPublisher; // ApplicationEventPublisher Mock 필드
     @InjectMocks
     private OrderService orderService; // 테스트 대상 OrderService 인스턴스
 
@@ -98,7 +105,7 @@ class OrderServiceAAATest { // OrderService AAA 테스트 클래스 선언
         // Assert: 재고 감소, 응답 값, save 인자를 검증한다.
         ArgumentCaptor<Purchase> captor = ArgumentCaptor.forClass(Purchase.class); // ArgumentCaptor 생성
         verify(purchaseRepository).save(captor.capture()); // save가 호출되고 인자를 캡처했는지 검증
-        assertThat(product.getStock()).isEqualTo(16); // 재고가 16으로 감소했는지 확인
+        verify(stockReservationService).reserve(product, 4); // 재고 선점 서비스에 차감을 위임했는지 확인
         assertThat(result.getStatus()).isEqualTo(PurchaseStatus.PENDING); // 응답 상태가 PENDING인지 확인
         assertThat(captor.getValue().getTotalPrice()).isEqualTo(saved.getTotalPrice()); // 저장된 총 금액 검증
     }
@@ -113,6 +120,8 @@ class OrderServiceAAATest { // OrderService AAA 테스트 클래스 선언
                 .build(); // DTO 빌더 완료
         when(userJpaRepository.findById(100L)).thenReturn(Optional.of(user)); // 사용자 조회 Stubbing
         when(productRepository.findById(200L)).thenReturn(Optional.of(product)); // 상품 조회 Stubbing
+        doThrow(new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK)) // 재고 선점 실패 Stubbing
+                .when(stockReservationService).reserve(product, 99); // 과다 수량 선점 시 예외 발생
 
         // Act & Assert: 예외 메시지, save 미호출, 재고 유지 확인
         assertThatThrownBy(() -> orderService.createOrder(input)) // 서비스 호출 시 예외 발생 여부 확인
@@ -12,20 +12,28 @@ import com.example.study.repository.PurchaseRepository;
 import com.example.study.repository.UserJpaRepository;
 import com.example.study.service.dto.OrderCreateServiceDto;
 import com.example.study.service.dto.OrderResultDto;
+import com.example.study.service.inventory.StockReservationService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +48,10 @@ class OrderServiceGWTTest {
     private ProductRepository productRepository;
     @Mock
     private UserJpaRepository userJpaRepository;
+    @Mock
+    private StockReservationService stockReservationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private OrderService orderService;
 
@@ -95,7 +107,7 @@ class OrderServiceGWTTest {
         OrderResultDto result = orderService.createOrder(input);
 
         // Then: 재고/응답/호출 여부를 검증한다.
-        assertThat(product.getStock()).isEqualTo(15);
+        verify(stockReservationService).reserve(product, 5);
         assertThat(result.getQuantity()).isEqualTo(5);
         assertThat(result.getTotalPrice()).isEqualByComparingTo(saved.getTotalPrice());
         verify(purchaseRepository).save(any(Purchase.class));
@@ -119,4 +131,45 @@ class OrderServiceGWTTest {
         assertThat(product.getStock()).isEqualTo(20);
         verify(purchaseRepository, never()).save(any(Purchase.class));
     }
+
+    @Test
+    void givenBatchOfOrders_whenCreateOrders_thenValidatesOnceAndReservesPerProduct() {
+        // Given: 같은 사용자/상품의 주문 두 건과 일괄 저장 결과를 세팅
+        List<OrderCreateServiceDto> inputs = List.of(
+                OrderCreateServiceDto.builder().userId(100L).productId(200L).quantity(2).build(),
+                OrderCreateServiceDto.builder().userId(100L).productId(200L).quantity(3).build()
+        );
+        when(userJpaRepository.findAllById(Set.of(100L))).thenReturn(List.of(user));
+        when(productRepository.findAllById(Set.of(200L))).thenReturn(List.of(product));
+        when(purchaseRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When: 일괄 주문을 생성한다.
+        List<OrderResultDto> results = orderService.createOrders(inputs);
+
+        // Then: 상품별 수량을 합쳐 한 번에 선점하고, 일괄 저장/flush 한다.
+        verify(stockReservationService).reserveAll(Map.of(product, 5));
+        verify(purchaseRepository).saveAll(anyList());
+        verify(purchaseRepository).flush();
+        verify(stockReservationService, never()).reserve(any(Product.class), anyInt());
+        assertThat(results).hasSize(2);
+        assertThat(results).extracting(OrderResultDto::getQuantity).containsExactly(2, 3);
+    }
+
+    @Test
+    void givenUnknownProductInBatch_whenCreateOrders_thenThrowsWithoutReserving() {
+        // Given: 존재하지 않는 상품이 섞인 일괄 주문
+        List<OrderCreateServiceDto> inputs = List.of(
+                OrderCreateServiceDto.builder().userId(100L).productId(200L).quantity(1).build(),
+                OrderCreateServiceDto.builder().userId(100L).productId(999L).quantity(1).build()
+        );
+        when(userJpaRepository.findAllById(Set.of(100L))).thenReturn(List.of(user));
+        when(productRepository.findAllById(anyIterable())).thenReturn(List.of(product));
+
+        // When & Then: NOT_FOUND_PRODUCT 예외가 발생하고 재고/저장은 건드리지 않는다.
+        assertThatThrownBy(() -> orderService.createOrders(inputs))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining(ServiceExceptionCode.NOT_FOUND_PRODUCT.getMessage());
+        verify(stockReservationService, never()).reserveAll(any());
+        verify(purchaseRepository, never()).saveAll(anyList());
+    }
 }
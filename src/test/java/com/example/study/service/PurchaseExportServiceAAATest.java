@@ -0,0 +1,202 @@
+package com.example.study.service;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.repository.PurchaseQueryRepository;
+import com.example.study.repository.projection.PurchaseDetailDto;
+import com.example.study.service.dto.ExportFormat;
+import com.example.study.service.dto.PurchaseSearchCondition;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PurchaseExportServiceAAATest {
+
+    private static final int FETCH_SIZE = 500;
+    private static final LocalDateTime PURCHASED_AT = LocalDateTime.of(2025, 3, 9, 12, 30, 15);
+
+    @Mock
+    private PurchaseQueryRepository purchaseQueryRepository;
+
+    private ObjectMapper objectMapper;
+    private PurchaseExportService purchaseExportService;
+    private PurchaseSearchCondition condition;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        purchaseExportService = new PurchaseExportService(purchaseQueryRepository, objectMapper, FETCH_SIZE);
+        condition = PurchaseSearchCondition.builder().userId(7L).build();
+    }
+
+    @Test
+    @DisplayName("[AAA] CSV export 는 헤더 한 줄 + 행마다 한 줄을 쓰고, 쉼표/따옴표/줄바꿈이 든 값은 따옴표로 감싸 이스케이프한다")
+    void export_csv_writesHeaderAndEscapedRows() throws IOException {
+        // Arrange
+        List<PurchaseDetailDto> rows = List.of(
+                row(1L, "홍길동", "키보드"),
+                row(2L, "Kim, \"Jr\"", "마우스\n패드"));
+        when(purchaseQueryRepository.streamPurchaseDetails(condition, FETCH_SIZE)).thenReturn(rows.stream());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = purchaseExportService.export(condition, ExportFormat.CSV, out);
+
+        // Assert
+        assertThat(written).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+                "purchaseId,userId,username,productId,productName,quantity,unitPrice,totalPrice,status,purchasedAt\n"
+                        + "1,7,홍길동,3,키보드,2,1500.00,3000.00,COMPLETED,2025-03-09T12:30:15\n"
+                        + "2,7,\"Kim, \"\"Jr\"\"\",3,\"마우스\n패드\",2,1500.00,3000.00,COMPLETED,2025-03-09T12:30:15\n");
+    }
+
+    @Test
+    @DisplayName("[AAA] NDJSON export 는 행마다 JSON 객체 한 줄을 쓰고, 배열 괄호나 구분 쉼표 없이 줄바꿈으로만 구분한다")
+    void export_ndjson_writesOneObjectPerLine() throws IOException {
+        // Arrange
+        when(purchaseQueryRepository.streamPurchaseDetails(condition, FETCH_SIZE))
+                .thenReturn(Stream.of(row(1L, "홍길동", "키보드"), row(2L, "김철수", "마우스")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long written = purchaseExportService.export(condition, ExportFormat.NDJSON, out);
+
+        // Assert
+        String body = out.toString(StandardCharsets.UTF_8);
+        String[] lines = body.split("\n", -1);
+        assertThat(written).isEqualTo(2);
+        assertThat(body).endsWith("\n").doesNotStartWith("[");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[1]).startsWith("{");
+        assertThat(lines[2]).isEmpty();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertThat(first.get("purchaseId").asLong()).isEqualTo(1L);
+        assertThat(first.get("username").asText()).isEqualTo("홍길동");
+        assertThat(first.get("totalPrice").decimalValue()).isEqualByComparingTo("3000");
+        assertThat(first.get("status").asText()).isEqualTo("COMPLETED");
+        assertThat(first.get("purchasedAt").asText()).isEqualTo("2025-03-09T12:30:15");
+        assertThat(second.get("productName").asText()).isEqualTo("마우스");
+    }
+
+    @Test
+    @DisplayName("[AAA] export 는 커서 Stream 을 다 읽기 전에 출력으로 흘려보내되 행마다 쓰지 않고 버퍼 단위로 쓰며, 끝나면 Stream 을 닫는다")
+    void export_largeResult_writesWhileReadingAndClosesStream() throws IOException {
+        // Arrange
+        long total = 20_000;
+        AtomicLong produced = new AtomicLong();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<PurchaseDetailDto> rows = LongStream.rangeClosed(1, total)
+                .mapToObj(id -> {
+                    produced.incrementAndGet();
+                    return row(id, "사용자" + id, "상품" + id);
+                })
+                .onClose(() -> closed.set(true));
+        when(purchaseQueryRepository.streamPurchaseDetails(any(), eq(FETCH_SIZE))).thenReturn(rows);
+        AtomicLong producedAtFirstWrite = new AtomicLong(-1);
+        CountingOutputStream out = new CountingOutputStream(() -> producedAtFirstWrite.compareAndSet(-1, produced.get()));
+
+        // Act
+        long written = purchaseExportService.export(condition, ExportFormat.NDJSON, out);
+
+        // Assert
+        assertThat(written).isEqualTo(total);
+        assertThat(out.lines).isEqualTo(total);
+        assertThat(out.writes).isLessThan(total / 10);
+        assertThat(producedAtFirstWrite.get()).isBetween(1L, total - 1);
+        assertThat(closed).isTrue();
+        verify(purchaseQueryRepository).streamPurchaseDetails(condition, FETCH_SIZE);
+    }
+
+    @Test
+    @DisplayName("[AAA] 클라이언트가 다운로드를 끊어 쓰기가 실패하면 IOException 을 그대로 던지고 커서 Stream 을 닫는다")
+    void export_clientAborts_rethrowsIOExceptionAndClosesStream() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<PurchaseDetailDto> rows = LongStream.rangeClosed(1, 5_000)
+                .mapToObj(id -> row(id, "사용자", "상품"))
+                .onClose(() -> closed.set(true));
+        when(purchaseQueryRepository.streamPurchaseDetails(condition, FETCH_SIZE)).thenReturn(rows);
+        OutputStream out = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        // Act & Assert
+        assertThatThrownBy(() -> purchaseExportService.export(condition, ExportFormat.CSV, out))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+        assertThat(closed).isTrue();
+    }
+
+    private static PurchaseDetailDto row(long purchaseId, String username, String productName) {
+        return new PurchaseDetailDto(purchaseId, 7L, username, 3L, productName, 2,
+                new BigDecimal("1500.00"), new BigDecimal("3000.00"), PurchaseStatus.COMPLETED, PURCHASED_AT);
+    }
+
+    /**
+     * 기록된 줄 수와 쓰기 호출 수만 세고 내용은 버리는 출력. 기록될 때마다 onWrite 를 호출한다.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+
+        private final Runnable onWrite;
+        private long lines;
+        private long writes;
+
+        private CountingOutputStream(Runnable onWrite) {
+            this.onWrite = onWrite;
+        }
+
+        @Override
+        public void write(int b) {
+            onWrite.run();
+            writes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            onWrite.run();
+            writes++;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
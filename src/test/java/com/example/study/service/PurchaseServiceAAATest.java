@@ -13,6 +13,7 @@ import com.example.study.entity.User;
 import com.example.study.repository.ProductRepository;
 import com.example.study.repository.PurchaseRepository;
 import com.example.study.repository.UserJpaRepository;
+import com.example.study.service.inventory.StockReservationService;
 import java.math.BigDecimal;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,10 +23,12 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -41,6 +44,10 @@ class PurchaseServiceAAATest {
     private ProductRepository productRepository;
     @Mock
     private UserJpaRepository userJpaRepository;
+    @Mock
+    private StockReservationService stockReservationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     // Mock이 주입된 서비스 인스턴스를 생성한다.
     @InjectMocks
@@ -99,7 +106,7 @@ class PurchaseServiceAAATest {
         // Assert: save 인자, 재고 감소, 응답 필드를 검증한다.
         ArgumentCaptor<Purchase> purchaseCaptor = ArgumentCaptor.forClass(Purchase.class);
         verify(purchaseRepository).save(purchaseCaptor.capture());
-        assertThat(product.getStock()).isEqualTo(7);
+        verify(stockReservationService).reserve(product, 3);
         assertThat(response.getStatus()).isEqualTo(PurchaseStatus.COMPLETED);
         assertThat(response.getQuantity()).isEqualTo(3);
         assertThat(purchaseCaptor.getValue().getTotalPrice())
@@ -117,6 +124,8 @@ class PurchaseServiceAAATest {
                 .build();
         when(userJpaRepository.findById(request.getUserId())).thenReturn(Optional.of(user));
         when(productRepository.findById(request.getProductId())).thenReturn(Optional.of(product));
+        doThrow(new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK))
+                .when(stockReservationService).reserve(product, 11);
 
         // Act & Assert: 예외 메시지와 save 호출 여부를 검증한다.
         assertThatThrownBy(() -> purchaseService.placePurchase(request))
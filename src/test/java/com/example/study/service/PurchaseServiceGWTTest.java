@@ -12,6 +12,7 @@ import com.example.study.entity.User;
 import com.example.study.repository.ProductRepository;
 import com.example.study.repository.PurchaseRepository;
 import com.example.study.repository.UserJpaRepository;
+import com.example.study.service.inventory.StockReservationService;
 import java.math.BigDecimal;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
@@ -20,10 +21,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,6 +41,10 @@ class PurchaseServiceGWTTest {
     private ProductRepository productRepository;
     @Mock
     private UserJpaRepository userJpaRepository;
+    @Mock
+    private StockReservationService stockReservationService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private PurchaseService purchaseService;
 
@@ -88,7 +95,7 @@ class PurchaseServiceGWTTest {
         PurchaseResponse response = purchaseService.placePurchase(request);
 
         // Then: 재고 감소와 응답 필드를 검증한다.
-        assertThat(product.getStock()).isEqualTo(8);
+        verify(stockReservationService).reserve(product, 2);
         assertThat(response.getQuantity()).isEqualTo(2);
         assertThat(response.getTotalPrice()).isEqualByComparingTo(savedPurchase.getTotalPrice());
         verify(purchaseRepository).save(any(Purchase.class));
@@ -104,6 +111,8 @@ class PurchaseServiceGWTTest {
                 .build();
         when(userJpaRepository.findById(request.getUserId())).thenReturn(Optional.of(user));
         when(productRepository.findById(request.getProductId())).thenReturn(Optional.of(product));
+        doThrow(new ServiceException(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK))
+                .when(stockReservationService).reserve(product, 99);
 
         // When & Then: ServiceException 발생과 save 미호출을 확인한다.
         assertThatThrownBy(() -> purchaseService.placePurchase(request))
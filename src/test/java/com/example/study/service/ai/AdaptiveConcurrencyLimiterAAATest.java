@@ -0,0 +1,72 @@
+package com.example.study.service.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AdaptiveConcurrencyLimiterAAATest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // limit 4 (1~8), BULK 는 절반, 기준 지연의 2배를 넘으면 0.9 배로 줄인다.
+        limiter = new AdaptiveConcurrencyLimiter("ollama", meterRegistry, 4, 1, 8, 0.5, 2.0, 0.9);
+    }
+
+    @Test
+    @DisplayName("[AAA] BULK 는 한도의 절반까지만 들어오고, 남은 자리는 INTERACTIVE 가 쓴다")
+    void tryAcquire_bulkUsesOnlyItsShare() {
+        // Arrange: BULK 두 건이 실행 중이다.
+        limiter.tryAcquire(AiPriority.BULK).orElseThrow();
+        limiter.tryAcquire(AiPriority.BULK).orElseThrow();
+
+        // Act
+        boolean thirdBulk = limiter.tryAcquire(AiPriority.BULK).isPresent();
+        boolean firstInteractive = limiter.tryAcquire(AiPriority.INTERACTIVE).isPresent();
+        boolean secondInteractive = limiter.tryAcquire(AiPriority.INTERACTIVE).isPresent();
+        boolean thirdInteractive = limiter.tryAcquire(AiPriority.INTERACTIVE).isPresent();
+
+        // Assert: 한도 4 를 넘는 요청은 기다리지 않고 거절된다.
+        assertThat(thirdBulk).isFalse();
+        assertThat(firstInteractive).isTrue();
+        assertThat(secondInteractive).isTrue();
+        assertThat(thirdInteractive).isFalse();
+        assertThat(limiter.inFlight()).isEqualTo(4);
+        assertThat(meterRegistry.get("ai.limiter.requests")
+                .tags("backend", "ollama", "priority", "BULK", "result", "rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 한도가 찬 상태의 빠른 응답은 limit 을 올리고, 느린 응답과 실패는 곱셈으로 줄인다")
+    void release_adjustsLimitByObservedLatency() {
+        // Arrange: 한도만큼 동시에 실행 중이다.
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            permits.add(limiter.tryAcquire(AiPriority.INTERACTIVE).orElseThrow());
+        }
+
+        // Act & Assert: 100ms → 기준 지연, +1/limit
+        permits.get(3).onSuccess(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(limiter.limit()).isCloseTo(4.25, within(1e-9));
+
+        // 500ms → 기준(≈104ms)의 2배 초과, x0.9
+        permits.get(2).onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(limiter.limit()).isCloseTo(3.825, within(1e-9));
+
+        // 실패 → x0.9, 같은 permit 을 두 번 반납해도 한 번만 반영된다.
+        permits.get(1).onDropped();
+        permits.get(1).onDropped();
+        assertThat(limiter.limit()).isCloseTo(3.4425, within(1e-9));
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+}
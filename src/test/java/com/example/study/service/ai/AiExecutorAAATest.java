@@ -0,0 +1,135 @@
+package com.example.study.service.ai;
+
+import com.example.study.common.GatewayTimeoutException;
+import com.example.study.common.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AiExecutorAAATest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private AiExecutor aiExecutor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 스레드 1개 + 대기열 1칸, vision 은 endpoint 상한 1, slow 는 제한 시간 200ms
+        aiExecutor = new AiExecutor(meterRegistry, 1, 1, 8, Map.of("vision", 1),
+                Duration.ofSeconds(30), Map.of("slow", Duration.ofMillis(200)));
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        aiExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] endpoint 상한을 넘은 요청은 대기하지 않고 바로 429 로 실패한다")
+    void submit_endpointLimitReached_failsFast() {
+        // Arrange: vision 요청 하나가 실행 중이다.
+        CompletableFuture<String> running = aiExecutor.submit("vision", this::blockUntilReleased);
+
+        // Act
+        CompletableFuture<String> rejected = aiExecutor.submit("vision", () -> "second");
+
+        // Assert: 두 번째 요청은 즉시 실패하고, 다른 endpoint 는 영향받지 않는다.
+        assertThat(rejected).isCompletedExceptionally();
+        assertThatThrownBy(rejected::get).hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(aiExecutor.submit("chat", () -> "queued")).isNotDone();
+        assertThat(meterRegistry.get("ai.executor.rejected")
+                .tag("endpoint", "vision").tag("reason", "endpoint-limit").counter().count()).isEqualTo(1);
+        assertThat(running).isNotDone();
+    }
+
+    @Test
+    @DisplayName("[AAA] 전체 대기열이 가득 차면 거절하고, 작업이 끝나면 endpoint 허용량을 돌려준다")
+    void submit_queueFull_rejectsAndReleasesPermits() throws Exception {
+        // Arrange: 스레드 1개는 실행 중, 대기열 1칸은 채워진 상태
+        CompletableFuture<String> running = aiExecutor.submit("chat", this::blockUntilReleased);
+        CompletableFuture<String> queued = aiExecutor.submit("chat", () -> "queued");
+
+        // Act
+        CompletableFuture<String> rejected = aiExecutor.submit("chat", () -> "rejected");
+
+        // Assert
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(aiExecutor.queueDepth()).isEqualTo(1);
+        assertThat(meterRegistry.get("ai.executor.endpoint.inflight").tag("endpoint", "chat").gauge().value())
+                .isEqualTo(2);
+
+        release.countDown();
+        assertThat(running.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(queued.get(1, TimeUnit.SECONDS)).isEqualTo("queued");
+        assertThat(meterRegistry.get("ai.executor.endpoint.inflight").tag("endpoint", "chat").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] 제한 시간을 넘긴 작업은 504 예외로 끝나고, 실행 중인 스레드를 interrupt 해 실행기와 endpoint 허용량을 돌려준다")
+    void submit_timeoutExceeded_failsAndInterruptsTask() throws Exception {
+        // Arrange
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        // Act
+        CompletableFuture<String> slow = aiExecutor.submit("slow", () -> {
+            try {
+                Thread.sleep(10_000);
+                return "late";
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        });
+
+        // Assert
+        assertThatThrownBy(() -> slow.get(2, TimeUnit.SECONDS)).hasCauseInstanceOf(GatewayTimeoutException.class);
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(aiExecutor.submit("slow", () -> "next").get(1, TimeUnit.SECONDS)).isEqualTo("next");
+        assertThat(meterRegistry.get("ai.executor.endpoint.inflight").tag("endpoint", "slow").gauge().value())
+                .isZero();
+        assertThat(meterRegistry.get("ai.executor.timeouts")
+                .tag("endpoint", "slow").tag("stage", "task").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] DeferredResult 는 endpoint 제한 시간을 쓰고, 작업 예외는 CompletionException 을 벗겨 전달한다")
+    void defer_usesEndpointTimeoutAndUnwrapsErrors() {
+        // Arrange
+        CompletableFuture<String> failed = CompletableFuture.supplyAsync(() -> {
+            throw new IllegalArgumentException("bad request");
+        });
+
+        // Act
+        DeferredResult<String> slow = aiExecutor.defer("slow", () -> "ok");
+        DeferredResult<String> other = aiExecutor.defer("chat", new CompletableFuture<>());
+        DeferredResult<String> error = aiExecutor.defer("chat", failed);
+        failed.exceptionally(e -> null).join();
+
+        // Assert
+        // getTimeoutValue() 는 패키지 밖에 공개되지 않는다.
+        assertThat((Long) ReflectionTestUtils.invokeMethod(slow, "getTimeoutValue")).isEqualTo(200L);
+        assertThat((Long) ReflectionTestUtils.invokeMethod(other, "getTimeoutValue")).isEqualTo(30_000L);
+        assertThat(error.getResult()).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String blockUntilReleased() throws InterruptedException {
+        release.await(5, TimeUnit.SECONDS);
+        return "done";
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.study.service.ai;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.UncheckedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.retry.NonTransientAiException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitAdvisorAAATest {
+
+    @Mock
+    private CallAdvisorChain chain;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdaptiveConcurrencyLimiter limiter;
+    private ConcurrencyLimitAdvisor advisor;
+    private ChatClientRequest request;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new AdaptiveConcurrencyLimiter("ollama", meterRegistry, 4, 1, 8, 0.5, 2.0, 0.9);
+        advisor = new ConcurrencyLimitAdvisor("ollama", limiter);
+        request = ChatClientRequest.builder().prompt(new Prompt("질문")).build();
+    }
+
+    @Test
+    @DisplayName("[AAA] 긴 응답은 전체 지연이 아니라 출력 토큰당 지연을 기록하고, 출력 토큰이 적은 응답은 표본으로 쓰지 않고 반납만 한다")
+    void adviseCall_recordsLatencyPerCompletionToken() {
+        // Arrange: 200 토큰을 40ms 넘게 걸려 생성한다.
+        when(chain.nextCall(any())).thenAnswer(invocation -> {
+            Thread.sleep(40);
+            return response(200);
+        }).thenReturn(response(5));
+
+        // Act
+        advisor.adviseCall(request, chain);
+        advisor.adviseCall(request, chain);
+
+        // Assert: 표본은 첫 호출 하나이고, 전체 지연(40ms 이상)보다 훨씬 작은 토큰당 지연이다.
+        Timer latency = meterRegistry.get("ai.limiter.latency").tag("backend", "ollama").timer();
+        assertThat(latency.count()).isEqualTo(1);
+        assertThat(latency.totalTime(TimeUnit.MILLISECONDS)).isLessThan(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] 시간 초과·5xx·429 는 과부하로 보고, 요청 오류(4xx)나 응답 처리 예외는 과부하로 보지 않는다")
+    void isOverload_classifiesBackendFailures() {
+        // Arrange
+        List<Throwable> overload = List.of(
+                new TimeoutException(),
+                new UncheckedIOException(new SocketTimeoutException("Read timed out")),
+                new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE),
+                new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS),
+                new TransientAiException("503 - overloaded"),
+                new NonTransientAiException("429 - rate limited"));
+        List<Throwable> notOverload = List.of(
+                new HttpClientErrorException(HttpStatus.BAD_REQUEST),
+                new NonTransientAiException("400 - invalid request"),
+                new IllegalArgumentException("프롬프트가 비어 있습니다"),
+                new IllegalStateException("응답을 파싱할 수 없습니다"));
+
+        // Act & Assert
+        assertThat(overload).allMatch(ConcurrencyLimitAdvisor::isOverload);
+        assertThat(notOverload).noneMatch(ConcurrencyLimitAdvisor::isOverload);
+    }
+
+    @Test
+    @DisplayName("[AAA] 과부하 실패는 limit 을 곱셈으로 줄이고, 요청 오류는 limit 을 그대로 둔 채 반납한다")
+    void adviseCall_shrinksLimitOnlyOnOverload() {
+        // Arrange
+        when(chain.nextCall(any()))
+                .thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST))
+                .thenThrow(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+
+        // Act
+        assertThatThrownBy(() -> advisor.adviseCall(request, chain)).isInstanceOf(HttpClientErrorException.class);
+        double afterClientError = limiter.limit();
+        assertThatThrownBy(() -> advisor.adviseCall(request, chain)).isInstanceOf(HttpServerErrorException.class);
+
+        // Assert
+        assertThat(afterClientError).isCloseTo(4.0, within(1e-9));
+        assertThat(limiter.limit()).isCloseTo(3.6, within(1e-9));
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] BULK 는 자기 몫이 차 있으면 거절되지 않고 자리가 날 때까지 기다렸다가 실행된다")
+    void adviseCall_bulkWaitsForPermit() throws Exception {
+        // Arrange: BULK 몫(4 x 0.5 = 2)이 모두 실행 중이고, 그중 하나가 150ms 뒤에 끝난다.
+        ConcurrencyLimitAdvisor waiting = new ConcurrencyLimitAdvisor("ollama", limiter, Duration.ofSeconds(5));
+        ChatClientRequest bulk = ChatClientRequest.builder()
+                .prompt(new Prompt("일괄"))
+                .context(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK)
+                .build();
+        AdaptiveConcurrencyLimiter.Permit first = limiter.tryAcquire(AiPriority.BULK).orElseThrow();
+        limiter.tryAcquire(AiPriority.BULK).orElseThrow();
+        when(chain.nextCall(any())).thenReturn(response(100));
+        CompletableFuture.delayedExecutor(150, TimeUnit.MILLISECONDS).execute(first::onIgnore);
+
+        // Act
+        long startedAt = System.nanoTime();
+        ChatClientResponse response = waiting.adviseCall(bulk, chain);
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+
+        // Assert: 거절(429) 없이 반납된 자리로 실행된다.
+        assertThat(response).isNotNull();
+        assertThat(waitedMillis).isGreaterThanOrEqualTo(100);
+        assertThat(meterRegistry.get("ai.limiter.requests")
+                .tags("backend", "ollama", "priority", "BULK", "result", "rejected").counter().count()).isZero();
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    private static ChatClientResponse response(int completionTokens) {
+        ChatResponse chatResponse = new ChatResponse(
+                List.of(new Generation(new AssistantMessage("답변"))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(10, completionTokens)).build());
+        return ChatClientResponse.builder().chatResponse(chatResponse).build();
+    }
+}
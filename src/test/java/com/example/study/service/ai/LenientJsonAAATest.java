@@ -0,0 +1,157 @@
+package com.example.study.service.ai;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LenientJsonAAATest {
+
+    private final ObjectReader reader = new ObjectMapper()
+            .readerFor(Receipt.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    @Test
+    @DisplayName("[AAA] 코드 펜스와 머리말/꼬리말 사이의 첫 JSON 객체 구간을 찾고, 문자열 안의 괄호와 백틱은 건드리지 않는다")
+    void locateObject_fencedResponseWithNoise_findsBalancedObject() {
+        // Arrange
+        String json = "{\"storeName\": \"카페 {본점}\", \"memo\": \"`수기` \\\"}\\\" 포함\", \"items\": [{\"name\": \"라떼\"}]}";
+        String response = "결과는 {name} 형식입니다.\n```json\n" + json + "\n```\n더 필요하면 말씀하세요 }";
+
+        // Act
+        long span = LenientJson.locateObject(response);
+
+        // Assert
+        assertThat(response.substring(LenientJson.start(span), LenientJson.end(span))).isEqualTo(json);
+    }
+
+    @Test
+    @DisplayName("[AAA] 객체가 없거나 중간에 잘린 응답은 NOT_FOUND 이고, 읽으려 하면 JsonParseException 을 던진다")
+    void locateObject_missingOrTruncated_notFound() {
+        // Arrange
+        String prose = "죄송합니다. 영수증을 읽을 수 없습니다.";
+        String truncated = "```json\n{\"storeName\": \"편의점\", \"items\": [{\"name\": \"우유\"";
+
+        // Act
+        long proseSpan = LenientJson.locateObject(prose);
+        long truncatedSpan = LenientJson.locateObject(truncated);
+
+        // Assert
+        assertThat(proseSpan).isEqualTo(LenientJson.NOT_FOUND);
+        assertThat(truncatedSpan).isEqualTo(LenientJson.NOT_FOUND);
+        assertThatThrownBy(() -> LenientJson.read(reader, truncated)).isInstanceOf(JsonParseException.class);
+    }
+
+    @Test
+    @DisplayName("[AAA] 찾은 구간을 복사 없이 Jackson 스트리밍 파서로 읽어 타입으로 변환한다")
+    void read_fencedResponse_deserializesObject() throws IOException {
+        // Arrange
+        String response = receiptResponse(3);
+
+        // Act
+        Receipt receipt = LenientJson.read(reader, response);
+
+        // Assert
+        assertThat(receipt.storeName()).isEqualTo("GS25 역삼점");
+        assertThat(receipt.address()).isEqualTo("서울시 강남구 `테헤란로` 123");
+        assertThat(receipt.items()).hasSize(4);
+        assertThat(receipt.total()).isEqualTo(11000);
+    }
+
+    /**
+     * 할당량 벤치마크: 펜스와 머리말이 붙은 영수증 응답을 기존 cleanJsonResponse(정규식 2회 + replace + trim + substring)
+     * 후 readValue(String) 로 읽을 때와 LenientJson 으로 읽을 때 요청 스레드가 할당한 바이트를 비교한다.
+     * 워밍업 후 같은 횟수씩 측정한다. 로컬 측정치는 응답 하나(약 1.4KB)에 기존 약 38KB, LenientJson 약 6KB,
+     * 구간 찾기만은 0 바이트다.
+     */
+    @Test
+    @DisplayName("[AAA] LenientJson 은 구간 찾기에 할당이 없고, 읽기 전체로도 기존 정제 + 파싱보다 할당량이 1/4 미만이다")
+    void read_allocatesLessThanQuarterOfLegacyCleanup() throws IOException {
+        // Arrange
+        String response = receiptResponse(20);
+        int iterations = 2_000;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < iterations; i++) {
+            reader.readValue(legacyClean(response));
+            LenientJson.read(reader, response);
+            LenientJson.locateObject(response);
+        }
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            reader.readValue(legacyClean(response));
+        }
+        long legacyBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            LenientJson.read(reader, response);
+        }
+        long lenientBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        long spans = 0;
+        for (int i = 0; i < iterations; i++) {
+            spans += LenientJson.locateObject(response);
+        }
+        long locateBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertThat(spans).isNotZero();
+        assertThat(lenientBytes).isLessThan(legacyBytes / 4);
+        assertThat(locateBytes / iterations).isZero();
+    }
+
+    record Receipt(String storeName, String address, List<Item> items, long subtotal, long tax, long total) {
+    }
+
+    record Item(String name, int quantity, long price) {
+    }
+
+    // 변경 전 ReceiptAnalysisService.cleanJsonResponse 와 같은 단계
+    private static String legacyClean(String response) {
+        response = response.replaceAll("```json\\s*", "");
+        response = response.replaceAll("```\\s*", "");
+        response = response.replace("`", "");
+        response = response.trim();
+        return response.substring(response.indexOf("{"), response.lastIndexOf("}") + 1);
+    }
+
+    private static String receiptResponse(int items) {
+        StringBuilder response = new StringBuilder("""
+                영수증을 분석했습니다. 결과는 다음과 같습니다:
+
+                ```json
+                {
+                  "storeName": "GS25 역삼점",
+                  "address": "서울시 강남구 `테헤란로` 123",
+                  "items": [
+                """);
+        for (int i = 0; i < items; i++) {
+            response.append("    {\"name\": \"상품").append(i).append(" {특가}\", \"quantity\": ").append(i % 3 + 1)
+                    .append(", \"price\": ").append(1000 + i * 100).append("},\n");
+        }
+        response.append("""
+                    {"name": "봉투", "quantity": 1, "price": 100}
+                  ],
+                  "subtotal": 10000,
+                  "tax": 1000,
+                  "total": 11000
+                }
+                ```
+
+                추가로 궁금한 점이 있으면 알려주세요.
+                """);
+        return response.toString();
+    }
+}
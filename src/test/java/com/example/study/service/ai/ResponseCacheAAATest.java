@@ -0,0 +1,114 @@
+package com.example.study.service.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.embedding.EmbeddingModel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheAAATest {
+
+    private static final ChatOptions OPTIONS = ChatOptions.builder().model("qwen2.5:3b").temperature(0.7).build();
+
+    @Mock
+    private EmbeddingModel embeddingModel;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("[AAA] 같은 모델/옵션/system/user 는 두 번째부터 캐시에서 응답하고 절약한 토큰을 기록한다")
+    void lookup_samePrompt_hitsExactTier() {
+        // Arrange: 첫 요청은 miss 이고 모델 응답을 저장한다.
+        ResponseCache cache = new ResponseCache(meterRegistry, null, 10_000, Duration.ofMinutes(1), 100, 0.95);
+        PromptFingerprint first = PromptFingerprint.of(translatePrompt("안녕하세요", OPTIONS));
+        ResponseCache.Lookup miss = cache.lookup(first);
+        cache.put(miss, response("Hello"), 1_000_000L);
+
+        // Act: 같은 프롬프트와 온도만 다른 프롬프트를 조회한다.
+        ResponseCache.Lookup hit = cache.lookup(PromptFingerprint.of(translatePrompt("안녕하세요", OPTIONS)));
+        ResponseCache.Lookup otherOptions = cache.lookup(PromptFingerprint.of(
+                translatePrompt("안녕하세요", ChatOptions.builder().model("qwen2.5:3b").temperature(0.1).build())));
+
+        // Assert
+        assertThat(miss.hit()).isFalse();
+        assertThat(hit.hit()).isTrue();
+        assertThat(hit.response().getResult().getOutput().getText()).isEqualTo("Hello");
+        assertThat(otherOptions.hit()).isFalse();
+        assertThat(meterRegistry.get("ai.response.cache.requests").tag("result", "hit").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("ai.response.cache.saved.tokens").counter().count()).isEqualTo(30);
+        assertThat(meterRegistry.get("ai.response.cache.hit.ratio").gauge().value()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    @DisplayName("[AAA] 의미 계층은 같은 scope 에서 충분히 유사한 질문에만 응답을 재사용한다")
+    void lookup_similarQuestion_hitsSemanticTier() {
+        // Arrange: 두 질문은 거의 같은 방향, 세 번째 질문은 다른 방향의 임베딩을 갖는다.
+        ResponseCache cache = new ResponseCache(meterRegistry, embeddingModel, 10_000, Duration.ofMinutes(1), 100, 0.95);
+        when(embeddingModel.embed("배송은 얼마나 걸리나요?")).thenReturn(new float[]{1f, 0f, 0f});
+        when(embeddingModel.embed("배송 기간이 얼마나 걸리나요?")).thenReturn(new float[]{0.99f, 0.05f, 0f});
+        when(embeddingModel.embed("환불은 어떻게 하나요?")).thenReturn(new float[]{0f, 1f, 0f});
+        ResponseCache.Lookup miss = cache.lookup(PromptFingerprint.of(faqPrompt("배송은 얼마나 걸리나요?")));
+        cache.put(miss, response("2~3일 걸립니다."), 1_000_000L);
+
+        // Act
+        ResponseCache.Lookup similar = cache.lookup(PromptFingerprint.of(faqPrompt("배송 기간이 얼마나 걸리나요?")));
+        ResponseCache.Lookup different = cache.lookup(PromptFingerprint.of(faqPrompt("환불은 어떻게 하나요?")));
+
+        // Assert
+        assertThat(similar.hit()).isTrue();
+        assertThat(similar.response().getResult().getOutput().getText()).isEqualTo("2~3일 걸립니다.");
+        assertThat(different.hit()).isFalse();
+        assertThat(meterRegistry.get("ai.response.cache.requests").tag("result", "semantic_hit").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 마지막 메시지가 user 가 아니면 캐시 키를 만들지 않는다")
+    void fingerprint_uncacheablePrompt_returnsNull() {
+        // Arrange
+        Prompt endsWithAssistant = new Prompt(List.of(new UserMessage("질문"), new AssistantMessage("답변")), OPTIONS);
+
+        // Act & Assert
+        assertThat(PromptFingerprint.of(endsWithAssistant)).isNull();
+    }
+
+    private Prompt translatePrompt(String text, ChatOptions options) {
+        return new Prompt(List.of(
+                new SystemMessage("당신은 전문 번역가입니다."),
+                new UserMessage("다음 텍스트를 영어로 번역해주세요: " + text)), options);
+    }
+
+    private Prompt faqPrompt(String question) {
+        return new Prompt(List.of(new SystemMessage("쇼핑몰 고객센터입니다."), new UserMessage(question)), OPTIONS);
+    }
+
+    private ChatResponse response(String text) {
+        return new ChatResponse(
+                List.of(new Generation(new AssistantMessage(text))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(10, 20)).build());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.study.service.ai;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseCacheAdvisorAAATest {
+
+    @Mock
+    private CallAdvisorChain chain;
+
+    private ResponseCacheAdvisor advisor;
+
+    @BeforeEach
+    void setUp() {
+        ResponseCache cache = new ResponseCache(new SimpleMeterRegistry(), null, 10_000, Duration.ofMinutes(1), 100, 0.95);
+        advisor = new ResponseCacheAdvisor(cache);
+    }
+
+    @Test
+    @DisplayName("[AAA] 캐시 hit 응답은 usage 를 0 으로 돌려주고, 원래 응답의 입력 토큰을 절약분으로 표시한다")
+    void adviseCall_cacheHit_reportsZeroUsageAndSavedPromptTokens() {
+        // Arrange: 첫 호출은 모델까지 가서 입력 10, 출력 20 토큰을 쓴다.
+        when(chain.nextCall(any())).thenReturn(ChatClientResponse.builder().chatResponse(response("Hello")).build());
+        advisor.adviseCall(request(), chain);
+
+        // Act
+        ChatResponse hit = advisor.adviseCall(request(), chain).chatResponse();
+
+        // Assert
+        verify(chain, times(1)).nextCall(any());
+        assertThat(hit.getResult().getOutput().getText()).isEqualTo("Hello");
+        Usage usage = hit.getMetadata().getUsage();
+        assertThat(usage.getPromptTokens()).isZero();
+        assertThat(usage.getCompletionTokens()).isZero();
+        assertThat(usage.getTotalTokens()).isZero();
+        assertThat((Boolean) hit.getMetadata().get(ResponseCacheAdvisor.CACHE_HIT)).isTrue();
+        assertThat(ResponseCacheAdvisor.savedPromptTokens(hit)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("[AAA] 캐시 miss 응답은 모델 usage 를 그대로 돌려준다")
+    void adviseCall_cacheMiss_keepsModelUsage() {
+        // Arrange
+        when(chain.nextCall(any())).thenReturn(ChatClientResponse.builder().chatResponse(response("Hello")).build());
+
+        // Act
+        ChatResponse miss = advisor.adviseCall(request(), chain).chatResponse();
+
+        // Assert
+        assertThat(miss.getMetadata().getUsage().getTotalTokens()).isEqualTo(30);
+        assertThat(miss.getMetadata().containsKey(ResponseCacheAdvisor.CACHE_HIT)).isFalse();
+        assertThat(ResponseCacheAdvisor.savedPromptTokens(miss)).isZero();
+    }
+
+    private ChatClientRequest request() {
+        Prompt prompt = new Prompt(List.of(
+                new SystemMessage("당신은 전문 번역가입니다."),
+                new UserMessage("다음 텍스트를 영어로 번역해주세요: 안녕하세요")),
+                ChatOptions.builder().model("qwen2.5:3b").temperature(0.7).build());
+        return ChatClientRequest.builder().prompt(prompt).build();
+    }
+
+    private ChatResponse response(String text) {
+        return new ChatResponse(
+                List.of(new Generation(new AssistantMessage(text))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(10, 20)).build());
+    }
+}
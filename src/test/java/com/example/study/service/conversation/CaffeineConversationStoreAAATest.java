@@ -0,0 +1,138 @@
+package com.example.study.service.conversation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CaffeineConversationStoreAAATest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("[AAA] 같은 대화에 동시에 append 해도 메시지가 유실되지 않는다")
+    void append_concurrentOnSameConversation_keepsEveryMessage() throws InterruptedException {
+        // Arrange: 대화별 상한을 넉넉히 둔 저장소와 동시에 시작할 스레드를 준비한다.
+        CaffeineConversationStore store = newStore(1_000, 1_000_000, "");
+        int threads = 8;
+        int turnsPerThread = 50;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act: 여러 스레드가 같은 대화에 user/assistant 쌍을 추가한다.
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < turnsPerThread; j++) {
+                    store.append("c-1", new UserMessage("q"), new AssistantMessage("a"));
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Assert: 모든 쌍이 남아 있다.
+        assertThat(store.history("c-1")).hasSize(threads * turnsPerThread * 2);
+    }
+
+    @Test
+    @DisplayName("[AAA] 대화별 상한을 넘으면 오래된 메시지부터 버린다")
+    void append_overPerConversationCap_dropsOldest() {
+        // Arrange: 대화당 최근 4개 메시지만 유지하는 저장소
+        CaffeineConversationStore store = newStore(4, 1_000_000, "");
+
+        // Act: 세 번의 질문/응답을 저장한다.
+        for (int turn = 1; turn <= 3; turn++) {
+            store.append("c-1", new UserMessage("q" + turn), new AssistantMessage("a" + turn));
+        }
+
+        // Assert: 마지막 두 턴만 남는다.
+        assertThat(store.history("c-1")).extracting(Message::getText).containsExactly("q2", "a2", "q3", "a3");
+    }
+
+    @Test
+    @DisplayName("[AAA] 전체 용량을 넘어 밀려난 대화는 spill 파일에서 복원된다")
+    void append_overTotalWeight_spillsAndRestores(@TempDir Path spillDir) {
+        // Arrange: 대화 몇 개만 담을 수 있는 작은 저장소
+        CaffeineConversationStore store = newStore(10, 1_000, spillDir.toString());
+        String longText = "x".repeat(100);
+
+        // Act: 용량보다 많은 대화를 저장하고 eviction 을 끝까지 실행한다.
+        for (int i = 0; i < 20; i++) {
+            store.append("c-" + i, new UserMessage(longText + i), new AssistantMessage("a" + i));
+        }
+        long inMemory = store.estimatedSize();
+
+        // Assert: 메모리에는 일부만 남지만, 모든 대화가 그대로 조회된다.
+        assertThat(inMemory).isLessThan(20);
+        assertThat(meterRegistry.get("chat.conversations.spilled").counter().count()).isPositive();
+        for (int i = 0; i < 20; i++) {
+            List<Message> history = store.history("c-" + i);
+            assertThat(history).extracting(Message::getText).containsExactly(longText + i, "a" + i);
+        }
+    }
+
+    @Test
+    @DisplayName("[AAA] 밀려난 대화는 요청 스레드에서 파일로 쓰지 않고, 쓰기 전에 다시 조회하면 대기 중인 대화를 그대로 돌려준다")
+    void append_overTotalWeight_spillsOffCallerThread(@TempDir Path spillDir) throws IOException {
+        // Arrange: spill 작업을 바로 실행하지 않고 쌓아 두는 저장소
+        Queue<Runnable> spillTasks = new ConcurrentLinkedQueue<>();
+        CaffeineConversationStore store = new CaffeineConversationStore(new ObjectMapper(), meterRegistry, 60, 10, 1_000,
+                spillDir.toString(), spillTasks::add);
+        String longText = "x".repeat(100);
+
+        // Act: 용량보다 많은 대화를 저장하고, spill 작업을 실행하기 전에 첫 대화를 다시 조회한다.
+        for (int i = 0; i < 20; i++) {
+            store.append("c-" + i, new UserMessage(longText + i), new AssistantMessage("a" + i));
+        }
+        store.estimatedSize();
+        int queued = spillTasks.size();
+        long filesBeforeSpill = files(spillDir);
+        List<Message> restoredBeforeSpill = store.history("c-0");
+        store.estimatedSize();
+        for (Runnable task = spillTasks.poll(); task != null; task = spillTasks.poll()) {
+            task.run();
+        }
+
+        // Assert: 요청 스레드는 파일을 쓰지 않았고, 먼저 복원된 대화는 파일로 쓰지 않으며 나머지는 파일에서 복원된다.
+        assertThat(queued).isPositive();
+        assertThat(filesBeforeSpill).isZero();
+        assertThat(restoredBeforeSpill).extracting(Message::getText).containsExactly(longText + 0, "a0");
+        assertThat(meterRegistry.get("chat.conversations.spilled").counter().count()).isEqualTo(files(spillDir));
+        assertThat(meterRegistry.get("chat.conversations.spill.pending").gauge().value()).isZero();
+        for (int i = 1; i < 20; i++) {
+            assertThat(store.history("c-" + i)).extracting(Message::getText).containsExactly(longText + i, "a" + i);
+        }
+    }
+
+    private CaffeineConversationStore newStore(int maxMessages, long maxTotalChars, String spillDir) {
+        // spill 파일 쓰기를 호출 스레드에서 바로 실행해 결과를 바로 확인한다.
+        return new CaffeineConversationStore(new ObjectMapper(), meterRegistry, 60, maxMessages, maxTotalChars, spillDir,
+                Runnable::run);
+    }
+
+    private static long files(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.study.service.conversation;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationCompactorAAATest {
+
+    @Mock
+    private ConversationSummarizer summarizer;
+
+    private final TokenEstimator tokenEstimator = new TokenEstimator();
+    private ConversationCompactor compactor;
+
+    @BeforeEach
+    void setUp() {
+        // 한 턴(영문 400자 x 2) ≈ 208 토큰 → 예산 500 이면 최근 두 턴까지만 들어간다.
+        compactor = new ConversationCompactor(tokenEstimator, summarizer, 500, 1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 예산 안이면 히스토리를 그대로 보내고 요약하지 않는다")
+    void window_withinBudget_keepsWholeHistory() {
+        // Arrange: 짧은 대화 두 턴
+        List<Message> history = List.of(
+                new UserMessage("hi"), new AssistantMessage("hello"),
+                new UserMessage("how are you"), new AssistantMessage("fine"));
+
+        // Act
+        HistoryWindow window = compactor.window("c-1", history, "next");
+
+        // Assert
+        assertThat(window.messages()).isEqualTo(history);
+        assertThat(window.savedTokens()).isZero();
+        verify(summarizer, never()).requestSummary(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("[AAA] 예산을 넘으면 요약 + 최근 턴만 보내고, 밀려난 앞부분 요약을 예약한다")
+    void window_overBudget_keepsSummaryAndRecentTurns() {
+        // Arrange: 기존 요약 1건 + 긴 턴 5개
+        List<Message> history = new ArrayList<>();
+        history.add(new SystemMessage(ConversationSummarizer.SUMMARY_PREFIX + "user likes java"));
+        for (int turn = 0; turn < 5; turn++) {
+            history.add(new UserMessage("q".repeat(400)));
+            history.add(new AssistantMessage("a".repeat(400)));
+        }
+
+        // Act
+        HistoryWindow window = compactor.window("c-1", history, "next question");
+
+        // Assert: 요약 + 최근 두 턴(4개)만 남고, 요약 + 앞의 세 턴이 요약 대상으로 넘어간다.
+        assertThat(window.messages()).hasSize(5);
+        assertThat(window.messages().get(0)).isSameAs(history.get(0));
+        assertThat(window.messages().subList(1, 5)).isEqualTo(history.subList(7, 11));
+        assertThat(window.savedTokens()).isGreaterThan(600);
+        verify(summarizer).requestSummary("c-1", history.subList(0, 7));
+    }
+}
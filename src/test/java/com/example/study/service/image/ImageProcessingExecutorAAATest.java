@@ -0,0 +1,113 @@
+package com.example.study.service.image;
+
+import com.example.study.common.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageProcessingExecutorAAATest {
+
+    private static final long MB = 1024 * 1024;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ImageProcessingExecutor executor;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 스레드 2, 대기열 1, 메모리 예산 10MB, 예산 대기 200ms
+        executor = new ImageProcessingExecutor(meterRegistry, 2, 1, 10 * MB, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 추정 메모리가 예산 전체보다 크면 실행하지 않고 IllegalArgumentException 으로 실패한다")
+    void submit_estimateLargerThanBudget_failsImmediately() {
+        // Arrange & Act
+        CompletableFuture<String> future = executor.submit(11 * MB, () -> "never");
+
+        // Assert
+        assertThatThrownBy(future::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(rejected("too-large")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 예산을 다 빌린 작업이 실행 중이면 다음 작업은 예산을 기다리다 429 로 실패하고, 끝나면 예산이 돌아온다")
+    void submit_memoryBudgetExhausted_rejectsAfterAdmissionTimeout() throws InterruptedException {
+        // Arrange: 8MB 작업이 실행 중이다. 예산은 작업 스레드에서 빌리므로 실제로 빌릴 때까지 기다린다.
+        CompletableFuture<String> running = executor.submit(8 * MB, this::blockUntilReleased);
+        waitForAvailableMemoryKb((int) (2 * MB / 1024));
+
+        // Act: 남은 2MB 로는 4MB 작업을 시작할 수 없다.
+        CompletableFuture<String> waiting = executor.submit(4 * MB, () -> "late");
+
+        // Assert
+        assertThatThrownBy(waiting::join).hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(rejected("memory-budget")).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.join()).isEqualTo("done");
+        assertThat(executor.availableMemoryKb()).isEqualTo((int) (10 * MB / 1024));
+    }
+
+    @Test
+    @DisplayName("[AAA] 스레드와 대기열이 모두 차면 기다리지 않고 429 로 거절한다")
+    void submit_queueFull_rejectsImmediately() throws InterruptedException {
+        // Arrange: 스레드 2개가 실행 중이고 대기열 1칸이 찼다.
+        executor.submit(MB, this::blockUntilReleased);
+        executor.submit(MB, this::blockUntilReleased);
+        CompletableFuture<String> queued = executor.submit(MB, () -> "queued");
+        waitForQueueDepth(1);
+
+        // Act
+        CompletableFuture<String> overflow = executor.submit(MB, () -> "overflow");
+
+        // Assert
+        assertThat(overflow).isCompletedExceptionally();
+        assertThatThrownBy(overflow::join).hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(rejected("queue-full")).isEqualTo(1);
+
+        release.countDown();
+        assertThat(queued.join()).isEqualTo("queued");
+    }
+
+    private String blockUntilReleased() throws InterruptedException {
+        release.await(5, TimeUnit.SECONDS);
+        return "done";
+    }
+
+    private void waitForAvailableMemoryKb(int kb) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (executor.availableMemoryKb() > kb && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (executor.queueDepth() < depth && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("image.processing.rejected").tag("reason", reason).counter().count();
+    }
+}
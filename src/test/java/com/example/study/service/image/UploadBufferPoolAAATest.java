@@ -0,0 +1,182 @@
+package com.example.study.service.image;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UploadBufferPoolAAATest {
+
+    private static final int KB = 1024;
+
+    @TempDir
+    Path tempDir;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UploadBufferPool pool;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // 보관 16MB, 최소 버퍼 64KB, 4MB 를 넘으면 임시 파일로 매핑
+        pool = new UploadBufferPool(meterRegistry, 16, 64, 4096, tempDir.toString());
+    }
+
+    @Test
+    @DisplayName("[AAA] 크기를 아는 업로드는 크기 등급 버퍼에 담고, close 하면 풀로 돌아가 다음 업로드가 다시 쓴다")
+    void read_knownSize_reusesPooledBuffer() throws IOException {
+        // Arrange
+        byte[] content = bytes(300 * KB);
+
+        // Act
+        UploadBuffer first = pool.read(new ByteArrayInputStream(content), content.length, Long.MAX_VALUE);
+        long inUseWhileOpen = pool.inUseBytes();
+        byte[] read = first.toByteArray();
+        first.close();
+        first.close();
+        UploadBuffer second = pool.read(new ByteArrayInputStream(content), content.length, Long.MAX_VALUE);
+        second.close();
+
+        // Assert
+        assertThat(read).isEqualTo(content);
+        assertThat(first.mapped()).isFalse();
+        assertThat(inUseWhileOpen).isEqualTo(512 * KB);
+        assertThat(pool.inUseBytes()).isZero();
+        assertThat(pool.pooledBytes()).isEqualTo(512 * KB);
+        assertThat(acquired("allocated")).isEqualTo(1);
+        assertThat(acquired("pool")).isEqualTo(1);
+        assertThatThrownBy(first::toByteArray).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @DisplayName("[AAA] 크기를 모르는 입력이 임계값을 넘으면 임시 파일로 옮겨 매핑하고, close 하면 파일과 사용 중 버퍼가 모두 정리된다")
+    void read_unknownSizeOverThreshold_spillsToMappedFile() throws IOException {
+        // Arrange
+        byte[] content = bytes(6_000_000);
+
+        // Act
+        UploadBuffer upload = pool.read(new ByteArrayInputStream(content), -1, Long.MAX_VALUE);
+        boolean mapped = upload.mapped();
+        long mappedWhileOpen = pool.mappedBytes();
+        long inUseWhileOpen = pool.inUseBytes();
+        byte[] read = upload.toByteArray();
+        upload.close();
+
+        // Assert
+        assertThat(mapped).isTrue();
+        assertThat(read).isEqualTo(content);
+        assertThat(mappedWhileOpen).isEqualTo(content.length);
+        assertThat(inUseWhileOpen).isZero();
+        assertThat(pool.mappedBytes()).isZero();
+        assertThat(acquired("mapped")).isEqualTo(1);
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] 상한을 넘는 입력은 IllegalArgumentException 으로 거절하고, 빌린 버퍼와 임시 파일을 남기지 않는다")
+    void read_overLimit_rejectsAndReleases() throws IOException {
+        // Arrange
+        byte[] small = bytes(300 * KB);
+        byte[] large = bytes(6_000_000);
+
+        // Act & Assert
+        assertThatThrownBy(() -> pool.read(new ByteArrayInputStream(small), -1, 200 * KB))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> pool.read(new ByteArrayInputStream(large), -1, 5 * 1024 * KB))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("업로드 크기는 5MB를 초과할 수 없습니다");
+        assertThatThrownBy(() -> pool.read(new ByteArrayInputStream(large), large.length, 5 * 1024 * KB))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(pool.inUseBytes()).isZero();
+        assertThat(pool.mappedBytes()).isZero();
+        assertThat(tempFiles()).isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] 버퍼의 ImageInputStream 으로 헤더를 읽고 같은 내용을 복사 없이 디코드한다")
+    void imageInputStream_readsHeaderAndDecodes() throws IOException {
+        // Arrange
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        try (UploadBuffer upload = pool.read(new ByteArrayInputStream(png.toByteArray()), -1, Long.MAX_VALUE)) {
+            // Act
+            Optional<ImageHeader> header = ImageHeader.read(upload.imageInputStream());
+            BufferedImage decoded = ImageIO.read(upload.imageInputStream());
+
+            // Assert
+            assertThat(header).map(ImageHeader::width).contains(1200);
+            assertThat(header).map(ImageHeader::height).contains(800);
+            assertThat(decoded.getWidth()).isEqualTo(1200);
+        }
+    }
+
+    /**
+     * 할당량 벤치마크: 3MB 업로드를 readAllBytes 로 읽을 때와 워밍업된 풀로 읽을 때 요청 스레드가 heap 에 할당한 바이트를 비교한다.
+     * 로컬 측정치는 업로드 하나에 readAllBytes 약 3MB, 풀 약 8.5KB (채널/스트림 객체와 복사용 임시 배열)다.
+     */
+    @Test
+    @DisplayName("[AAA] 워밍업된 풀로 읽으면 readAllBytes 보다 heap 할당량이 1/50 미만이다")
+    void read_pooled_allocatesFarLessHeapThanReadAllBytes() throws IOException {
+        // Arrange
+        byte[] content = bytes(3 * 1024 * KB);
+        int iterations = 50;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < iterations; i++) {
+            new ByteArrayInputStream(content).readAllBytes();
+            pool.read(new ByteArrayInputStream(content), content.length, Long.MAX_VALUE).close();
+        }
+
+        // Act
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long total = 0;
+        for (int i = 0; i < iterations; i++) {
+            total += new ByteArrayInputStream(content).readAllBytes().length;
+        }
+        long legacyBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            try (UploadBuffer upload = pool.read(new ByteArrayInputStream(content), content.length, Long.MAX_VALUE)) {
+                total += upload.size();
+            }
+        }
+        long pooledBytes = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Assert
+        assertThat(total).isEqualTo(2L * iterations * content.length);
+        assertThat(pooledBytes).isLessThan(legacyBytes / 50);
+    }
+
+    private double acquired(String source) {
+        return meterRegistry.get("image.upload.buffer.acquired").tag("source", source).counter().count();
+    }
+
+    private long tempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.count();
+        }
+    }
+
+    private static byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
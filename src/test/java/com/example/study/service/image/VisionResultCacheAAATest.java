@@ -0,0 +1,233 @@
+package com.example.study.service.image;
+
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.dto.ImageAnalysis;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VisionResultCacheAAATest {
+
+    private static final String OCR = "이미지에 있는 모든 텍스트를 정확하게 추출해주세요.";
+    private static final String DESCRIBE = "이 이미지를 상세히 설명해주세요.";
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger modelCalls = new AtomicInteger();
+
+    @Test
+    @DisplayName("[AAA] SIMILAR 분석(설명/차트)은 재압축하거나 가장자리를 조금 자른 같은 이미지에 모델을 다시 부르지 않고, 절약한 토큰과 hit 비율을 알려준다")
+    void getOrAnalyze_similarMatch_nearDuplicateImage_hitsMemoryTier() throws IOException {
+        // Arrange
+        VisionResultCache cache = newCache("");
+        BufferedImage receipt = receipt(1);
+        cache.getOrAnalyze(similar(jpeg(receipt, 0.9f)), String.class, model("흰 바탕의 영수증"));
+
+        // Act
+        ImageAnalysisResponse<String> recompressed =
+                cache.getOrAnalyze(similar(jpeg(receipt, 0.5f)), String.class, model("다시 호출됨"));
+        ImageAnalysisResponse<String> cropped =
+                cache.getOrAnalyze(similar(jpeg(crop(receipt, 0.01), 0.85f)), String.class, model("다시 호출됨"));
+
+        // Assert
+        assertThat(modelCalls.get()).isEqualTo(1);
+        assertThat(recompressed.analysis()).isEqualTo("흰 바탕의 영수증");
+        assertThat(cropped.analysis()).isEqualTo("흰 바탕의 영수증");
+        assertThat(cropped.cache().hit()).isTrue();
+        assertThat(cropped.cache().tier()).isEqualTo("memory");
+        assertThat(cropped.cache().savedTokens()).isEqualTo(1300);
+        assertThat(cropped.tokenUsage().totalTokens()).isZero();
+        assertThat(cropped.tokenUsage().savedPromptTokens()).isEqualTo(1200);
+
+        VisionCacheStats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(2);
+        assertThat(stats.misses()).isEqualTo(1);
+        assertThat(stats.hitRatio()).isEqualTo(2.0 / 3);
+        assertThat(stats.savedTokens()).isEqualTo(2600);
+    }
+
+    @Test
+    @DisplayName("[AAA] OCR 처럼 글자를 읽는 분석은 바이트가 같은 이미지만 hit 하고, 재압축한 이미지나 다른 호출자의 요청은 모델을 다시 부른다")
+    void getOrAnalyze_exactMatch_hitsOnlyIdenticalBytesOfSameCaller() throws IOException {
+        // Arrange
+        VisionResultCache cache = newCache("");
+        BufferedImage receipt = receipt(1);
+        byte[] original = jpeg(receipt, 0.9f);
+        cache.getOrAnalyze(ImageAnalysis.of(OCR, original).forCaller("alice"), String.class, model("합계 11,000원"));
+
+        // Act
+        ImageAnalysisResponse<String> sameBytes = cache.getOrAnalyze(
+                ImageAnalysis.of(OCR, original.clone()).forCaller("alice"), String.class, model("다시 호출됨"));
+        ImageAnalysisResponse<String> recompressed = cache.getOrAnalyze(
+                ImageAnalysis.of(OCR, jpeg(receipt, 0.5f)).forCaller("alice"), String.class, model("합계 17,000원"));
+        ImageAnalysisResponse<String> otherCaller = cache.getOrAnalyze(
+                ImageAnalysis.of(OCR, original).forCaller("bob"), String.class, model("bob 의 결과"));
+
+        // Assert
+        assertThat(modelCalls.get()).isEqualTo(3);
+        assertThat(sameBytes.analysis()).isEqualTo("합계 11,000원");
+        assertThat(sameBytes.cache().hit()).isTrue();
+        assertThat(recompressed.analysis()).isEqualTo("합계 17,000원");
+        assertThat(recompressed.cache().hit()).isFalse();
+        assertThat(otherCaller.analysis()).isEqualTo("bob 의 결과");
+        assertThat(otherCaller.cache().hit()).isFalse();
+    }
+
+    @Test
+    @DisplayName("[AAA] 다른 영수증이나 같은 이미지의 다른 프롬프트/응답 타입은 캐시를 공유하지 않는다")
+    void getOrAnalyze_differentImageOrPrompt_misses() throws IOException {
+        // Arrange
+        VisionResultCache cache = newCache("");
+        byte[] first = jpeg(receipt(1), 0.9f);
+        cache.getOrAnalyze(ImageAnalysis.of(OCR, first), String.class, model("첫 번째"));
+
+        // Act
+        ImageAnalysisResponse<String> otherReceipt =
+                cache.getOrAnalyze(ImageAnalysis.of(OCR, jpeg(receipt(2), 0.9f)), String.class, model("두 번째"));
+        ImageAnalysisResponse<String> otherPrompt =
+                cache.getOrAnalyze(ImageAnalysis.of(DESCRIBE, first), String.class, model("설명"));
+
+        // Assert
+        assertThat(modelCalls.get()).isEqualTo(3);
+        assertThat(otherReceipt.analysis()).isEqualTo("두 번째");
+        assertThat(otherReceipt.cache().hit()).isFalse();
+        assertThat(otherPrompt.analysis()).isEqualTo("설명");
+    }
+
+    @Test
+    @DisplayName("[AAA] 디스크 계층은 재시작 후에도 응답 타입대로 읽어 주고, 상한을 넘으면 오래 쓰이지 않은 항목부터 지운다")
+    void getOrAnalyze_diskTier_survivesRestartAndEvicts(@TempDir Path dir) throws IOException {
+        // Arrange: 디스크 상한 2개에 세 영수증을 저장한다. 첫 번째가 가장 오래 쓰이지 않았다.
+        VisionResultCache before = newCache(dir.toString());
+        for (int seed = 1; seed <= 3; seed++) {
+            before.getOrAnalyze(ImageAnalysis.of(OCR, jpeg(receipt(seed), 0.9f)), Receipt.class,
+                    receiptModel(new Receipt("store-" + seed, seed * 1000)));
+        }
+
+        // Act
+        VisionResultCache after = newCache(dir.toString());
+        ImageAnalysisResponse<Receipt> third =
+                after.getOrAnalyze(ImageAnalysis.of(OCR, jpeg(receipt(3), 0.9f)), Receipt.class, receiptModel(null));
+        ImageAnalysisResponse<Receipt> first =
+                after.getOrAnalyze(ImageAnalysis.of(OCR, jpeg(receipt(1), 0.9f)), Receipt.class,
+                        receiptModel(new Receipt("fresh", 0)));
+
+        // Assert
+        assertThat(third.analysis()).isEqualTo(new Receipt("store-3", 3000));
+        assertThat(third.cache().tier()).isEqualTo("disk");
+        assertThat(third.cache().savedTokens()).isEqualTo(1300);
+        assertThat(first.cache().hit()).isFalse();
+        assertThat(first.analysis().storeName()).isEqualTo("fresh");
+        assertThat(after.diskSize()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("[AAA] ImageIO 가 읽지 못하는 이미지는 SIMILAR 분석에서는 캐시하지 않고, EXACT 분석은 바이트로 캐시한다")
+    void getOrAnalyze_undecodableImage_bypassesOnlySimilarCache() {
+        // Arrange
+        VisionResultCache cache = newCache("");
+        ImageAnalysis webp = ImageAnalysis.builder().prompt(DESCRIBE).imageBytes(new byte[]{'R', 'I', 'F', 'F', 0, 0})
+                .contentType("image/webp").cacheMatch(VisionCacheMatch.SIMILAR).build();
+        ImageAnalysis webpText = webp.toBuilder().prompt(OCR).cacheMatch(VisionCacheMatch.EXACT).build();
+
+        // Act
+        ImageAnalysisResponse<String> first = cache.getOrAnalyze(webp, String.class, model("a"));
+        ImageAnalysisResponse<String> second = cache.getOrAnalyze(webp, String.class, model("b"));
+        cache.getOrAnalyze(webpText, String.class, model("텍스트"));
+        ImageAnalysisResponse<String> textAgain = cache.getOrAnalyze(webpText, String.class, model("다시 호출됨"));
+
+        // Assert
+        assertThat(modelCalls.get()).isEqualTo(3);
+        assertThat(first.cache()).isNull();
+        assertThat(second.analysis()).isEqualTo("b");
+        assertThat(cache.stats().uncacheable()).isEqualTo(2);
+        assertThat(textAgain.analysis()).isEqualTo("텍스트");
+        assertThat(textAgain.cache().hit()).isTrue();
+    }
+
+    record Receipt(String storeName, int total) {
+    }
+
+    private VisionResultCache newCache(String dir) {
+        return new VisionResultCache(objectMapper, meterRegistry, 100, 60, 6, 2, dir);
+    }
+
+    private static ImageAnalysis similar(byte[] imageBytes) {
+        return ImageAnalysis.of(DESCRIBE, imageBytes).withCacheMatch(VisionCacheMatch.SIMILAR);
+    }
+
+    private Supplier<ImageAnalysisResponse<String>> model(String analysis) {
+        return () -> {
+            modelCalls.incrementAndGet();
+            return ImageAnalysisResponse.of(analysis, "image/jpeg", 1024, new TokenUsage(1200, 100, 1300));
+        };
+    }
+
+    private Supplier<ImageAnalysisResponse<Receipt>> receiptModel(Receipt receipt) {
+        return () -> {
+            modelCalls.incrementAndGet();
+            return ImageAnalysisResponse.of(receipt, "image/jpeg", 1024, new TokenUsage(1200, 100, 1300));
+        };
+    }
+
+    // 흰 바탕에 줄마다 다른 글자가 찍힌 영수증 모양 이미지
+    private static BufferedImage receipt(long seed) {
+        Random random = new Random(seed);
+        BufferedImage image = new BufferedImage(600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, 600, 1200);
+        g.setColor(Color.BLACK);
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 22));
+        for (int y = 60; y < 1150; y += 36) {
+            StringBuilder line = new StringBuilder();
+            int length = 5 + random.nextInt(30);
+            for (int i = 0; i < length; i++) {
+                line.append((char) ('A' + random.nextInt(26)));
+            }
+            g.drawString(line.toString(), 30, y);
+        }
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage crop(BufferedImage image, double fraction) {
+        int dx = (int) (image.getWidth() * fraction);
+        int dy = (int) (image.getHeight() * fraction);
+        return image.getSubimage(dx, dy, image.getWidth() - 2 * dx, image.getHeight() - 2 * dy);
+    }
+
+    private static byte[] jpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.study.service.inventory;
+
+import com.example.study.common.ServiceException;
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.entity.Product;
+import com.example.study.repository.ProductQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceAAATest {
+
+    @Mock
+    private ProductQueryRepository productQueryRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private StockReservationService stockReservationService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // stripe 8, 50개씩 가져오고, DB 에서 모자란 상품은 60초 동안 다시 확인하지 않는다.
+        stockReservationService = new StockReservationService(productQueryRepository, transactionManager, meterRegistry,
+                8, 50, 60_000, 100, 300);
+        product = Product.builder()
+                .name("한정판 상품")
+                .price(BigDecimal.valueOf(10_000))
+                .stock(500)
+                .build();
+        ReflectionTestUtils.setField(product, "id", 1L);
+    }
+
+    @Test
+    @DisplayName("[AAA] 동시 주문이 몰려도 재고만큼만 선점되고, 주문 대부분은 DB 차감 없이 장부에서 나간다")
+    void reserve_concurrentOrders_neverOversellAndClaimInBatches() throws InterruptedException {
+        // Arrange: DB 재고 500개를 조건부 차감으로 흉내 내고, 재고보다 많은 주문을 준비한다.
+        AtomicInteger databaseStock = new AtomicInteger(500);
+        when(productQueryRepository.findStockForUpdate(1L)).thenAnswer(invocation -> databaseStock.get());
+        when(productQueryRepository.decreaseStockIfAvailable(anyLong(), anyInt())).thenAnswer(invocation -> {
+            int units = invocation.getArgument(1);
+            int current = databaseStock.get();
+            return current >= units && databaseStock.compareAndSet(current, current - units) ? 1 : 0;
+        });
+        int threads = 16;
+        int ordersPerThread = 100;
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // Act: 여러 스레드가 동시에 1개씩 선점한다.
+        for (int i = 0; i < threads; i++) {
+            executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ordersPerThread; j++) {
+                    try {
+                        stockReservationService.reserve(product, 1);
+                        reserved.incrementAndGet();
+                    } catch (ServiceException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        // Assert: 정확히 재고만큼만 성공한다. 묶음을 가져오는 동안 경합한 요청만 자기 수량을 DB 에서 직접 차감한다.
+        assertThat(reserved.get()).isEqualTo(500);
+        assertThat(rejected.get()).isEqualTo(threads * ordersPerThread - 500);
+        assertThat(databaseStock.get()).isZero();
+        assertThat(stockReservationService.availableInLedger(1L)).isZero();
+        assertThat(meterRegistry.get("inventory.reservation").tag("result", "RESERVED").timer().count())
+                .isEqualTo(500);
+        assertThat(meterRegistry.get("inventory.reservation.claims").tag("outcome", "claimed").counter().count())
+                .isLessThan(250);
+    }
+
+    @Test
+    @DisplayName("[AAA] 장부가 비면 DB 에서 50개를 한 번에 차감해 오고, 이어지는 주문은 DB 에 가지 않는다")
+    void reserve_claimsBatchThenServesFromLedger() {
+        // Arrange
+        when(productQueryRepository.findStockForUpdate(1L)).thenReturn(500);
+        when(productQueryRepository.decreaseStockIfAvailable(1L, 50)).thenReturn(1);
+
+        // Act: 50건을 1개씩 선점한다.
+        for (int i = 0; i < 50; i++) {
+            stockReservationService.reserve(product, 1);
+        }
+
+        // Assert: 첫 주문만 행을 잠그고 차감했다. 나머지 49개는 장부 몫에서 나갔다.
+        verify(productQueryRepository, times(1)).findStockForUpdate(1L);
+        verify(productQueryRepository, times(1)).decreaseStockIfAvailable(1L, 50);
+        assertThat(stockReservationService.availableInLedger(1L)).isZero();
+    }
+
+    @Test
+    @DisplayName("[AAA] DB 에서 모자라면 거절하고, 확인 간격 동안 남은 재고보다 많은 주문은 DB 까지 가지 않는다")
+    void reserve_databaseShort_rejectsLargerOrdersWithoutDatabase() {
+        // Arrange: DB 에는 2개만 남아 있다.
+        when(productQueryRepository.findStockForUpdate(1L)).thenReturn(2);
+        when(productQueryRepository.decreaseStockIfAvailable(1L, 2)).thenReturn(1);
+
+        // Act & Assert: 3개 주문은 DB 에서, 5개 주문은 메모리에서 거절된다.
+        assertThatThrownBy(() -> stockReservationService.reserve(product, 3))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK.getMessage());
+        assertThatThrownBy(() -> stockReservationService.reserve(product, 5))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK.getMessage());
+        verify(productQueryRepository, times(1)).findStockForUpdate(1L);
+
+        // 남은 재고 이하의 주문은 DB 에 가서 남은 2개를 가져간다.
+        stockReservationService.reserve(product, 2);
+        verify(productQueryRepository).decreaseStockIfAvailable(1L, 2);
+        assertThat(meterRegistry.get("inventory.reservation.claims").tag("outcome", "short").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 장부에 남은 몫은 종료할 때 DB 에 돌려주고, 관리자 수정으로 버린 장부의 몫은 돌려주지 않는다")
+    void returnAll_givesUnsoldUnitsBackToDatabase() {
+        // Arrange: 상품 1은 50개를 가져와 1개를 팔았고, 상품 2는 가져온 뒤 관리자가 재고를 바꿨다.
+        Product other = Product.builder()
+                .name("일반 상품")
+                .price(BigDecimal.valueOf(5_000))
+                .stock(10)
+                .build();
+        ReflectionTestUtils.setField(other, "id", 2L);
+        when(productQueryRepository.findStockForUpdate(anyLong())).thenReturn(500);
+        when(productQueryRepository.decreaseStockIfAvailable(anyLong(), anyInt())).thenReturn(1);
+        stockReservationService.reserve(product, 1);
+        stockReservationService.reserve(other, 1);
+        stockReservationService.evict(2L);
+
+        // Act
+        stockReservationService.returnAll();
+
+        // Assert
+        verify(productQueryRepository).increaseStock(1L, 49);
+        verify(productQueryRepository, never()).increaseStock(2L, 49);
+        assertThat(stockReservationService.availableInLedger(1L)).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 일괄 선점은 장부로 채우지 못한 상품을 UPDATE 한 번으로 처리하고, 일부 상품이 부족하면 전체를 거절한다")
+    void reserveAll_partialShortage_rejectsWholeBatch() {
+        // Arrange: 두 상품을 일괄 선점하는데 DB 에서는 한 상품만 차감된다.
+        Product other = Product.builder()
+                .name("일반 상품")
+                .price(BigDecimal.valueOf(5_000))
+                .stock(10)
+                .build();
+        ReflectionTestUtils.setField(other, "id", 2L);
+        Map<Product, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(product, 3);
+        quantities.put(other, 5);
+        when(productQueryRepository.decreaseStocksIfAvailable(anyMap())).thenReturn(1L);
+
+        // Act & Assert: 전체가 거절되고, 단건 UPDATE 없이 장부도 그대로다.
+        assertThatThrownBy(() -> stockReservationService.reserveAll(quantities))
+                .isInstanceOf(ServiceException.class)
+                .hasMessageContaining(ServiceExceptionCode.INSUFFICIENT_PRODUCT_STOCK.getMessage());
+        verify(productQueryRepository).decreaseStocksIfAvailable(Map.of(1L, 3, 2L, 5));
+        verify(productQueryRepository, never()).decreaseStockIfAvailable(anyLong(), anyInt());
+        assertThat(stockReservationService.availableInLedger(1L)).isZero();
+        assertThat(stockReservationService.availableInLedger(2L)).isZero();
+    }
+}
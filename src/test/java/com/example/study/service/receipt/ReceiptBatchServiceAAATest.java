@@ -0,0 +1,233 @@
+package com.example.study.service.receipt;
+
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.common.TooManyRequestsException;
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ImageOptimizationService;
+import com.example.study.service.ReceiptAnalysisService;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.dto.ReceiptData;
+import com.example.study.service.image.ImageBufferPool;
+import com.example.study.service.image.ImageProcessingExecutor;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.UploadBufferPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReceiptBatchServiceAAATest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageProcessingExecutor imageExecutor =
+            new ImageProcessingExecutor(meterRegistry, 2, 8, 256L * 1024 * 1024, 1_000);
+    private final AiExecutor aiExecutor = new AiExecutor(meterRegistry, 8, 8, 8, Map.of(), Duration.ofSeconds(30), Map.of());
+    private final ReceiptAnalysisService receiptAnalysisService = mock(ReceiptAnalysisService.class);
+    private final UploadBufferPool uploadBufferPool = new UploadBufferPool(meterRegistry, 16, 64, 4096, "");
+    private final ReceiptBatchService service = new ReceiptBatchService(
+            new ImageOptimizationService(new ImageBufferPool(4, 512, 4096), imageExecutor, uploadBufferPool),
+            receiptAnalysisService, aiExecutor, uploadBufferPool, 10, 2, 4, 3);
+
+    @AfterEach
+    void tearDown() {
+        imageExecutor.shutdown();
+        aiExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 이미지와 zip 을 섞어 올리면 항목마다 동시에 추출해 끝나는 대로 내보내고, 마지막에 집계를 보낸다")
+    void process_mixedUploads_streamsResultsThenSummary() throws IOException {
+        // Arrange: 모델 호출은 100ms 걸리고, 동시에 몇 개가 실행되는지 기록한다.
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(receiptAnalysisService.processReceipt(any(PreparedImage.class), eq(AiPriority.BULK), any())).thenAnswer(call -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            running.decrementAndGet();
+            return response(validReceipt());
+        });
+        List<MultipartFile> files = List.of(
+                image("a.png"),
+                zip("month.zip", "b.png", "c.png", "__MACOSX/._b.png", "docs/"),
+                image("d.png"));
+
+        // Act
+        List<ReceiptBatchEvent> events = service.process(files).collectList().block(Duration.ofSeconds(10));
+
+        // Assert
+        assertThat(events).hasSize(5);
+        assertThat(events.subList(0, 4)).extracting(ReceiptBatchEvent::event).containsOnly(ReceiptBatchEvent.RECEIPT);
+        assertThat(events.subList(0, 4)).extracting(event -> ((ReceiptBatchResult) event.data()).fileName())
+                .containsExactlyInAnyOrder("a.png", "b.png", "c.png", "d.png");
+        assertThat(events.subList(0, 4)).extracting(event -> ((ReceiptBatchResult) event.data()).status())
+                .containsOnly(ReceiptBatchResult.Status.VALID);
+        assertThat(maxRunning.get()).isGreaterThan(1);
+
+        ReceiptBatchEvent completed = events.get(4);
+        assertThat(completed.event()).isEqualTo(ReceiptBatchEvent.COMPLETED);
+        assertThat(completed.data()).isEqualTo(new ReceiptBatchSummary(4, 4, 0, 0, 4 * 1300L,
+                ((ReceiptBatchSummary) completed.data()).elapsedMs()));
+    }
+
+    @Test
+    @DisplayName("[AAA] 모델 쪽이 429 로 거절하면 그 영수증만 backoff 후 다시 시도하고, 이미지가 아닌 파일은 그 항목만 FAILED 로 내보낸다")
+    void process_busyModelAndNonImage_retriesAndIsolatesFailure() throws IOException {
+        // Arrange: 첫 호출만 429
+        AtomicInteger calls = new AtomicInteger();
+        when(receiptAnalysisService.processReceipt(any(PreparedImage.class), eq(AiPriority.BULK), any())).thenAnswer(call -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new TooManyRequestsException(ServiceExceptionCode.AI_BACKEND_OVERLOADED);
+            }
+            return response(validReceipt());
+        });
+        MultipartFile notes = new MockMultipartFile("files", "notes.txt", "text/plain", new byte[]{1, 2, 3});
+
+        // Act
+        List<ReceiptBatchEvent> events = service.process(List.of(image("a.png"), notes))
+                .collectList().block(Duration.ofSeconds(10));
+
+        // Assert
+        assertThat(events).hasSize(3);
+        ReceiptBatchResult a = result(events, "a.png");
+        ReceiptBatchResult failed = result(events, "notes.txt");
+        assertThat(a.status()).isEqualTo(ReceiptBatchResult.Status.VALID);
+        assertThat(failed.status()).isEqualTo(ReceiptBatchResult.Status.FAILED);
+        assertThat(failed.problems()).containsExactly("이미지 파일만 업로드 가능합니다");
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(((ReceiptBatchSummary) events.get(2).data()).failed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 이미지 실행기가 디코드를 한 번 거절하면 backoff 후 디코드를 다시 제출해 그 영수증도 처리한다")
+    void process_busyImageExecutor_resubmitsPrepare() throws IOException {
+        // Arrange: 첫 디코드 제출만 429
+        ImageOptimizationService imageOptimizationService = mock(ImageOptimizationService.class);
+        when(imageOptimizationService.prepareAsync(any(MultipartFile.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new TooManyRequestsException(ServiceExceptionCode.IMAGE_CAPACITY_EXCEEDED)))
+                .thenReturn(CompletableFuture.completedFuture(PreparedImage.jpeg(png())));
+        when(receiptAnalysisService.processReceipt(any(PreparedImage.class), eq(AiPriority.BULK), any()))
+                .thenReturn(response(validReceipt()));
+        ReceiptBatchService busyService = new ReceiptBatchService(imageOptimizationService, receiptAnalysisService,
+                aiExecutor, uploadBufferPool, 10, 2, 4, 3);
+
+        // Act
+        List<ReceiptBatchEvent> events = busyService.process(List.of(image("a.png")))
+                .collectList().block(Duration.ofSeconds(10));
+
+        // Assert
+        assertThat(events).hasSize(2);
+        assertThat(result(events, "a.png").status()).isEqualTo(ReceiptBatchResult.Status.VALID);
+        verify(imageOptimizationService, times(2)).prepareAsync(any(MultipartFile.class));
+    }
+
+    @Test
+    @DisplayName("[AAA] 추출한 영수증은 필수 항목과 소계 + 세금 = 총액을 검증해 INVALID 이유를 남긴다")
+    void validate_missingFieldsAndWrongTotal_isInvalid() {
+        // Arrange
+        ReceiptData wrongTotal = ReceiptData.builder()
+                .storeName("편의점")
+                .items(List.of(ReceiptData.ReceiptItem.builder().name("우유").quantity(1).price(new BigDecimal("1000")).build()))
+                .subtotal(new BigDecimal("1000"))
+                .tax(new BigDecimal("100"))
+                .total(new BigDecimal("1200"))
+                .build();
+        ReceiptData noStore = ReceiptData.builder().total(new BigDecimal("1000")).build();
+
+        // Act
+        ReceiptBatchResult total = ReceiptBatchService.validate(0, "a.png", response(wrongTotal), 10);
+        ReceiptBatchResult store = ReceiptBatchService.validate(1, "b.png", response(noStore), 10);
+        ReceiptBatchResult empty = ReceiptBatchService.validate(2, "c.png", response(null), 10);
+
+        // Assert
+        assertThat(total.status()).isEqualTo(ReceiptBatchResult.Status.INVALID);
+        assertThat(total.totalValid()).isFalse();
+        assertThat(total.problems()).containsExactly("소계와 세금의 합이 총액과 다릅니다");
+        assertThat(store.status()).isEqualTo(ReceiptBatchResult.Status.INVALID);
+        assertThat(store.problems()).containsExactly("가게명은 필수입니다");
+        assertThat(empty.status()).isEqualTo(ReceiptBatchResult.Status.FAILED);
+    }
+
+    @Test
+    @DisplayName("[AAA] 파일 수가 상한을 넘으면 처리를 시작하지 않고 IllegalArgumentException 을 던진다")
+    void process_tooManyFiles_rejectedUpFront() throws IOException {
+        // Arrange
+        MultipartFile file = image("a.png");
+        List<MultipartFile> files = Collections.nCopies(11, file);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.process(files)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ReceiptData validReceipt() {
+        return ReceiptData.builder()
+                .storeName("편의점")
+                .items(List.of(ReceiptData.ReceiptItem.builder().name("우유").quantity(2).price(new BigDecimal("1500")).build()))
+                .subtotal(new BigDecimal("3000"))
+                .tax(new BigDecimal("300"))
+                .total(new BigDecimal("3300"))
+                .build();
+    }
+
+    private static ImageAnalysisResponse<ReceiptData> response(ReceiptData receipt) {
+        return ImageAnalysisResponse.of(receipt, "image/jpeg", 1024, new TokenUsage(1200, 100, 1300));
+    }
+
+    private static ReceiptBatchResult result(List<ReceiptBatchEvent> events, String fileName) {
+        return events.stream()
+                .filter(event -> event.data() instanceof ReceiptBatchResult result && result.fileName().equals(fileName))
+                .map(event -> (ReceiptBatchResult) event.data())
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static MockMultipartFile image(String name) throws IOException {
+        return new MockMultipartFile("files", name, "image/png", png());
+    }
+
+    private static MockMultipartFile zip(String name, String... entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (String entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry));
+                if (!entry.endsWith("/")) {
+                    zip.write(png());
+                }
+                zip.closeEntry();
+            }
+        }
+        return new MockMultipartFile("files", name, "application/zip", out.toByteArray());
+    }
+
+    private static byte[] png() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(400, 800, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.study.service.review;
+
+import com.example.study.config.AiLimiterConfig;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.ai.ConcurrencyLimitAdvisor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkReviewExecutorAAATest {
+
+    @Mock
+    private CallAdvisorChain chain;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChunkReviewExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // application.yml 기본값: 구간 동시 4개, 110초, code-review-analyze 120초
+        executor = new ChunkReviewExecutor(meterRegistry, 4, 110, Duration.ofSeconds(120));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 기본 limiter 설정에서 BULK 구간 리뷰는 한 번에 하나씩이 아니라 병렬로 실행된다")
+    void reviewAll_runsChunksInParallelUnderDefaultLimiter() {
+        // Arrange: 기본 설정의 Ollama limiter 를 거쳐 구간마다 300ms 걸리는 모델 호출을 한다.
+        ConcurrencyLimitAdvisor advisor = new AiLimiterConfig().ollamaLimitAdvisor(meterRegistry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(chain.nextCall(any())).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(300);
+            } finally {
+                running.decrementAndGet();
+            }
+            return response();
+        });
+        ChatClientRequest request = ChatClientRequest.builder()
+                .prompt(new Prompt("구간"))
+                .context(ConcurrencyLimitAdvisor.PRIORITY, AiPriority.BULK)
+                .build();
+        List<CodeChunk> chunks = IntStream.range(0, 4)
+                .mapToObj(i -> new CodeChunk(i * 100 + 1, i * 100 + 100, "class A" + i + " {}"))
+                .toList();
+        ChunkReview review = new ChunkReview(List.of(), List.of(), 90, "", "ok");
+
+        // Act
+        long startedAt = System.nanoTime();
+        List<ChunkResult> results = executor.reviewAll(chunks, chunk -> {
+            advisor.adviseCall(request, chain);
+            return review;
+        });
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - startedAt).toMillis();
+
+        // Assert: BULK 몫(초기 한도 4 x 0.5 = 2)만큼 동시에 돌아 4개 구간이 두 번에 끝난다.
+        assertThat(results).allMatch(ChunkResult::succeeded);
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(elapsedMillis).isLessThan(4 * 300);
+    }
+
+    private static ChatClientResponse response() {
+        ChatResponse chatResponse = new ChatResponse(
+                List.of(new Generation(new AssistantMessage("{}"))),
+                ChatResponseMetadata.builder().usage(new DefaultUsage(10, 100)).build());
+        return ChatClientResponse.builder().chatResponse(chatResponse).build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.example.study.controller.dto.CodeReviewResponse;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChunkReviewMergerAAATest {
+
+    private final CodeChunk first = new CodeChunk(1, 100, "first");
+    private final CodeChunk second = new CodeChunk(101, 400, "second");
+    private final CodeChunk third = new CodeChunk(401, 450, "third");
+
+    @Test
+    @DisplayName("[AAA] 구간 기준 줄 번호를 파일 기준으로 옮기고, 반복된 파일 전체 이슈는 하나로 합쳐 심각도순으로 정렬한다")
+    void merge_remapsLinesAndDeduplicatesIssues() {
+        // Arrange
+        List<ChunkResult> results = List.of(
+                ChunkResult.success(first, new ChunkReview(
+                        List.of(CodeIssue.of("LOW", 5, "변수명이 모호함", "total 로 변경"),
+                                CodeIssue.of("MEDIUM", null, "주석 부족", "Javadoc 추가")),
+                        List.of(), 60, null, "첫 구간")),
+                ChunkResult.success(second, new ChunkReview(
+                        List.of(CodeIssue.of("HIGH", 10, "NPE 가능성", "null 검사 추가"),
+                                CodeIssue.of("MEDIUM", null, "주석  부족 ", "Javadoc 추가"),
+                                CodeIssue.of("LOW", 999, "범위 밖", "-")),
+                        List.of(), 80, null, "둘째 구간")));
+
+        // Act
+        CodeReviewResponse response = ChunkReviewMerger.merge("id", "java", "basic", results, 10L);
+
+        // Assert: 둘째 구간의 10번째 줄은 파일의 110번째 줄, 범위를 벗어난 줄 번호는 버린다.
+        assertThat(response.issues()).containsExactly(
+                CodeIssue.of("HIGH", 110, "NPE 가능성", "null 검사 추가"),
+                CodeIssue.of("MEDIUM", null, "주석 부족", "Javadoc 추가"),
+                CodeIssue.of("LOW", 5, "변수명이 모호함", "total 로 변경"),
+                CodeIssue.of("LOW", null, "범위 밖", "-"));
+    }
+
+    @Test
+    @DisplayName("[AAA] 점수는 줄 수로 가중 평균하고, 실패한 구간은 원본 코드와 실패 사유로 남긴다")
+    void merge_weightsScoreByLinesAndKeepsFailedChunks() {
+        // Arrange
+        List<ChunkResult> results = List.of(
+                ChunkResult.success(first, new ChunkReview(List.of(), List.of("A", "B"), 60, "first-improved", "첫 구간")),
+                ChunkResult.success(second, new ChunkReview(List.of(), List.of("B", "C"), 80, null, "둘째 구간")),
+                ChunkResult.failed(third, "timeout"));
+
+        // Act
+        CodeReviewResponse response = ChunkReviewMerger.merge("id", "java", "basic", results, 10L);
+
+        // Assert: (60 * 100 + 80 * 300) / 400 = 75, 실패한 구간은 점수에서 빠진다.
+        assertThat(response.score()).isEqualTo(75);
+        assertThat(response.improvements()).containsExactly("A", "B", "C");
+        assertThat(response.improvedCode()).isEqualTo("first-improved\nsecond\nthird");
+        assertThat(response.fullReview())
+                .startsWith("총 450줄을 3개 구간으로 나눠 리뷰했습니다.")
+                .contains("[101-400] 둘째 구간")
+                .contains("[401-450] 리뷰 실패: timeout");
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.study.service.review;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CodeChunkerAAATest {
+
+    private final CodeChunker chunker = new CodeChunker(10);
+
+    @Test
+    @DisplayName("[AAA] 중괄호 언어는 문자열 속 중괄호를 무시하고 메서드가 끝나는 줄에서 나눈다")
+    void split_braceLanguage_cutsAtMethodBoundaries() {
+        // Arrange: 4줄짜리 메서드 5개, 본문의 "{" 는 문자열이라 깊이에 포함되면 안 된다.
+        List<String> lines = new ArrayList<>();
+        lines.add("class A {");
+        for (int i = 0; i < 5; i++) {
+            lines.add("    void m" + i + "() {");
+            lines.add("        String s = \"{\";");
+            lines.add("    }");
+            lines.add("");
+        }
+        lines.add("}");
+        String code = String.join("\n", lines);
+
+        // Act
+        List<CodeChunk> chunks = chunker.split(code);
+
+        // Assert: 10줄 안에서 가장 뒤쪽 메서드 경계(빈 줄)에서 자른다.
+        assertThat(chunks).extracting(CodeChunk::startLine, CodeChunk::endLine)
+                .containsExactly(tuple(1, 9), tuple(10, 17), tuple(18, 22));
+        assertThat(String.join("\n", chunks.stream().map(CodeChunk::code).toList())).isEqualTo(code);
+    }
+
+    @Test
+    @DisplayName("[AAA] 중괄호가 없는 언어는 데코레이터를 함수와 떼지 않고 선언 앞에서 나눈다")
+    void split_indentLanguage_cutsBeforeDeclarations() {
+        // Arrange
+        List<String> lines = new ArrayList<>(List.of("import os", ""));
+        for (int i = 0; i < 5; i++) {
+            lines.add("@cache");
+            lines.add("def f" + i + "():");
+            lines.add("    return " + i);
+            lines.add("");
+        }
+
+        // Act
+        List<CodeChunk> chunks = chunker.split(String.join("\n", lines));
+
+        // Assert: 각 구간(첫 구간 제외)은 데코레이터 줄로 시작한다.
+        assertThat(chunks).extracting(CodeChunk::startLine, CodeChunk::endLine)
+                .containsExactly(tuple(1, 10), tuple(11, 18), tuple(19, 22));
+        assertThat(chunks.subList(1, chunks.size())).allMatch(chunk -> chunk.code().startsWith("@cache"));
+    }
+
+    @Test
+    @DisplayName("[AAA] 경계가 없으면 maxLines 에서 자르고, maxLines 이하면 나누지 않는다")
+    void split_withoutBoundaries_cutsAtMaxLines() {
+        // Arrange
+        String longCode = "x\n".repeat(25).trim();
+        String shortCode = "x\n".repeat(10).trim();
+
+        // Act
+        List<CodeChunk> longChunks = chunker.split(longCode);
+        List<CodeChunk> shortChunks = chunker.split(shortCode);
+
+        // Assert
+        assertThat(longChunks).extracting(CodeChunk::startLine, CodeChunk::endLine)
+                .containsExactly(tuple(1, 10), tuple(11, 20), tuple(21, 25));
+        assertThat(shortChunks).containsExactly(new CodeChunk(1, 10, shortCode));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeIssue;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IncrementalReviewParserAAATest {
+
+    private static final String RESPONSE = """
+            ```json
+            {
+              "issues": [
+                {"severity": "HIGH", "line": 3, "message": "NPE 가능성", "suggestion": "null 검사 추가"},
+                {"severity": "LOW", "line": 7, "message": "변수명이 모호함", "suggestion": "total 로 변경", "extra": {"a": [1]}}
+              ],
+              "improvements": ["Optional 사용"],
+              "score": 72,
+              "improvedCode": "class A {}",
+              "summary": "전반적으로 양호"
+            }
+            ```
+            """;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("[AAA] 토큰 단위로 잘린 조각을 넣어도 이슈 객체가 닫히는 즉시 하나씩 반환한다")
+    void feed_tokenSizedChunks_emitsIssueAsSoonAsItCloses() {
+        // Arrange: 모델 스트림처럼 3글자씩 잘린 조각
+        IncrementalReviewParser parser = new IncrementalReviewParser(objectMapper);
+        List<String> chunks = split(RESPONSE, 3);
+        int firstIssueClosesAt = RESPONSE.indexOf("추가\"}") + 4;
+
+        // Act
+        List<CodeIssue> emitted = new ArrayList<>();
+        int consumed = 0;
+        int firstIssueEmittedAt = -1;
+        for (String chunk : chunks) {
+            consumed += chunk.length();
+            List<CodeIssue> issues = parser.feed(chunk);
+            if (!issues.isEmpty() && firstIssueEmittedAt < 0) {
+                firstIssueEmittedAt = consumed;
+            }
+            emitted.addAll(issues);
+        }
+        ReviewPayload payload = parser.finish();
+
+        // Assert: 첫 이슈는 그 객체의 '}' 가 들어온 조각에서 바로 나온다.
+        assertThat(firstIssueEmittedAt).isBetween(firstIssueClosesAt, firstIssueClosesAt + 2);
+        assertThat(emitted).containsExactly(
+                CodeIssue.of("HIGH", 3, "NPE 가능성", "null 검사 추가"),
+                CodeIssue.of("LOW", 7, "변수명이 모호함", "total 로 변경"));
+        assertThat(payload.score()).isEqualTo(72);
+        assertThat(payload.summary()).isEqualTo("전반적으로 양호");
+        assertThat(payload.improvements()).containsExactly("Optional 사용");
+        assertThat(parser.isComplete()).isTrue();
+    }
+
+    @Test
+    @DisplayName("[AAA] 형식이 틀린 이슈는 건너뛰고, 응답이 중간에 끊기면 지금까지의 이슈만 남긴다")
+    void feed_malformedIssueAndTruncatedStream_keepsParsedIssues() {
+        // Arrange
+        IncrementalReviewParser parser = new IncrementalReviewParser(objectMapper);
+
+        // Act
+        parser.feed("{\"issues\": [{\"severity\": \"HIGH\", \"line\": \"12-14\", \"message\": \"범위\"},");
+        parser.feed("{\"severity\": \"MEDIUM\", \"line\": 5, \"message\": \"중복 코드\", \"suggestion\": \"메서드 추출\"}],");
+        parser.feed("\"score\": 8");
+        ReviewPayload payload = parser.finish();
+
+        // Assert
+        assertThat(parser.issues()).containsExactly(CodeIssue.of("MEDIUM", 5, "중복 코드", "메서드 추출"));
+        assertThat(payload).isEqualTo(ReviewPayload.empty());
+        assertThat(parser.isComplete()).isFalse();
+    }
+
+    private List<String> split(String text, int size) {
+        List<String> chunks = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += size) {
+            chunks.add(text.substring(i, Math.min(text.length(), i + size)));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeReviewResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexedReviewHistoryStoreAAATest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 9, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("[AAA] 최신순/언어별 조회는 저장 순서와 무관하게 timestamp 역순으로 limit 개만 돌려준다")
+    void findRecent_returnsNewestFirstUpToLimit() {
+        // Arrange: timestamp 가 뒤섞인 순서로 저장한다.
+        IndexedReviewHistoryStore store = newStore(100, 1000, "");
+        store.save(review("r-2", "Java", 2, 80));
+        store.save(review("r-1", "python", 1, 60));
+        store.save(review("r-4", "java", 4, null));
+        store.save(review("r-3", "java", 3, 70));
+
+        // Act
+        List<CodeReviewResponse> recent = store.findRecent(2);
+        List<CodeReviewResponse> java = store.findRecentByLanguage("JAVA", 0);
+        ReviewHistoryStats stats = store.stats();
+
+        // Assert: 언어별 조회는 대소문자를 무시하고, 통계는 저장된 표기 그대로 센다. 평균 점수는 점수가 있는 리뷰만으로 계산한다.
+        assertThat(recent).extracting(CodeReviewResponse::reviewId).containsExactly("r-4", "r-3");
+        assertThat(java).extracting(CodeReviewResponse::reviewId).containsExactly("r-4", "r-3", "r-2");
+        assertThat(stats.totalReviews()).isEqualTo(4);
+        assertThat(stats.languageDistribution()).containsExactlyInAnyOrderEntriesOf(Map.of("Java", 1L, "java", 2L, "python", 1L));
+        assertThat(stats.averageScore()).isEqualTo(70.0);
+    }
+
+    @Test
+    @DisplayName("[AAA] 보관 개수를 넘으면 가장 오래된 리뷰부터 인덱스와 통계에서 함께 제거한다")
+    void save_overMaxEntries_evictsOldest() {
+        // Arrange
+        IndexedReviewHistoryStore store = newStore(2, 1000, "");
+
+        // Act
+        store.save(review("r-1", "java", 1, 10));
+        store.save(review("r-2", "java", 2, 20));
+        store.save(review("r-3", "kotlin", 3, 30));
+
+        // Assert
+        assertThat(store.findById("r-1")).isEmpty();
+        assertThat(store.findRecent(0)).extracting(CodeReviewResponse::reviewId).containsExactly("r-3", "r-2");
+        assertThat(store.stats().languageDistribution()).containsEntry("java", 1L).containsEntry("kotlin", 1L);
+        assertThat(store.stats().averageScore()).isEqualTo(25.0);
+    }
+
+    @Test
+    @DisplayName("[AAA] 저장이 없어도 보존 기간이 지난 리뷰는 조회에서 빠지고 통계를 부를 때 제거된다")
+    void read_afterRetentionPassed_hidesAndPurgesExpiredReviews() throws InterruptedException {
+        // Arrange: 보존 기간 1일, 한 리뷰는 300ms 뒤에 기간이 끝난다.
+        IndexedReviewHistoryStore store =
+                new IndexedReviewHistoryStore(objectMapper, meterRegistry, 100, 1, 1000, "");
+        LocalDateTime now = LocalDateTime.now();
+        store.save(reviewAt("r-old", now.minusDays(1).plusNanos(300_000_000L)));
+        store.save(reviewAt("r-new", now));
+
+        // Act: 저장 없이 기간이 지나기를 기다린다.
+        Thread.sleep(500);
+
+        // Assert
+        assertThat(store.findById("r-old")).isEmpty();
+        assertThat(store.findRecent(0)).extracting(CodeReviewResponse::reviewId).containsExactly("r-new");
+        assertThat(store.findRecentByLanguage("java", 10)).extracting(CodeReviewResponse::reviewId)
+                .containsExactly("r-new");
+        assertThat(store.stats().totalReviews()).isEqualTo(1);
+        assertThat(store.stats().languageDistribution()).containsExactlyEntriesOf(Map.of("java", 1L));
+        assertThat(meterRegistry.get("code.review.history.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("[AAA] 재시작하면 스냅샷과 로그를 재생해 삭제까지 반영된 상태로 복구하고, 쓰다 만 마지막 줄은 건너뛴다")
+    void recover_replaysSnapshotAndLog(@TempDir Path dir) throws IOException {
+        // Arrange: 두 건마다 스냅샷을 쓰므로 스냅샷과 로그에 나뉘어 기록된다.
+        IndexedReviewHistoryStore store = newStore(100, 2, dir.toString());
+        store.save(review("r-1", "java", 1, 50));
+        store.save(review("r-2", "java", 2, 60));
+        store.save(review("r-3", "go", 3, 70));
+        store.delete("r-1");
+        store.close();
+        Files.writeString(dir.resolve(IndexedReviewHistoryStore.LOG_FILE), "{\"op\":\"put\",\"revie",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // Act
+        IndexedReviewHistoryStore recovered = newStore(100, 2, dir.toString());
+
+        // Assert
+        assertThat(recovered.findRecent(0)).extracting(CodeReviewResponse::reviewId).containsExactly("r-3", "r-2");
+        assertThat(recovered.findById("r-2")).contains(review("r-2", "java", 2, 60));
+        assertThat(recovered.stats().averageScore()).isEqualTo(65.0);
+    }
+
+    private IndexedReviewHistoryStore newStore(int maxEntries, int snapshotEvery, String dir) {
+        // 고정된 과거 timestamp 를 쓰므로 기간 보존은 끈다.
+        return new IndexedReviewHistoryStore(objectMapper, meterRegistry, maxEntries, 0, snapshotEvery, dir);
+    }
+
+    private CodeReviewResponse reviewAt(String reviewId, LocalDateTime timestamp) {
+        return new CodeReviewResponse(reviewId, "java", "basic", List.of(), List.of(), 80,
+                null, "summary", timestamp, 10L);
+    }
+
+    private CodeReviewResponse review(String reviewId, String language, int minute, Integer score) {
+        return new CodeReviewResponse(reviewId, language, "basic", List.of(), List.of(), score,
+                null, "summary", BASE.plusMinutes(minute), 10L);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.study.service.review;
+
+import com.example.study.controller.dto.CodeReviewResponse;
+import com.example.study.service.dto.CodeReview;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReviewResultCacheAAATest {
+
+    private final ReviewResultCache cache = new ReviewResultCache(new SimpleMeterRegistry(), 100, 60);
+
+    @Test
+    @DisplayName("[AAA] 줄바꿈/줄 끝 공백만 다른 같은 코드는 캐시된 리뷰를 돌려준다")
+    void getOrReview_sameNormalizedCode_hitsCache() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+        CodeReview first = review("class A {\n    int a;  \n}\n");
+        CodeReview second = review("\r\nclass A {\r\n    int a;\r\n}");
+
+        // Act
+        CodeReviewResponse original = cache.getOrReview(first, () -> response("r-" + calls.incrementAndGet()));
+        CodeReviewResponse cached = cache.getOrReview(second, () -> response("r-" + calls.incrementAndGet()));
+
+        // Assert
+        assertThat(calls).hasValue(1);
+        assertThat(cached).isSameAs(original);
+        assertThat(cache.stats().hits()).isEqualTo(1);
+        assertThat(cache.stats().misses()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("[AAA] 진행 중인 같은 리뷰에 동시에 들어온 요청은 모델 호출 한 번의 결과를 함께 받는다")
+    void getOrReview_concurrentIdenticalRequests_coalesceIntoOneCall() throws Exception {
+        // Arrange: 첫 호출이 끝나지 않도록 붙잡아 두고 나머지 요청을 보낸다.
+        int requests = 5;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+
+        // Act
+        Future<CodeReviewResponse> leader = executor.submit(() -> cache.getOrReview(review("x = 1"), () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return response("r-1");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<CodeReviewResponse>> followers = new ArrayList<>();
+        for (int i = 1; i < requests; i++) {
+            followers.add(executor.submit(() -> cache.getOrReview(review("x = 1"), () -> {
+                calls.incrementAndGet();
+                return response("other");
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.stats().coalesced() < requests - 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Assert
+        assertThat(leader.get(5, TimeUnit.SECONDS).reviewId()).isEqualTo("r-1");
+        for (Future<CodeReviewResponse> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS).reviewId()).isEqualTo("r-1");
+        }
+        assertThat(calls).hasValue(1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 실패한 리뷰는 캐시하지 않아 다음 요청이 다시 모델을 호출한다")
+    void getOrReview_failure_isNotCached() {
+        // Arrange
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        assertThatThrownBy(() -> cache.getOrReview(review("y = 2"), () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("model down");
+        })).isInstanceOf(IllegalStateException.class);
+        CodeReviewResponse retried = cache.getOrReview(review("y = 2"), () -> response("r-" + calls.incrementAndGet()));
+
+        // Assert
+        assertThat(retried.reviewId()).isEqualTo("r-2");
+        assertThat(cache.stats().misses()).isEqualTo(2);
+    }
+
+    private CodeReview review(String code) {
+        return CodeReview.builder().code(code).language("Java").reviewLevel("basic").build();
+    }
+
+    private CodeReviewResponse response(String reviewId) {
+        return CodeReviewResponse.of(reviewId, "java", "basic", List.of(), List.of(), 80, null, "ok", 1L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.study.service.rollup;
+
+import com.example.study.PurchaseStatus;
+import com.example.study.config.QueryDslConfig;
+import com.example.study.entity.Category;
+import com.example.study.entity.Product;
+import com.example.study.entity.Purchase;
+import com.example.study.entity.PurchaseDailyRollup;
+import com.example.study.entity.User;
+import com.example.study.repository.CategoryRepository;
+import com.example.study.repository.ProductRepository;
+import com.example.study.repository.PurchaseDailyRollupRepository;
+import com.example.study.repository.PurchaseQueryRepository;
+import com.example.study.repository.PurchaseRepository;
+import com.example.study.repository.UserJpaRepository;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 주문 이벤트의 rollup 증분 반영, 대사(reconcile), 보정 배치(catch-up)가 원본 purchase 와 같은 집계를 만드는지 확인한다.
+ * 재계산은 새 트랜잭션에서 실행되므로 테스트 트랜잭션 없이 커밋된 데이터로 실행한다. (user 는 H2 예약어라 NON_KEYWORDS 로 푼다)
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:purchase-rollup;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        QueryDslConfig.class,
+        PurchaseQueryRepository.class,
+        PurchaseRollupService.class
+})
+class PurchaseRollupServiceTest {
+
+    @Autowired
+    private PurchaseRollupService purchaseRollupService;
+    @Autowired
+    private PurchaseDailyRollupRepository rollupRepository;
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private UserJpaRepository userRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private LocalDate today;
+    private User buyer;
+    private Product keyboard;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        today = LocalDate.now();
+        Category category = categoryRepository.save(Category.builder().name("주변기기").build());
+        keyboard = productRepository.save(Product.builder()
+                .category(category).name("키보드").price(BigDecimal.valueOf(10_000)).stock(100).build());
+        mouse = productRepository.save(Product.builder()
+                .category(category).name("마우스").price(BigDecimal.valueOf(5_000)).stock(100).build());
+        buyer = userRepository.save(User.builder().name("구매자").email("buyer@example.com").passwordHash("x").build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rollupRepository.deleteAllInBatch();
+        purchaseRepository.deleteAllInBatch();
+        productRepository.deleteAllInBatch();
+        categoryRepository.deleteAllInBatch();
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("주문 생성/상태 변경 이벤트는 같은 (일자, 상태, 상품) 행에 증감분을 더하고, 상태가 바뀌면 이전 상태에서 빼서 새 상태로 옮긴다")
+    void onSalesChanged_upsertsDeltas() {
+        Purchase first = purchase(keyboard, 2, PurchaseStatus.COMPLETED);
+        Purchase second = purchase(keyboard, 1, PurchaseStatus.COMPLETED);
+
+        purchaseRollupService.onSalesChanged(PurchaseSalesChangedEvent.created(first));
+        purchaseRollupService.onSalesChanged(PurchaseSalesChangedEvent.created(second));
+        purchaseRollupService.onSalesChanged(
+                PurchaseSalesChangedEvent.statusChanged(refunded(second), PurchaseStatus.COMPLETED));
+        purchaseRollupService.onSalesChanged(
+                PurchaseSalesChangedEvent.statusChanged(first, PurchaseStatus.COMPLETED));
+
+        Map<PurchaseStatus, PurchaseDailyRollup> rollups = rollupsByStatus();
+        assertThat(rollups.get(PurchaseStatus.COMPLETED).getOrderCount()).isEqualTo(1L);
+        assertThat(rollups.get(PurchaseStatus.COMPLETED).getQuantitySum()).isEqualTo(2L);
+        assertThat(rollups.get(PurchaseStatus.COMPLETED).getTotalAmount()).isEqualByComparingTo("20000");
+        assertThat(rollups.get(PurchaseStatus.REFUNDED).getOrderCount()).isEqualTo(1L);
+        assertThat(rollups.get(PurchaseStatus.REFUNDED).getTotalAmount()).isEqualByComparingTo("10000");
+        assertThat(purchaseRollupService.reconcile(today, today, false).isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("증분 없이 들어간 주문은 대사에서 불일치로 잡히고, repair=false 면 그대로 두며 repair=true 면 원본 기준으로 다시 만든다")
+    void reconcile_detectsAndRepairsMismatch() {
+        purchase(keyboard, 2, PurchaseStatus.COMPLETED);
+        purchase(mouse, 3, PurchaseStatus.PENDING);
+        // 원본에 없는 집계 행: 재계산하면 지워져야 한다
+        rollupRepository.upsertDelta(today, PurchaseStatus.CANCELED.name(), mouse.getId(), null, 4, 4, BigDecimal.valueOf(20_000));
+
+        RollupReconciliationResult detected = purchaseRollupService.reconcile(today.minusDays(1), today, false);
+        int rowsAfterDetect = rollupRepository.findBySalesDate(today).size();
+        RollupReconciliationResult repaired = purchaseRollupService.reconcile(today.minusDays(1), today, true);
+
+        assertThat(detected.checkedDays()).isEqualTo(2);
+        assertThat(detected.mismatchedDays()).containsExactly(today);
+        assertThat(detected.repairedDays()).isEmpty();
+        assertThat(rowsAfterDetect).isEqualTo(1);
+        assertThat(repaired.repairedDays()).containsExactly(today);
+        Map<PurchaseStatus, PurchaseDailyRollup> rollups = rollupsByStatus();
+        assertThat(rollups).containsOnlyKeys(PurchaseStatus.COMPLETED, PurchaseStatus.PENDING);
+        assertThat(rollups.get(PurchaseStatus.COMPLETED).getProductId()).isEqualTo(keyboard.getId());
+        assertThat(rollups.get(PurchaseStatus.COMPLETED).getQuantitySum()).isEqualTo(2L);
+        assertThat(rollups.get(PurchaseStatus.PENDING).getTotalAmount()).isEqualByComparingTo("15000");
+        assertThat(purchaseRollupService.reconcile(today.minusDays(1), today, false).isConsistent()).isTrue();
+    }
+
+    @Test
+    @DisplayName("재계산은 호출자 트랜잭션과 분리된 새 트랜잭션에서 커밋되어, 바깥 트랜잭션이 롤백돼도 결과가 남는다")
+    void reconcile_rebuildsInOwnTransaction() {
+        purchase(keyboard, 1, PurchaseStatus.COMPLETED);
+        TransactionTemplate outer = new TransactionTemplate(transactionManager);
+
+        outer.executeWithoutResult(status -> {
+            purchaseRollupService.reconcile(today, today, true);
+            status.setRollbackOnly();
+        });
+
+        assertThat(rollupsByStatus().get(PurchaseStatus.COMPLETED).getOrderCount()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("보정 배치는 최근 N일을 대사해 어긋난 오늘 집계를 원본과 같게 고친다")
+    void catchUpJob_repairsRecentDays() {
+        purchase(keyboard, 1, PurchaseStatus.COMPLETED);
+        purchase(keyboard, 1, PurchaseStatus.COMPLETED);
+        // 증분이 한 번 더 들어가 부풀려진 집계
+        rollupRepository.upsertDelta(today, PurchaseStatus.COMPLETED.name(), keyboard.getId(), null, 3, 3, BigDecimal.valueOf(30_000));
+        PurchaseRollupCatchUpJob job = new PurchaseRollupCatchUpJob(purchaseRollupService);
+        ReflectionTestUtils.setField(job, "catchUpDays", 2);
+
+        job.run();
+
+        PurchaseDailyRollup completed = rollupsByStatus().get(PurchaseStatus.COMPLETED);
+        assertThat(completed.getOrderCount()).isEqualTo(2L);
+        assertThat(completed.getTotalAmount()).isEqualByComparingTo("20000");
+        assertThat(purchaseRollupService.reconcile(today.minusDays(1), today, false).isConsistent()).isTrue();
+    }
+
+    private Purchase purchase(Product product, int quantity, PurchaseStatus status) {
+        BigDecimal total = product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        return purchaseRepository.save(Purchase.builder()
+                .user(buyer)
+                .product(product)
+                .quantity(quantity)
+                .unitPrice(product.getPrice())
+                .totalPrice(total)
+                .status(status)
+                .build());
+    }
+
+    private Purchase refunded(Purchase purchase) {
+        purchase.markRefunded();
+        purchaseRepository.save(purchase);
+        return purchase;
+    }
+
+    private Map<PurchaseStatus, PurchaseDailyRollup> rollupsByStatus() {
+        List<PurchaseDailyRollup> rollups = rollupRepository.findBySalesDate(today);
+        return rollups.stream()
+                .filter(rollup -> rollup.getOrderCount() != 0)
+                .collect(Collectors.toMap(PurchaseDailyRollup::getStatus, Function.identity()));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.study.service.vision;
+
+import com.example.study.common.ServiceExceptionCode;
+import com.example.study.common.TooManyRequestsException;
+import com.example.study.controller.dto.ImageAnalysisResponse;
+import com.example.study.controller.dto.TokenUsage;
+import com.example.study.service.ImageOptimizationService;
+import com.example.study.service.VisionService;
+import com.example.study.service.ai.AiExecutor;
+import com.example.study.service.ai.AiPriority;
+import com.example.study.service.image.ImageBufferPool;
+import com.example.study.service.image.ImageProcessingExecutor;
+import com.example.study.service.image.PreparedImage;
+import com.example.study.service.image.UploadBufferPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MultiImageAnalysisServiceAAATest {
+
+    private static final String PROMPT = "상품 사진마다 배경이 흰색인지, 로고가 가려졌는지 점검해주세요.";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ImageProcessingExecutor imageExecutor =
+            new ImageProcessingExecutor(meterRegistry, 2, 16, 256L * 1024 * 1024, 1_000);
+    private final AiExecutor aiExecutor = new AiExecutor(meterRegistry, 8, 8, 8, Map.of(), Duration.ofSeconds(30), Map.of());
+    private final VisionService visionService = mock(VisionService.class);
+
+    @AfterEach
+    void tearDown() {
+        imageExecutor.shutdown();
+        aiExecutor.shutdown();
+    }
+
+    @Test
+    @DisplayName("[AAA] 이미지 수 상한을 넘으면 장수를 고르게 나누고, 토큰/바이트 상한도 묶음마다 지킨다")
+    void plan_overBudget_splitsEvenlyWithinLimits() throws IOException {
+        // Arrange: 400x800 → 장당 427 토큰
+        List<PreparedImage> images = Collections.nCopies(21, PreparedImage.jpeg(jpeg(400, 800)));
+        long imageRequestBytes = (images.get(0).size() + 2L) / 3 * 4;
+
+        // Act
+        List<ImageGroup> byCount = new ImageGroupPlanner(20, 100_000, Long.MAX_VALUE).plan(images);
+        List<ImageGroup> byTokens = new ImageGroupPlanner(20, 1_000, Long.MAX_VALUE).plan(images.subList(0, 5));
+        List<ImageGroup> byBytes = new ImageGroupPlanner(20, 100_000, imageRequestBytes * 3).plan(images.subList(0, 7));
+
+        // Assert
+        assertThat(byCount).extracting(ImageGroup::size).containsExactly(11, 10);
+        assertThat(byCount.get(1).label()).isEqualTo("12~21");
+        assertThat(byCount.get(0).estimatedTokens()).isEqualTo(11 * 427);
+        assertThat(byTokens).extracting(ImageGroup::size).containsExactly(2, 2, 1);
+        assertThat(byTokens.get(2).label()).isEqualTo("5");
+        assertThat(byBytes).extracting(ImageGroup::size).containsExactly(3, 3, 1);
+        assertThat(byBytes).allMatch(group -> group.requestBytes() <= imageRequestBytes * 3);
+    }
+
+    @Test
+    @DisplayName("[AAA] 한 번에 담을 수 있으면 모든 이미지를 한 메시지로 보내고 응답을 그대로 돌려준다")
+    void analyze_withinBudget_singleCall() throws Exception {
+        // Arrange
+        List<String> prompts = new CopyOnWriteArrayList<>();
+        List<Integer> attached = new CopyOnWriteArrayList<>();
+        when(visionService.analyzeImages(anyString(), anyList(), eq(AiPriority.INTERACTIVE))).thenAnswer(call -> {
+            prompts.add(call.getArgument(0));
+            attached.add(((List<?>) call.getArgument(1)).size());
+            return response("1번: 통과\n2번: 로고 가림\n3번: 통과", 3000);
+        });
+        MultiImageAnalysisService service = newService(20);
+
+        // Act
+        MultiImageAnalysisResponse result = service.analyze(PROMPT, images(3)).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(attached).containsExactly(3);
+        assertThat(prompts.get(0)).startsWith("첨부한 이미지 3장에 첨부 순서대로 1번부터").endsWith(PROMPT);
+        assertThat(result.analysis()).isEqualTo("1번: 통과\n2번: 로고 가림\n3번: 통과");
+        assertThat(result.calls()).isEqualTo(1);
+        assertThat(result.imageCount()).isEqualTo(3);
+        assertThat(result.tokenUsage().totalTokens()).isEqualTo(3000);
+    }
+
+    @Test
+    @DisplayName("[AAA] 상한을 넘으면 나눠 동시에 호출하고 전체 기준 번호로 합치며, 429 는 다시 시도하고 실패한 묶음만 실패로 남긴다")
+    void analyze_overBudget_splitsRetriesAndMerges() throws Exception {
+        // Arrange: 5장을 2장씩 → 1~2, 3~4, 5. 5번 묶음은 처음엔 429, 다시 시도하면 모델 오류.
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger lastGroupCalls = new AtomicInteger();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(visionService.analyzeImages(anyString(), anyList(), eq(AiPriority.INTERACTIVE))).thenAnswer(call -> {
+            String prompt = call.getArgument(0);
+            calls.incrementAndGet();
+            if (prompt.contains("전체 5장 중 5번")) {
+                if (lastGroupCalls.incrementAndGet() == 1) {
+                    throw new TooManyRequestsException(ServiceExceptionCode.AI_BACKEND_OVERLOADED);
+                }
+                throw new IllegalStateException("model error");
+            }
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(100);
+            running.decrementAndGet();
+            return response(prompt.contains("1~2번") ? "1번, 2번 통과" : "3번, 4번 통과", 1000);
+        });
+        MultiImageAnalysisService service = newService(2);
+
+        // Act
+        MultiImageAnalysisResponse result = service.analyze(PROMPT, images(5)).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertThat(result.calls()).isEqualTo(3);
+        assertThat(calls.get()).isEqualTo(4);
+        assertThat(result.groups()).extracting(ImageGroupResult::succeeded).containsExactly(true, true, false);
+        assertThat(result.analysis()).isEqualTo("""
+                ### 이미지 1~2
+                1번, 2번 통과
+
+                ### 이미지 3~4
+                3번, 4번 통과
+
+                ### 이미지 5
+                분석 실패: model error""");
+        assertThat(result.tokenUsage().totalTokens()).isEqualTo(2000);
+        assertThat(maxRunning.get()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("[AAA] 이미지가 아닌 파일이 섞여 있으면 모델을 부르지 않고 요청 전체를 거절한다")
+    void analyze_nonImage_rejectsWholeRequest() throws IOException {
+        // Arrange
+        List<MultipartFile> files = new ArrayList<>(images(2));
+        files.add(new MockMultipartFile("images", "notes.txt", "text/plain", new byte[]{1, 2, 3}));
+        MultiImageAnalysisService service = newService(20);
+
+        // Act & Assert
+        assertThatThrownBy(() -> service.analyze(PROMPT, files).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasRootCauseMessage("이미지 파일만 업로드 가능합니다");
+    }
+
+    private MultiImageAnalysisService newService(int maxImagesPerCall) {
+        return new MultiImageAnalysisService(
+                new ImageOptimizationService(new ImageBufferPool(4, 512, 4096), imageExecutor,
+                        new UploadBufferPool(meterRegistry, 16, 64, 4096, "")),
+                visionService, aiExecutor, 10, maxImagesPerCall, 100_000, 24, 2, 2, 3);
+    }
+
+    private static ImageAnalysisResponse<String> response(String analysis, int totalTokens) {
+        return ImageAnalysisResponse.of(analysis, "image/jpeg", 1024, new TokenUsage(totalTokens - 100, 100, totalTokens));
+    }
+
+    private static List<MultipartFile> images(int count) throws IOException {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(new MockMultipartFile("images", "product-" + i + ".jpg", "image/jpeg", jpeg(400, 800)));
+        }
+        return files;
+    }
+
+    private static byte[] jpeg(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "jpg", out);
+        return out.toByteArray();
+    }
+}